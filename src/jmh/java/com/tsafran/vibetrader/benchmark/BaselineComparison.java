@@ -0,0 +1,97 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/*
+ * Compares a JMH JSON result against the committed baseline: score and allocated bytes per operation for every
+ * benchmark/params pair in either file. To move the baseline, copy target/jmh-result.json over src/jmh/baseline.json
+ * in the commit that changes the numbers, measured on the same machine as the previous one.
+ */
+public final class BaselineComparison {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: BaselineComparison <baseline.json> <result.json>");
+        }
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+        if (baseline.isEmpty()) {
+            System.out.println("Baseline " + args[0] + " is empty, copy " + args[1] + " over it to start one.");
+        }
+
+        System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s %12s %12s%n",
+                "benchmark", "baseline", "current", "change", "base B/op", "cur B/op");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s %12s %12s%n",
+                    entry.getKey(),
+                    before == null ? "-" : format(before.score()) + " " + before.unit(),
+                    format(now.score()) + " " + now.unit(),
+                    before == null ? "new" : change(before.score(), now.score()),
+                    before == null ? "-" : format(before.allocated()),
+                    format(now.allocated()));
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf(Locale.ROOT, "%-70s %s%n", removed, "missing from the current run");
+            }
+        }
+    }
+
+    // Benchmark name plus its params, e.g. IndicatorBenchmark.stateless{bars=1000}
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return results;
+        }
+        JsonNode root = new ObjectMapper().readTree(file.toFile());
+        for (JsonNode run : root) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText()
+                    .replace("com.tsafran.vibetrader.benchmark.", ""));
+            JsonNode params = run.path("params");
+            if (params.isObject() && !params.isEmpty()) {
+                StringJoiner joined = new StringJoiner(",", "{", "}");
+                for (Map.Entry<String, JsonNode> param : params.properties()) {
+                    joined.add(param.getKey() + "=" + param.getValue().asText());
+                }
+                key.append(joined);
+            }
+            JsonNode primary = run.path("primaryMetric");
+            results.put(key.toString(), new Result(
+                    primary.path("score").asDouble(Double.NaN),
+                    primary.path("scoreUnit").asText(),
+                    run.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(Double.NaN)
+            ));
+        }
+        return results;
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    // Lower is better for the time modes the suite uses
+    private static String change(double before, double now) {
+        if (Double.isNaN(before) || Double.isNaN(now) || before == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", (now - before) / before * 100);
+    }
+
+    private record Result(double score, String unit, double allocated) {
+    }
+}
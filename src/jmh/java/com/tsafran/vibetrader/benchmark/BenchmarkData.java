@@ -0,0 +1,89 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.indicators.IndicatorConfig;
+import com.tsafran.vibetrader.indicators.IndicatorType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic inputs shared by the benchmarks, the same seed gives the same market every run
+final class BenchmarkData {
+    static final String SYMBOL = "BTCUSDT";
+    static final long START_TIME = 1_700_000_000_000L / 60_000 * 60_000;
+    static final InstrumentPrecision PRECISION = new InstrumentPrecision(new BigDecimal("0.001"), new BigDecimal("0.1"));
+    static final List<IndicatorConfig> INDICATORS = List.of(
+            new IndicatorConfig(IndicatorType.EMA, 21, null, null, null, null, null, null),
+            new IndicatorConfig(IndicatorType.EMA, 50, null, null, null, null, null, null),
+            new IndicatorConfig(IndicatorType.STOCH_RSI_K, null, null, null, null, 14, 14, 3)
+    );
+
+    private BenchmarkData() {
+    }
+
+    // 1m random walk on a 0.1 tick grid
+    static CandleSeries candles(int bars, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        CandleSeries.Builder builder = CandleSeries.builder(bars);
+        double close = 30_000;
+        for (int i = 0; i < bars; i++) {
+            double open = close;
+            close = onGrid(Math.max(1, open + random.nextDouble(-25, 25)));
+            double high = onGrid(Math.max(open, close) + random.nextDouble(0, 10));
+            double low = onGrid(Math.min(open, close) - random.nextDouble(0, 10));
+            double volume = Math.rint(random.nextDouble(1, 500) * 1000) / 1000;
+            builder.add(START_TIME + i * 60_000L, open, high, low, close, volume, Math.rint(volume * close))
+                    .priceScale(1);
+        }
+        return builder.build();
+    }
+
+    // A /v5/market/kline response for the candles, newest first like Bybit sends it
+    static byte[] klineBody(CandleSeries candles) {
+        StringBuilder json = new StringBuilder(candles.size() * 96);
+        json.append("{\"retCode\":0,\"retMsg\":\"OK\",\"result\":{\"symbol\":\"").append(SYMBOL)
+                .append("\",\"category\":\"linear\",\"list\":[");
+        for (int i = candles.size() - 1; i >= 0; i--) {
+            json.append("[\"").append(candles.startTime(i)).append("\",\"")
+                    .append(price(candles.open(i))).append("\",\"")
+                    .append(price(candles.high(i))).append("\",\"")
+                    .append(price(candles.low(i))).append("\",\"")
+                    .append(price(candles.close(i))).append("\",\"")
+                    .append(BigDecimal.valueOf(candles.volume(i)).toPlainString()).append("\",\"")
+                    .append(BigDecimal.valueOf(candles.turnover(i)).toPlainString()).append("\"]");
+            if (i > 0) {
+                json.append(',');
+            }
+        }
+        json.append("]},\"retExtInfo\":{},\"time\":").append(START_TIME).append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // A /v5/market/instruments-info page with the given number of linear symbols
+    static byte[] instrumentsBody(int instruments) {
+        StringBuilder json = new StringBuilder(instruments * 160);
+        json.append("{\"retCode\":0,\"retMsg\":\"OK\",\"result\":{\"category\":\"linear\",\"list\":[");
+        for (int i = 0; i < instruments; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"symbol\":\"SYM").append(i).append("USDT\",\"status\":\"Trading\",")
+                    .append("\"priceFilter\":{\"minPrice\":\"0.0001\",\"maxPrice\":\"19999\",\"tickSize\":\"0.0001\"},")
+                    .append("\"lotSizeFilter\":{\"maxOrderQty\":\"1000000\",\"minOrderQty\":\"1\",\"qtyStep\":\"1\"}}");
+        }
+        json.append("],\"nextPageCursor\":\"\"},\"retExtInfo\":{},\"time\":").append(START_TIME).append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double onGrid(double price) {
+        return Math.rint(price * 10) / 10;
+    }
+
+    private static String price(double value) {
+        return BigDecimal.valueOf(value).setScale(1, RoundingMode.HALF_UP).toPlainString();
+    }
+}
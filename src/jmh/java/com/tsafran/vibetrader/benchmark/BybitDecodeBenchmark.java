@@ -0,0 +1,48 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.bybit.BybitResponseDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BybitDecodeBenchmark {
+    // 1000 is Bybit's page limit for klines
+    @Param({"200", "1000"})
+    public int bars;
+
+    private byte[] klines;
+    private byte[] instruments;
+
+    @Setup
+    public void setUp() {
+        klines = BenchmarkData.klineBody(BenchmarkData.candles(bars, 1));
+        instruments = BenchmarkData.instrumentsBody(500);
+    }
+
+    @Benchmark
+    public CandleSeries klines() {
+        return BybitResponseDecoder.decodeKlines(klines);
+    }
+
+    @Benchmark
+    public BybitResponseDecoder.InstrumentPage instruments() {
+        return BybitResponseDecoder.decodeInstruments(instruments);
+    }
+}
@@ -0,0 +1,51 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.algo.EngulfingCandleStrategy;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.position.ProposedPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngulfingCandleBenchmark {
+    // Most runs find nothing, a signal additionally builds the proposal
+    @Param({"false", "true"})
+    public boolean signal;
+
+    private final EngulfingCandleStrategy strategy = new EngulfingCandleStrategy();
+    private InMemoryExchange exchange;
+
+    @Setup
+    public void setUp() {
+        CandleSeries.Builder candles = CandleSeries.builder(3);
+        long start = BenchmarkData.START_TIME;
+        candles.add(start, 30_000.0, 30_010.0, 29_990.0, 30_005.0, 10, 300_050);
+        // Bearish, then a bullish body more than twice its size (or a small one for no signal)
+        candles.add(start + 60_000, 30_005.0, 30_008.0, 29_995.0, 29_998.5, 10, 299_985);
+        double close = signal ? 30_020.3 : 30_001.0;
+        candles.add(start + 120_000, 29_998.5, close + 2, 29_996.1, close, 10, close * 10);
+        exchange = new InMemoryExchange(candles.priceScale(1).build(), BenchmarkData.PRECISION, BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public ProposedPosition run() {
+        return strategy.run(BenchmarkData.SYMBOL, exchange);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+// Answers from memory with completed futures, so benchmarks measure our code rather than thread hand-offs
+final class InMemoryExchange implements AsyncExchange {
+    private final CandleSeries candles;
+    private final InstrumentPrecision precision;
+    private final BigDecimal balance;
+
+    InMemoryExchange(CandleSeries candles, InstrumentPrecision precision, BigDecimal balance) {
+        this.candles = candles;
+        this.precision = precision;
+        this.balance = balance;
+    }
+
+    @Override
+    public CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
+        return candles.size() > limit ? candles.tail(limit) : candles;
+    }
+
+    @Override
+    public OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+        throw new UnsupportedOperationException("Benchmarks never place orders");
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(WalletBalanceRequest request) {
+        return balance;
+    }
+
+    @Override
+    public InstrumentPrecision getInstrumentPrecision(String symbol) {
+        return precision;
+    }
+
+    @Override
+    public boolean hasOpenOrders(String symbol) {
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit
+    ) {
+        return CompletableFuture.completedFuture(getCandles(symbol, category, interval, limit));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getWalletBalanceAsync(WalletBalanceRequest request) {
+        return CompletableFuture.completedFuture(balance);
+    }
+
+    @Override
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        return CompletableFuture.completedFuture(precision);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenOrdersAsync(String symbol) {
+        return CompletableFuture.completedFuture(false);
+    }
+}
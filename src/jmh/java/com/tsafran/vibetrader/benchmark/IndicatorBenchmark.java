@@ -0,0 +1,92 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.indicators.BatchIndicatorEngine;
+import com.tsafran.vibetrader.indicators.IncrementalIndicatorEngine;
+import com.tsafran.vibetrader.indicators.IndicatorResultCache;
+import com.tsafran.vibetrader.indicators.IndicatorSeries;
+import com.tsafran.vibetrader.indicators.IndicatorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorBenchmark {
+    private static final ExchangeInterval INTERVAL = ExchangeInterval.ONE_MINUTE;
+    private static final int BATCH_SYMBOLS = 32;
+
+    @Param({"200", "1000", "5000"})
+    public int bars;
+
+    private IndicatorService service;
+    private IncrementalIndicatorEngine engine;
+    private CandleSeries candles;
+    // The same bars with the forming one at two different closes, as consecutive stream updates see it
+    private CandleSeries[] revisions;
+    private int revision;
+    private Map<String, CandleSeries> symbols;
+
+    @Setup
+    public void setUp() {
+        engine = new IncrementalIndicatorEngine(30, 64);
+        service = new IndicatorService(engine, new IndicatorResultCache(512), new BatchIndicatorEngine(true));
+        candles = BenchmarkData.candles(bars, 1);
+
+        CandleSeries.Builder revised = CandleSeries.builder(bars);
+        for (int i = 0; i < bars; i++) {
+            double close = i == bars - 1 ? candles.close(i) + 0.1 : candles.close(i);
+            revised.add(candles.startTime(i), candles.open(i), Math.max(candles.high(i), close), candles.low(i),
+                    close, candles.volume(i), candles.turnover(i)).priceScale(candles.priceScale());
+        }
+        revisions = new CandleSeries[]{candles, revised.build()};
+
+        symbols = new LinkedHashMap<>();
+        for (int symbol = 0; symbol < BATCH_SYMBOLS; symbol++) {
+            symbols.put("SYM" + symbol + "USDT", BenchmarkData.candles(bars, symbol + 1));
+        }
+    }
+
+    // Full ta4j recomputation
+    @Benchmark
+    public List<IndicatorSeries> stateless() {
+        return service.computeIndicatorSeries(candles, INTERVAL, BenchmarkData.INDICATORS);
+    }
+
+    // Unchanged candles, answered from the result cache
+    @Benchmark
+    public List<IndicatorSeries> cached() {
+        return service.computeIndicatorSeries(BenchmarkData.SYMBOL, candles, INTERVAL, BenchmarkData.INDICATORS);
+    }
+
+    // A revised forming bar, the incremental state replaces one value per node on a copy of the rows handed out
+    @Benchmark
+    public IndicatorSeries formingBarUpdate() {
+        revision ^= 1;
+        return engine.series(BenchmarkData.SYMBOL, INTERVAL, BenchmarkData.INDICATORS.get(2), revisions[revision]);
+    }
+
+    // Stateless, all symbols at once with the batch kernels
+    @Benchmark
+    public Map<String, List<IndicatorSeries>> batch() {
+        return service.computeIndicatorSeries(symbols, BenchmarkData.INDICATORS);
+    }
+}
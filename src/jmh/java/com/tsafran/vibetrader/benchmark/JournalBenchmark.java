@@ -0,0 +1,64 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.algo.EngulfingCandleStrategy;
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.journal.JournalingExchange;
+import com.tsafran.vibetrader.journal.MarketDataJournal;
+import com.tsafran.vibetrader.position.ProposedPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// The strategy's candle fetch with and without the journal in front of the exchange, the difference is the hot-path cost
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+    @Param({"false", "true"})
+    public boolean journaled;
+
+    private final EngulfingCandleStrategy strategy = new EngulfingCandleStrategy();
+    private MarketDataJournal journal;
+    private AsyncExchange exchange;
+
+    @Setup
+    public void setUp() throws IOException {
+        CandleSeries candles = BenchmarkData.candles(200, 1);
+        InMemoryExchange inMemory = new InMemoryExchange(candles, BenchmarkData.PRECISION, BigDecimal.ONE);
+        journal = new MarketDataJournal(
+                journaled,
+                Files.createTempDirectory("journal-benchmark").toString(),
+                65_536,
+                200
+        );
+        exchange = journaled ? JournalingExchange.wrap(inMemory, journal) : inMemory;
+    }
+
+    @TearDown
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Benchmark
+    public ProposedPosition run() {
+        return strategy.run(BenchmarkData.SYMBOL, exchange);
+    }
+}
@@ -0,0 +1,51 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.position.PositionService;
+import com.tsafran.vibetrader.position.ProposedPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionBenchmark {
+    private PositionService positionService;
+    private ProposedPosition proposal;
+
+    @Setup
+    public void setUp() {
+        positionService = new PositionService(
+                new InMemoryExchange(CandleSeries.empty(), BenchmarkData.PRECISION, new BigDecimal("10432.5561"))
+        );
+        // Off-grid prices, as an AI proposal would send them
+        proposal = new ProposedPosition(
+                BenchmarkData.SYMBOL,
+                ExchangeOrderSide.LONG,
+                new BigDecimal("30012.37"),
+                new BigDecimal("30480.912"),
+                new BigDecimal("29790.05")
+        );
+    }
+
+    @Benchmark
+    public FuturesMarketOrderRequest buildMarketOrder() {
+        return positionService.buildMarketOrder(proposal);
+    }
+}
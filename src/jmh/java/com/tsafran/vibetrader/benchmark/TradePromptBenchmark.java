@@ -0,0 +1,87 @@
+package com.tsafran.vibetrader.benchmark;
+
+import com.tsafran.vibetrader.ai.AiTradeProposal;
+import com.tsafran.vibetrader.ai.AiTradeService;
+import com.tsafran.vibetrader.ai.TradeAiConfigService;
+import com.tsafran.vibetrader.ai.TradeAiSettings;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.indicators.BatchIndicatorEngine;
+import com.tsafran.vibetrader.indicators.IncrementalIndicatorEngine;
+import com.tsafran.vibetrader.indicators.IndicatorResultCache;
+import com.tsafran.vibetrader.indicators.IndicatorService;
+import com.tsafran.vibetrader.position.PositionService;
+import com.tsafran.vibetrader.trade.AiTradeExecutionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// One AI trade run up to the model call: candles, indicators and the prompt, the model declines every time
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradePromptBenchmark {
+    @Param({"80", "500"})
+    public int candleLookback;
+
+    private AiTradeExecutionService executionService;
+    private String prompt;
+
+    @Setup
+    public void setUp() {
+        TradeAiSettings settings = new TradeAiSettings(
+                "Benchmark strategy",
+                candleLookback,
+                candleLookback + 50,
+                ExchangeInterval.FIFTEEN_MINUTES,
+                60,
+                BenchmarkData.INDICATORS
+        );
+        InMemoryExchange exchange = new InMemoryExchange(
+                BenchmarkData.candles(candleLookback + 50, 1),
+                BenchmarkData.PRECISION,
+                BigDecimal.ONE
+        );
+        AiTradeService aiTradeService = (symbol, systemMessage, userMessage) -> {
+            prompt = userMessage;
+            return new AiTradeProposal("benchmark", 0, null);
+        };
+        TradeAiConfigService configService = new TradeAiConfigService(null, null) {
+            @Override
+            public TradeAiSettings loadConfig(String configName) {
+                return settings;
+            }
+        };
+        IndicatorService indicatorService = new IndicatorService(
+                new IncrementalIndicatorEngine(30, 64),
+                new IndicatorResultCache(512),
+                new BatchIndicatorEngine(true)
+        );
+        executionService = new AiTradeExecutionService(
+                exchange,
+                aiTradeService,
+                new PositionService(exchange),
+                configService,
+                indicatorService
+        );
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        executionService.craftAndPlaceTrade(BenchmarkData.SYMBOL, null);
+        return prompt;
+    }
+}
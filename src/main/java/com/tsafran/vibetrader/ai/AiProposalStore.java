@@ -0,0 +1,304 @@
+package com.tsafran.vibetrader.ai;
+
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.position.ProposedPosition;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/*
+ * AI proposals on disk, addressed by the SHA-256 of what produced them (see CachingAiTradeService).
+ * Each run that stores something appends to its own segment under ai.cache.dir, laid out as
+ *   header (plain): magic int, version int, creation time long
+ *   body (deflate, sync-flushed after every entry): key (32 bytes), reasoning, certainty byte, then a position flag
+ *     and, when set, symbol, side ordinal, entry, take profit and stop loss as length-prefixed UTF-8 strings
+ * Every segment is loaded at startup, a later entry for the same key wins. A torn tail is ignored.
+ * compact() folds the segments into one.
+ */
+@Component
+public class AiProposalStore {
+    static final int KEY_SIZE = 32;
+
+    private static final Logger logger = LoggerFactory.getLogger(AiProposalStore.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final String SEGMENT_PREFIX = "proposals-";
+    private static final String SEGMENT_SUFFIX = ".vta";
+    private static final int MAGIC = 0x56544131;
+    private static final int VERSION = 1;
+
+    private final Path directory;
+    private final Map<Key, AiTradeProposal> proposals = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private Path segment;
+    private DataOutputStream out;
+
+    public AiProposalStore(@Value("${ai.cache.dir:data/ai-cache}") String directory) {
+        this.directory = Path.of(directory);
+        List<Path> segments = segments();
+        for (Path path : segments) {
+            read(path);
+        }
+        if (!proposals.isEmpty()) {
+            logger.info("Loaded {} cached AI proposal(s) from {} segment(s) in {}", proposals.size(), segments.size(), directory);
+        }
+    }
+
+    public record Key(byte[] hash) {
+        public Key {
+            if (hash == null || hash.length != KEY_SIZE) {
+                throw new IllegalArgumentException("hash must be " + KEY_SIZE + " bytes");
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && Arrays.equals(hash, key.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            // Already uniformly distributed
+            return (hash[0] & 0xFF) << 24 | (hash[1] & 0xFF) << 16 | (hash[2] & 0xFF) << 8 | hash[3] & 0xFF;
+        }
+
+        @Override
+        public String toString() {
+            return HexFormat.of().formatHex(hash);
+        }
+    }
+
+    public int size() {
+        return proposals.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public AiTradeProposal get(Key key) {
+        return proposals.get(key);
+    }
+
+    public synchronized void put(Key key, AiTradeProposal proposal) {
+        AiTradeProposal previous = proposals.put(key, proposal);
+        if (proposal.equals(previous)) {
+            return;
+        }
+        try {
+            if (out == null) {
+                segment = newSegment();
+                out = open(segment);
+            }
+            write(out, key, proposal);
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to store AI proposal in " + segment, ex);
+        }
+    }
+
+    // Rewrites every entry into a single segment and removes the others, returns how many segments were folded
+    public synchronized int compact() {
+        List<Path> old = segments();
+        if (old.size() <= 1) {
+            return 0;
+        }
+        closeSegment();
+        Path compacted = newSegment();
+        try (DataOutputStream target = open(compacted)) {
+            for (Map.Entry<Key, AiTradeProposal> entry : proposals.entrySet()) {
+                write(target, entry.getKey(), entry.getValue());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to compact AI proposal cache into " + compacted, ex);
+        }
+        for (Path path : old) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to remove compacted segment " + path, ex);
+            }
+        }
+        logger.info("Compacted {} AI proposal segment(s) into {}", old.size(), compacted);
+        return old.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    private void closeSegment() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException ex) {
+            logger.warn("Failed to close AI proposal segment {}", segment, ex);
+        }
+        out = null;
+        segment = null;
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // The file time sorts lexically, so later segments are read last and win
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to list AI proposal cache " + directory, ex);
+        }
+    }
+
+    private Path newSegment() {
+        Path path = directory.resolve(SEGMENT_PREFIX + FILE_TIME.format(Instant.now()) + SEGMENT_SUFFIX);
+        for (int attempt = 1; Files.exists(path); attempt++) {
+            path = directory.resolve(SEGMENT_PREFIX + FILE_TIME.format(Instant.now()) + '-' + attempt + SEGMENT_SUFFIX);
+        }
+        return path;
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        OutputStream file = new BufferedOutputStream(Files.newOutputStream(path));
+        DataOutputStream header = new DataOutputStream(file);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeLong(System.currentTimeMillis());
+        header.flush();
+        return new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(file, new Deflater(Deflater.BEST_COMPRESSION), 1 << 12, true),
+                1 << 12
+        ));
+    }
+
+    private void read(Path path) {
+        int entries = 0;
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream header = new DataInputStream(file);
+            if (header.readInt() != MAGIC) {
+                throw new IllegalStateException("Not an AI proposal segment: " + path);
+            }
+            int version = header.readInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported AI proposal segment version " + version + ": " + path);
+            }
+            header.readLong();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(file), 1 << 12));
+            byte[] hash = new byte[KEY_SIZE];
+            while (true) {
+                try {
+                    in.readFully(hash);
+                } catch (EOFException ex) {
+                    break;
+                }
+                proposals.put(new Key(hash.clone()), readProposal(in));
+                entries++;
+            }
+        } catch (EOFException ex) {
+            logger.warn("AI proposal segment {} ends mid-entry, kept the first {}", path, entries);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read AI proposal segment " + path, ex);
+        }
+    }
+
+    private static void write(DataOutputStream out, Key key, AiTradeProposal proposal) throws IOException {
+        out.write(key.hash());
+        writeString(out, proposal.reasoning());
+        out.writeByte(proposal.certaintyPercent());
+        ProposedPosition position = proposal.proposedPosition();
+        out.writeBoolean(position != null);
+        if (position != null) {
+            writeString(out, position.symbol());
+            out.writeByte(position.side().ordinal());
+            writeString(out, position.entryPrice().toString());
+            writeString(out, position.takeProfitPrice().toString());
+            writeString(out, position.stopLossPrice().toString());
+        }
+    }
+
+    private static AiTradeProposal readProposal(DataInputStream in) throws IOException {
+        String reasoning = readString(in);
+        int certaintyPercent = in.readUnsignedByte();
+        ProposedPosition position = null;
+        if (in.readBoolean()) {
+            position = new ProposedPosition(
+                    readString(in),
+                    ExchangeOrderSide.values()[in.readUnsignedByte()],
+                    new BigDecimal(readString(in)),
+                    new BigDecimal(readString(in)),
+                    new BigDecimal(readString(in))
+            );
+        }
+        return new AiTradeProposal(reasoning, certaintyPercent, position);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readUnsigned(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUnsigned(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readUnsigned(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed length in AI proposal segment");
+    }
+}
@@ -0,0 +1,122 @@
+package com.tsafran.vibetrader.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Puts the proposal store in front of the model. A proposal is addressed by the SHA-256 of the model options,
+ * the symbol, the system message and the user message, so the same prompt on the same model gets the same answer
+ * back, and a replayed run (same candles, same config) asks for exactly what the live one did.
+ *   - ai.cache.mode=record: always asks the model, stores what it answers (the default, so live runs fill the cache)
+ *   - ai.cache.mode=read-write: answers from the store when it can, asks the model and stores the answer otherwise
+ *   - ai.cache.mode=cache-only: never asks the model, a prompt the store has no answer for is an error
+ *   - ai.cache.mode=off: the store is not touched
+ */
+@Service
+@Primary
+public class CachingAiTradeService implements AiTradeService {
+    private static final Logger logger = LoggerFactory.getLogger(CachingAiTradeService.class);
+
+    public enum Mode {
+        OFF,
+        RECORD,
+        READ_WRITE,
+        CACHE_ONLY
+    }
+
+    private final OpenAiTradeService model;
+    private final AiProposalStore store;
+    private final Mode mode;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingAiTradeService(
+            OpenAiTradeService model,
+            AiProposalStore store,
+            @Value("${ai.cache.mode:record}") String mode
+    ) {
+        this.model = model;
+        this.store = store;
+        this.mode = parseMode(mode);
+        if (this.mode != Mode.RECORD) {
+            logger.info("AI proposal cache mode {}", this.mode);
+        }
+    }
+
+    public record Stats(Mode mode, int entries, long hits, long misses) {
+    }
+
+    public Stats stats() {
+        return new Stats(mode, store.size(), hits.sum(), misses.sum());
+    }
+
+    @Override
+    public AiTradeProposal proposeTrade(String symbol, String systemMessage, String userMessage) {
+        Objects.requireNonNull(systemMessage, "systemMessage");
+        Objects.requireNonNull(userMessage, "userMessage");
+        if (mode == Mode.OFF) {
+            return model.proposeTrade(symbol, systemMessage, userMessage);
+        }
+
+        AiProposalStore.Key key = key(model.getOptionsFingerprint(), symbol, systemMessage, userMessage);
+        if (mode != Mode.RECORD) {
+            AiTradeProposal cached = store.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            if (mode == Mode.CACHE_ONLY) {
+                throw new IllegalStateException(
+                        "No cached AI proposal for " + symbol + " (key " + key + ") and ai.cache.mode=cache-only"
+                );
+            }
+        }
+
+        AiTradeProposal proposal = model.proposeTrade(symbol, systemMessage, userMessage);
+        store.put(key, proposal);
+        return proposal;
+    }
+
+    static AiProposalStore.Key key(String options, String symbol, String systemMessage, String userMessage) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        // Each part is length-prefixed so moving text from one part to the next changes the key
+        for (String part : new String[]{options, symbol == null ? "" : symbol, systemMessage, userMessage}) {
+            byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+            digest.update(new byte[]{
+                    (byte) (bytes.length >>> 24),
+                    (byte) (bytes.length >>> 16),
+                    (byte) (bytes.length >>> 8),
+                    (byte) bytes.length
+            });
+            digest.update(bytes);
+        }
+        return new AiProposalStore.Key(digest.digest());
+    }
+
+    private static Mode parseMode(String mode) {
+        try {
+            return Mode.valueOf(mode.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(
+                    "ai.cache.mode must be off, record, read-write or cache-only, got: " + mode,
+                    ex
+            );
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class OpenAiTradeService implements AiTradeService {
     private final ChatClient chatClient;
     private final BeanOutputConverter<AiTradeResponse> outputConverter;
     private final OpenAiChatOptions chatOptions;
+    private final String optionsFingerprint;
 
     public OpenAiTradeService(ChatClient.Builder builder, ObjectMapper objectMapper) {
         this.chatClient = builder.build();
@@ -37,6 +38,18 @@ public class OpenAiTradeService implements AiTradeService {
                                 .build())
                         .build())
                 .build();
+        this.optionsFingerprint = String.join(
+                "\n",
+                "model=" + chatOptions.getModel(),
+                "reasoningEffort=" + chatOptions.getReasoningEffort(),
+                "temperature=" + chatOptions.getTemperature(),
+                "schema=" + SCHEMA_NAME + ' ' + outputConverter.getJsonSchema()
+        );
+    }
+
+    // Everything about the request besides the messages that decides the answer, see CachingAiTradeService
+    public String getOptionsFingerprint() {
+        return optionsFingerprint;
     }
 
     @Override
@@ -1,9 +1,25 @@
 package com.tsafran.vibetrader.algo;
 
+import com.tsafran.vibetrader.exchange.Exchange;
 import com.tsafran.vibetrader.position.ProposedPosition;
 
+import java.util.List;
+import java.util.Map;
+
 public interface AlgoStrategy {
     String ENGULFING_CANDLE = "engulfingCandleStrategy";
 
-    ProposedPosition run(String symbol);
+    // Market data comes from the exchange handed in, the live one or a backtest replay
+    ProposedPosition run(String symbol, Exchange exchange);
+
+    // Inputs a parameter sweep may tune, none by default
+    default List<StrategyParameter> parameters() {
+        return List.of();
+    }
+
+    // A copy running with the given values, unset parameters keep their defaults
+    default AlgoStrategy withParameters(Map<String, Double> values) {
+        StrategyParameter.requireKnown(parameters(), values);
+        return this;
+    }
 }
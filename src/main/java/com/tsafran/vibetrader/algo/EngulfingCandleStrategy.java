@@ -1,64 +1,112 @@
 package com.tsafran.vibetrader.algo;
 
+import com.tsafran.vibetrader.exchange.CandleSeries;
 import com.tsafran.vibetrader.exchange.Exchange;
 import com.tsafran.vibetrader.exchange.ExchangeCategory;
 import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
-import com.tsafran.vibetrader.exchange.Ohlcv;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.TickGrid;
 import com.tsafran.vibetrader.position.ProposedPosition;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.util.Comparator;
+import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
 
 @Component(AlgoStrategy.ENGULFING_CANDLE)
-@RequiredArgsConstructor
 public class EngulfingCandleStrategy implements AlgoStrategy {
-    private final Exchange exchange;
+    private static final StrategyParameter REWARD_TO_RISK = new StrategyParameter("rewardToRisk", 1.1, 0.1, 10);
+    // How many times the previous candle's body the engulfing body must be
+    private static final StrategyParameter BODY_MULTIPLIER = new StrategyParameter("bodyMultiplier", 2.0, 0.5, 10);
+
+    private final double rewardToRisk;
+    private final double bodyMultiplier;
+
+    public EngulfingCandleStrategy() {
+        this(REWARD_TO_RISK.defaultValue(), BODY_MULTIPLIER.defaultValue());
+    }
+
+    private EngulfingCandleStrategy(double rewardToRisk, double bodyMultiplier) {
+        this.rewardToRisk = rewardToRisk;
+        this.bodyMultiplier = bodyMultiplier;
+    }
 
     @Override
-    public ProposedPosition run(String symbol) {
-        final BigDecimal RR = new BigDecimal("1.1");
+    public List<StrategyParameter> parameters() {
+        return List.of(REWARD_TO_RISK, BODY_MULTIPLIER);
+    }
 
-        List<Ohlcv> klines = exchange.getKlines(symbol, ExchangeCategory.LINEAR, ExchangeInterval.ONE_MINUTE, 3);
+    @Override
+    public AlgoStrategy withParameters(Map<String, Double> values) {
+        StrategyParameter.requireKnown(parameters(), values);
+        return new EngulfingCandleStrategy(REWARD_TO_RISK.resolve(values), BODY_MULTIPLIER.resolve(values));
+    }
+
+    @Override
+    public ProposedPosition run(String symbol, Exchange exchange) {
+        CandleSeries klines = exchange.getCandles(symbol, ExchangeCategory.LINEAR, ExchangeInterval.ONE_MINUTE, 3);
         if (klines.size() < 2) {
             return null;
         }
 
-        klines = klines.stream()
-                .sorted(Comparator.comparingLong(Ohlcv::startTime))
-                .toList();
+        InstrumentPrecision precision = exchange.getInstrumentPrecision(symbol);
+        if (precision == null) {
+            return null;
+        }
+        // Compared in whole ticks, so a body of exactly twice the previous one is not lost to float noise
+        TickGrid grid = TickGrid.of(precision);
 
-        Ohlcv prev = klines.get(klines.size() - 2);
-        Ohlcv curr = klines.getLast();
+        int prev = klines.size() - 2;
+        int curr = klines.size() - 1;
 
-        boolean prevBearish = prev.close().compareTo(prev.open()) < 0;
+        long prevOpen = grid.ticks(klines.open(prev), RoundingMode.HALF_UP);
+        long prevClose = grid.ticks(klines.close(prev), RoundingMode.HALF_UP);
+        long currOpen = grid.ticks(klines.open(curr), RoundingMode.HALF_UP);
+        long currClose = grid.ticks(klines.close(curr), RoundingMode.HALF_UP);
+
+        boolean prevBearish = prevClose < prevOpen;
         boolean prevBullish = !prevBearish;
-        boolean currBearish = curr.close().compareTo(curr.open()) < 0;
+        boolean currBearish = currClose < currOpen;
         boolean currBullish = !currBearish;
 
-        BigDecimal prevBody = prev.close().subtract(prev.open()).abs();
-        BigDecimal currBody = curr.close().subtract(curr.open()).abs();
-        BigDecimal requiredBodySize = prevBody.multiply(new BigDecimal("2.0"));
+        long prevBody = Math.abs(prevClose - prevOpen);
+        long currBody = Math.abs(currClose - currOpen);
+        double requiredBodySize = prevBody * bodyMultiplier;
 
-        if (currBullish && prevBearish && currBody.compareTo(requiredBodySize) >= 0) {
-            BigDecimal stopLoss = curr.low();
-            BigDecimal risk = curr.close().subtract(stopLoss);
-            BigDecimal takeProfit = curr.close().add(risk.multiply(RR));
-            return new ProposedPosition(symbol, ExchangeOrderSide.LONG, curr.close(), takeProfit, stopLoss);
+        if (currBullish && prevBearish && currBody >= requiredBodySize) {
+            long stopLoss = grid.ticks(klines.low(curr), RoundingMode.HALF_UP);
+            long risk = currClose - stopLoss;
+            long takeProfit = grid.ticks(grid.price(currClose) + grid.price(risk) * rewardToRisk, RoundingMode.HALF_UP);
+            return toPosition(grid, symbol, ExchangeOrderSide.LONG, currClose, takeProfit, stopLoss);
         }
 
-        if (currBearish && prevBullish && currBody.compareTo(requiredBodySize) >= 0) {
-            BigDecimal stopLoss = curr.high();
-            BigDecimal risk = stopLoss.subtract(curr.close());
-            BigDecimal takeProfit = curr.close().subtract(risk.multiply(RR));
-            return new ProposedPosition(symbol, ExchangeOrderSide.SHORT, curr.close(), takeProfit, stopLoss);
+        if (currBearish && prevBullish && currBody >= requiredBodySize) {
+            long stopLoss = grid.ticks(klines.high(curr), RoundingMode.HALF_UP);
+            long risk = stopLoss - currClose;
+            long takeProfit = grid.ticks(grid.price(currClose) - grid.price(risk) * rewardToRisk, RoundingMode.HALF_UP);
+            return toPosition(grid, symbol, ExchangeOrderSide.SHORT, currClose, takeProfit, stopLoss);
         }
 
         return null;
     }
+
+    private ProposedPosition toPosition(
+            TickGrid grid,
+            String symbol,
+            ExchangeOrderSide side,
+            long entry,
+            long takeProfit,
+            long stopLoss
+    ) {
+        return new ProposedPosition(
+                symbol,
+                side,
+                grid.toPrice(entry),
+                grid.toPrice(takeProfit),
+                grid.toPrice(stopLoss)
+        );
+    }
 }
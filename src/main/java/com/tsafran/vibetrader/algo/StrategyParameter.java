@@ -0,0 +1,42 @@
+package com.tsafran.vibetrader.algo;
+
+import java.util.List;
+import java.util.Map;
+
+// A tunable strategy input and the range a sweep may move it in
+public record StrategyParameter(
+        String name,
+        double defaultValue,
+        double min,
+        double max
+) {
+    public StrategyParameter {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name must be provided");
+        }
+        if (!(min <= defaultValue && defaultValue <= max)) {
+            throw new IllegalArgumentException(name + " default must be within [min, max]");
+        }
+    }
+
+    // The value from the map, or the default when it isn't set
+    public double resolve(Map<String, Double> values) {
+        Double value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(min <= value && value <= max)) {
+            throw new IllegalArgumentException(name + " must be within [" + min + ", " + max + "]: " + value);
+        }
+        return value;
+    }
+
+    public static void requireKnown(List<StrategyParameter> parameters, Map<String, Double> values) {
+        for (String name : values.keySet()) {
+            if (parameters.stream().noneMatch(parameter -> parameter.name().equals(name))) {
+                throw new IllegalArgumentException("Unknown parameter: " + name + ". Available parameters: "
+                        + parameters.stream().map(StrategyParameter::name).toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.algo.AlgoStrategy;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+import com.tsafran.vibetrader.position.PositionService;
+import com.tsafran.vibetrader.position.ProposedPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Replays one symbol's candles bar by bar. While flat the strategy runs on every closed bar, a proposal is sized by
+ * PositionService and filled at that bar's close as a market order (taker fee). From the next bar on the position's
+ * stop loss (taker) and take profit (post-only limit, maker) are checked against each bar's range:
+ *   - a bar that gaps through the stop fills at its open, the take profit is a resting limit and fills at its price
+ *   - a bar that reaches both levels is taken as stopped out, the range doesn't tell which came first
+ * One position at a time, like the live algo trader which skips symbols with open orders.
+ * A hole in the candles (the next bar starting more than one interval later) splits the replay: a position still open
+ * is closed at the last bar before it, and the strategy only sees bars from after it.
+ */
+public final class BacktestEngine {
+    private final AlgoStrategy strategy;
+    private final String symbol;
+    private final ExchangeInterval interval;
+    private final CandleSeries candles;
+    private final BacktestExchange exchange;
+    private final PositionService positionService;
+    private final double startingBalance;
+
+    private final List<BacktestTrade> trades = new ArrayList<>();
+    private long[] equityTimes = new long[16];
+    private double[] equity = new double[16];
+    private int equityPoints;
+
+    private double cash;
+    private double peak;
+    private double maxDrawdown;
+    private int gaps;
+    // First bar after the latest hole
+    private int segmentStart;
+
+    // The open position, side is null while flat
+    private ExchangeOrderSide side;
+    private long entryTime;
+    private double quantity;
+    private double entryPrice;
+    private double takeProfit;
+    private double stopLoss;
+    private double entryFee;
+
+    private BacktestEngine(
+            AlgoStrategy strategy,
+            String symbol,
+            ExchangeInterval interval,
+            CandleSeries candles,
+            InstrumentPrecision precision,
+            double startingBalance
+    ) {
+        this.strategy = Objects.requireNonNull(strategy, "strategy");
+        this.symbol = Objects.requireNonNull(symbol, "symbol");
+        this.interval = Objects.requireNonNull(interval, "interval");
+        this.candles = Objects.requireNonNull(candles, "candles");
+        this.exchange = new BacktestExchange(symbol, interval, candles, Objects.requireNonNull(precision, "precision"));
+        this.positionService = new PositionService(exchange);
+        this.startingBalance = startingBalance;
+        this.cash = startingBalance;
+        this.peak = startingBalance;
+    }
+
+    public static BacktestResult run(
+            AlgoStrategy strategy,
+            String symbol,
+            ExchangeInterval interval,
+            CandleSeries candles,
+            InstrumentPrecision precision,
+            double startingBalance
+    ) {
+        if (!(startingBalance > 0)) {
+            throw new IllegalArgumentException("startingBalance must be positive");
+        }
+        return new BacktestEngine(strategy, symbol, interval, candles, precision, startingBalance).replay();
+    }
+
+    private BacktestResult replay() {
+        int bars = candles.size();
+        if (bars > 0) {
+            addEquityPoint(candles.startTime(0), cash);
+        }
+        for (int i = 0; i < bars; i++) {
+            if (i > 0 && candles.startTime(i) != CandleResampler.nextBucketStart(candles.startTime(i - 1), interval)) {
+                gap(i);
+            }
+            if (side != null) {
+                checkExit(i);
+            }
+            markToMarket(candles.close(i));
+            if (side == null) {
+                evaluate(i);
+            }
+        }
+        if (side != null) {
+            int last = bars - 1;
+            close(candles.startTime(last), candles.close(last), PositionService.TAKER_FEE, BacktestTrade.ExitReason.END_OF_DATA);
+        }
+
+        return new BacktestResult(
+                symbol,
+                bars,
+                gaps,
+                startingBalance,
+                cash,
+                maxDrawdown,
+                trades,
+                Arrays.copyOf(equityTimes, equityPoints),
+                Arrays.copyOf(equity, equityPoints)
+        );
+    }
+
+    private void checkExit(int bar) {
+        double open = candles.open(bar);
+        double high = candles.high(bar);
+        double low = candles.low(bar);
+        long time = candles.startTime(bar);
+        if (side == ExchangeOrderSide.LONG) {
+            if (low <= stopLoss) {
+                close(time, Math.min(open, stopLoss), PositionService.TAKER_FEE, BacktestTrade.ExitReason.STOP_LOSS);
+            } else if (high >= takeProfit) {
+                close(time, takeProfit, PositionService.MAKER_FEE, BacktestTrade.ExitReason.TAKE_PROFIT);
+            }
+        } else {
+            if (high >= stopLoss) {
+                close(time, Math.max(open, stopLoss), PositionService.TAKER_FEE, BacktestTrade.ExitReason.STOP_LOSS);
+            } else if (low <= takeProfit) {
+                close(time, takeProfit, PositionService.MAKER_FEE, BacktestTrade.ExitReason.TAKE_PROFIT);
+            }
+        }
+    }
+
+    private void gap(int bar) {
+        gaps++;
+        segmentStart = bar;
+        if (side != null) {
+            int last = bar - 1;
+            close(candles.startTime(last), candles.close(last), PositionService.TAKER_FEE, BacktestTrade.ExitReason.DATA_GAP);
+        }
+    }
+
+    private void evaluate(int bar) {
+        exchange.at(segmentStart, bar, cash, false);
+        ProposedPosition proposal = strategy.run(symbol, exchange);
+        if (proposal == null) {
+            return;
+        }
+
+        FuturesMarketOrderRequest order;
+        try {
+            order = positionService.buildMarketOrder(proposal);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            // Too small for the balance or otherwise unplaceable, live placement would stop at the same point
+            return;
+        }
+
+        double fill = candles.close(bar);
+        double stop = order.stopLoss().doubleValue();
+        double target = order.takeProfit().doubleValue();
+        boolean valid = order.side() == ExchangeOrderSide.LONG
+                ? stop < fill && fill < target
+                : target < fill && fill < stop;
+        if (!valid) {
+            // Bybit rejects a stop or take profit on the wrong side of the market
+            return;
+        }
+
+        side = order.side();
+        entryTime = candles.startTime(bar);
+        quantity = order.quantity().doubleValue();
+        entryPrice = fill;
+        stopLoss = stop;
+        takeProfit = target;
+        entryFee = quantity * fill * PositionService.TAKER_FEE;
+        cash -= entryFee;
+    }
+
+    private void close(long time, double price, double feeRate, BacktestTrade.ExitReason reason) {
+        double exitFee = quantity * price * feeRate;
+        double gross = grossPnl(price);
+        cash += gross - exitFee;
+        trades.add(new BacktestTrade(
+                symbol,
+                side,
+                entryTime,
+                entryPrice,
+                time,
+                price,
+                quantity,
+                entryFee + exitFee,
+                gross - entryFee - exitFee,
+                reason
+        ));
+        side = null;
+        addEquityPoint(time, cash);
+    }
+
+    private void markToMarket(double price) {
+        double marked = side == null ? cash : cash + grossPnl(price);
+        if (marked > peak) {
+            peak = marked;
+        } else {
+            maxDrawdown = Math.max(maxDrawdown, (peak - marked) / peak);
+        }
+    }
+
+    private double grossPnl(double price) {
+        return side == ExchangeOrderSide.LONG
+                ? quantity * (price - entryPrice)
+                : quantity * (entryPrice - price);
+    }
+
+    private void addEquityPoint(long time, double value) {
+        if (equityPoints == equity.length) {
+            equityTimes = Arrays.copyOf(equityTimes, equityPoints * 2);
+            equity = Arrays.copyOf(equity, equityPoints * 2);
+        }
+        equityTimes[equityPoints] = time;
+        equity[equityPoints] = value;
+        equityPoints++;
+    }
+}
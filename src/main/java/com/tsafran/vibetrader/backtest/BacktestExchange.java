@@ -0,0 +1,104 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+// What a strategy and the position sizing see during a replay: history up to the current bar and the simulated account
+final class BacktestExchange implements AsyncExchange {
+    private final String symbol;
+    private final ExchangeInterval interval;
+    private final CandleSeries candles;
+    private final InstrumentPrecision precision;
+    private int from;
+    private int cursor;
+    private double balance;
+    private boolean positionOpen;
+
+    BacktestExchange(String symbol, ExchangeInterval interval, CandleSeries candles, InstrumentPrecision precision) {
+        this.symbol = symbol.trim().toUpperCase(Locale.ROOT);
+        this.interval = interval;
+        this.candles = candles;
+        this.precision = precision;
+    }
+
+    // The bar that just closed and the account as of its close, history starts at from
+    void at(int from, int cursor, double balance, boolean positionOpen) {
+        this.from = from;
+        this.cursor = cursor;
+        this.balance = balance;
+        this.positionOpen = positionOpen;
+    }
+
+    @Override
+    public CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
+        requireReplayed(symbol);
+        if (interval != this.interval) {
+            throw new IllegalArgumentException("Backtest replays " + this.interval + " candles, not " + interval);
+        }
+        return candles.head(cursor + 1).tail(Math.min(limit, cursor + 1 - from));
+    }
+
+    @Override
+    public OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+        throw new UnsupportedOperationException("Backtest fills are simulated by BacktestEngine");
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(WalletBalanceRequest request) {
+        return BigDecimal.valueOf(balance);
+    }
+
+    @Override
+    public InstrumentPrecision getInstrumentPrecision(String symbol) {
+        requireReplayed(symbol);
+        return precision;
+    }
+
+    @Override
+    public boolean hasOpenOrders(String symbol) {
+        requireReplayed(symbol);
+        return positionOpen;
+    }
+
+    // Already answered, the replay thread never waits on another one
+    @Override
+    public CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit
+    ) {
+        return CompletableFuture.completedFuture(getCandles(symbol, category, interval, limit));
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getWalletBalanceAsync(WalletBalanceRequest request) {
+        return CompletableFuture.completedFuture(getWalletBalance(request));
+    }
+
+    @Override
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        return CompletableFuture.completedFuture(getInstrumentPrecision(symbol));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenOrdersAsync(String symbol) {
+        return CompletableFuture.completedFuture(hasOpenOrders(symbol));
+    }
+
+    private void requireReplayed(String symbol) {
+        if (symbol == null || !this.symbol.equalsIgnoreCase(symbol.trim())) {
+            throw new IllegalArgumentException("Backtest only replays " + this.symbol + ", not " + symbol);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tsafran.vibetrader.backtest;
+
+import java.util.List;
+
+// Every symbol of a run, each traded its own account starting from the same balance
+public record BacktestReport(
+        String strategy,
+        BacktestSettings settings,
+        List<BacktestResult> results,
+        long elapsedNanos
+) {
+    public BacktestReport {
+        results = List.copyOf(results);
+    }
+
+    public long bars() {
+        long bars = 0;
+        for (BacktestResult result : results) {
+            bars += result.bars();
+        }
+        return bars;
+    }
+
+    public int gaps() {
+        int gaps = 0;
+        for (BacktestResult result : results) {
+            gaps += result.gaps();
+        }
+        return gaps;
+    }
+
+    public double barsPerSecond() {
+        return elapsedNanos == 0 ? 0 : bars() * 1e9 / elapsedNanos;
+    }
+
+    public int trades() {
+        int trades = 0;
+        for (BacktestResult result : results) {
+            trades += result.trades().size();
+        }
+        return trades;
+    }
+
+    public double netPnl() {
+        double pnl = 0;
+        for (BacktestResult result : results) {
+            pnl += result.netPnl();
+        }
+        return pnl;
+    }
+
+    // Net PnL over the combined starting balances
+    public double returnFraction() {
+        double balance = 0;
+        for (BacktestResult result : results) {
+            balance += result.startingBalance();
+        }
+        return balance == 0 ? 0 : netPnl() / balance;
+    }
+
+    public double profitFactor() {
+        double profit = 0;
+        double loss = 0;
+        for (BacktestResult result : results) {
+            for (BacktestTrade trade : result.trades()) {
+                if (trade.pnl() > 0) {
+                    profit += trade.pnl();
+                } else {
+                    loss -= trade.pnl();
+                }
+            }
+        }
+        if (loss == 0) {
+            return profit > 0 ? Double.POSITIVE_INFINITY : 0;
+        }
+        return profit / loss;
+    }
+
+    public double winRate() {
+        int wins = 0;
+        for (BacktestResult result : results) {
+            wins += result.wins();
+        }
+        int trades = trades();
+        return trades == 0 ? 0 : (double) wins / trades;
+    }
+
+    public double maxDrawdown() {
+        double drawdown = 0;
+        for (BacktestResult result : results) {
+            drawdown = Math.max(drawdown, result.maxDrawdown());
+        }
+        return drawdown;
+    }
+}
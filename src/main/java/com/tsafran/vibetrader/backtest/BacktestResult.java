@@ -0,0 +1,72 @@
+package com.tsafran.vibetrader.backtest;
+
+import java.util.List;
+
+// One symbol's run, the equity curve has a point at the start and after every closed trade
+public record BacktestResult(
+        String symbol,
+        int bars,
+        // Holes in the candles, the replay starts over after each
+        int gaps,
+        double startingBalance,
+        double finalBalance,
+        // Largest peak-to-trough drop of the bar-close marked equity, as a fraction of the peak
+        double maxDrawdown,
+        List<BacktestTrade> trades,
+        long[] equityTimes,
+        double[] equity
+) {
+    public BacktestResult {
+        trades = List.copyOf(trades);
+        if (equityTimes.length != equity.length) {
+            throw new IllegalArgumentException("equityTimes and equity must have the same length");
+        }
+    }
+
+    public double netPnl() {
+        return finalBalance - startingBalance;
+    }
+
+    public double returnFraction() {
+        return netPnl() / startingBalance;
+    }
+
+    public int wins() {
+        int wins = 0;
+        for (BacktestTrade trade : trades) {
+            if (trade.isWin()) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    public double winRate() {
+        return trades.isEmpty() ? 0 : (double) wins() / trades.size();
+    }
+
+    // Gross profit over gross loss, infinite without a losing trade
+    public double profitFactor() {
+        double profit = 0;
+        double loss = 0;
+        for (BacktestTrade trade : trades) {
+            if (trade.pnl() > 0) {
+                profit += trade.pnl();
+            } else {
+                loss -= trade.pnl();
+            }
+        }
+        if (loss == 0) {
+            return profit > 0 ? Double.POSITIVE_INFINITY : 0;
+        }
+        return profit / loss;
+    }
+
+    public double fees() {
+        double fees = 0;
+        for (BacktestTrade trade : trades) {
+            fees += trade.fees();
+        }
+        return fees;
+    }
+}
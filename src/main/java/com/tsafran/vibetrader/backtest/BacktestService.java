@@ -0,0 +1,176 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.algo.AlgoStrategy;
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.util.Util;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class BacktestService {
+    private static final Logger logger = LoggerFactory.getLogger(BacktestService.class);
+
+    private final Map<String, AlgoStrategy> algoStrategies;
+    private final CandleArchive candleArchive;
+    private final AsyncExchange exchange;
+    // Replays are CPU bound, one symbol per core at a time
+    private final ExecutorService executor;
+
+    public BacktestService(
+            Map<String, AlgoStrategy> algoStrategies,
+            CandleArchive candleArchive,
+            AsyncExchange exchange,
+            @Value("${backtest.threads:0}") int threads
+    ) {
+        this.algoStrategies = algoStrategies;
+        this.candleArchive = candleArchive;
+        this.exchange = exchange;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "backtest-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    public BacktestReport run(String strategyBeanName, List<String> symbols, BacktestSettings settings) {
+        AlgoStrategy strategy = strategy(strategyBeanName);
+        Set<String> normalized = normalize(symbols);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<BacktestResult>> runs = new ArrayList<>(normalized.size());
+        for (String symbol : normalized) {
+            runs.add(exchange.getInstrumentPrecisionAsync(symbol).thenApplyAsync(
+                    precision -> replay(strategy, load(symbol, precision, settings), settings),
+                    executor
+            ));
+        }
+        List<BacktestResult> results = new ArrayList<>(runs.size());
+        for (CompletableFuture<BacktestResult> run : runs) {
+            results.add(Util.join(run));
+        }
+
+        BacktestReport report = new BacktestReport(strategyBeanName, settings, results, System.nanoTime() - start);
+        logger.info(
+                "Backtested {} on {} symbol(s): {} bars, {} gap(s), {} trades, {} bars/s",
+                strategyBeanName,
+                results.size(),
+                report.bars(),
+                report.gaps(),
+                report.trades(),
+                Math.round(report.barsPerSecond())
+        );
+        return report;
+    }
+
+    // Loaded once per symbol, replays over parts of the range read views of the same arrays
+    List<Market> loadMarkets(List<String> symbols, BacktestSettings settings) {
+        List<CompletableFuture<Market>> loads = new ArrayList<>();
+        for (String symbol : normalize(symbols)) {
+            loads.add(exchange.getInstrumentPrecisionAsync(symbol)
+                    .thenApplyAsync(precision -> load(symbol, precision, settings), executor));
+        }
+        List<Market> markets = new ArrayList<>(loads.size());
+        for (CompletableFuture<Market> load : loads) {
+            markets.add(Util.join(load));
+        }
+        return markets;
+    }
+
+    static BacktestResult replay(AlgoStrategy strategy, Market market, BacktestSettings settings) {
+        return BacktestEngine.run(
+                strategy,
+                market.symbol(),
+                settings.interval(),
+                market.between(settings.fromInclusive(), settings.toExclusive()),
+                market.precision(),
+                settings.startingBalance()
+        );
+    }
+
+    AlgoStrategy strategy(String strategyBeanName) {
+        AlgoStrategy strategy = strategyBeanName == null ? null : algoStrategies.get(strategyBeanName);
+        if (strategy == null) {
+            throw new IllegalArgumentException(
+                    "No strategy found with bean name: " + strategyBeanName +
+                    ". Available strategies: " + algoStrategies.keySet()
+            );
+        }
+        return strategy;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Market load(String symbol, InstrumentPrecision precision, BacktestSettings settings) {
+        if (precision == null) {
+            throw new IllegalStateException("No instrument precision returned for " + symbol);
+        }
+        CandleSeries candles = candleArchive
+                .range(symbol, settings.interval(), settings.fromInclusive(), settings.toExclusive())
+                .toCandleSeries();
+        if (candles.isEmpty()) {
+            throw new IllegalStateException("No archived " + settings.interval() + " candles for " + symbol
+                    + " in the requested range");
+        }
+        return new Market(symbol, candles, precision);
+    }
+
+    private static Set<String> normalize(List<String> symbols) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                normalized.add(symbol.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("At least one symbol must be provided");
+        }
+        return normalized;
+    }
+
+    record Market(String symbol, CandleSeries candles, InstrumentPrecision precision) {
+        // The bars starting inside the range, a view over the loaded arrays
+        CandleSeries between(long fromInclusive, long toExclusive) {
+            int from = lowerBound(fromInclusive);
+            int to = lowerBound(toExclusive);
+            return candles.head(to).tail(to - from);
+        }
+
+        private int lowerBound(long startTime) {
+            int low = 0;
+            int high = candles.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (candles.startTime(mid) < startTime) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
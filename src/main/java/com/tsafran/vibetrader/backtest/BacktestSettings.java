@@ -0,0 +1,22 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+
+public record BacktestSettings(
+        ExchangeInterval interval,
+        long fromInclusive,
+        long toExclusive,
+        double startingBalance
+) {
+    public BacktestSettings {
+        if (interval == null) {
+            throw new IllegalArgumentException("interval must be provided");
+        }
+        if (fromInclusive >= toExclusive) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (!(startingBalance > 0)) {
+            throw new IllegalArgumentException("startingBalance must be positive");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+
+public record BacktestTrade(
+        String symbol,
+        ExchangeOrderSide side,
+        long entryTime,
+        double entryPrice,
+        long exitTime,
+        double exitPrice,
+        double quantity,
+        double fees,
+        // Net of fees
+        double pnl,
+        ExitReason exitReason
+) {
+    public enum ExitReason {
+        STOP_LOSS,
+        TAKE_PROFIT,
+        // Open when the candles have a hole, closed at the last bar before it
+        DATA_GAP,
+        // Still open on the last bar, closed at its close
+        END_OF_DATA
+    }
+
+    public boolean isWin() {
+        return pnl > 0;
+    }
+}
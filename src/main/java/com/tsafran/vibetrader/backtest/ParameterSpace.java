@@ -0,0 +1,135 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.algo.StrategyParameter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/*
+ * The values a sweep tries for each tuned parameter, parsed from "name=from:to:step" or "name=value" entries
+ * separated by commas, e.g. "rewardToRisk=1:3:0.25,bodyMultiplier=1.5:3:0.5". Parameters left out keep their default.
+ */
+public final class ParameterSpace {
+    private static final int MAX_COMBINATIONS = 1_000_000;
+
+    private final List<Axis> axes;
+
+    private ParameterSpace(List<Axis> axes) {
+        this.axes = axes;
+    }
+
+    public static ParameterSpace parse(String spec, List<StrategyParameter> parameters) {
+        if (spec == null || spec.isBlank()) {
+            throw new IllegalArgumentException("Parameter ranges must be provided, e.g. name=from:to:step");
+        }
+        Map<String, Axis> axes = new LinkedHashMap<>();
+        for (String entry : spec.split("[\\s,]+")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Unsupported parameter range: " + entry);
+            }
+            StrategyParameter parameter = find(parameters, entry.substring(0, equals));
+            String[] bounds = entry.substring(equals + 1).split(":", -1);
+            Axis axis = switch (bounds.length) {
+                case 1 -> new Axis(parameter, number(bounds[0], entry), number(bounds[0], entry), 0);
+                case 3 -> new Axis(parameter, number(bounds[0], entry), number(bounds[1], entry), number(bounds[2], entry));
+                default -> throw new IllegalArgumentException("Unsupported parameter range: " + entry);
+            };
+            if (axes.put(parameter.name(), axis) != null) {
+                throw new IllegalArgumentException("Parameter given twice: " + parameter.name());
+            }
+        }
+        return new ParameterSpace(List.copyOf(axes.values()));
+    }
+
+    // Every combination of the axes' values
+    public List<Map<String, Double>> grid() {
+        long combinations = 1;
+        for (Axis axis : axes) {
+            combinations *= axis.count();
+            if (combinations > MAX_COMBINATIONS) {
+                throw new IllegalArgumentException("Grid exceeds " + MAX_COMBINATIONS + " combinations, use a random search");
+            }
+        }
+
+        List<Map<String, Double>> grid = new ArrayList<>((int) combinations);
+        grid.add(Map.of());
+        for (Axis axis : axes) {
+            List<Map<String, Double>> expanded = new ArrayList<>(grid.size() * axis.count());
+            for (Map<String, Double> partial : grid) {
+                for (int i = 0; i < axis.count(); i++) {
+                    Map<String, Double> combination = new LinkedHashMap<>(partial);
+                    combination.put(axis.parameter().name(), axis.value(i));
+                    expanded.add(combination);
+                }
+            }
+            grid = expanded;
+        }
+        return grid;
+    }
+
+    // Uniform samples, snapped to each axis' step, the same seed gives the same samples
+    public List<Map<String, Double>> random(int samples, long seed) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("samples must be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Map<String, Double>> combinations = new ArrayList<>(samples);
+        for (int sample = 0; sample < samples; sample++) {
+            Map<String, Double> combination = new LinkedHashMap<>();
+            for (Axis axis : axes) {
+                combination.put(axis.parameter().name(), axis.value(random.nextInt(axis.count())));
+            }
+            combinations.add(combination);
+        }
+        return combinations;
+    }
+
+    private static StrategyParameter find(List<StrategyParameter> parameters, String name) {
+        for (StrategyParameter parameter : parameters) {
+            if (parameter.name().equals(name.trim())) {
+                return parameter;
+            }
+        }
+        throw new IllegalArgumentException("Unknown parameter: " + name + ". Available parameters: "
+                + parameters.stream().map(StrategyParameter::name).toList());
+    }
+
+    private static double number(String value, String entry) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Unsupported parameter range: " + entry);
+        }
+    }
+
+    private record Axis(StrategyParameter parameter, double from, double to, double step) {
+        private Axis {
+            if (from > to) {
+                throw new IllegalArgumentException(parameter.name() + " range must not be reversed");
+            }
+            if (from < parameter.min() || to > parameter.max()) {
+                throw new IllegalArgumentException(parameter.name() + " must be within ["
+                        + parameter.min() + ", " + parameter.max() + "]");
+            }
+            if (from < to && !(step > 0)) {
+                throw new IllegalArgumentException(parameter.name() + " step must be positive");
+            }
+        }
+
+        private int count() {
+            return from == to ? 1 : (int) Math.floor((to - from) / step + 1e-9) + 1;
+        }
+
+        // Rounded so 0.1 steps read back as 1.3 rather than 1.3000000000000003
+        private double value(int index) {
+            return Math.round((from + index * step) * 1e9) / 1e9;
+        }
+    }
+}
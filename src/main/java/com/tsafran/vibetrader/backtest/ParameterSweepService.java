@@ -0,0 +1,194 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.algo.AlgoStrategy;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Backtests many parameter combinations of one strategy. Candles are loaded once per symbol and every worker replays
+ * views of the same arrays, combinations are split across the pool's workers by fork-join.
+ * A walk-forward run picks the best combination on each training span and reports it on the span that follows,
+ * so the reported numbers are out of sample.
+ */
+@Service
+public class ParameterSweepService {
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweepService.class);
+
+    private final BacktestService backtestService;
+    private final ForkJoinPool pool;
+
+    public ParameterSweepService(
+            BacktestService backtestService,
+            @Value("${backtest.threads:0}") int threads
+    ) {
+        this.backtestService = backtestService;
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Every combination over the whole range, best first
+    public List<SweepResult> sweep(
+            String strategyBeanName,
+            List<String> symbols,
+            BacktestSettings settings,
+            List<Map<String, Double>> combinations,
+            List<SweepMetric> ranking
+    ) {
+        AlgoStrategy strategy = backtestService.strategy(strategyBeanName);
+        List<BacktestService.Market> markets = backtestService.loadMarkets(symbols, settings);
+        long start = System.nanoTime();
+        List<SweepResult> ranked = rank(evaluate(strategyBeanName, strategy, markets, settings, combinations), ranking);
+        logger.info(
+                "Swept {} combination(s) of {} on {} symbol(s) in {} ms",
+                combinations.size(),
+                strategyBeanName,
+                markets.size(),
+                (System.nanoTime() - start) / 1_000_000
+        );
+        return ranked;
+    }
+
+    // Rolling train/test spans stepping by the test length until the range runs out
+    public List<WalkForwardWindow> walkForward(
+            String strategyBeanName,
+            List<String> symbols,
+            BacktestSettings settings,
+            List<Map<String, Double>> combinations,
+            List<SweepMetric> ranking,
+            Duration train,
+            Duration test
+    ) {
+        long trainMillis = train.toMillis();
+        long testMillis = test.toMillis();
+        if (trainMillis <= 0 || testMillis <= 0) {
+            throw new IllegalArgumentException("train and test spans must be positive");
+        }
+        if (settings.fromInclusive() + trainMillis + testMillis > settings.toExclusive()) {
+            throw new IllegalArgumentException("Range is shorter than one train + test span");
+        }
+
+        AlgoStrategy strategy = backtestService.strategy(strategyBeanName);
+        List<BacktestService.Market> markets = backtestService.loadMarkets(symbols, settings);
+        List<WalkForwardWindow> windows = new ArrayList<>();
+        for (long trainFrom = settings.fromInclusive();
+             trainFrom + trainMillis + testMillis <= settings.toExclusive();
+             trainFrom += testMillis) {
+            long testFrom = trainFrom + trainMillis;
+            long testTo = testFrom + testMillis;
+            BacktestSettings trainSettings = new BacktestSettings(
+                    settings.interval(), trainFrom, testFrom, settings.startingBalance()
+            );
+            BacktestSettings testSettings = new BacktestSettings(
+                    settings.interval(), testFrom, testTo, settings.startingBalance()
+            );
+
+            SweepResult best = rank(
+                    evaluate(strategyBeanName, strategy, markets, trainSettings, combinations),
+                    ranking
+            ).getFirst();
+            SweepResult outOfSample = evaluate(
+                    strategyBeanName, strategy, markets, testSettings, List.of(best.parameters())
+            ).getFirst();
+            windows.add(new WalkForwardWindow(trainFrom, testFrom, testTo, best, outOfSample));
+        }
+        return windows;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private List<SweepResult> evaluate(
+            String strategyBeanName,
+            AlgoStrategy strategy,
+            List<BacktestService.Market> markets,
+            BacktestSettings settings,
+            List<Map<String, Double>> combinations
+    ) {
+        if (combinations.isEmpty()) {
+            throw new IllegalArgumentException("At least one parameter combination must be provided");
+        }
+        return pool.invoke(new SweepTask(strategyBeanName, strategy, markets, settings, combinations, 0, combinations.size()));
+    }
+
+    private static List<SweepResult> rank(List<SweepResult> results, List<SweepMetric> ranking) {
+        List<SweepMetric> metrics = ranking == null || ranking.isEmpty() ? List.of(SweepMetric.NET_PNL) : ranking;
+        Comparator<BacktestReport> order = metrics.getFirst().bestFirst();
+        for (SweepMetric metric : metrics.subList(1, metrics.size())) {
+            order = order.thenComparing(metric.bestFirst());
+        }
+        Comparator<BacktestReport> reportOrder = order;
+        List<SweepResult> ranked = new ArrayList<>(results);
+        ranked.sort((left, right) -> reportOrder.compare(left.report(), right.report()));
+        return ranked;
+    }
+
+    // Halves the combination range until single combinations are left, each replayed on every symbol
+    private static final class SweepTask extends RecursiveTask<List<SweepResult>> {
+        private final String strategyBeanName;
+        private final AlgoStrategy strategy;
+        private final List<BacktestService.Market> markets;
+        private final BacktestSettings settings;
+        private final List<Map<String, Double>> combinations;
+        private final int from;
+        private final int to;
+
+        private SweepTask(
+                String strategyBeanName,
+                AlgoStrategy strategy,
+                List<BacktestService.Market> markets,
+                BacktestSettings settings,
+                List<Map<String, Double>> combinations,
+                int from,
+                int to
+        ) {
+            this.strategyBeanName = strategyBeanName;
+            this.strategy = strategy;
+            this.markets = markets;
+            this.settings = settings;
+            this.combinations = combinations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SweepResult> compute() {
+            if (to - from == 1) {
+                return List.of(evaluate(combinations.get(from)));
+            }
+            int mid = (from + to) >>> 1;
+            SweepTask left = new SweepTask(strategyBeanName, strategy, markets, settings, combinations, from, mid);
+            SweepTask right = new SweepTask(strategyBeanName, strategy, markets, settings, combinations, mid, to);
+            left.fork();
+            List<SweepResult> rightResults = right.compute();
+            List<SweepResult> results = new ArrayList<>(to - from);
+            results.addAll(left.join());
+            results.addAll(rightResults);
+            return results;
+        }
+
+        private SweepResult evaluate(Map<String, Double> combination) {
+            AlgoStrategy tuned = strategy.withParameters(combination);
+            long start = System.nanoTime();
+            List<BacktestResult> results = new ArrayList<>(markets.size());
+            for (BacktestService.Market market : markets) {
+                results.add(BacktestService.replay(tuned, market, settings));
+            }
+            return new SweepResult(
+                    combination,
+                    new BacktestReport(strategyBeanName, settings, results, System.nanoTime() - start)
+            );
+        }
+    }
+}
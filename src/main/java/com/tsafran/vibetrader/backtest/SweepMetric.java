@@ -0,0 +1,50 @@
+package com.tsafran.vibetrader.backtest;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+// What sweep results are ranked by, each ordered best first
+public enum SweepMetric {
+    NET_PNL("netPnl", BacktestReport::netPnl, true),
+    RETURN("return", BacktestReport::returnFraction, true),
+    PROFIT_FACTOR("profitFactor", BacktestReport::profitFactor, true),
+    WIN_RATE("winRate", BacktestReport::winRate, true),
+    MAX_DRAWDOWN("maxDrawdown", BacktestReport::maxDrawdown, false),
+    TRADES("trades", BacktestReport::trades, true);
+
+    private final String label;
+    private final ToDoubleFunction<BacktestReport> value;
+    private final boolean higherIsBetter;
+
+    SweepMetric(String label, ToDoubleFunction<BacktestReport> value, boolean higherIsBetter) {
+        this.label = label;
+        this.value = value;
+        this.higherIsBetter = higherIsBetter;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public double value(BacktestReport report) {
+        return value.applyAsDouble(report);
+    }
+
+    public Comparator<BacktestReport> bestFirst() {
+        Comparator<BacktestReport> ascending = Comparator.comparingDouble(value);
+        return higherIsBetter ? ascending.reversed() : ascending;
+    }
+
+    public static SweepMetric parse(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (SweepMetric metric : values()) {
+            if (metric.label.toLowerCase(Locale.ROOT).equals(normalized)
+                    || metric.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported metric: " + value + ". Available metrics: netPnl, return, "
+                + "profitFactor, winRate, maxDrawdown, trades");
+    }
+}
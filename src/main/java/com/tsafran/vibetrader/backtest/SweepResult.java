@@ -0,0 +1,16 @@
+package com.tsafran.vibetrader.backtest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// One parameter combination's run over every symbol of the sweep
+public record SweepResult(
+        Map<String, Double> parameters,
+        BacktestReport report
+) {
+    public SweepResult {
+        // Kept in the space's parameter order for display
+        parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+    }
+}
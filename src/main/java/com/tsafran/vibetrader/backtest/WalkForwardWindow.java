@@ -0,0 +1,11 @@
+package com.tsafran.vibetrader.backtest;
+
+// The combination that ranked best on the training span, and how it then did on the following test span
+public record WalkForwardWindow(
+        long trainFrom,
+        long testFrom,
+        long testTo,
+        SweepResult train,
+        SweepResult test
+) {
+}
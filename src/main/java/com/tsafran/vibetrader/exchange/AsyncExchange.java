@@ -0,0 +1,38 @@
+package com.tsafran.vibetrader.exchange;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Non-blocking view of an Exchange, the defaults just run the blocking call on a virtual thread
+public interface AsyncExchange extends Exchange {
+
+    default CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit
+    ) {
+        return onVirtualThread(() -> getCandles(symbol, category, interval, limit));
+    }
+
+    default CompletableFuture<OrderPlacement> placeFuturesMarketOrderAsync(FuturesMarketOrderRequest request) {
+        return onVirtualThread(() -> placeFuturesMarketOrder(request));
+    }
+
+    default CompletableFuture<BigDecimal> getWalletBalanceAsync(WalletBalanceRequest request) {
+        return onVirtualThread(() -> getWalletBalance(request));
+    }
+
+    default CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        return onVirtualThread(() -> getInstrumentPrecision(symbol));
+    }
+
+    default CompletableFuture<Boolean> hasOpenOrdersAsync(String symbol) {
+        return onVirtualThread(() -> hasOpenOrders(symbol));
+    }
+
+    private static <T> CompletableFuture<T> onVirtualThread(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, runnable -> Thread.ofVirtual().name("exchange-async").start(runnable));
+    }
+}
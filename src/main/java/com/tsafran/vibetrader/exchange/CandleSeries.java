@@ -0,0 +1,340 @@
+package com.tsafran.vibetrader.exchange;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+// Column-oriented candles ordered by ascending startTime, views share the backing arrays
+public final class CandleSeries {
+    private static final CandleSeries EMPTY = new CandleSeries(
+            new long[0], new double[0], new double[0], new double[0], new double[0], new double[0], new double[0],
+            0, 0, 0
+    );
+
+    private final long[] startTimes;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] volume;
+    private final double[] turnover;
+    private final int offset;
+    private final int size;
+    private final int priceScale;
+
+    private CandleSeries(
+            long[] startTimes,
+            double[] open,
+            double[] high,
+            double[] low,
+            double[] close,
+            double[] volume,
+            double[] turnover,
+            int offset,
+            int size,
+            int priceScale
+    ) {
+        this.startTimes = startTimes;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.turnover = turnover;
+        this.offset = offset;
+        this.size = size;
+        this.priceScale = priceScale;
+    }
+
+    public static CandleSeries empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    public static CandleSeries fromOhlcv(List<Ohlcv> candles) {
+        Builder builder = builder(candles.size());
+        for (Ohlcv candle : candles) {
+            BigDecimal amount = candle.turnover() != null ? candle.turnover() : candle.volume();
+            builder.add(
+                    candle.startTime(),
+                    candle.open().doubleValue(),
+                    candle.high().doubleValue(),
+                    candle.low().doubleValue(),
+                    candle.close().doubleValue(),
+                    candle.volume().doubleValue(),
+                    amount.doubleValue()
+            );
+            builder.priceScale(candle.close().scale());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Largest number of decimals seen on close prices, used when rendering values
+    public int priceScale() {
+        return priceScale;
+    }
+
+    public long startTime(int index) {
+        return startTimes[offset + Objects.checkIndex(index, size)];
+    }
+
+    public double open(int index) {
+        return open[offset + Objects.checkIndex(index, size)];
+    }
+
+    public double high(int index) {
+        return high[offset + Objects.checkIndex(index, size)];
+    }
+
+    public double low(int index) {
+        return low[offset + Objects.checkIndex(index, size)];
+    }
+
+    public double close(int index) {
+        return close[offset + Objects.checkIndex(index, size)];
+    }
+
+    public double volume(int index) {
+        return volume[offset + Objects.checkIndex(index, size)];
+    }
+
+    public double turnover(int index) {
+        return turnover[offset + Objects.checkIndex(index, size)];
+    }
+
+    public long lastStartTime() {
+        return startTime(size - 1);
+    }
+
+    public CandleSeries head(int count) {
+        if (count >= size) {
+            return this;
+        }
+        if (count <= 0) {
+            return EMPTY;
+        }
+        return new CandleSeries(
+                startTimes, open, high, low, close, volume, turnover,
+                offset, count, priceScale
+        );
+    }
+
+    public CandleSeries tail(int count) {
+        if (count >= size) {
+            return this;
+        }
+        if (count <= 0) {
+            return EMPTY;
+        }
+        return new CandleSeries(
+                startTimes, open, high, low, close, volume, turnover,
+                offset + size - count, count, priceScale
+        );
+    }
+
+    public Ohlcv toOhlcv(int index) {
+        return new Ohlcv(
+                startTime(index),
+                BigDecimal.valueOf(open(index)),
+                BigDecimal.valueOf(high(index)),
+                BigDecimal.valueOf(low(index)),
+                BigDecimal.valueOf(close(index)),
+                BigDecimal.valueOf(volume(index)),
+                BigDecimal.valueOf(turnover(index))
+        );
+    }
+
+    public List<Ohlcv> asOhlcvList() {
+        return new OhlcvView();
+    }
+
+    private final class OhlcvView extends AbstractList<Ohlcv> implements RandomAccess {
+        @Override
+        public Ohlcv get(int index) {
+            return toOhlcv(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    public static final class Builder {
+        private long[] startTimes;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private double[] volume;
+        private double[] turnover;
+        private int size;
+        private int priceScale;
+
+        private Builder(int capacity) {
+            int initial = Math.max(capacity, 1);
+            startTimes = new long[initial];
+            open = new double[initial];
+            high = new double[initial];
+            low = new double[initial];
+            close = new double[initial];
+            volume = new double[initial];
+            turnover = new double[initial];
+        }
+
+        public Builder add(
+                long startTime,
+                double open,
+                double high,
+                double low,
+                double close,
+                double volume,
+                double turnover
+        ) {
+            if (size == startTimes.length) {
+                grow();
+            }
+            this.startTimes[size] = startTime;
+            this.open[size] = open;
+            this.high[size] = high;
+            this.low[size] = low;
+            this.close[size] = close;
+            this.volume[size] = volume;
+            this.turnover[size] = turnover;
+            size++;
+            return this;
+        }
+
+        public Builder priceScale(int scale) {
+            priceScale = Math.max(priceScale, scale);
+            return this;
+        }
+
+        public CandleSeries build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            if (!isAscending()) {
+                if (isDescending()) {
+                    reverse();
+                } else {
+                    sort();
+                }
+            }
+            return new CandleSeries(startTimes, open, high, low, close, volume, turnover, 0, size, priceScale);
+        }
+
+        private boolean isAscending() {
+            for (int i = 1; i < size; i++) {
+                if (startTimes[i - 1] >= startTimes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isDescending() {
+            for (int i = 1; i < size; i++) {
+                if (startTimes[i - 1] <= startTimes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Bybit REST answers newest first, so this is the common path
+        private void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                swap(startTimes, i, j);
+                swap(open, i, j);
+                swap(high, i, j);
+                swap(low, i, j);
+                swap(close, i, j);
+                swap(volume, i, j);
+                swap(turnover, i, j);
+            }
+        }
+
+        // Stable sort by startTime where the last bar added for a duplicate startTime wins
+        private void sort() {
+            long[] times = startTimes;
+            int[] order = IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(i -> times[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            int[] kept = new int[order.length];
+            int count = 0;
+            for (int index : order) {
+                if (count > 0 && times[kept[count - 1]] == times[index]) {
+                    kept[count - 1] = index;
+                } else {
+                    kept[count++] = index;
+                }
+            }
+            startTimes = permute(startTimes, kept, count);
+            open = permute(open, kept, count);
+            high = permute(high, kept, count);
+            low = permute(low, kept, count);
+            close = permute(close, kept, count);
+            volume = permute(volume, kept, count);
+            turnover = permute(turnover, kept, count);
+            size = count;
+        }
+
+        private void grow() {
+            int capacity = startTimes.length * 2;
+            startTimes = Arrays.copyOf(startTimes, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+            turnover = Arrays.copyOf(turnover, capacity);
+        }
+
+        private static long[] permute(long[] values, int[] order, int count) {
+            long[] result = new long[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = values[order[i]];
+            }
+            return result;
+        }
+
+        private static double[] permute(double[] values, int[] order, int count) {
+            double[] result = new double[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = values[order[i]];
+            }
+            return result;
+        }
+
+        private static void swap(long[] values, int i, int j) {
+            long tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+
+        private static void swap(double[] values, int i, int j) {
+            double tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -4,9 +4,13 @@ import java.util.List;
 
 public interface Exchange {
 
-    List<Ohlcv> getKlines(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit);
+    CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit);
 
-    String placeFuturesMarketOrder(FuturesMarketOrderRequest request);
+    default List<Ohlcv> getKlines(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
+        return getCandles(symbol, category, interval, limit).asOhlcvList();
+    }
+
+    OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request);
 
     java.math.BigDecimal getWalletBalance(WalletBalanceRequest request);
 
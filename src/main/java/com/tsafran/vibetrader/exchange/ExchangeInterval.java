@@ -1,17 +1,30 @@
 package com.tsafran.vibetrader.exchange;
 
+import java.time.Duration;
+
 public enum ExchangeInterval {
-    ONE_MINUTE,
-    THREE_MINUTES,
-    FIVE_MINUTES,
-    FIFTEEN_MINUTES,
-    THIRTY_MINUTES,
-    ONE_HOUR,
-    TWO_HOURS,
-    FOUR_HOURS,
-    SIX_HOURS,
-    TWELVE_HOURS,
-    ONE_DAY,
-    ONE_WEEK,
-    ONE_MONTH
+    ONE_MINUTE(Duration.ofMinutes(1)),
+    THREE_MINUTES(Duration.ofMinutes(3)),
+    FIVE_MINUTES(Duration.ofMinutes(5)),
+    FIFTEEN_MINUTES(Duration.ofMinutes(15)),
+    THIRTY_MINUTES(Duration.ofMinutes(30)),
+    ONE_HOUR(Duration.ofHours(1)),
+    TWO_HOURS(Duration.ofHours(2)),
+    FOUR_HOURS(Duration.ofHours(4)),
+    SIX_HOURS(Duration.ofHours(6)),
+    TWELVE_HOURS(Duration.ofHours(12)),
+    ONE_DAY(Duration.ofDays(1)),
+    ONE_WEEK(Duration.ofDays(7)),
+    // Nominal, month bars follow the calendar
+    ONE_MONTH(Duration.ofDays(30));
+
+    private final Duration duration;
+
+    ExchangeInterval(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
 }
@@ -0,0 +1,11 @@
+package com.tsafran.vibetrader.exchange;
+
+public record OrderLegResult(String orderId, String orderLinkId, int code, String message) {
+    public static OrderLegResult accepted(String orderId, String orderLinkId) {
+        return new OrderLegResult(orderId, orderLinkId, 0, "OK");
+    }
+
+    public boolean isAccepted() {
+        return code == 0 && orderId != null && !orderId.isBlank();
+    }
+}
@@ -0,0 +1,19 @@
+package com.tsafran.vibetrader.exchange;
+
+import java.util.Objects;
+
+// takeProfit is null when the request carried no take profit
+public record OrderPlacement(OrderLegResult entry, OrderLegResult takeProfit) {
+    public OrderPlacement {
+        Objects.requireNonNull(entry, "entry must be provided");
+    }
+
+    public String orderId() {
+        return entry.isAccepted() ? entry.orderId() : null;
+    }
+
+    // The entry went through but its take profit did not, the position is open without an exit
+    public boolean isPartial() {
+        return entry.isAccepted() && takeProfit != null && !takeProfit.isAccepted();
+    }
+}
@@ -0,0 +1,154 @@
+package com.tsafran.vibetrader.exchange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * An instrument's price and quantity grids: prices as whole ticks and quantities as whole qty steps, held in longs.
+ * Rounding, comparisons and risk math stay on primitives, BigDecimal is only used when converting at the exchange
+ * boundary. Doubles within rounding noise of a whole tick/step are taken as sitting on it, and the rare value
+ * that lands on a rounding tie is settled with BigDecimal so HALF_* modes match BigDecimal.valueOf(value).
+ */
+public final class TickGrid {
+    private static final Map<InstrumentPrecision, TickGrid> GRIDS = new ConcurrentHashMap<>();
+    private static final double TIE_TOLERANCE = 1e-6;
+    // Beyond this many units a double no longer holds every whole number of them exactly enough to round
+    private static final double MAX_UNITS = 1e15;
+
+    private final BigDecimal tickSize;
+    private final BigDecimal qtyStep;
+    private final Unit tick;
+    private final Unit step;
+
+    private TickGrid(InstrumentPrecision precision) {
+        this.tickSize = precision.tickSize();
+        this.qtyStep = precision.basePrecision();
+        this.tick = new Unit(tickSize);
+        this.step = new Unit(qtyStep);
+    }
+
+    // One grid per instrument, shared by every caller
+    public static TickGrid of(InstrumentPrecision precision) {
+        Objects.requireNonNull(precision, "precision");
+        return GRIDS.computeIfAbsent(precision, TickGrid::new);
+    }
+
+    public BigDecimal tickSize() {
+        return tickSize;
+    }
+
+    public BigDecimal qtyStep() {
+        return qtyStep;
+    }
+
+    public long ticks(double price, RoundingMode mode) {
+        return tick.round(price, mode);
+    }
+
+    public long ticks(BigDecimal price, RoundingMode mode) {
+        return exact(price, tickSize, mode);
+    }
+
+    public long steps(double qty, RoundingMode mode) {
+        return step.round(qty, mode);
+    }
+
+    public long steps(BigDecimal qty, RoundingMode mode) {
+        return exact(qty, qtyStep, mode);
+    }
+
+    public double price(long ticks) {
+        return tick.value(ticks);
+    }
+
+    public double qty(long steps) {
+        return step.value(steps);
+    }
+
+    // Exact, with the tick size's scale, for requests sent to the exchange
+    public BigDecimal toPrice(long ticks) {
+        return tickSize.multiply(BigDecimal.valueOf(ticks));
+    }
+
+    public BigDecimal toQty(long steps) {
+        return qtyStep.multiply(BigDecimal.valueOf(steps));
+    }
+
+    // Most qty steps whose cost stays within budget when each unit of quantity costs costPerUnit
+    public long affordableSteps(double budget, double costPerUnit) {
+        if (!(costPerUnit > 0)) {
+            throw new IllegalArgumentException("costPerUnit must be positive");
+        }
+        if (!(budget > 0)) {
+            return 0;
+        }
+        return step.round(budget / costPerUnit, RoundingMode.DOWN);
+    }
+
+    private static long exact(BigDecimal value, BigDecimal size, RoundingMode mode) {
+        Objects.requireNonNull(value, "value");
+        Objects.requireNonNull(mode, "mode");
+        return value.divide(size, 0, mode).longValueExact();
+    }
+
+    private static boolean roundsHalf(RoundingMode mode) {
+        return mode == RoundingMode.HALF_UP || mode == RoundingMode.HALF_DOWN || mode == RoundingMode.HALF_EVEN;
+    }
+
+    private static final class Unit {
+        private final BigDecimal size;
+        private final double value;
+        // Exact count per 1.0 for decimal sizes like 0.01, dividing by it keeps 3 * 0.1 at 0.3, NaN otherwise
+        private final double perOne;
+
+        private Unit(BigDecimal size) {
+            this.size = size;
+            this.value = size.doubleValue();
+            BigDecimal[] perOne = BigDecimal.ONE.divideAndRemainder(size);
+            this.perOne = perOne[1].signum() == 0 && perOne[0].compareTo(BigDecimal.valueOf(1L << 52)) < 0
+                    ? perOne[0].doubleValue()
+                    : Double.NaN;
+        }
+
+        private double value(long units) {
+            return Double.isNaN(perOne) ? units * value : units / perOne;
+        }
+
+        private long round(double amount, RoundingMode mode) {
+            if (!Double.isFinite(amount)) {
+                throw new IllegalArgumentException("Cannot round " + amount + " to " + size);
+            }
+            double units = Double.isNaN(perOne) ? amount / value : amount * perOne;
+            if (Math.abs(units) >= MAX_UNITS) {
+                return exact(BigDecimal.valueOf(amount), size, mode);
+            }
+
+            double floor = Math.floor(units);
+            double fraction = units - floor;
+            double noise = 64 * Math.ulp(Math.max(1, Math.abs(units)));
+            if (fraction < noise) {
+                return (long) floor;
+            }
+            if (1 - fraction < noise) {
+                return (long) floor + 1;
+            }
+            if (roundsHalf(mode)) {
+                if (Math.abs(fraction - 0.5) < Math.max(TIE_TOLERANCE, noise)) {
+                    return exact(BigDecimal.valueOf(amount), size, mode);
+                }
+                return (long) (fraction < 0.5 ? floor : floor + 1);
+            }
+            return switch (mode) {
+                case FLOOR -> (long) floor;
+                case CEILING -> (long) floor + 1;
+                case DOWN -> (long) (units < 0 ? floor + 1 : floor);
+                case UP -> (long) (units < 0 ? floor : floor + 1);
+                case UNNECESSARY -> throw new ArithmeticException(amount + " is not a whole multiple of " + size);
+                default -> throw new IllegalArgumentException("Unsupported rounding mode: " + mode);
+            };
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.tsafran.vibetrader.exchange.ExchangeAccountType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Account state as pushed by the private stream, checked against REST by BybitAccountReconciler.
+ * Lookups are only trusted while the stream is up and at least one reconciliation has completed since it
+ * (re)connected, callers fall back to REST otherwise.
+ */
+@Component
+public class BybitAccountMirror {
+    private static final Set<String> OPEN_STATUSES = Set.of("Created", "New", "PartiallyFilled", "Untriggered", "Triggered");
+    private static final int RECENT_EXECUTIONS = 100;
+
+    private final Map<String, OpenOrder> openOrders = new ConcurrentHashMap<>();
+    // Orders the stream saw close, so an older REST snapshot cannot bring them back
+    private final Map<String, Long> closedOrders = new ConcurrentHashMap<>();
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private final Map<ExchangeAccountType, Balance> balances = new EnumMap<>(ExchangeAccountType.class);
+    private final Deque<Execution> executions = new ArrayDeque<>();
+
+    private volatile boolean streaming;
+    private volatile boolean synced;
+    private volatile long generation;
+    private volatile long lastUpdateMillis;
+
+    public boolean isLive() {
+        return streaming && synced;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public synchronized void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        synced = false;
+        generation++;
+    }
+
+    // Bumped on every stream state change so a reconciliation that straddles a reconnect does not count
+    public long getGeneration() {
+        return generation;
+    }
+
+    public synchronized void markSynced(long generation) {
+        synced = streaming && generation == this.generation;
+    }
+
+    public long getLastUpdateMillis() {
+        return lastUpdateMillis;
+    }
+
+    public boolean hasOpenOrders(String symbol, String category) {
+        String normalized = symbol.trim().toUpperCase(Locale.ROOT);
+        for (OpenOrder order : openOrders.values()) {
+            if (order.symbol().equals(normalized) && category.equalsIgnoreCase(order.category())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<OpenOrder> getOpenOrders() {
+        return List.copyOf(openOrders.values());
+    }
+
+    public List<Position> getPositions() {
+        return List.copyOf(positions.values());
+    }
+
+    public synchronized BigDecimal getWalletBalance(ExchangeAccountType accountType) {
+        Balance balance = balances.get(accountType);
+        return balance == null ? null : balance.totalAvailable();
+    }
+
+    public synchronized List<Execution> getRecentExecutions() {
+        return List.copyOf(executions);
+    }
+
+    public void applyOrders(Collection<OpenOrder> updates) {
+        for (OpenOrder order : updates) {
+            if (OPEN_STATUSES.contains(order.status())) {
+                openOrders.merge(order.orderId(), order, BybitAccountMirror::newer);
+            } else {
+                openOrders.remove(order.orderId());
+                closedOrders.put(order.orderId(), order.updatedTime());
+            }
+            touch(order.updatedTime());
+        }
+    }
+
+    public void applyPositions(Collection<Position> updates) {
+        for (Position position : updates) {
+            String key = position.category() + ":" + position.symbol();
+            if (position.size().signum() == 0) {
+                positions.remove(key);
+            } else {
+                positions.put(key, position);
+            }
+            touch(position.updatedTime());
+        }
+    }
+
+    public synchronized void applyExecutions(Collection<Execution> updates) {
+        for (Execution execution : updates) {
+            if (executions.size() == RECENT_EXECUTIONS) {
+                executions.removeFirst();
+            }
+            executions.addLast(execution);
+            touch(execution.execTime());
+        }
+    }
+
+    public synchronized void applyWallet(ExchangeAccountType accountType, BigDecimal totalAvailable, long updatedTime) {
+        balances.put(accountType, new Balance(totalAvailable, updatedTime));
+        touch(updatedTime);
+    }
+
+    // Returns how many orders the stream had wrong; anything the stream touched after startedAt wins over the snapshot
+    public int reconcileOrders(List<OpenOrder> snapshot, long startedAtMillis) {
+        Map<String, OpenOrder> expected = new HashMap<>();
+        for (OpenOrder order : snapshot) {
+            Long closedAt = closedOrders.get(order.orderId());
+            if (closedAt == null || closedAt < startedAtMillis) {
+                expected.put(order.orderId(), order);
+            }
+        }
+
+        int drift = 0;
+        for (OpenOrder order : new ArrayList<>(openOrders.values())) {
+            if (!expected.containsKey(order.orderId()) && order.updatedTime() < startedAtMillis) {
+                if (openOrders.remove(order.orderId(), order)) {
+                    drift++;
+                }
+            }
+        }
+        for (OpenOrder order : expected.values()) {
+            if (openOrders.putIfAbsent(order.orderId(), order) == null) {
+                drift++;
+            }
+        }
+        closedOrders.values().removeIf(closedAt -> closedAt < startedAtMillis);
+        return drift;
+    }
+
+    public synchronized boolean reconcileWallet(ExchangeAccountType accountType, BigDecimal totalAvailable, long startedAtMillis) {
+        Balance current = balances.get(accountType);
+        if (current != null && current.updatedTime() >= startedAtMillis) {
+            return false;
+        }
+        boolean drifted = current == null
+                || totalAvailable == null
+                || current.totalAvailable() == null
+                || current.totalAvailable().compareTo(totalAvailable) != 0;
+        balances.put(accountType, new Balance(totalAvailable, startedAtMillis));
+        return drifted;
+    }
+
+    private void touch(long updatedTime) {
+        if (updatedTime > lastUpdateMillis) {
+            lastUpdateMillis = updatedTime;
+        }
+    }
+
+    private static OpenOrder newer(OpenOrder current, OpenOrder update) {
+        return update.updatedTime() >= current.updatedTime() ? update : current;
+    }
+
+    public record OpenOrder(
+            String orderId,
+            String orderLinkId,
+            String symbol,
+            String category,
+            String side,
+            String orderType,
+            String status,
+            BigDecimal price,
+            BigDecimal quantity,
+            long updatedTime
+    ) {
+    }
+
+    public record Position(
+            String symbol,
+            String category,
+            String side,
+            BigDecimal size,
+            BigDecimal entryPrice,
+            BigDecimal unrealisedPnl,
+            long updatedTime
+    ) {
+    }
+
+    public record Execution(
+            String execId,
+            String orderId,
+            String symbol,
+            String side,
+            BigDecimal price,
+            BigDecimal quantity,
+            BigDecimal fee,
+            long execTime
+    ) {
+    }
+
+    private record Balance(BigDecimal totalAvailable, long updatedTime) {
+    }
+}
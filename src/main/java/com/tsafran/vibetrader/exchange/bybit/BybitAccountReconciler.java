@@ -0,0 +1,127 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.bybit.api.client.domain.account.request.AccountDataRequest;
+import com.bybit.api.client.domain.trade.request.TradeOrderRequest;
+import com.bybit.api.client.restApi.BybitApiAccountRestClient;
+import com.bybit.api.client.restApi.BybitApiTradeRestClient;
+import com.tsafran.vibetrader.exchange.ExchangeAccountType;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+import com.tsafran.vibetrader.util.Util;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@RequiredArgsConstructor
+public class BybitAccountReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(BybitAccountReconciler.class);
+    private static final int OPEN_ORDERS_PAGE_LIMIT = 50;
+    private static final String SETTLE_COIN = "USDT";
+
+    private final BybitApiTradeRestClient tradeClient;
+    private final BybitApiAccountRestClient accountClient;
+    private final BybitRequestScheduler requestScheduler;
+    private final BybitDecodeMetrics decodeMetrics;
+    private final BybitAccountMirror accountMirror;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong driftedReconciliations = new AtomicLong();
+
+    @Scheduled(
+            initialDelayString = "${bybit.account.reconcile-ms:60000}",
+            fixedDelayString = "${bybit.account.reconcile-ms:60000}"
+    )
+    public void reconcile() {
+        if (!accountMirror.isStreaming() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long generation = accountMirror.getGeneration();
+            long startedAt = System.currentTimeMillis();
+            CompletableFuture<List<BybitAccountMirror.OpenOrder>> orders = CompletableFuture.supplyAsync(
+                    this::fetchOpenOrders,
+                    runnable -> Thread.ofVirtual().name("bybit-reconcile").start(runnable)
+            );
+            BigDecimal balance = Util.join(fetchWalletBalance(ExchangeAccountType.UNIFIED));
+
+            int orderDrift = accountMirror.reconcileOrders(Util.join(orders), startedAt);
+            boolean walletDrift = accountMirror.reconcileWallet(ExchangeAccountType.UNIFIED, balance, startedAt);
+            accountMirror.markSynced(generation);
+
+            reconciliations.incrementAndGet();
+            if (orderDrift > 0 || walletDrift) {
+                driftedReconciliations.incrementAndGet();
+                logger.warn("Account mirror drifted: {} order(s) corrected, wallet changed: {}", orderDrift, walletDrift);
+            }
+        } catch (Exception ex) {
+            logger.warn("Account reconciliation failed", ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Runs a reconciliation off the caller's thread, used right after the stream (re)subscribes
+    public void reconcileAsync() {
+        Thread.ofVirtual().name("bybit-reconcile").start(this::reconcile);
+    }
+
+    public long getReconciliations() {
+        return reconciliations.get();
+    }
+
+    public long getDriftedReconciliations() {
+        return driftedReconciliations.get();
+    }
+
+    public CompletableFuture<BigDecimal> fetchWalletBalance(ExchangeAccountType accountType) {
+        AccountDataRequest request = AccountDataRequest.builder()
+                .accountType(BybitUtil.mapAccountType(accountType))
+                .build();
+
+        return requestScheduler.submitAsync(BybitEndpoint.WALLET_BALANCE, new WalletBalanceRequest(accountType), () -> {
+            Object response = accountClient.getWalletBalance(request);
+            return decodeMetrics.measure(
+                    "wallet-balance",
+                    0,
+                    () -> BybitResponseDecoder.decodeTotalAvailableBalance(response)
+            );
+        });
+    }
+
+    private List<BybitAccountMirror.OpenOrder> fetchOpenOrders() {
+        String category = ExchangeCategory.LINEAR.name().toLowerCase(Locale.ROOT);
+        List<BybitAccountMirror.OpenOrder> orders = new ArrayList<>();
+        String cursor = null;
+        do {
+            TradeOrderRequest request = TradeOrderRequest.builder()
+                    .category(BybitUtil.mapCategory(ExchangeCategory.LINEAR))
+                    .settleCoin(SETTLE_COIN)
+                    .openOnly(0)
+                    .limit(OPEN_ORDERS_PAGE_LIMIT)
+                    .cursor(cursor)
+                    .build();
+            BybitResponseDecoder.OpenOrderPage page = requestScheduler.submit(BybitEndpoint.OPEN_ORDERS, null, () -> {
+                Object response = tradeClient.getOpenOrders(request);
+                return decodeMetrics.measure(
+                        "open-orders",
+                        0,
+                        () -> BybitResponseDecoder.decodeOpenOrders(response, category)
+                );
+            });
+            orders.addAll(page.orders());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return orders;
+    }
+}
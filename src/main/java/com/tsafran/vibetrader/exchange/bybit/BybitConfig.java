@@ -2,7 +2,6 @@ package com.tsafran.vibetrader.exchange.bybit;
 
 import com.bybit.api.client.config.BybitApiConfig;
 import com.bybit.api.client.restApi.BybitApiAccountRestClient;
-import com.bybit.api.client.restApi.BybitApiMarketRestClient;
 import com.bybit.api.client.restApi.BybitApiTradeRestClient;
 import com.bybit.api.client.service.BybitApiClientFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,10 +16,9 @@ public class BybitConfig {
     @Value("${bybit.api-secret:}")
     private String apiSecret;
 
-    @Bean
-    public BybitApiMarketRestClient bybitApiMarketRestClient() {
-        return BybitApiClientFactory.newInstance().newMarketDataRestClient();
-    }
+    // Signed endpoints go to Bybit's demo trading domain unless pointed elsewhere, e.g. at a local stand-in
+    @Value("${bybit.rest.private-url:}")
+    private String privateUrl;
 
     @Bean
     public BybitApiTradeRestClient bybitApiTradeRestClient() {
@@ -28,7 +26,7 @@ public class BybitConfig {
             return BybitApiClientFactory.newInstance().newTradeRestClient();
         }
 
-        return BybitApiClientFactory.newInstance(apiKey, apiSecret, BybitApiConfig.DEMO_TRADING_DOMAIN).newTradeRestClient();
+        return BybitApiClientFactory.newInstance(apiKey, apiSecret, privateDomain()).newTradeRestClient();
     }
 
     @Bean
@@ -37,6 +35,10 @@ public class BybitConfig {
             return BybitApiClientFactory.newInstance().newAccountRestClient();
         }
 
-        return BybitApiClientFactory.newInstance(apiKey, apiSecret, BybitApiConfig.DEMO_TRADING_DOMAIN).newAccountRestClient();
+        return BybitApiClientFactory.newInstance(apiKey, apiSecret, privateDomain()).newAccountRestClient();
+    }
+
+    private String privateDomain() {
+        return privateUrl == null || privateUrl.isBlank() ? BybitApiConfig.DEMO_TRADING_DOMAIN : privateUrl;
     }
 }
@@ -0,0 +1,83 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+@Component
+public class BybitDecodeMetrics {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public <T> T measure(String endpoint, int bytes, Supplier<T> decoder) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            return decoder.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            long allocated = allocatedBefore < 0 ? 0 : Math.max(0, allocatedBytes() - allocatedBefore);
+            EndpointStats endpointStats = stats.computeIfAbsent(endpoint, ignored -> new EndpointStats());
+            endpointStats.calls.increment();
+            endpointStats.nanos.add(nanos);
+            endpointStats.allocatedBytes.add(allocated);
+            endpointStats.bodyBytes.add(bytes);
+        }
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        stats.forEach((endpoint, endpointStats) -> result.put(endpoint, new Snapshot(
+                endpointStats.calls.sum(),
+                endpointStats.nanos.sum(),
+                endpointStats.allocatedBytes.sum(),
+                endpointStats.bodyBytes.sum()
+        )));
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATION_BEAN == null ? -1 : ALLOCATION_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            return sunBean;
+        }
+        return null;
+    }
+
+    public record Snapshot(long calls, long nanos, long allocatedBytes, long bodyBytes) {
+        public long averageNanos() {
+            return calls == 0 ? 0 : nanos / calls;
+        }
+
+        public long averageAllocatedBytes() {
+            return calls == 0 ? 0 : allocatedBytes / calls;
+        }
+
+        public long averageBodyBytes() {
+            return calls == 0 ? 0 : bodyBytes / calls;
+        }
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder bodyBytes = new LongAdder();
+    }
+}
@@ -0,0 +1,35 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+// Default per-second limits follow Bybit's v5 tables, market data stays well under the shared IP limit
+public enum BybitEndpoint {
+    ORDER_CREATE(BybitEndpoint.Priority.ORDER, 10),
+    ORDER_CREATE_BATCH(BybitEndpoint.Priority.ORDER, 10),
+    OPEN_ORDERS(BybitEndpoint.Priority.ACCOUNT, 50),
+    WALLET_BALANCE(BybitEndpoint.Priority.ACCOUNT, 50),
+    KLINE(BybitEndpoint.Priority.MARKET_DATA, 50),
+    INSTRUMENTS_INFO(BybitEndpoint.Priority.MARKET_DATA, 10),
+    SERVER_TIME(BybitEndpoint.Priority.MARKET_DATA, 10);
+
+    private final Priority priority;
+    private final int requestsPerSecond;
+
+    BybitEndpoint(Priority priority, int requestsPerSecond) {
+        this.priority = priority;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public Priority priority() {
+        return priority;
+    }
+
+    public int requestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    // Declaration order is dispatch order
+    public enum Priority {
+        ORDER,
+        ACCOUNT,
+        MARKET_DATA
+    }
+}
@@ -1,129 +1,178 @@
 package com.tsafran.vibetrader.exchange.bybit;
 
 import com.bybit.api.client.domain.TradeOrderType;
-import com.bybit.api.client.domain.account.request.AccountDataRequest;
-import com.bybit.api.client.domain.market.request.MarketDataRequest;
-import com.bybit.api.client.domain.market.response.kline.MarketKlineEntry;
 import com.bybit.api.client.domain.position.TpslMode;
 import com.bybit.api.client.domain.trade.TimeInForce;
+import com.bybit.api.client.domain.trade.request.BatchOrderRequest;
 import com.bybit.api.client.domain.trade.request.TradeOrderRequest;
-import com.bybit.api.client.domain.trade.response.OrderResponse;
-import com.bybit.api.client.restApi.BybitApiAccountRestClient;
-import com.bybit.api.client.restApi.BybitApiMarketRestClient;
 import com.bybit.api.client.restApi.BybitApiTradeRestClient;
-import com.tsafran.vibetrader.exchange.Exchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.AsyncExchange;
 import com.tsafran.vibetrader.exchange.ExchangeCategory;
 import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
 import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
 import com.tsafran.vibetrader.exchange.InstrumentPrecision;
-import com.tsafran.vibetrader.util.Util;
-import com.tsafran.vibetrader.exchange.Ohlcv;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
 import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+import com.tsafran.vibetrader.marketdata.CandleCache;
+import com.tsafran.vibetrader.marketdata.LiveCandleStore;
+import com.tsafran.vibetrader.util.Util;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import javax.validation.constraints.Min;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
-public class BybitExchange implements Exchange {
-    private final BybitApiMarketRestClient marketClient;
-    private final BybitApiAccountRestClient accountClient;
+public class BybitExchange implements AsyncExchange {
+    private static final Logger logger = LoggerFactory.getLogger(BybitExchange.class);
+    private static final String LINEAR_CATEGORY = "linear";
+
     private final BybitApiTradeRestClient tradeClient;
+    private final BybitMarketDataClient marketDataClient;
+    private final BybitDecodeMetrics decodeMetrics;
+    private final BybitRequestScheduler requestScheduler;
+    private final LiveCandleStore liveCandleStore;
+    private final CandleCache candleCache;
+    private final BybitInstrumentRegistry instrumentRegistry;
+    private final BybitAccountMirror accountMirror;
+    private final BybitAccountReconciler accountReconciler;
 
     @Override
-    public List<Ohlcv> getKlines(String symbol, ExchangeCategory category, ExchangeInterval interval, @Min(1) int limit) {
+    public CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, @Min(1) int limit) {
+        return Util.join(getCandlesAsync(symbol, category, interval, limit));
+    }
+
+    @Override
+    public CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            @Min(1) int limit
+    ) {
         Objects.requireNonNull(symbol, "symbol");
         Objects.requireNonNull(category, "category");
         Objects.requireNonNull(interval, "interval");
 
-        MarketDataRequest request = MarketDataRequest.builder()
-                .category(BybitUtil.mapCategory(category))
-                .symbol(symbol)
-                .marketInterval(BybitUtil.mapInterval(interval))
-                .limit(limit)
-                .build();
+        boolean streamed = category == ExchangeCategory.LINEAR && liveCandleStore.isTracked(symbol, interval);
+        if (streamed) {
+            CandleSeries live = liveCandleStore.latest(symbol, interval, limit);
+            if (live != null) {
+                return CompletableFuture.completedFuture(live);
+            }
+        }
 
-        Object response = marketClient.getMarketLinesData(request);
-        List<MarketKlineEntry> entries = BybitUtil.getMarketKlineEntries(response);
-        if (entries == null || entries.isEmpty()) {
-            return List.of();
+        // Jobs firing together for the same series share one refresh
+        CompletableFuture<CandleSeries> candles = requestScheduler.submitAsync(
+                BybitEndpoint.KLINE,
+                new CandleKey(symbol.trim().toUpperCase(Locale.ROOT), category, interval, limit),
+                () -> candleCache.getCandles(symbol, category, interval, limit, marketDataClient::getKlines)
+        );
+        if (!streamed) {
+            return candles;
         }
+        return candles.thenApply(fetched -> {
+            liveCandleStore.seed(symbol, interval, fetched);
+            return fetched;
+        });
+    }
 
-        return entries.stream()
-                .map(entry -> new Ohlcv(
-                        entry.getStartTime(),
-                        Util.parseDecimal(entry.getOpenPrice()),
-                        Util.parseDecimal(entry.getHighPrice()),
-                        Util.parseDecimal(entry.getLowPrice()),
-                        Util.parseDecimal(entry.getClosePrice()),
-                        Util.parseDecimal(entry.getVolume()),
-                        Util.parseDecimal(entry.getTurnover())
-                ))
-                .toList();
+    @Override
+    public OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+        return Util.join(placeFuturesMarketOrderAsync(request));
     }
 
+    // Entry and take profit go out in one batch request so the exit is in place as soon as the entry fills
     @Override
-    public String placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+    public CompletableFuture<OrderPlacement> placeFuturesMarketOrderAsync(FuturesMarketOrderRequest request) {
         Objects.requireNonNull(request, "request");
 
-        TradeOrderRequest.TradeOrderRequestBuilder builder = TradeOrderRequest.builder()
-                .category(BybitUtil.mapCategory(request.category()))
-                .symbol(request.symbol())
-                .side(BybitUtil.mapSide(request.side()))
-                .orderType(TradeOrderType.MARKET)
-                .tpslMode(TpslMode.FULL.name())
-                .isLeverage(1)
-                .closeOnTrigger(true)
-                .qty(request.quantity().toPlainString());
-
-        if (request.stopLoss() != null) {
-            builder.stopLoss(request.stopLoss().toPlainString());
+        TradeOrderRequest entryRequest = buildEntryOrder(request);
+        if (request.takeProfit() == null) {
+            return createOrderAsync(entryRequest).thenApply(entry -> new OrderPlacement(
+                    entry == null ? new OrderLegResult(null, null, -1, "No result returned") : entry,
+                    null
+            ));
         }
 
-        Object response = tradeClient.createOrder(builder.build());
-        OrderResponse orderResponse = BybitUtil.getOrderResponse(response);
-        if (request.takeProfit() != null) {
-            placeReduceOnlyTakeProfitOrder(request);
-        }
-        return orderResponse == null ? null : orderResponse.getOrderId();
+        TradeOrderRequest takeProfitRequest = buildReduceOnlyTakeProfitOrder(request);
+        return createBatchOrderAsync(request.category(), List.of(entryRequest, takeProfitRequest))
+                .thenCompose(legs -> {
+                    OrderLegResult entry = legs.get(0);
+                    OrderLegResult takeProfit = legs.get(1);
+                    if (!entry.isAccepted() || takeProfit.isAccepted()) {
+                        return CompletableFuture.completedFuture(new OrderPlacement(entry, takeProfit));
+                    }
+
+                    // A reduce-only leg can be matched before the entry fill is booked, resend it once on its own
+                    logger.warn(
+                            "Take profit leg for {} rejected in batch ({} {}), retrying after entry {}",
+                            request.symbol(),
+                            takeProfit.code(),
+                            takeProfit.message(),
+                            entry.orderId()
+                    );
+                    return createOrderAsync(takeProfitRequest).handle((retried, ex) -> {
+                        if (ex != null || retried == null) {
+                            logger.error("Entry {} for {} has no take profit", entry.orderId(), request.symbol(), ex);
+                            return new OrderPlacement(entry, takeProfit);
+                        }
+                        return new OrderPlacement(entry, retried);
+                    });
+                });
     }
 
     @Override
     public BigDecimal getWalletBalance(WalletBalanceRequest request) {
-        Objects.requireNonNull(request, "request");
+        return Util.join(getWalletBalanceAsync(request));
+    }
 
-        AccountDataRequest.AccountDataRequestBuilder builder = AccountDataRequest.builder()
-                .accountType(BybitUtil.mapAccountType(request.accountType()));
+    @Override
+    public CompletableFuture<BigDecimal> getWalletBalanceAsync(WalletBalanceRequest request) {
+        Objects.requireNonNull(request, "request");
 
-        Object response = accountClient.getWalletBalance(builder.build());
-        return BybitUtil.extractTotalAvailableBalance(response);
+        if (accountMirror.isLive()) {
+            BigDecimal balance = accountMirror.getWalletBalance(request.accountType());
+            if (balance != null) {
+                return CompletableFuture.completedFuture(balance);
+            }
+        }
+        return accountReconciler.fetchWalletBalance(request.accountType());
     }
 
     @Override
     public InstrumentPrecision getInstrumentPrecision(String symbol) {
-        if (symbol == null || symbol.isBlank()) {
-            throw new IllegalArgumentException("symbol must be provided");
-        }
-
-        MarketDataRequest request = MarketDataRequest.builder()
-                .category(BybitUtil.mapCategory(ExchangeCategory.LINEAR))
-                .symbol(symbol)
-                .build();
+        return instrumentRegistry.getInstrumentPrecision(symbol);
+    }
 
-        Object response = marketClient.getInstrumentsInfo(request);
-        return BybitUtil.extractInstrumentPrecision(response, symbol);
+    @Override
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        return instrumentRegistry.getInstrumentPrecisionAsync(symbol);
     }
 
     @Override
     public boolean hasOpenOrders(String symbol) {
+        return Util.join(hasOpenOrdersAsync(symbol));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenOrdersAsync(String symbol) {
         if (symbol == null || symbol.isBlank()) {
             throw new IllegalArgumentException("symbol must be provided");
         }
+        if (accountMirror.isLive()) {
+            return CompletableFuture.completedFuture(accountMirror.hasOpenOrders(symbol, LINEAR_CATEGORY));
+        }
 
         TradeOrderRequest request = TradeOrderRequest.builder()
                 .category(BybitUtil.mapCategory(ExchangeCategory.LINEAR))
@@ -131,16 +180,40 @@ public class BybitExchange implements Exchange {
                 .openOnly(0)
                 .build();
 
-        Object response = tradeClient.getOpenOrders(request);
-        return BybitUtil.hasOpenOrders(response);
+        return requestScheduler.submitAsync(BybitEndpoint.OPEN_ORDERS, symbol.trim().toUpperCase(Locale.ROOT), () -> {
+            Object response = tradeClient.getOpenOrders(request);
+            return decodeMetrics.measure(
+                    "open-orders",
+                    0,
+                    () -> BybitResponseDecoder.decodeHasOpenOrders(response)
+            );
+        });
+    }
+
+    private TradeOrderRequest buildEntryOrder(FuturesMarketOrderRequest request) {
+        TradeOrderRequest.TradeOrderRequestBuilder builder = TradeOrderRequest.builder()
+                .category(BybitUtil.mapCategory(request.category()))
+                .symbol(request.symbol())
+                .side(BybitUtil.mapSide(request.side()))
+                .orderType(TradeOrderType.MARKET)
+                .tpslMode(TpslMode.FULL.name())
+                .isLeverage(1)
+                .closeOnTrigger(true)
+                .qty(request.quantity().toPlainString())
+                .orderLinkId(newOrderLinkId());
+
+        if (request.stopLoss() != null) {
+            builder.stopLoss(request.stopLoss().toPlainString());
+        }
+        return builder.build();
     }
 
-    private void placeReduceOnlyTakeProfitOrder(FuturesMarketOrderRequest request) {
+    private TradeOrderRequest buildReduceOnlyTakeProfitOrder(FuturesMarketOrderRequest request) {
         ExchangeOrderSide tpSide = request.side() == ExchangeOrderSide.LONG
                 ? ExchangeOrderSide.SHORT
                 : ExchangeOrderSide.LONG;
 
-        TradeOrderRequest tpRequest = TradeOrderRequest.builder()
+        return TradeOrderRequest.builder()
                 .category(BybitUtil.mapCategory(request.category()))
                 .symbol(request.symbol())
                 .side(BybitUtil.mapSide(tpSide))
@@ -150,8 +223,46 @@ public class BybitExchange implements Exchange {
                 .isLeverage(1)
                 .qty(request.quantity().toPlainString())
                 .price(request.takeProfit().toPlainString())
+                .orderLinkId(newOrderLinkId())
                 .build();
+    }
+
+    // Orders are never coalesced, each one is its own request
+    private CompletableFuture<OrderLegResult> createOrderAsync(TradeOrderRequest request) {
+        return requestScheduler.submitAsync(BybitEndpoint.ORDER_CREATE, null, () -> {
+            Object response = tradeClient.createOrder(request);
+            return decodeMetrics.measure(
+                    "order-create",
+                    0,
+                    () -> BybitResponseDecoder.decodeOrder(response)
+            );
+        });
+    }
+
+    private CompletableFuture<List<OrderLegResult>> createBatchOrderAsync(
+            ExchangeCategory category,
+            List<TradeOrderRequest> legs
+    ) {
+        BatchOrderRequest batchRequest = BatchOrderRequest.builder()
+                .category(BybitUtil.mapCategory(category))
+                .request(legs)
+                .build();
+
+        return requestScheduler.submitAsync(BybitEndpoint.ORDER_CREATE_BATCH, null, () -> {
+            Object response = tradeClient.createBatchOrder(batchRequest);
+            return decodeMetrics.measure(
+                    "order-create-batch",
+                    0,
+                    () -> BybitResponseDecoder.decodeBatchOrders(response, legs.size())
+            );
+        });
+    }
+
+    // Lets each leg be matched to its result and found again on the exchange, Bybit allows 36 characters
+    private static String newOrderLinkId() {
+        return "vt" + UUID.randomUUID().toString().replace("-", "");
+    }
 
-        tradeClient.createOrder(tpRequest);
+    private record CandleKey(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
     }
 }
@@ -0,0 +1,109 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.util.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class BybitInstrumentRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(BybitInstrumentRegistry.class);
+    private static final int PAGE_LIMIT = 1000;
+
+    private final BybitMarketDataClient marketDataClient;
+    private final BybitRequestScheduler requestScheduler;
+    private final boolean preload;
+    // Replaced wholesale on refresh so lookups never take a lock
+    private volatile Map<String, InstrumentPrecision> instruments = Map.of();
+
+    public BybitInstrumentRegistry(
+            BybitMarketDataClient marketDataClient,
+            BybitRequestScheduler requestScheduler,
+            @Value("${bybit.instruments.preload:true}") boolean preload
+    ) {
+        this.marketDataClient = marketDataClient;
+        this.requestScheduler = requestScheduler;
+        this.preload = preload;
+    }
+
+    public InstrumentPrecision getInstrumentPrecision(String symbol) {
+        return Util.join(getInstrumentPrecisionAsync(symbol));
+    }
+
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol must be provided");
+        }
+
+        String normalized = symbol.trim().toUpperCase(Locale.ROOT);
+        InstrumentPrecision precision = instruments.get(normalized);
+        if (precision != null) {
+            return CompletableFuture.completedFuture(precision);
+        }
+
+        // Listed after the last refresh, or the preload has not finished yet
+        return fetch(normalized).thenApply(fetched -> {
+            if (fetched != null) {
+                synchronized (this) {
+                    Map<String, InstrumentPrecision> updated = new HashMap<>(instruments);
+                    updated.put(normalized, fetched);
+                    instruments = Map.copyOf(updated);
+                }
+            }
+            return fetched;
+        });
+    }
+
+    public int size() {
+        return instruments.size();
+    }
+
+    @Scheduled(fixedDelayString = "${bybit.instruments.refresh-ms:3600000}")
+    public void refresh() {
+        if (!preload) {
+            return;
+        }
+        try {
+            Map<String, InstrumentPrecision> loaded = loadAll();
+            synchronized (this) {
+                instruments = Map.copyOf(loaded);
+            }
+            logger.info("Loaded instrument precision for {} linear symbols", loaded.size());
+        } catch (Exception ex) {
+            logger.warn("Instrument refresh failed, keeping {} cached symbols", instruments.size(), ex);
+        }
+    }
+
+    private Map<String, InstrumentPrecision> loadAll() {
+        Map<String, InstrumentPrecision> loaded = new HashMap<>();
+        String cursor = null;
+        do {
+            String pageCursor = cursor;
+            BybitResponseDecoder.InstrumentPage page = requestScheduler.submit(
+                    BybitEndpoint.INSTRUMENTS_INFO,
+                    null,
+                    () -> marketDataClient.getInstruments(ExchangeCategory.LINEAR, null, pageCursor, PAGE_LIMIT)
+            );
+            loaded.putAll(page.precisions());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return loaded;
+    }
+
+    private CompletableFuture<InstrumentPrecision> fetch(String symbol) {
+        return requestScheduler.submitAsync(
+                BybitEndpoint.INSTRUMENTS_INFO,
+                symbol,
+                () -> marketDataClient.getInstruments(ExchangeCategory.LINEAR, symbol, null, 1)
+        ).thenApply(page -> page.precisions().get(symbol));
+    }
+}
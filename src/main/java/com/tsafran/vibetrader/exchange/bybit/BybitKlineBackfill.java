@@ -0,0 +1,124 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Fills the candle archive for a past range from /v5/market/kline, walking back from the end of the range a page at a
+ * time. Pages are merged into the archive in batches, so a long range never sits in memory whole. The bar still
+ * forming is left to the live path.
+ */
+@Component
+public class BybitKlineBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(BybitKlineBackfill.class);
+    private static final int PAGE_LIMIT = 1000;
+    private static final int PAGES_PER_MERGE = 100;
+
+    private final BybitMarketDataClient marketDataClient;
+    private final BybitServerClock serverClock;
+    private final CandleArchive candleArchive;
+
+    public BybitKlineBackfill(
+            BybitMarketDataClient marketDataClient,
+            BybitServerClock serverClock,
+            CandleArchive candleArchive
+    ) {
+        this.marketDataClient = marketDataClient;
+        this.serverClock = serverClock;
+        this.candleArchive = candleArchive;
+    }
+
+    public Result backfill(String symbol, ExchangeInterval interval, long fromInclusive, long toExclusive) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol must be provided");
+        }
+        if (fromInclusive >= toExclusive) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (!candleArchive.isEnabled()) {
+            throw new IllegalStateException("Candle archive is disabled");
+        }
+        String normalized = symbol.trim().toUpperCase(Locale.ROOT);
+        serverClock.syncIfStale();
+        long closedBefore = CandleResampler.bucketStart(serverClock.now(), interval);
+
+        // Newest page first, each page in ascending order
+        List<CandleSeries> pages = new ArrayList<>();
+        int requests = 0;
+        int fetched = 0;
+        int added = 0;
+        long end = Math.min(toExclusive, closedBefore) - 1;
+        while (end >= fromInclusive) {
+            CandleSeries page = marketDataClient.getKlines(
+                    normalized,
+                    ExchangeCategory.LINEAR,
+                    interval,
+                    fromInclusive,
+                    end,
+                    PAGE_LIMIT
+            );
+            requests++;
+            if (page.isEmpty()) {
+                break;
+            }
+            pages.add(page);
+            fetched += page.size();
+            if (pages.size() == PAGES_PER_MERGE) {
+                added += merge(normalized, interval, pages);
+            }
+            // Fewer than asked for, the range or the listing starts inside this page
+            if (page.size() < PAGE_LIMIT) {
+                break;
+            }
+            end = page.startTime(0) - 1;
+        }
+        added += merge(normalized, interval, pages);
+
+        Result result = new Result(normalized, interval, requests, fetched, added,
+                candleArchive.size(normalized, interval));
+        logger.info(
+                "Backfilled {} {}: {} request(s), {} bars fetched, {} new, {} archived",
+                normalized,
+                interval,
+                requests,
+                fetched,
+                added,
+                result.archived()
+        );
+        return result;
+    }
+
+    private int merge(String symbol, ExchangeInterval interval, List<CandleSeries> pages) {
+        if (pages.isEmpty()) {
+            return 0;
+        }
+        int size = 0;
+        for (CandleSeries page : pages) {
+            size += page.size();
+        }
+        CandleSeries.Builder builder = CandleSeries.builder(size);
+        for (int p = pages.size() - 1; p >= 0; p--) {
+            CandleSeries page = pages.get(p);
+            for (int i = 0; i < page.size(); i++) {
+                builder.add(page.startTime(i), page.open(i), page.high(i), page.low(i), page.close(i),
+                        page.volume(i), page.turnover(i));
+            }
+            builder.priceScale(page.priceScale());
+        }
+        pages.clear();
+        return candleArchive.merge(symbol, interval, builder.build());
+    }
+
+    public record Result(String symbol, ExchangeInterval interval, int requests, int fetched, int added, int archived) {
+    }
+}
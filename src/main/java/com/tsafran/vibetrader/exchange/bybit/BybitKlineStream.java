@@ -0,0 +1,421 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.marketdata.CandleCloseListener;
+import com.tsafran.vibetrader.marketdata.LiveCandleStore;
+import com.tsafran.vibetrader.util.Util;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Public kline topics fed into LiveCandleStore. A topic whose subscribe is refused is dropped again, its series are
+ * then read over REST. A connection that has gone quiet for two ping intervals, pongs included, is taken for
+ * half-open and replaced.
+ */
+@Component
+public class BybitKlineStream {
+    private static final Logger logger = LoggerFactory.getLogger(BybitKlineStream.class);
+    private static final String KLINE_TOPIC_PREFIX = "kline.";
+    private static final int SUBSCRIBE_BATCH_SIZE = 10;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration PING_INTERVAL = Duration.ofSeconds(20);
+    private static final Duration SILENCE_LIMIT = PING_INTERVAL.multipliedBy(2);
+    private static final Duration MIN_RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    private final LiveCandleStore liveCandleStore;
+    private final CandleArchive candleArchive;
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final boolean resample;
+    // Topic -> intervals served by it, a 1m topic also feeds the higher timeframes resampled from it
+    private final Map<String, Set<ExchangeInterval>> topics = new ConcurrentHashMap<>();
+    private final List<CandleCloseListener> closeListeners = new CopyOnWriteArrayList<>();
+    // Subscribe requests awaiting their ack, by req_id
+    private final Map<String, List<String>> pendingSubscribes = new ConcurrentHashMap<>();
+    private final AtomicLong requestIds = new AtomicLong();
+    // All connection state is only touched from this single thread
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bybit-kline-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WebSocket webSocket;
+    private ScheduledFuture<?> pingTask;
+    private boolean connecting;
+    private int reconnectAttempts;
+    private volatile long lastMessageNanos;
+    private volatile boolean closed;
+
+    public BybitKlineStream(
+            LiveCandleStore liveCandleStore,
+            CandleArchive candleArchive,
+            ObjectMapper objectMapper,
+            @Value("${bybit.stream.public-url:wss://stream.bybit.com/v5/public/linear}") String publicUrl,
+            @Value("${marketdata.resample.enabled:true}") boolean resample
+    ) {
+        this.liveCandleStore = liveCandleStore;
+        this.candleArchive = candleArchive;
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(publicUrl);
+        this.resample = resample;
+    }
+
+    public synchronized void subscribe(String symbol, ExchangeInterval interval) {
+        ExchangeInterval streamed = streamedInterval(interval);
+        String topic = topic(symbol, streamed);
+        if (streamed == interval) {
+            liveCandleStore.track(symbol, interval);
+        } else {
+            liveCandleStore.trackResampled(symbol, interval);
+        }
+
+        Set<ExchangeInterval> subscribers = topics.get(topic);
+        if (subscribers != null) {
+            subscribers.add(interval);
+            return;
+        }
+        subscribers = ConcurrentHashMap.newKeySet();
+        subscribers.add(interval);
+        topics.put(topic, subscribers);
+        executor.execute(() -> {
+            if (webSocket != null) {
+                send("subscribe", List.of(topic));
+            } else {
+                connect();
+            }
+        });
+        logger.info("Subscribed to {}", topic);
+    }
+
+    public synchronized void unsubscribe(String symbol, ExchangeInterval interval) {
+        String topic = topic(symbol, streamedInterval(interval));
+        liveCandleStore.untrack(symbol, interval);
+        Set<ExchangeInterval> subscribers = topics.get(topic);
+        if (subscribers == null || !subscribers.remove(interval) || !subscribers.isEmpty()) {
+            return;
+        }
+        topics.remove(topic);
+        executor.execute(() -> {
+            if (webSocket != null) {
+                send("unsubscribe", List.of(topic));
+            }
+        });
+        logger.info("Unsubscribed from {}", topic);
+    }
+
+    // Told about every confirmed bar of the streamed intervals, after the live store has it
+    public void addCloseListener(CandleCloseListener listener) {
+        closeListeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeCloseListener(CandleCloseListener listener) {
+        closeListeners.remove(listener);
+    }
+
+    public Set<String> getTopics() {
+        return Set.copyOf(topics.keySet());
+    }
+
+    public boolean isConnected() {
+        return liveCandleStore.isLive();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        executor.execute(() -> {
+            if (webSocket != null) {
+                webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+                disconnect();
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void connect() {
+        if (closed || connecting || webSocket != null || topics.isEmpty()) {
+            return;
+        }
+        connecting = true;
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .buildAsync(uri, new Listener())
+                .whenComplete((socket, error) -> executor.execute(() -> onConnected(socket, error)));
+    }
+
+    private void onConnected(WebSocket socket, Throwable error) {
+        connecting = false;
+        if (error != null) {
+            logger.warn("Kline stream connection to {} failed: {}", uri, error.toString());
+            scheduleReconnect();
+            return;
+        }
+        if (closed) {
+            socket.abort();
+            return;
+        }
+
+        webSocket = socket;
+        reconnectAttempts = 0;
+        lastMessageNanos = System.nanoTime();
+        pendingSubscribes.clear();
+        List<String> snapshot = List.copyOf(topics.keySet());
+        for (int i = 0; i < snapshot.size(); i += SUBSCRIBE_BATCH_SIZE) {
+            send("subscribe", snapshot.subList(i, Math.min(snapshot.size(), i + SUBSCRIBE_BATCH_SIZE)));
+        }
+        if (webSocket != socket) {
+            return;
+        }
+        pingTask = executor.scheduleAtFixedRate(
+                () -> ping(socket),
+                PING_INTERVAL.toMillis(),
+                PING_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        liveCandleStore.setLive(true);
+        logger.info("Kline stream connected to {} with {} topic(s)", uri, snapshot.size());
+    }
+
+    private void onDisconnected(WebSocket socket, String reason) {
+        if (socket != webSocket) {
+            return;
+        }
+        logger.warn("Kline stream disconnected: {}", reason);
+        disconnect();
+        scheduleReconnect();
+    }
+
+    private void disconnect() {
+        if (pingTask != null) {
+            pingTask.cancel(false);
+            pingTask = null;
+        }
+        webSocket = null;
+        liveCandleStore.setLive(false);
+    }
+
+    private void scheduleReconnect() {
+        if (closed || topics.isEmpty()) {
+            return;
+        }
+        long delayMillis = Math.min(
+                MAX_RECONNECT_DELAY.toMillis(),
+                MIN_RECONNECT_DELAY.toMillis() << Math.min(reconnectAttempts, 16)
+        );
+        reconnectAttempts++;
+        executor.schedule(this::connect, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void ping(WebSocket socket) {
+        if (System.nanoTime() - lastMessageNanos > SILENCE_LIMIT.toNanos()) {
+            socket.abort();
+            onDisconnected(socket, "nothing received for " + SILENCE_LIMIT.toSeconds() + " s");
+            return;
+        }
+        send("ping", null);
+    }
+
+    private void send(String op, List<String> args) {
+        WebSocket socket = webSocket;
+        if (socket == null) {
+            return;
+        }
+        try {
+            String message;
+            if (args == null) {
+                message = objectMapper.writeValueAsString(Map.of("op", op));
+            } else {
+                // Bybit echoes req_id in the ack, which is how a refused subscribe is traced back to its topics
+                String requestId = Long.toString(requestIds.incrementAndGet());
+                if (op.equals("subscribe")) {
+                    pendingSubscribes.put(requestId, List.copyOf(args));
+                }
+                message = objectMapper.writeValueAsString(Map.of("op", op, "args", args, "req_id", requestId));
+            }
+            socket.sendText(message, true).join();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to encode stream request", ex);
+        } catch (Exception ex) {
+            socket.abort();
+            onDisconnected(socket, "send failed: " + ex);
+        }
+    }
+
+    private void handleMessage(String message) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(message);
+        } catch (JsonProcessingException ex) {
+            logger.warn("Ignoring malformed stream message: {}", message);
+            return;
+        }
+
+        String topic = root.path("topic").asText(null);
+        if (topic == null) {
+            handleReply(root, message);
+            return;
+        }
+        if (!topic.startsWith(KLINE_TOPIC_PREFIX)) {
+            return;
+        }
+
+        String[] parts = topic.split("\\.", 3);
+        if (parts.length != 3) {
+            return;
+        }
+        ExchangeInterval interval = BybitUtil.parseIntervalCode(parts[1]);
+        JsonNode data = root.path("data");
+        CandleSeries.Builder builder = CandleSeries.builder(data.size());
+        CandleSeries.Builder confirmed = null;
+        for (JsonNode entry : data) {
+            String close = entry.path("close").asText();
+            long startTime = entry.path("start").asLong();
+            double open = entry.path("open").asDouble();
+            double high = entry.path("high").asDouble();
+            double low = entry.path("low").asDouble();
+            double closePrice = Double.parseDouble(close);
+            double volume = entry.path("volume").asDouble();
+            double turnover = entry.path("turnover").asDouble();
+            int scale = Util.decimalScale(close);
+            builder.add(startTime, open, high, low, closePrice, volume, turnover).priceScale(scale);
+            if (entry.path("confirm").asBoolean()) {
+                if (confirmed == null) {
+                    confirmed = CandleSeries.builder(1);
+                }
+                confirmed.add(startTime, open, high, low, closePrice, volume, turnover).priceScale(scale);
+            }
+        }
+        liveCandleStore.apply(parts[2], interval, builder.build());
+        if (confirmed != null) {
+            CandleSeries closed = confirmed.build();
+            candleArchive.append(parts[2], interval, closed);
+            for (CandleCloseListener listener : closeListeners) {
+                for (int i = 0; i < closed.size(); i++) {
+                    listener.onClose(parts[2], interval, closed.startTime(i));
+                }
+            }
+        }
+    }
+
+    private void handleReply(JsonNode root, String message) {
+        String requestId = root.path("req_id").asText("");
+        List<String> requested = requestId.isEmpty() ? null : pendingSubscribes.remove(requestId);
+        if (!root.has("success") || root.path("success").asBoolean()) {
+            return;
+        }
+        logger.warn("Kline stream request failed: {}", message);
+        if (requested == null) {
+            return;
+        }
+        // Bybit names the topics it refused, a batch it did not is dropped whole
+        String reason = root.path("ret_msg").asText("");
+        List<String> refused = requested.stream().filter(topic -> names(reason, topic)).toList();
+        (refused.isEmpty() ? requested : refused).forEach(this::drop);
+    }
+
+    private static boolean names(String text, String topic) {
+        int at = text.indexOf(topic);
+        while (at >= 0) {
+            int end = at + topic.length();
+            if (end == text.length() || !Character.isLetterOrDigit(text.charAt(end))) {
+                return true;
+            }
+            at = text.indexOf(topic, at + 1);
+        }
+        return false;
+    }
+
+    // A refused topic would leave its series tracked but never updated, REST serves them instead
+    private synchronized void drop(String topic) {
+        Set<ExchangeInterval> subscribers = topics.remove(topic);
+        if (subscribers == null) {
+            return;
+        }
+        String symbol = topic.split("\\.", 3)[2];
+        for (ExchangeInterval interval : subscribers) {
+            liveCandleStore.untrack(symbol, interval);
+        }
+        logger.warn("Dropped {} after its subscribe was refused, {} is read over REST", topic, symbol);
+    }
+
+    // Higher timeframes are built locally from the 1m stream, so a symbol costs one topic whatever it is watched on
+    private ExchangeInterval streamedInterval(ExchangeInterval interval) {
+        Objects.requireNonNull(interval, "interval");
+        return resample ? LiveCandleStore.RESAMPLE_BASE : interval;
+    }
+
+    private static String topic(String symbol, ExchangeInterval interval) {
+        Objects.requireNonNull(interval, "interval");
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol must be provided");
+        }
+        return KLINE_TOPIC_PREFIX + BybitUtil.intervalCode(interval) + "." + symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            lastMessageNanos = System.nanoTime();
+            buffer.append(data);
+            if (last) {
+                String message = buffer.toString();
+                buffer.setLength(0);
+                try {
+                    handleMessage(message);
+                } catch (RuntimeException ex) {
+                    logger.warn("Failed to handle stream message: {}", message, ex);
+                }
+            }
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            if (closed) {
+                return null;
+            }
+            executor.execute(() -> onDisconnected(socket, "closed " + statusCode + " " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            if (closed) {
+                return;
+            }
+            executor.execute(() -> onDisconnected(socket, error.toString()));
+        }
+    }
+}
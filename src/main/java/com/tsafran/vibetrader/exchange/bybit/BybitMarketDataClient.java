@@ -0,0 +1,153 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+
+// Public market endpoints are read as raw bytes so they can be decoded without the SDK's Map tree
+@Component
+public class BybitMarketDataClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final BybitDecodeMetrics decodeMetrics;
+    private final BybitRequestScheduler requestScheduler;
+    private final String baseUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .build();
+
+    public BybitMarketDataClient(
+            BybitDecodeMetrics decodeMetrics,
+            BybitRequestScheduler requestScheduler,
+            @Value("${bybit.rest.public-url:https://api.bybit.com}") String baseUrl
+    ) {
+        this.decodeMetrics = decodeMetrics;
+        this.requestScheduler = requestScheduler;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public CandleSeries getKlines(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            Long start,
+            int limit
+    ) {
+        return getKlines(symbol, category, interval, start, null, limit);
+    }
+
+    // Bybit answers with the newest limit bars starting in [start, end], both inclusive and optional
+    public CandleSeries getKlines(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            Long start,
+            Long end,
+            int limit
+    ) {
+        StringBuilder query = new StringBuilder()
+                .append("category=").append(category(category))
+                .append("&symbol=").append(symbol(symbol))
+                .append("&interval=").append(BybitUtil.intervalCode(interval))
+                .append("&limit=").append(limit);
+        if (start != null) {
+            query.append("&start=").append(start);
+        }
+        if (end != null) {
+            query.append("&end=").append(end);
+        }
+
+        byte[] body = get(BybitEndpoint.KLINE, "/v5/market/kline", query.toString());
+        return decodeMetrics.measure("kline", body.length, () -> BybitResponseDecoder.decodeKlines(body));
+    }
+
+    public BybitResponseDecoder.InstrumentPage getInstruments(
+            ExchangeCategory category,
+            String symbol,
+            String cursor,
+            int limit
+    ) {
+        StringBuilder query = new StringBuilder()
+                .append("category=").append(category(category))
+                .append("&limit=").append(limit);
+        if (symbol != null) {
+            query.append("&symbol=").append(symbol(symbol));
+        }
+        if (cursor != null) {
+            query.append("&cursor=").append(encode(cursor));
+        }
+
+        byte[] body = get(BybitEndpoint.INSTRUMENTS_INFO, "/v5/market/instruments-info", query.toString());
+        return decodeMetrics.measure(
+                "instruments-info",
+                body.length,
+                () -> BybitResponseDecoder.decodeInstruments(body)
+        );
+    }
+
+    // Server time in epoch millis
+    public long getServerTime() {
+        byte[] body = get(BybitEndpoint.SERVER_TIME, "/v5/market/time", "");
+        return BybitResponseDecoder.decodeServerTime(body);
+    }
+
+    private byte[] get(BybitEndpoint endpoint, String path, String query) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path + "?" + query))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long resetAtMillis = applyLimitHeaders(endpoint, response.headers());
+            // Bybit answers a breached IP limit with a bare 403
+            if (response.statusCode() == 403 || response.statusCode() == 429) {
+                throw new BybitRateLimitException("Bybit HTTP " + response.statusCode() + " for " + path, resetAtMillis);
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Bybit HTTP " + response.statusCode() + " for " + path);
+            }
+            return response.body();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Bybit request failed for " + path, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + path, ex);
+        }
+    }
+
+    private long applyLimitHeaders(BybitEndpoint endpoint, HttpHeaders headers) {
+        long limit = headers.firstValueAsLong("X-Bapi-Limit").orElse(-1);
+        long remaining = headers.firstValueAsLong("X-Bapi-Limit-Status").orElse(-1);
+        long resetAtMillis = headers.firstValueAsLong("X-Bapi-Limit-Reset-Timestamp").orElse(0);
+        if (limit > 0 && remaining >= 0) {
+            requestScheduler.updateLimit(endpoint, (int) limit, (int) remaining, resetAtMillis);
+        }
+        return resetAtMillis;
+    }
+
+    private static String category(ExchangeCategory category) {
+        return category.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String symbol(String symbol) {
+        return encode(symbol.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,375 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.ExchangeAccountType;
+import com.tsafran.vibetrader.util.Util;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Authenticated order, position, execution and wallet topics, fed into BybitAccountMirror
+@Component
+public class BybitPrivateStream {
+    private static final Logger logger = LoggerFactory.getLogger(BybitPrivateStream.class);
+    private static final List<String> TOPICS = List.of("order", "position", "execution", "wallet");
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration PING_INTERVAL = Duration.ofSeconds(20);
+    private static final Duration AUTH_EXPIRY = Duration.ofSeconds(10);
+    private static final Duration MIN_RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    private final BybitAccountMirror accountMirror;
+    private final BybitAccountReconciler accountReconciler;
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final boolean enabled;
+    private final String apiKey;
+    private final String apiSecret;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    // All connection state is only touched from this single thread
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bybit-private-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WebSocket webSocket;
+    private ScheduledFuture<?> pingTask;
+    private boolean connecting;
+    private int reconnectAttempts;
+    private volatile boolean closed;
+
+    public BybitPrivateStream(
+            BybitAccountMirror accountMirror,
+            BybitAccountReconciler accountReconciler,
+            ObjectMapper objectMapper,
+            @Value("${bybit.stream.private-url:wss://stream-demo.bybit.com/v5/private}") String privateUrl,
+            @Value("${bybit.stream.private-enabled:true}") boolean enabled,
+            @Value("${bybit.api-key:}") String apiKey,
+            @Value("${bybit.api-secret:}") String apiSecret
+    ) {
+        this.accountMirror = accountMirror;
+        this.accountReconciler = accountReconciler;
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(privateUrl);
+        this.enabled = enabled;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || apiKey == null || apiKey.isBlank() || apiSecret == null || apiSecret.isBlank()) {
+            logger.info("Private stream disabled, account state is read over REST");
+            return;
+        }
+        executor.execute(this::connect);
+    }
+
+    public boolean isConnected() {
+        return accountMirror.isStreaming();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        executor.execute(() -> {
+            if (webSocket != null) {
+                webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+                disconnect();
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void connect() {
+        if (closed || connecting || webSocket != null) {
+            return;
+        }
+        connecting = true;
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .buildAsync(uri, new Listener())
+                .whenComplete((socket, error) -> executor.execute(() -> onConnected(socket, error)));
+    }
+
+    private void onConnected(WebSocket socket, Throwable error) {
+        connecting = false;
+        if (error != null) {
+            logger.warn("Private stream connection to {} failed: {}", uri, error.toString());
+            scheduleReconnect();
+            return;
+        }
+        if (closed) {
+            socket.abort();
+            return;
+        }
+
+        webSocket = socket;
+        long expires = System.currentTimeMillis() + AUTH_EXPIRY.toMillis();
+        send("auth", List.of(apiKey, expires, sign("GET/realtime" + expires)));
+        if (webSocket != socket) {
+            return;
+        }
+        pingTask = executor.scheduleAtFixedRate(
+                () -> send("ping", null),
+                PING_INTERVAL.toMillis(),
+                PING_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private void onDisconnected(WebSocket socket, String reason) {
+        if (socket != webSocket) {
+            return;
+        }
+        logger.warn("Private stream disconnected: {}", reason);
+        disconnect();
+        scheduleReconnect();
+    }
+
+    private void disconnect() {
+        if (pingTask != null) {
+            pingTask.cancel(false);
+            pingTask = null;
+        }
+        webSocket = null;
+        accountMirror.setStreaming(false);
+    }
+
+    private void scheduleReconnect() {
+        if (closed) {
+            return;
+        }
+        long delayMillis = Math.min(
+                MAX_RECONNECT_DELAY.toMillis(),
+                MIN_RECONNECT_DELAY.toMillis() << Math.min(reconnectAttempts, 16)
+        );
+        reconnectAttempts++;
+        executor.schedule(this::connect, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(String op, List<?> args) {
+        WebSocket socket = webSocket;
+        if (socket == null) {
+            return;
+        }
+        try {
+            String message = args == null
+                    ? objectMapper.writeValueAsString(Map.of("op", op))
+                    : objectMapper.writeValueAsString(Map.of("op", op, "args", args));
+            socket.sendText(message, true).join();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to encode stream request", ex);
+        } catch (Exception ex) {
+            socket.abort();
+            onDisconnected(socket, "send failed: " + ex);
+        }
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Failed to sign private stream auth", ex);
+        }
+    }
+
+    // Runs on the stream executor, so replies are handled in order with connection changes
+    private void handleMessage(WebSocket socket, String message) {
+        if (socket != webSocket) {
+            return;
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(message);
+        } catch (JsonProcessingException ex) {
+            logger.warn("Ignoring malformed private stream message: {}", message);
+            return;
+        }
+
+        String topic = root.path("topic").asText(null);
+        if (topic == null) {
+            handleReply(socket, root, message);
+            return;
+        }
+
+        JsonNode data = root.path("data");
+        switch (topic) {
+            case "order" -> accountMirror.applyOrders(parseOrders(data));
+            case "position" -> accountMirror.applyPositions(parsePositions(data));
+            case "execution" -> accountMirror.applyExecutions(parseExecutions(data));
+            case "wallet" -> applyWallet(data, root.path("creationTime").asLong(System.currentTimeMillis()));
+            default -> {
+            }
+        }
+    }
+
+    private void handleReply(WebSocket socket, JsonNode root, String message) {
+        String op = root.path("op").asText("");
+        boolean success = root.path("success").asBoolean(true);
+        switch (op) {
+            case "auth" -> {
+                if (!success) {
+                    // Retrying with the same keys cannot succeed, stay on REST instead
+                    logger.error("Private stream authentication failed: {}", root.path("ret_msg").asText());
+                    closed = true;
+                    socket.sendClose(WebSocket.NORMAL_CLOSURE, "auth failed");
+                    disconnect();
+                    return;
+                }
+                send("subscribe", TOPICS);
+            }
+            case "subscribe" -> {
+                if (!success) {
+                    logger.warn("Private stream subscribe failed: {}", message);
+                    return;
+                }
+                reconnectAttempts = 0;
+                accountMirror.setStreaming(true);
+                accountReconciler.reconcileAsync();
+                logger.info("Private stream connected to {}", uri);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void applyWallet(JsonNode data, long updatedTime) {
+        for (JsonNode account : data) {
+            String accountType = account.path("accountType").asText("").toUpperCase(Locale.ROOT);
+            ExchangeAccountType type;
+            try {
+                type = ExchangeAccountType.valueOf(accountType);
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+            accountMirror.applyWallet(type, decimal(account.path("totalAvailableBalance")), updatedTime);
+        }
+    }
+
+    private static List<BybitAccountMirror.OpenOrder> parseOrders(JsonNode data) {
+        List<BybitAccountMirror.OpenOrder> orders = new ArrayList<>(data.size());
+        for (JsonNode entry : data) {
+            orders.add(new BybitAccountMirror.OpenOrder(
+                    entry.path("orderId").asText(),
+                    entry.path("orderLinkId").asText(null),
+                    entry.path("symbol").asText(),
+                    entry.path("category").asText(),
+                    entry.path("side").asText(null),
+                    entry.path("orderType").asText(null),
+                    entry.path("orderStatus").asText(),
+                    decimal(entry.path("price")),
+                    decimal(entry.path("qty")),
+                    entry.path("updatedTime").asLong()
+            ));
+        }
+        return orders;
+    }
+
+    private static List<BybitAccountMirror.Position> parsePositions(JsonNode data) {
+        List<BybitAccountMirror.Position> positions = new ArrayList<>(data.size());
+        for (JsonNode entry : data) {
+            BigDecimal size = decimal(entry.path("size"));
+            positions.add(new BybitAccountMirror.Position(
+                    entry.path("symbol").asText(),
+                    entry.path("category").asText(),
+                    entry.path("side").asText(null),
+                    size == null ? BigDecimal.ZERO : size,
+                    decimal(entry.path("entryPrice")),
+                    decimal(entry.path("unrealisedPnl")),
+                    entry.path("updatedTime").asLong()
+            ));
+        }
+        return positions;
+    }
+
+    private static List<BybitAccountMirror.Execution> parseExecutions(JsonNode data) {
+        List<BybitAccountMirror.Execution> executions = new ArrayList<>(data.size());
+        for (JsonNode entry : data) {
+            executions.add(new BybitAccountMirror.Execution(
+                    entry.path("execId").asText(),
+                    entry.path("orderId").asText(),
+                    entry.path("symbol").asText(),
+                    entry.path("side").asText(null),
+                    decimal(entry.path("execPrice")),
+                    decimal(entry.path("execQty")),
+                    decimal(entry.path("execFee")),
+                    entry.path("execTime").asLong()
+            ));
+        }
+        return executions;
+    }
+
+    private static BigDecimal decimal(JsonNode node) {
+        String text = node.asText("");
+        return text.isBlank() ? null : Util.parseDecimal(text);
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                String message = buffer.toString();
+                buffer.setLength(0);
+                executor.execute(() -> {
+                    try {
+                        handleMessage(socket, message);
+                    } catch (RuntimeException ex) {
+                        logger.warn("Failed to handle private stream message: {}", message, ex);
+                    }
+                });
+            }
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            if (closed) {
+                return null;
+            }
+            executor.execute(() -> onDisconnected(socket, "closed " + statusCode + " " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            if (closed) {
+                return;
+            }
+            executor.execute(() -> onDisconnected(socket, error.toString()));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+public class BybitRateLimitException extends IllegalStateException {
+    private final long resetAtMillis;
+
+    public BybitRateLimitException(String message, long resetAtMillis) {
+        super(message);
+        this.resetAtMillis = resetAtMillis;
+    }
+
+    // Epoch millis when the limit window resets, 0 when Bybit did not say
+    public long getResetAtMillis() {
+        return resetAtMillis;
+    }
+}
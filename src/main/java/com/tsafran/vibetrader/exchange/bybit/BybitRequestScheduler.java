@@ -0,0 +1,293 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.tsafran.vibetrader.util.Util;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * Every Bybit REST call goes through here.
+ *   - Identical requests already in flight share one call (single-flight) when a key is given.
+ *   - Each endpoint has its own token bucket, tightened from Bybit's limit headers when they are available.
+ *   - Queued work is dispatched by priority, a throttled endpoint only holds back its own requests.
+ *   - Calls rejected with a rate-limit error pause their endpoint and are retried ahead of the queue.
+ */
+@Component
+public class BybitRequestScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(BybitRequestScheduler.class);
+    private static final int MAX_RATE_LIMIT_RETRIES = 3;
+    private static final long DEFAULT_BACKOFF_MILLIS = 1_000;
+
+    private final Map<BybitEndpoint, TokenBucket> buckets = new EnumMap<>(BybitEndpoint.class);
+    private final Map<BybitEndpoint.Priority, ArrayDeque<Task<?>>> queues = new EnumMap<>(BybitEndpoint.Priority.class);
+    private final Map<RequestKey, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ExecutorService executor;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    public BybitRequestScheduler() {
+        for (BybitEndpoint endpoint : BybitEndpoint.values()) {
+            buckets.put(endpoint, new TokenBucket(endpoint.requestsPerSecond()));
+        }
+        for (BybitEndpoint.Priority priority : BybitEndpoint.Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+        }
+
+        // Calls spend nearly all their time blocked on the network, one virtual thread each is enough
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bybit-request-", 1).factory());
+        this.dispatcher = new Thread(this::dispatchLoop, "bybit-request-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public <T> T submit(BybitEndpoint endpoint, Object key, Supplier<T> call) {
+        return Util.join(submitAsync(endpoint, key, call));
+    }
+
+    // A null key never coalesces, use it for anything with side effects
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submitAsync(BybitEndpoint endpoint, Object key, Supplier<T> call) {
+        Objects.requireNonNull(endpoint, "endpoint");
+        Objects.requireNonNull(call, "call");
+        if (closed) {
+            throw new IllegalStateException("Bybit request scheduler is closed");
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (key != null) {
+            RequestKey requestKey = new RequestKey(endpoint, key);
+            CompletableFuture<?> existing = inFlight.putIfAbsent(requestKey, future);
+            if (existing != null) {
+                // Callers get their own copy so one cancelling cannot fail the others
+                return ((CompletableFuture<T>) existing).copy();
+            }
+            future.whenComplete((result, ex) -> inFlight.remove(requestKey, future));
+        }
+
+        enqueue(new Task<>(endpoint, call, future), false);
+        return future.copy();
+    }
+
+    // Applies X-Bapi-Limit, X-Bapi-Limit-Status and X-Bapi-Limit-Reset-Timestamp from a response
+    public void updateLimit(BybitEndpoint endpoint, int limit, int remaining, long resetAtMillis) {
+        buckets.get(endpoint).update(limit, remaining, resetAtMillis, System.nanoTime());
+    }
+
+    public Map<BybitEndpoint, EndpointStatus> status() {
+        Map<BybitEndpoint, EndpointStatus> result = new EnumMap<>(BybitEndpoint.class);
+        Map<BybitEndpoint, Integer> queued = new EnumMap<>(BybitEndpoint.class);
+        lock.lock();
+        try {
+            for (ArrayDeque<Task<?>> queue : queues.values()) {
+                for (Task<?> task : queue) {
+                    queued.merge(task.endpoint, 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long now = System.nanoTime();
+        buckets.forEach((endpoint, bucket) -> result.put(
+                endpoint,
+                bucket.status(now, queued.getOrDefault(endpoint, 0))
+        ));
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        executor.shutdownNow();
+
+        lock.lock();
+        try {
+            IllegalStateException closedException = new IllegalStateException("Bybit request scheduler is closed");
+            for (ArrayDeque<Task<?>> queue : queues.values()) {
+                queue.forEach(task -> task.future.completeExceptionally(closedException));
+                queue.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Task<?> task, boolean first) {
+        lock.lock();
+        try {
+            ArrayDeque<Task<?>> queue = queues.get(task.endpoint.priority());
+            if (first) {
+                queue.addFirst(task);
+            } else {
+                queue.addLast(task);
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchLoop() {
+        lock.lock();
+        try {
+            while (!closed) {
+                long waitNanos = dispatchReady(System.nanoTime());
+                changed.awaitNanos(waitNanos);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns how long until the next queued request could get a token
+    private long dispatchReady(long now) {
+        long waitNanos = TimeUnit.SECONDS.toNanos(60);
+        Set<BybitEndpoint> throttled = EnumSet.noneOf(BybitEndpoint.class);
+        for (ArrayDeque<Task<?>> queue : queues.values()) {
+            Iterator<Task<?>> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Task<?> task = iterator.next();
+                if (throttled.contains(task.endpoint)) {
+                    continue;
+                }
+
+                long tokenWait = buckets.get(task.endpoint).tryAcquire(now);
+                if (tokenWait > 0) {
+                    throttled.add(task.endpoint);
+                    waitNanos = Math.min(waitNanos, tokenWait);
+                    continue;
+                }
+
+                iterator.remove();
+                executor.execute(() -> run(task));
+            }
+        }
+        return waitNanos;
+    }
+
+    private <T> void run(Task<T> task) {
+        try {
+            task.future.complete(task.call.get());
+        } catch (BybitRateLimitException ex) {
+            long resetAtMillis = ex.getResetAtMillis() > 0
+                    ? ex.getResetAtMillis()
+                    : System.currentTimeMillis() + DEFAULT_BACKOFF_MILLIS;
+            buckets.get(task.endpoint).pauseUntil(resetAtMillis, System.nanoTime());
+            if (task.attempts++ < MAX_RATE_LIMIT_RETRIES && !closed) {
+                logger.warn("Bybit rate limit hit on {}, retrying ({}/{})", task.endpoint, task.attempts, MAX_RATE_LIMIT_RETRIES);
+                enqueue(task, true);
+            } else {
+                task.future.completeExceptionally(ex);
+            }
+        } catch (Throwable ex) {
+            task.future.completeExceptionally(ex);
+        }
+    }
+
+    public record EndpointStatus(double limitPerSecond, double availableTokens, long pausedMillis, int queued) {
+    }
+
+    private record RequestKey(BybitEndpoint endpoint, Object key) {
+    }
+
+    private static final class Task<T> {
+        private final BybitEndpoint endpoint;
+        private final Supplier<T> call;
+        private final CompletableFuture<T> future;
+        private int attempts;
+
+        private Task(BybitEndpoint endpoint, Supplier<T> call, CompletableFuture<T> future) {
+            this.endpoint = endpoint;
+            this.call = call;
+            this.future = future;
+        }
+    }
+
+    // Bybit limits are per second, so the bucket holds one second of requests and refills continuously
+    private static final class TokenBucket {
+        private double capacity;
+        private double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+        private long pausedUntil;
+
+        private TokenBucket(int requestsPerSecond) {
+            this.capacity = requestsPerSecond;
+            this.tokensPerNano = requestsPerSecond / 1e9;
+            this.tokens = requestsPerSecond;
+            this.lastRefill = System.nanoTime();
+            this.pausedUntil = lastRefill;
+        }
+
+        private synchronized long tryAcquire(long now) {
+            if (now - pausedUntil < 0) {
+                return pausedUntil - now;
+            }
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano));
+        }
+
+        private synchronized void update(int limit, int remaining, long resetAtMillis, long now) {
+            refill(now);
+            if (limit > 0 && limit != capacity) {
+                capacity = limit;
+                tokensPerNano = limit / 1e9;
+            }
+            tokens = Math.min(tokens, Math.max(0, remaining));
+            if (remaining <= 0 && resetAtMillis > 0) {
+                pauseUntil(resetAtMillis, now);
+            }
+        }
+
+        private synchronized void pauseUntil(long resetAtMillis, long now) {
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, resetAtMillis - System.currentTimeMillis()));
+            if (now + delayNanos - pausedUntil > 0) {
+                pausedUntil = now + delayNanos;
+            }
+            tokens = 0;
+            lastRefill = Math.max(lastRefill, pausedUntil);
+        }
+
+        private synchronized EndpointStatus status(long now, int queued) {
+            if (now - pausedUntil >= 0) {
+                refill(now);
+            }
+            long pausedMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntil - now));
+            return new EndpointStatus(capacity, tokens, pausedMillis, queued);
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
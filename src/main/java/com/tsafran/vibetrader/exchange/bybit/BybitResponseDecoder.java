@@ -0,0 +1,418 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.util.Util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class BybitResponseDecoder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int RATE_LIMIT_CODE = 10006;
+    private static final int IP_RATE_LIMIT_CODE = 10018;
+
+    private BybitResponseDecoder() {
+    }
+
+    public record InstrumentPage(Map<String, InstrumentPrecision> precisions, String nextCursor) {
+    }
+
+    public record OpenOrderPage(List<BybitAccountMirror.OpenOrder> orders, String nextCursor) {
+    }
+
+    // /v5/market/kline: result.list holds [start, open, high, low, close, volume, turnover] string arrays
+    public static CandleSeries decodeKlines(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            Envelope envelope = new Envelope();
+            CandleSeries.Builder builder = CandleSeries.builder(200);
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("result".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String resultField = parser.currentName();
+                        parser.nextToken();
+                        if ("list".equals(resultField) && parser.currentToken() == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() == JsonToken.START_ARRAY) {
+                                readKline(parser, builder);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if (!envelope.read(field, parser)) {
+                    parser.skipChildren();
+                }
+            }
+            envelope.check();
+            return builder.build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to decode Bybit kline response", ex);
+        }
+    }
+
+    // /v5/market/instruments-info: only symbol, priceFilter.tickSize and lotSizeFilter steps are kept
+    public static InstrumentPage decodeInstruments(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            Envelope envelope = new Envelope();
+            Map<String, InstrumentPrecision> precisions = new HashMap<>();
+            String cursor = null;
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("result".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String resultField = parser.currentName();
+                        parser.nextToken();
+                        if ("list".equals(resultField) && parser.currentToken() == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                readInstrument(parser, precisions);
+                            }
+                        } else if ("nextPageCursor".equals(resultField)) {
+                            cursor = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if (!envelope.read(field, parser)) {
+                    parser.skipChildren();
+                }
+            }
+            envelope.check();
+            return new InstrumentPage(precisions, cursor == null || cursor.isBlank() ? null : cursor);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to decode Bybit instruments response", ex);
+        }
+    }
+
+    // /v5/market/time: result.timeNano, or result.timeSecond when that is missing
+    public static long decodeServerTime(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            Envelope envelope = new Envelope();
+            long nanos = -1;
+            long seconds = -1;
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("result".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String resultField = parser.currentName();
+                        parser.nextToken();
+                        if ("timeNano".equals(resultField)) {
+                            nanos = parser.getValueAsLong(-1);
+                        } else if ("timeSecond".equals(resultField)) {
+                            seconds = parser.getValueAsLong(-1);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if (!envelope.read(field, parser)) {
+                    parser.skipChildren();
+                }
+            }
+            envelope.check();
+            if (nanos > 0) {
+                return nanos / 1_000_000;
+            }
+            if (seconds > 0) {
+                return seconds * 1_000;
+            }
+            throw new IllegalStateException("Bybit server time response has no time");
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to decode Bybit server time response", ex);
+        }
+    }
+
+    // The SDK clients hand back Jackson's untyped Map tree, read it in place instead of re-binding it
+    public static OrderLegResult decodeOrder(Object response) {
+        Map<?, ?> result = requireResult(response);
+        if (result == null) {
+            return null;
+        }
+        return OrderLegResult.accepted(text(result.get("orderId")), text(result.get("orderLinkId")));
+    }
+
+    // /v5/order/create-batch: result.list and retExtInfo.list are parallel to the submitted legs
+    public static List<OrderLegResult> decodeBatchOrders(Object response, int legs) {
+        Map<?, ?> root = requireRoot(response);
+        List<?> results = nestedList(root.get("result"));
+        List<?> statuses = nestedList(root.get("retExtInfo"));
+
+        List<OrderLegResult> decoded = new ArrayList<>(legs);
+        for (int i = 0; i < legs; i++) {
+            Map<?, ?> result = i < results.size() && results.get(i) instanceof Map<?, ?> map ? map : Map.of();
+            Map<?, ?> status = i < statuses.size() && statuses.get(i) instanceof Map<?, ?> map ? map : Map.of();
+            int code = status.get("code") instanceof Number number ? number.intValue() : -1;
+            Object message = status.containsKey("msg") ? status.get("msg") : "No result returned for leg " + i;
+            decoded.add(new OrderLegResult(
+                    text(result.get("orderId")),
+                    text(result.get("orderLinkId")),
+                    code,
+                    text(message)
+            ));
+        }
+        return decoded;
+    }
+
+    public static BigDecimal decodeTotalAvailableBalance(Object response) {
+        Map<?, ?> result = requireResult(response);
+        if (result == null) {
+            return null;
+        }
+
+        Object listObj = result.get("list");
+        if (!(listObj instanceof List<?> list) || list.isEmpty()) {
+            return null;
+        }
+
+        Object firstEntry = list.getFirst();
+        if (!(firstEntry instanceof Map<?, ?> firstMap)) {
+            return null;
+        }
+        return Util.parseDecimal(firstMap.get("totalAvailableBalance"));
+    }
+
+    public static OpenOrderPage decodeOpenOrders(Object response, String category) {
+        Map<?, ?> result = requireResult(response);
+        if (result == null) {
+            return new OpenOrderPage(List.of(), null);
+        }
+
+        List<BybitAccountMirror.OpenOrder> orders = new ArrayList<>();
+        for (Object entry : nestedList(result)) {
+            if (!(entry instanceof Map<?, ?> order)) {
+                continue;
+            }
+            orders.add(new BybitAccountMirror.OpenOrder(
+                    text(order.get("orderId")),
+                    text(order.get("orderLinkId")),
+                    text(order.get("symbol")),
+                    category,
+                    text(order.get("side")),
+                    text(order.get("orderType")),
+                    text(order.get("orderStatus")),
+                    decimalOrNull(order.get("price")),
+                    decimalOrNull(order.get("qty")),
+                    longOrZero(order.get("updatedTime"))
+            ));
+        }
+        String cursor = text(result.get("nextPageCursor"));
+        return new OpenOrderPage(orders, cursor == null || cursor.isBlank() ? null : cursor);
+    }
+
+    public static boolean decodeHasOpenOrders(Object response) {
+        Map<?, ?> result = requireResult(response);
+        if (result == null) {
+            return false;
+        }
+
+        Object listObj = result.get("list");
+        return (listObj instanceof List<?> list) && !list.isEmpty();
+    }
+
+    private static Map<?, ?> requireResult(Object response) {
+        return requireRoot(response).get("result") instanceof Map<?, ?> result ? result : null;
+    }
+
+    private static Map<?, ?> requireRoot(Object response) {
+        Map<?, ?> root = response instanceof Map<?, ?> map ? map : MAPPER.convertValue(response, Map.class);
+        if (root == null) {
+            throw new IllegalStateException("Bybit returned an empty response");
+        }
+        int retCode = root.get("retCode") instanceof Number number ? number.intValue() : -1;
+        checkRetCode(retCode, root.get("retMsg"));
+        return root;
+    }
+
+    private static List<?> nestedList(Object container) {
+        return container instanceof Map<?, ?> map && map.get("list") instanceof List<?> list ? list : List.of();
+    }
+
+    private static void checkRetCode(int retCode, Object retMsg) {
+        if (retCode == 0) {
+            return;
+        }
+        String message = "Bybit error: " + retCode + " " + retMsg;
+        if (retCode == RATE_LIMIT_CODE || retCode == IP_RATE_LIMIT_CODE) {
+            throw new BybitRateLimitException(message, 0);
+        }
+        throw new IllegalStateException(message);
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static BigDecimal decimalOrNull(Object value) {
+        return value == null || value.toString().isBlank() ? null : Util.parseDecimal(value);
+    }
+
+    private static long longOrZero(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value == null || value.toString().isBlank() ? 0 : Long.parseLong(value.toString());
+    }
+
+    private static void readKline(JsonParser parser, CandleSeries.Builder builder) throws IOException {
+        parser.nextToken();
+        long startTime = parser.getValueAsLong();
+        double open = nextDecimal(parser);
+        double high = nextDecimal(parser);
+        double low = nextDecimal(parser);
+        double close = nextDecimal(parser);
+        int scale = scale(parser);
+        double volume = nextDecimal(parser);
+        double turnover = nextDecimal(parser);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+        builder.add(startTime, open, high, low, close, volume, turnover).priceScale(scale);
+    }
+
+    private static void readInstrument(JsonParser parser, Map<String, InstrumentPrecision> precisions) throws IOException {
+        String symbol = null;
+        String tickSize = null;
+        String qtyStep = null;
+        String basePrecision = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "symbol" -> symbol = parser.getValueAsString();
+                case "priceFilter", "lotSizeFilter" -> {
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String filterField = parser.currentName();
+                        parser.nextToken();
+                        switch (filterField) {
+                            case "tickSize" -> tickSize = parser.getValueAsString();
+                            case "qtyStep" -> qtyStep = parser.getValueAsString();
+                            case "basePrecision" -> basePrecision = parser.getValueAsString();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        String step = qtyStep != null ? qtyStep : basePrecision;
+        if (symbol != null && step != null && tickSize != null) {
+            precisions.put(
+                    symbol.toUpperCase(Locale.ROOT),
+                    new InstrumentPrecision(new BigDecimal(step), new BigDecimal(tickSize))
+            );
+        }
+    }
+
+    private static double nextDecimal(JsonParser parser) throws IOException {
+        parser.nextToken();
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return parser.getValueAsDouble();
+        }
+        return parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static int scale(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return 0;
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] == '.') {
+                return length - i - 1;
+            }
+        }
+        return 0;
+    }
+
+    // Plain decimals with at most 15-16 significant digits are exact as mantissa / 10^scale, no String needed
+    static double parseDecimal(char[] chars, int offset, int length) {
+        long mantissa = 0;
+        int scale = -1;
+        boolean negative = false;
+        int i = 0;
+        if (length > 0 && (chars[offset] == '-' || chars[offset] == '+')) {
+            negative = chars[offset] == '-';
+            i++;
+        }
+        if (i == length) {
+            return fallback(chars, offset, length);
+        }
+        for (; i < length; i++) {
+            char c = chars[offset + i];
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9' && mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                return fallback(chars, offset, length);
+            }
+        }
+        if (mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return fallback(chars, offset, length);
+        }
+        double value = scale <= 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double fallback(char[] chars, int offset, int length) {
+        return Double.parseDouble(new String(chars, offset, length));
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Unexpected Bybit response, expected " + expected + " but got " + actual);
+        }
+    }
+
+    private static final class Envelope {
+        private int retCode = -1;
+        private String retMsg;
+
+        private boolean read(String field, JsonParser parser) throws IOException {
+            switch (field) {
+                case "retCode" -> retCode = parser.getValueAsInt(-1);
+                case "retMsg" -> retMsg = parser.getValueAsString();
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void check() {
+            checkRetCode(retCode, retMsg);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Local wall clock corrected to Bybit's: the server time is read a few times and the sample with the shortest round
+ * trip wins, taking the server to have answered halfway through it. Until the first sync the offset is zero.
+ */
+@Component
+public class BybitServerClock {
+    private static final Logger logger = LoggerFactory.getLogger(BybitServerClock.class);
+    private static final int SAMPLES = 3;
+
+    private final BybitMarketDataClient marketDataClient;
+    private final long resyncNanos;
+    private volatile long offsetMillis;
+    private volatile long roundTripMillis = -1;
+    private volatile long syncedAtNanos;
+
+    public BybitServerClock(
+            BybitMarketDataClient marketDataClient,
+            @Value("${bybit.clock.resync-minutes:10}") long resyncMinutes
+    ) {
+        if (resyncMinutes <= 0) {
+            throw new IllegalArgumentException("bybit.clock.resync-minutes must be positive");
+        }
+        this.marketDataClient = marketDataClient;
+        this.resyncNanos = TimeUnit.MINUTES.toNanos(resyncMinutes);
+    }
+
+    public long now() {
+        return System.currentTimeMillis() + offsetMillis;
+    }
+
+    // Server minus local time
+    public long offsetMillis() {
+        return offsetMillis;
+    }
+
+    public synchronized void sync() {
+        long bestRoundTrip = Long.MAX_VALUE;
+        long bestOffset = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long sentNanos = System.nanoTime();
+            long sentMillis = System.currentTimeMillis();
+            long serverTime = marketDataClient.getServerTime();
+            long roundTrip = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentNanos);
+            if (roundTrip < bestRoundTrip) {
+                bestRoundTrip = roundTrip;
+                bestOffset = serverTime - (sentMillis + roundTrip / 2);
+            }
+        }
+        offsetMillis = bestOffset;
+        roundTripMillis = bestRoundTrip;
+        syncedAtNanos = System.nanoTime();
+        logger.info("Bybit server clock offset {} ms (round trip {} ms)", bestOffset, bestRoundTrip);
+    }
+
+    // A failed sync keeps the last offset, the caller is not held up by it
+    public void syncIfStale() {
+        if (roundTripMillis >= 0 && System.nanoTime() - syncedAtNanos < resyncNanos) {
+            return;
+        }
+        try {
+            sync();
+        } catch (RuntimeException ex) {
+            logger.warn("Bybit server clock sync failed, keeping offset {} ms: {}", offsetMillis, ex.toString());
+        }
+    }
+}
@@ -1,156 +1,18 @@
 package com.tsafran.vibetrader.exchange.bybit;
 
-import com.bybit.api.client.domain.GenericResponse;
-import com.bybit.api.client.domain.market.response.kline.MarketKlineEntry;
-import com.bybit.api.client.domain.market.response.kline.MarketKlineResult;
-import com.bybit.api.client.domain.market.response.instrumentInfo.InstrumentEntry;
-import com.bybit.api.client.domain.market.response.instrumentInfo.InstrumentInfoResult;
-import com.bybit.api.client.domain.trade.response.OrderResponse;
 import com.bybit.api.client.domain.account.AccountType;
 import com.bybit.api.client.domain.trade.Side;
 import com.bybit.api.client.domain.CategoryType;
 import com.bybit.api.client.domain.market.MarketInterval;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tsafran.vibetrader.exchange.ExchangeAccountType;
 import com.tsafran.vibetrader.exchange.ExchangeCategory;
 import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
-import com.tsafran.vibetrader.exchange.InstrumentPrecision;
-import com.tsafran.vibetrader.util.Util;
-
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
 
 public final class BybitUtil {
-    private static final ObjectMapper MAPPER = new ObjectMapper()
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
     private BybitUtil() {
     }
 
-    public static List<MarketKlineEntry> getMarketKlineEntries(Object response) {
-        GenericResponse<MarketKlineResult> genericResponse = MAPPER.convertValue(
-                response,
-                new TypeReference<>() {}
-        );
-
-        if (genericResponse.getRetCode() != 0) {
-            throw new IllegalStateException(
-                    "Bybit error: " + genericResponse.getRetCode() + " " + genericResponse.getRetMsg()
-            );
-        }
-
-        MarketKlineResult result = genericResponse.getResult();
-        if (result == null || result.getMarketKlineEntries() == null) {
-            return List.of();
-        }
-
-        return result.getMarketKlineEntries();
-    }
-
-    public static OrderResponse getOrderResponse(Object response) {
-        GenericResponse<OrderResponse> genericResponse = MAPPER.convertValue(
-                response,
-                new TypeReference<>() {}
-        );
-
-        if (genericResponse.getRetCode() != 0) {
-            throw new IllegalStateException(
-                    "Bybit error: " + genericResponse.getRetCode() + " " + genericResponse.getRetMsg()
-            );
-        }
-
-        return genericResponse.getResult();
-    }
-
-    public static InstrumentPrecision extractInstrumentPrecision(Object response, String symbol) {
-        GenericResponse<InstrumentInfoResult> genericResponse = MAPPER.convertValue(
-                response,
-                new TypeReference<>() {}
-        );
-
-        if (genericResponse.getRetCode() != 0) {
-            throw new IllegalStateException(
-                    "Bybit error: " + genericResponse.getRetCode() + " " + genericResponse.getRetMsg()
-            );
-        }
-
-        InstrumentInfoResult result = genericResponse.getResult();
-        if (result == null || result.getInstrumentEntries() == null) {
-            return null;
-        }
-
-        for (InstrumentEntry entry : result.getInstrumentEntries()) {
-            if (entry != null && symbol.equalsIgnoreCase(entry.getSymbol())
-                    && entry.getLotSizeFilter() != null
-                    && entry.getPriceFilter() != null) {
-                BigDecimal basePrecision = Util.parseDecimal(entry.getLotSizeFilter().getQtyStep());
-                if (basePrecision == null) {
-                    basePrecision = Util.parseDecimal(entry.getLotSizeFilter().getBasePrecision());
-                }
-                BigDecimal tickSize = Util.parseDecimal(entry.getPriceFilter().getTickSize());
-                if (basePrecision != null && tickSize != null) {
-                    return new InstrumentPrecision(basePrecision, tickSize);
-                }
-            }
-        }
-
-        return null;
-    }
-
-    public static BigDecimal extractTotalAvailableBalance(Object response) {
-        GenericResponse<Map<String, Object>> genericResponse = MAPPER.convertValue(
-                response,
-                new TypeReference<>() {}
-        );
-
-        if (genericResponse.getRetCode() != 0) {
-            throw new IllegalStateException(
-                    "Bybit error: " + genericResponse.getRetCode() + " " + genericResponse.getRetMsg()
-            );
-        }
-
-        Map<String, Object> result = genericResponse.getResult();
-        if (result == null) {
-            return null;
-        }
-
-        Object listObj = result.get("list");
-        if (!(listObj instanceof List<?> list) || list.isEmpty()) {
-            return null;
-        }
-
-        Object firstEntry = list.getFirst();
-        if (!(firstEntry instanceof Map<?, ?> firstMap)) {
-            return null;
-        }
-        return Util.parseDecimal(firstMap.get("totalAvailableBalance"));
-    }
-
-    public static boolean hasOpenOrders(Object response) {
-        GenericResponse<Map<String, Object>> genericResponse = MAPPER.convertValue(
-                response,
-                new TypeReference<>() {}
-        );
-
-        if (genericResponse.getRetCode() != 0) {
-            throw new IllegalStateException(
-                    "Bybit error: " + genericResponse.getRetCode() + " " + genericResponse.getRetMsg()
-            );
-        }
-
-        Map<String, Object> result = genericResponse.getResult();
-        if (result == null) {
-            return false;
-        }
-
-        Object listObj = result.get("list");
-        return (listObj instanceof List<?> list) && !list.isEmpty();
-    }
-
     public static AccountType mapAccountType(ExchangeAccountType accountType) {
         return switch (accountType) {
             case UNIFIED -> AccountType.UNIFIED;
@@ -195,4 +57,41 @@ public final class BybitUtil {
             case ONE_MONTH -> MarketInterval.MONTHLY;
         };
     }
+
+    public static String intervalCode(ExchangeInterval interval) {
+        return switch (interval) {
+            case ONE_MINUTE -> "1";
+            case THREE_MINUTES -> "3";
+            case FIVE_MINUTES -> "5";
+            case FIFTEEN_MINUTES -> "15";
+            case THIRTY_MINUTES -> "30";
+            case ONE_HOUR -> "60";
+            case TWO_HOURS -> "120";
+            case FOUR_HOURS -> "240";
+            case SIX_HOURS -> "360";
+            case TWELVE_HOURS -> "720";
+            case ONE_DAY -> "D";
+            case ONE_WEEK -> "W";
+            case ONE_MONTH -> "M";
+        };
+    }
+
+    public static ExchangeInterval parseIntervalCode(String code) {
+        return switch (code) {
+            case "1" -> ExchangeInterval.ONE_MINUTE;
+            case "3" -> ExchangeInterval.THREE_MINUTES;
+            case "5" -> ExchangeInterval.FIVE_MINUTES;
+            case "15" -> ExchangeInterval.FIFTEEN_MINUTES;
+            case "30" -> ExchangeInterval.THIRTY_MINUTES;
+            case "60" -> ExchangeInterval.ONE_HOUR;
+            case "120" -> ExchangeInterval.TWO_HOURS;
+            case "240" -> ExchangeInterval.FOUR_HOURS;
+            case "360" -> ExchangeInterval.SIX_HOURS;
+            case "720" -> ExchangeInterval.TWELVE_HOURS;
+            case "D" -> ExchangeInterval.ONE_DAY;
+            case "W" -> ExchangeInterval.ONE_WEEK;
+            case "M" -> ExchangeInterval.ONE_MONTH;
+            default -> throw new IllegalArgumentException("Unsupported Bybit interval: " + code);
+        };
+    }
 }
@@ -0,0 +1,350 @@
+package com.tsafran.vibetrader.exchange.paper;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.TickGrid;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+import com.tsafran.vibetrader.position.PositionService;
+import com.tsafran.vibetrader.util.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * In-memory stand-in for the Bybit account, selected with the "paper" profile. Prices come from PaperMarketData,
+ * orders never leave the process:
+ *   - market entries fill at the latest fill-interval close moved against the order by paper.slippage-bps,
+ *     rounded to the tick grid, and pay the taker fee
+ *   - the stop loss is checked against each later bar's range and fills like a market order (slippage, taker fee),
+ *     the reduce-only take profit rests as a post-only limit and fills at its price (maker fee)
+ *   - a bar that gaps through the stop fills at its open, a bar reaching both levels is taken as stopped out
+ * The bar the entry filled on is never checked, its range includes prices from before the fill.
+ * Like the live account with isLeverage=1, an open position holds its entry notional as margin.
+ */
+@Service
+@Primary
+@Profile("paper")
+public class PaperExchange implements AsyncExchange {
+    private static final Logger logger = LoggerFactory.getLogger(PaperExchange.class);
+    // Bybit's codes for a rejected parameter and for a balance that does not cover the order
+    private static final int INVALID_REQUEST = 10001;
+    private static final int INSUFFICIENT_BALANCE = 110007;
+    // Bars fetched per position and check, a longer stall only checks the most recent ones
+    private static final int MAX_CHECK_BARS = 200;
+
+    private final PaperMarketData marketData;
+    private final ExchangeInterval fillInterval;
+    private final double slippage;
+    private final Map<String, PaperPosition> positions = new ConcurrentHashMap<>();
+    private final Map<String, TickGrid> grids = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong();
+
+    // Guarded by this
+    private double cash;
+    private double margin;
+    private long fills;
+    private long closedTrades;
+    private long winningTrades;
+    private double feesPaid;
+    private double realizedPnl;
+
+    public PaperExchange(
+            PaperMarketData marketData,
+            @Value("${paper.starting-balance:10000}") double startingBalance,
+            @Value("${paper.slippage-bps:2}") double slippageBps,
+            @Value("${paper.fill-interval:ONE_MINUTE}") ExchangeInterval fillInterval
+    ) {
+        if (!(startingBalance > 0)) {
+            throw new IllegalArgumentException("paper.starting-balance must be positive");
+        }
+        if (!(slippageBps >= 0)) {
+            throw new IllegalArgumentException("paper.slippage-bps must not be negative");
+        }
+        this.marketData = marketData;
+        this.fillInterval = Objects.requireNonNull(fillInterval, "fillInterval");
+        this.slippage = slippageBps / 10_000;
+        this.cash = startingBalance;
+        logger.info(
+                "Paper trading with {} USDT, {} bps slippage, {} market data",
+                startingBalance,
+                slippageBps,
+                marketData.isRecorded() ? "recorded" : "live"
+        );
+    }
+
+    @Override
+    public CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
+        return Util.join(getCandlesAsync(symbol, category, interval, limit));
+    }
+
+    @Override
+    public CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit
+    ) {
+        return marketData.getCandlesAsync(symbol, category, interval, limit);
+    }
+
+    @Override
+    public OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+        return Util.join(placeFuturesMarketOrderAsync(request));
+    }
+
+    @Override
+    public CompletableFuture<OrderPlacement> placeFuturesMarketOrderAsync(FuturesMarketOrderRequest request) {
+        Objects.requireNonNull(request, "request");
+
+        String symbol = normalize(request.symbol());
+        CompletableFuture<InstrumentPrecision> precision = marketData.getInstrumentPrecisionAsync(symbol);
+        CompletableFuture<CandleSeries> candles = marketData.getCandlesAsync(symbol, request.category(), fillInterval, 1);
+        return precision.thenCombine(candles, (instrument, latest) -> fill(symbol, request, instrument, latest));
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(WalletBalanceRequest request) {
+        return Util.join(getWalletBalanceAsync(request));
+    }
+
+    // Available balance, the way Bybit's totalAvailableBalance leaves out margin held by positions
+    @Override
+    public CompletableFuture<BigDecimal> getWalletBalanceAsync(WalletBalanceRequest request) {
+        Objects.requireNonNull(request, "request");
+        double available;
+        synchronized (this) {
+            available = cash - margin;
+        }
+        return CompletableFuture.completedFuture(BigDecimal.valueOf(available).setScale(8, RoundingMode.DOWN));
+    }
+
+    @Override
+    public InstrumentPrecision getInstrumentPrecision(String symbol) {
+        return Util.join(getInstrumentPrecisionAsync(symbol));
+    }
+
+    @Override
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        return marketData.getInstrumentPrecisionAsync(symbol);
+    }
+
+    // Bybit lists the resting take profit and the position's stop loss as open orders
+    @Override
+    public boolean hasOpenOrders(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol must be provided");
+        }
+        PaperPosition position = positions.get(normalize(symbol));
+        return position != null && (position.hasStopLoss() || position.hasTakeProfit());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenOrdersAsync(String symbol) {
+        return CompletableFuture.completedFuture(hasOpenOrders(symbol));
+    }
+
+    public List<PaperPosition> getPositions() {
+        return List.copyOf(positions.values());
+    }
+
+    public synchronized Status getStatus() {
+        return new Status(cash, cash - margin, positions.size(), fills, closedTrades, winningTrades, feesPaid, realizedPnl);
+    }
+
+    @Scheduled(fixedDelayString = "${paper.check-ms:1000}")
+    public void checkExits() {
+        if (positions.isEmpty()) {
+            return;
+        }
+        long now = marketData.now();
+        long barMillis = fillInterval.duration().toMillis();
+        List<CompletableFuture<Void>> checks = new ArrayList<>(positions.size());
+        for (PaperPosition position : positions.values()) {
+            int bars = (int) Math.min(MAX_CHECK_BARS, Math.max(1, (now - position.checkedThrough()) / barMillis + 1));
+            checks.add(marketData.getCandlesAsync(position.symbol(), ExchangeCategory.LINEAR, fillInterval, bars)
+                    .thenAccept(candles -> checkExit(position.symbol(), candles, now))
+                    .exceptionally(ex -> {
+                        logger.warn("Paper exit check failed for {}", position.symbol(), ex);
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private synchronized OrderPlacement fill(
+            String symbol,
+            FuturesMarketOrderRequest request,
+            InstrumentPrecision precision,
+            CandleSeries latest
+    ) {
+        if (latest == null || latest.isEmpty()) {
+            return rejected(INVALID_REQUEST, "No price for " + symbol);
+        }
+        TickGrid grid = TickGrid.of(precision);
+        long steps;
+        try {
+            steps = grid.steps(request.quantity(), RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException ex) {
+            return rejected(INVALID_REQUEST, "Qty " + request.quantity() + " is not a multiple of " + grid.qtyStep());
+        }
+        if (positions.containsKey(symbol)) {
+            return rejected(INVALID_REQUEST, "Paper account already has a position in " + symbol);
+        }
+
+        boolean isLong = request.side() == ExchangeOrderSide.LONG;
+        double price = slipped(grid, latest.close(latest.size() - 1), isLong);
+        double stopLoss = request.stopLoss() == null ? 0 : request.stopLoss().doubleValue();
+        if (stopLoss > 0 && (isLong ? stopLoss >= price : stopLoss <= price)) {
+            return rejected(INVALID_REQUEST, "Stop loss " + request.stopLoss() + " is on the wrong side of " + price);
+        }
+
+        double quantity = grid.qty(steps);
+        double fee = quantity * price * PositionService.TAKER_FEE;
+        if (quantity * price + fee > cash - margin) {
+            return rejected(INSUFFICIENT_BALANCE, "Insufficient available balance");
+        }
+
+        OrderLegResult entry = OrderLegResult.accepted(newOrderId(), newOrderLinkId());
+        // A post-only limit that would cross the market is cancelled on the exchange, the entry stands
+        OrderLegResult takeProfit = null;
+        double takeProfitPrice = 0;
+        if (request.takeProfit() != null) {
+            takeProfitPrice = request.takeProfit().doubleValue();
+            boolean resting = isLong ? takeProfitPrice > price : takeProfitPrice < price;
+            takeProfit = resting
+                    ? OrderLegResult.accepted(newOrderId(), newOrderLinkId())
+                    : new OrderLegResult(null, null, INVALID_REQUEST, "Post-only take profit would cross " + price);
+        }
+
+        cash -= fee;
+        margin += quantity * price;
+        feesPaid += fee;
+        fills++;
+        grids.put(symbol, grid);
+        positions.put(symbol, new PaperPosition(
+                symbol,
+                request.side(),
+                quantity,
+                price,
+                stopLoss,
+                takeProfitPrice,
+                fee,
+                marketData.now(),
+                takeProfit != null && takeProfit.isAccepted() ? takeProfit.orderId() : null,
+                latest.lastStartTime()
+        ));
+        logger.info("Paper {} {} {} filled at {}", request.side(), quantity, symbol, price);
+        return new OrderPlacement(entry, takeProfit);
+    }
+
+    private synchronized void checkExit(String symbol, CandleSeries candles, long now) {
+        PaperPosition position = positions.get(symbol);
+        if (position == null) {
+            return;
+        }
+        TickGrid grid = grids.get(symbol);
+        boolean isLong = position.side() == ExchangeOrderSide.LONG;
+        long barMillis = fillInterval.duration().toMillis();
+
+        for (int i = 0; i < candles.size(); i++) {
+            long start = candles.startTime(i);
+            if (start <= position.checkedThrough()) {
+                continue;
+            }
+            double open = candles.open(i);
+            double high = candles.high(i);
+            double low = candles.low(i);
+            double stop = position.stopLoss();
+            double target = position.takeProfit();
+            if (position.hasStopLoss() && (isLong ? low <= stop : high >= stop)) {
+                double trigger = isLong ? Math.min(open, stop) : Math.max(open, stop);
+                close(position, slipped(grid, trigger, !isLong), PositionService.TAKER_FEE, "stop loss");
+                return;
+            }
+            if (position.hasTakeProfit() && (isLong ? high >= target : low <= target)) {
+                close(position, target, PositionService.MAKER_FEE, "take profit");
+                return;
+            }
+            // The forming bar is looked at again on the next check
+            if (start + barMillis <= now) {
+                position = position.checkedThrough(start);
+            }
+        }
+        positions.put(symbol, position);
+    }
+
+    private void close(PaperPosition position, double price, double feeRate, String reason) {
+        double fee = position.quantity() * price * feeRate;
+        double pnl = position.grossPnl(price) - position.entryFee() - fee;
+        cash += position.grossPnl(price) - fee;
+        margin -= position.margin();
+        feesPaid += fee;
+        realizedPnl += pnl;
+        closedTrades++;
+        if (pnl > 0) {
+            winningTrades++;
+        }
+        positions.remove(position.symbol());
+        grids.remove(position.symbol());
+        logger.info("Paper {} {} closed by {} at {}, pnl {}", position.side(), position.symbol(), reason, price, pnl);
+    }
+
+    // Market fills move against the order, buys round up to the next tick and sells down
+    private double slipped(TickGrid grid, double price, boolean buy) {
+        return buy
+                ? grid.price(grid.ticks(price * (1 + slippage), RoundingMode.CEILING))
+                : grid.price(grid.ticks(price * (1 - slippage), RoundingMode.FLOOR));
+    }
+
+    private OrderPlacement rejected(int code, String message) {
+        logger.info("Paper order rejected: {}", message);
+        return new OrderPlacement(new OrderLegResult(null, null, code, message), null);
+    }
+
+    private String newOrderId() {
+        return "paper-" + orderIds.incrementAndGet();
+    }
+
+    private static String newOrderLinkId() {
+        return "vt" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public record Status(
+            double cash,
+            double available,
+            int openPositions,
+            long fills,
+            long closedTrades,
+            long winningTrades,
+            double feesPaid,
+            double realizedPnl
+    ) {
+    }
+}
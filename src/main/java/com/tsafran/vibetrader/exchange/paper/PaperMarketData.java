@@ -0,0 +1,112 @@
+package com.tsafran.vibetrader.exchange.paper;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.bybit.BybitExchange;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Where the paper exchange gets its prices from:
+ *   - live: Bybit's public market data, through BybitExchange so the kline stream and candle cache still apply
+ *   - recorded: the candle archive, replayed from paper.replay.from at paper.replay.speed times wall clock speed,
+ *     only bars closed by the replay clock are served and nothing goes over the network
+ */
+@Component
+@Profile("paper")
+public class PaperMarketData {
+    private final BybitExchange bybitExchange;
+    private final CandleArchive candleArchive;
+    private final boolean recorded;
+    private final long replayFrom;
+    private final double replaySpeed;
+    private final long startedAt = System.nanoTime();
+    private final InstrumentPrecision recordedPrecision;
+
+    public PaperMarketData(
+            BybitExchange bybitExchange,
+            CandleArchive candleArchive,
+            @Value("${paper.market-data:live}") String source,
+            @Value("${paper.replay.from:}") String replayFrom,
+            @Value("${paper.replay.speed:60}") double replaySpeed,
+            @Value("${paper.recorded.qty-step:0.001}") BigDecimal qtyStep,
+            @Value("${paper.recorded.tick-size:0.01}") BigDecimal tickSize
+    ) {
+        this.bybitExchange = bybitExchange;
+        this.candleArchive = candleArchive;
+        this.recorded = switch (source.trim().toLowerCase(Locale.ROOT)) {
+            case "live" -> false;
+            case "recorded" -> true;
+            default -> throw new IllegalArgumentException("paper.market-data must be live or recorded: " + source);
+        };
+        if (recorded) {
+            if (!candleArchive.isEnabled()) {
+                throw new IllegalStateException("paper.market-data=recorded needs the candle archive enabled");
+            }
+            if (replayFrom == null || replayFrom.isBlank()) {
+                throw new IllegalArgumentException("paper.replay.from is required with paper.market-data=recorded");
+            }
+            if (!(replaySpeed > 0)) {
+                throw new IllegalArgumentException("paper.replay.speed must be positive");
+            }
+        }
+        this.replayFrom = recorded ? Instant.parse(replayFrom.trim()).toEpochMilli() : 0;
+        this.replaySpeed = replaySpeed;
+        this.recordedPrecision = new InstrumentPrecision(qtyStep, tickSize);
+    }
+
+    public boolean isRecorded() {
+        return recorded;
+    }
+
+    // Wall clock when live, the replay clock when recorded
+    public long now() {
+        if (!recorded) {
+            return System.currentTimeMillis();
+        }
+        return replayFrom + (long) ((System.nanoTime() - startedAt) / 1_000_000.0 * replaySpeed);
+    }
+
+    public CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit
+    ) {
+        if (!recorded) {
+            return bybitExchange.getCandlesAsync(symbol, category, interval, limit);
+        }
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(interval, "interval");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        // Bars starting before the current bucket are closed, one extra span covers calendar months
+        long closedBefore = CandleResampler.bucketStart(now(), interval);
+        long from = closedBefore - (limit + 1L) * interval.duration().toMillis();
+        CandleSeries candles = candleArchive.range(symbol, interval, from, closedBefore).toCandleSeries();
+        return CompletableFuture.completedFuture(candles.tail(limit));
+    }
+
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        if (!recorded) {
+            return bybitExchange.getInstrumentPrecisionAsync(symbol);
+        }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol must be provided");
+        }
+        return CompletableFuture.completedFuture(recordedPrecision);
+    }
+}
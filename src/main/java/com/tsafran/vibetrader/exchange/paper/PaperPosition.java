@@ -0,0 +1,48 @@
+package com.tsafran.vibetrader.exchange.paper;
+
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+
+// An open paper position with its stop loss and reduce-only take profit legs, prices already on the tick grid
+public record PaperPosition(
+        String symbol,
+        ExchangeOrderSide side,
+        double quantity,
+        double entryPrice,
+        double stopLoss,
+        double takeProfit,
+        double entryFee,
+        long openedAt,
+        String takeProfitOrderId,
+        // Start of the last bar checked against the legs, the bar the entry filled on counts as checked
+        long checkedThrough
+) {
+    public PaperPosition {
+        if (!(quantity > 0)) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+    }
+
+    public double margin() {
+        return quantity * entryPrice;
+    }
+
+    public boolean hasStopLoss() {
+        return stopLoss > 0;
+    }
+
+    public boolean hasTakeProfit() {
+        return takeProfitOrderId != null;
+    }
+
+    public double grossPnl(double price) {
+        return side == ExchangeOrderSide.LONG
+                ? quantity * (price - entryPrice)
+                : quantity * (entryPrice - price);
+    }
+
+    PaperPosition checkedThrough(long barStart) {
+        return new PaperPosition(
+                symbol, side, quantity, entryPrice, stopLoss, takeProfit, entryFee, openedAt, takeProfitOrderId, barStart
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package com.tsafran.vibetrader.indicators;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Stateless indicator runs over many symbols at once, e.g. a scan of the whole LINEAR universe.
+ * Symbols become lanes of one bar-major batch, aligned on their latest bar, shorter histories are padded in front.
+ */
+@Component
+public class BatchIndicatorEngine {
+    private static final Logger logger = LoggerFactory.getLogger(BatchIndicatorEngine.class);
+
+    private final BatchKernels kernels;
+
+    public BatchIndicatorEngine(@Value("${indicators.vector.enabled:true}") boolean vectorEnabled) {
+        this.kernels = vectorEnabled ? BatchKernels.vectorOrScalar() : new ScalarBatchKernels();
+        logger.info("Batch indicators use {} kernels", kernels.name());
+    }
+
+    public String backend() {
+        return kernels.name();
+    }
+
+    public Map<String, List<IndicatorSeries>> compute(
+            Map<String, CandleSeries> candlesBySymbol,
+            List<IndicatorConfig> indicators
+    ) {
+        List<String> symbols = new ArrayList<>(candlesBySymbol.keySet());
+        int lanes = roundUp(Math.max(1, symbols.size()), kernels.laneMultiple());
+        int bars = 0;
+        for (CandleSeries candles : candlesBySymbol.values()) {
+            bars = Math.max(bars, candles.size());
+        }
+
+        double[] closes = new double[bars * lanes];
+        Arrays.fill(closes, Double.NaN);
+        int[] starts = new int[lanes];
+        Arrays.fill(starts, bars);
+        for (int lane = 0; lane < symbols.size(); lane++) {
+            CandleSeries candles = candlesBySymbol.get(symbols.get(lane));
+            starts[lane] = bars - candles.size();
+            for (int i = 0; i < candles.size(); i++) {
+                closes[(starts[lane] + i) * lanes + lane] = candles.close(i);
+            }
+        }
+
+        Map<String, List<IndicatorSeries>> results = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            results.put(symbol, new ArrayList<>(indicators.size()));
+        }
+        IndicatorGraph graph = IndicatorGraph.compile(indicators);
+        List<double[]> outputs = graph.evaluate(kernels.evaluator(closes, bars, lanes, starts));
+        for (int output = 0; output < outputs.size(); output++) {
+            IndicatorConfig indicator = indicators.get(output);
+            double[] out = outputs.get(output);
+            for (int lane = 0; lane < symbols.size(); lane++) {
+                CandleSeries candles = candlesBySymbol.get(symbols.get(lane));
+                double[] values = new double[candles.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = out[(starts[lane] + i) * lanes + lane];
+                }
+                results.get(symbols.get(lane)).add(IndicatorKernels.series(indicator, values, candles.priceScale()));
+            }
+        }
+        return results;
+    }
+
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tsafran.vibetrader.indicators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Indicator graph nodes over many symbols at once. Series are laid out bar-major across symbols,
+ * values[bar * lanes + lane], so the same bar of every symbol sits side by side and a recurrence like EMA
+ * advances all symbols in one step. starts[lane] is the first bar a symbol has data for, everything before it is NaN.
+ */
+interface BatchKernels {
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    String name();
+
+    // Lane counts are padded up to a multiple of this
+    int laneMultiple();
+
+    IndicatorGraph.Evaluator<double[]> evaluator(double[] closes, int bars, int lanes, int[] starts);
+
+    // The vector module has to be resolved at startup (--add-modules jdk.incubator.vector), the class referencing it
+    // is only loaded once that is known
+    static BatchKernels vectorOrScalar() {
+        Logger logger = LoggerFactory.getLogger(BatchKernels.class);
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            logger.info("{} not available, batch indicators use scalar kernels", VECTOR_MODULE);
+            return new ScalarBatchKernels();
+        }
+        try {
+            return (BatchKernels) Class.forName(BatchKernels.class.getPackageName() + ".VectorBatchKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            logger.warn("Vector kernels failed to load, batch indicators use scalar kernels", ex);
+            return new ScalarBatchKernels();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.tsafran.vibetrader.indicators;
+
+// Same warm-up as ta4j's EMA/MMA: NaN for the first period bars, then seeded with the input and smoothed from there
+final class EmaKernel implements IndicatorKernel {
+    private final int period;
+    private final double multiplier;
+    private double previous = Double.NaN;
+    private double last = Double.NaN;
+    private long count;
+
+    EmaKernel(int period) {
+        this(period, 2.0 / (period + 1));
+    }
+
+    private EmaKernel(int period, double multiplier) {
+        this.period = period;
+        this.multiplier = multiplier;
+    }
+
+    static EmaKernel wilder(int period) {
+        return new EmaKernel(period, 1.0 / period);
+    }
+
+    @Override
+    public double push(double input) {
+        previous = last;
+        count++;
+        return replaceLast(input);
+    }
+
+    @Override
+    public double replaceLast(double input) {
+        if (count <= period || Double.isNaN(input)) {
+            last = Double.NaN;
+        } else if (Double.isNaN(previous)) {
+            last = input;
+        } else {
+            last = previous + (input - previous) * multiplier;
+        }
+        return last;
+    }
+}
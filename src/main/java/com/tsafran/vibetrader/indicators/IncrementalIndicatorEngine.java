@@ -0,0 +1,290 @@
+package com.tsafran.vibetrader.indicators;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Indicator state per (symbol, interval), brought up to date from the candles each caller already has.
+ *   - The configs asked for are compiled into graph nodes and the state keeps one kernel per node, so configs sharing
+ *     e.g. RSI(14) of close step it once per bar between them.
+ *   - The output is a function of the candles alone: the kernels are seeded at the window's anchor, the first bar of
+ *     the second anchor bucket (anchor-bars intervals, aligned to the epoch) the window reaches into, or its first bar
+ *     if it only spans one. Candles before the anchor get NaN.
+ *   - A window that slid forward keeps its anchor until its first bar crosses into the anchor's bucket, so closes push
+ *     only the new bars and revise the state's last bar in case it was still forming. The anchor moves, and the state
+ *     is rebuilt, once every anchor-bars closes.
+ *   - Continuity is checked on the anchor and the state's last two bars, closed bars further back are taken as final.
+ *   - Series are views of the state's rows, not copies. Rows handed out are never written again, a revised last row
+ *     goes to a fresh array.
+ */
+@Component
+public class IncrementalIndicatorEngine {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalIndicatorEngine.class);
+
+    private final long idleNanos;
+    private final int anchorBars;
+    private final Map<Key, State> states = new ConcurrentHashMap<>();
+
+    public IncrementalIndicatorEngine(
+            @Value("${indicators.state.idle-minutes:30}") long idleMinutes,
+            @Value("${indicators.state.anchor-bars:64}") int anchorBars
+    ) {
+        if (idleMinutes <= 0) {
+            throw new IllegalArgumentException("indicators.state.idle-minutes must be positive");
+        }
+        if (anchorBars <= 0) {
+            throw new IllegalArgumentException("indicators.state.anchor-bars must be positive");
+        }
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+        this.anchorBars = anchorBars;
+    }
+
+    // Values aligned with candles, NaN before the anchor and where the indicator is still warming up
+    public IndicatorSeries series(
+            String symbol,
+            ExchangeInterval interval,
+            IndicatorConfig indicator,
+            CandleSeries candles
+    ) {
+        return series(symbol, interval, List.of(indicator), candles).getFirst();
+    }
+
+    // One series per config, in config order
+    public List<IndicatorSeries> series(
+            String symbol,
+            ExchangeInterval interval,
+            List<IndicatorConfig> indicators,
+            CandleSeries candles
+    ) {
+        // Validates the configs before a state is registered for them
+        IndicatorGraph graph = IndicatorGraph.compile(indicators);
+        Key key = new Key(symbol.trim().toUpperCase(Locale.ROOT), interval);
+        State state = states.computeIfAbsent(key, ignored -> new State(interval.duration().toMillis() * anchorBars));
+        return state.sync(graph, indicators, candles);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    // Kernel steps for new bars over every state, revisions of a forming bar are not counted
+    long pushes() {
+        long pushes = 0;
+        for (State state : states.values()) {
+            pushes += state.pushes();
+        }
+        return pushes;
+    }
+
+    @Scheduled(fixedDelayString = "${indicators.state.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = states.size();
+        states.values().removeIf(state -> now - state.lastAccess > idleNanos);
+        int evicted = before - states.size();
+        if (evicted > 0) {
+            logger.info("Evicted {} idle indicator states", evicted);
+        }
+    }
+
+    private record Key(String symbol, ExchangeInterval interval) {
+    }
+
+    private static final class State {
+        private final long bucketMillis;
+        // Row i is bar i from the anchor: its start time and the close it saw
+        private long[] startTimes = new long[0];
+        private double[] closes = new double[0];
+        private int size;
+        // Inputs before the nodes that read them, nodes asked for since the last rebuild
+        private final Map<IndicatorGraph.Node, NodeState> nodes = new LinkedHashMap<>();
+        private long pushes;
+        private volatile long lastAccess = System.nanoTime();
+
+        private State(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+
+        private synchronized long pushes() {
+            return pushes;
+        }
+
+        private synchronized List<IndicatorSeries> sync(
+                IndicatorGraph graph,
+                List<IndicatorConfig> indicators,
+                CandleSeries candles
+        ) {
+            lastAccess = System.nanoTime();
+            List<IndicatorSeries> results = new ArrayList<>(indicators.size());
+            if (candles.isEmpty()) {
+                for (IndicatorConfig indicator : indicators) {
+                    results.add(IndicatorKernels.series(indicator, new double[0], candles.priceScale()));
+                }
+                return results;
+            }
+
+            // Window index of row 0
+            int origin = origin(candles);
+            if (origin >= 0) {
+                closes[size - 1] = candles.close(origin + size - 1);
+                for (NodeState node : nodes.values()) {
+                    node.replaceLast(node.kernel.replaceLast(input(node.node)[size - 1]));
+                }
+            } else {
+                origin = anchor(candles);
+                size = 0;
+                nodes.clear();
+            }
+            for (int i = origin + size; i < candles.size(); i++) {
+                appendRow(candles.startTime(i), candles.close(i));
+                for (NodeState node : nodes.values()) {
+                    node.append(node.kernel.push(input(node.node)[size - 1]));
+                    pushes++;
+                }
+            }
+
+            // Nodes new to this state catch up over the rows from their input, which is already here
+            for (IndicatorGraph.Node node : graph.nodes()) {
+                if (node.source() != null && !nodes.containsKey(node)) {
+                    NodeState added = new NodeState(node);
+                    double[] source = input(node);
+                    for (int i = 0; i < size; i++) {
+                        added.append(added.kernel.push(source[i]));
+                        pushes++;
+                    }
+                    nodes.put(node, added);
+                }
+            }
+
+            for (int output = 0; output < indicators.size(); output++) {
+                NodeState node = nodes.get(graph.outputs().get(output));
+                node.published = size;
+                results.add(IndicatorKernels.series(
+                        indicators.get(output),
+                        node.values,
+                        origin,
+                        candles.size(),
+                        origin + node.firstValid,
+                        candles.priceScale()
+                ));
+            }
+            return results;
+        }
+
+        /*
+         * The window index the rows so far start at, or -1 if the candles are not those rows plus newer bars under the
+         * same anchor: the anchor bar, the last closed row and the last row, which may have been forming, must be
+         * where the anchor rule and the rows put them.
+         */
+        private int origin(CandleSeries candles) {
+            if (size == 0) {
+                return -1;
+            }
+            int last = candles.size() - 1;
+            while (last >= 0 && candles.startTime(last) > startTimes[size - 1]) {
+                last--;
+            }
+            int origin = last - (size - 1);
+            if (origin < 0 || candles.startTime(last) != startTimes[size - 1] || candles.startTime(origin) != startTimes[0]) {
+                return -1;
+            }
+            if (size > 1 && (candles.startTime(last - 1) != startTimes[size - 2]
+                    || Double.compare(candles.close(last - 1), closes[size - 2]) != 0)) {
+                return -1;
+            }
+            return anchors(candles, origin) ? origin : -1;
+        }
+
+        // Whether the anchor rule picks index for these candles, without scanning them
+        private boolean anchors(CandleSeries candles, int index) {
+            long first = bucket(candles.startTime(0));
+            if (index == 0) {
+                return bucket(candles.lastStartTime()) == first;
+            }
+            return bucket(candles.startTime(index)) > first && bucket(candles.startTime(index - 1)) == first;
+        }
+
+        private int anchor(CandleSeries candles) {
+            long first = bucket(candles.startTime(0));
+            for (int i = 1; i < candles.size(); i++) {
+                if (bucket(candles.startTime(i)) > first) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        private long bucket(long startTime) {
+            return Math.floorDiv(startTime, bucketMillis);
+        }
+
+        private double[] input(IndicatorGraph.Node node) {
+            IndicatorGraph.Node source = node.source();
+            return source instanceof IndicatorGraph.Close ? closes : nodes.get(source).values;
+        }
+
+        private void appendRow(long startTime, double close) {
+            if (size == startTimes.length) {
+                int capacity = Math.max(16, size * 2);
+                startTimes = Arrays.copyOf(startTimes, capacity);
+                closes = Arrays.copyOf(closes, capacity);
+            }
+            startTimes[size] = startTime;
+            closes[size] = close;
+            size++;
+        }
+    }
+
+    // A kernel for one graph node, fed with its source node's outputs
+    private static final class NodeState {
+        private final IndicatorGraph.Node node;
+        private final IndicatorKernel kernel;
+        // Output per row of the state, the first published rows are seen through series handed out
+        private double[] values = new double[0];
+        private int size;
+        private int published;
+        // First row with a value, size while there is none
+        private int firstValid;
+
+        private NodeState(IndicatorGraph.Node node) {
+            this.node = node;
+            this.kernel = IndicatorKernels.stage(node);
+        }
+
+        private void append(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, size * 2));
+                published = 0;
+            }
+            if (firstValid == size && Double.isNaN(value)) {
+                firstValid++;
+            }
+            values[size++] = value;
+        }
+
+        private void replaceLast(double value) {
+            if (published == size) {
+                values = values.clone();
+                published = 0;
+            }
+            values[size - 1] = value;
+            if (firstValid >= size - 1) {
+                firstValid = Double.isNaN(value) ? size : size - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.tsafran.vibetrader.indicators;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * A list of configs compiled into the intermediate series they are made of, e.g. close -> RSI -> stochastic -> SMA.
+ * Nodes are value records, so two configs that need RSI(14) of close share that node and it is evaluated once
+ * per backend run, whatever the number of configs or symbols in it.
+ */
+final class IndicatorGraph {
+    private final List<Node> nodes;
+    private final List<Node> outputs;
+
+    private IndicatorGraph(List<Node> nodes, List<Node> outputs) {
+        this.nodes = nodes;
+        this.outputs = outputs;
+    }
+
+    static IndicatorGraph compile(List<IndicatorConfig> indicators) {
+        Set<Node> ordered = new LinkedHashSet<>();
+        List<Node> outputs = new ArrayList<>(indicators.size());
+        for (IndicatorConfig indicator : indicators) {
+            Node output = IndicatorKernels.node(indicator);
+            addWithInputs(output, ordered);
+            outputs.add(output);
+        }
+        return new IndicatorGraph(List.copyOf(ordered), outputs);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    // Inputs before the nodes that read them
+    List<Node> nodes() {
+        return nodes;
+    }
+
+    // The node each config resolved to, in config order
+    List<Node> outputs() {
+        return outputs;
+    }
+
+    // One result per config, in config order
+    <T> List<T> evaluate(Evaluator<T> evaluator) {
+        Map<Node, T> results = new LinkedHashMap<>();
+        for (Node node : nodes) {
+            T value = switch (node) {
+                case Close ignored -> evaluator.close();
+                case Ema ema -> evaluator.ema(results.get(ema.source()), ema.period());
+                case Rsi rsi -> evaluator.rsi(results.get(rsi.source()), rsi.period());
+                case Stochastic stochastic -> evaluator.stochastic(results.get(stochastic.source()), stochastic.period());
+                case Sma sma -> evaluator.sma(results.get(sma.source()), sma.period());
+            };
+            results.put(node, value);
+        }
+
+        List<T> values = new ArrayList<>(outputs.size());
+        for (Node output : outputs) {
+            values.add(results.get(output));
+        }
+        return values;
+    }
+
+    // Bars before a node's output can be relied on, one less than the period for each step from close
+    static int warmup(Node node) {
+        int warmup = 0;
+        for (Node current = node; current.source() != null; current = current.source()) {
+            warmup += period(current) - 1;
+        }
+        return warmup;
+    }
+
+    private static int period(Node node) {
+        return switch (node) {
+            case Close ignored -> 0;
+            case Ema ema -> ema.period();
+            case Rsi rsi -> rsi.period();
+            case Stochastic stochastic -> stochastic.period();
+            case Sma sma -> sma.period();
+        };
+    }
+
+    // Inputs always come before the nodes that read them
+    private static void addWithInputs(Node node, Set<Node> ordered) {
+        if (ordered.contains(node)) {
+            return;
+        }
+        if (node.source() != null) {
+            addWithInputs(node.source(), ordered);
+        }
+        ordered.add(node);
+    }
+
+    interface Evaluator<T> {
+        T close();
+
+        T ema(T source, int period);
+
+        T rsi(T source, int period);
+
+        T stochastic(T source, int period);
+
+        T sma(T source, int period);
+    }
+
+    sealed interface Node permits Close, Ema, Rsi, Stochastic, Sma {
+        // The series this node is computed from, null for close
+        Node source();
+    }
+
+    record Close() implements Node {
+        @Override
+        public Node source() {
+            return null;
+        }
+    }
+
+    record Ema(Node source, int period) implements Node {
+    }
+
+    record Rsi(Node source, int period) implements Node {
+    }
+
+    record Stochastic(Node source, int period) implements Node {
+    }
+
+    record Sma(Node source, int period) implements Node {
+    }
+}
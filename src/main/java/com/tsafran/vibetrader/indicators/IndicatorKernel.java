@@ -0,0 +1,11 @@
+package com.tsafran.vibetrader.indicators;
+
+/*
+ * One streaming indicator step per bar. push() starts a new bar, replaceLast() revises the bar pushed last
+ * (the forming candle) without disturbing anything committed before it, both in constant time.
+ */
+interface IndicatorKernel {
+    double push(double input);
+
+    double replaceLast(double input);
+}
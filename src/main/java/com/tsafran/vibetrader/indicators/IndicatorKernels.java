@@ -0,0 +1,81 @@
+package com.tsafran.vibetrader.indicators;
+
+final class IndicatorKernels {
+    private IndicatorKernels() {
+    }
+
+    // What each indicator type is made of, the graph shares these pieces between configs
+    static IndicatorGraph.Node node(IndicatorConfig indicator) {
+        IndicatorGraph.Node close = new IndicatorGraph.Close();
+        return switch (requireType(indicator)) {
+            case EMA -> new IndicatorGraph.Ema(close, requirePositive(indicator.period(), "EMA requires a positive period."));
+            case STOCH_RSI_K -> {
+                int rsiPeriod = requirePositive(indicator.rsiPeriod(), "Stoch RSI K requires rsiPeriod.");
+                int stochPeriod = requirePositive(indicator.stochPeriod(), "Stoch RSI K requires stochPeriod.");
+                int kPeriod = requirePositive(indicator.kPeriod(), "Stoch RSI K requires kPeriod.");
+                yield new IndicatorGraph.Sma(
+                        new IndicatorGraph.Stochastic(new IndicatorGraph.Rsi(close, rsiPeriod), stochPeriod),
+                        kPeriod
+                );
+            }
+        };
+    }
+
+    // A streaming kernel for one node, fed with its source node's outputs
+    static IndicatorKernel stage(IndicatorGraph.Node node) {
+        return switch (node) {
+            case IndicatorGraph.Close ignored -> throw new IllegalArgumentException("Close has no kernel");
+            case IndicatorGraph.Ema ema -> new EmaKernel(ema.period());
+            case IndicatorGraph.Rsi rsi -> new RsiKernel(rsi.period());
+            case IndicatorGraph.Stochastic stochastic -> new StochasticKernel(stochastic.period());
+            case IndicatorGraph.Sma sma -> new SmaKernel(sma.period());
+        };
+    }
+
+    // Wraps values aligned with the candles, EMA is shown at the price scale and oscillators at two decimals
+    static IndicatorSeries series(IndicatorConfig indicator, double[] values, int priceScale) {
+        int validFrom = 0;
+        while (validFrom < values.length && Double.isNaN(values[validFrom])) {
+            validFrom++;
+        }
+        return new IndicatorSeries(name(indicator), values, validFrom, scale(indicator, priceScale));
+    }
+
+    // A view of rows the caller keeps, values[0] is candle origin and nothing before it is valid
+    static IndicatorSeries series(
+            IndicatorConfig indicator,
+            double[] values,
+            int origin,
+            int size,
+            int validFrom,
+            int priceScale
+    ) {
+        return new IndicatorSeries(name(indicator), values, origin, size, validFrom, scale(indicator, priceScale));
+    }
+
+    private static int scale(IndicatorConfig indicator, int priceScale) {
+        return indicator.type() == IndicatorType.EMA ? priceScale : 2;
+    }
+
+    static String name(IndicatorConfig indicator) {
+        return switch (requireType(indicator)) {
+            case EMA -> "EMA(" + indicator.period() + ")";
+            case STOCH_RSI_K -> "STOCH_RSI_K(" + indicator.rsiPeriod() + "," + indicator.stochPeriod() + ","
+                    + indicator.kPeriod() + ")";
+        };
+    }
+
+    private static IndicatorType requireType(IndicatorConfig indicator) {
+        if (indicator == null || indicator.type() == null) {
+            throw new IllegalArgumentException("Indicator type is required.");
+        }
+        return indicator.type();
+    }
+
+    private static int requirePositive(Integer value, String message) {
+        if (value == null || value <= 0) {
+            throw new IllegalArgumentException(message);
+        }
+        return value;
+    }
+}
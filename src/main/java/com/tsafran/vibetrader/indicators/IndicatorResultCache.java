@@ -0,0 +1,117 @@
+package com.tsafran.vibetrader.indicators;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * Finished indicator series shared by every job and shell run asking for the same thing.
+ * Entries are versioned by the newest candle (its startTime and close, the latter changes while it is forming),
+ * a newer version replaces the older ones for the same series. Least recently used entries go first once full.
+ */
+@Component
+public class IndicatorResultCache {
+    private final int maxEntries;
+    private final LinkedHashMap<Key, IndicatorSeries> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public IndicatorResultCache(@Value("${indicators.cache.max-entries:512}") int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("indicators.cache.max-entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, IndicatorSeries> eldest) {
+                if (size() > IndicatorResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public IndicatorSeries get(
+            String symbol,
+            ExchangeInterval interval,
+            IndicatorConfig indicator,
+            CandleSeries candles,
+            Supplier<IndicatorSeries> compute
+    ) {
+        Key key = new Key(
+                new SeriesKey(symbol.trim().toUpperCase(Locale.ROOT), interval, indicator),
+                candles.startTime(0),
+                candles.lastStartTime(),
+                Double.doubleToLongBits(candles.close(candles.size() - 1))
+        );
+        synchronized (this) {
+            IndicatorSeries cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        // Computed outside the lock, two callers racing on the same miss both compute and the last one stores
+        IndicatorSeries computed = compute.get();
+        synchronized (this) {
+            invalidateOlder(key);
+            entries.put(key, computed);
+        }
+        return computed;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), maxEntries, hits, misses, evictions, invalidations);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    private void invalidateOlder(Key key) {
+        Iterator<Key> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            Key existing = iterator.next();
+            if (existing.series().equals(key.series()) && isOlder(existing, key)) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    // A revised forming candle keeps its startTime, only its close tells the versions apart
+    private static boolean isOlder(Key existing, Key key) {
+        return existing.lastStartTime() < key.lastStartTime()
+                || existing.lastStartTime() == key.lastStartTime() && existing.lastCloseBits() != key.lastCloseBits();
+    }
+
+    public record Stats(int size, int maxEntries, long hits, long misses, long evictions, long invalidations) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private record SeriesKey(String symbol, ExchangeInterval interval, IndicatorConfig indicator) {
+    }
+
+    private record Key(SeriesKey series, long firstStartTime, long lastStartTime, long lastCloseBits) {
+    }
+}
@@ -1,6 +1,43 @@
 package com.tsafran.vibetrader.indicators;
 
-import java.util.List;
+import com.tsafran.vibetrader.util.Util;
 
-public record IndicatorSeries(String name, List<String> values) {
+// Values aligned with the candles they were computed from, NaN before validFrom and wherever undefined.
+// The value for candle i is values[i - origin], nothing before origin is stored. The array may hold more than size
+// rows and be shared with the indicator cache or the incremental engine's state, treat it as read-only.
+public record IndicatorSeries(String name, double[] values, int origin, int size, int validFrom, int scale) {
+    public IndicatorSeries {
+        if (values == null) {
+            throw new IllegalArgumentException("values must be provided");
+        }
+        if (origin < 0 || size < origin || size - origin > values.length) {
+            throw new IllegalArgumentException("origin and size must lie within values");
+        }
+        if (validFrom < origin) {
+            throw new IllegalArgumentException("validFrom must not precede origin");
+        }
+        if (scale < 0) {
+            throw new IllegalArgumentException("scale must not be negative");
+        }
+    }
+
+    public IndicatorSeries(String name, double[] values, int validFrom, int scale) {
+        this(name, values, 0, values == null ? 0 : values.length, validFrom, scale);
+    }
+
+    public boolean isValid(int index) {
+        return index >= validFrom && !Double.isNaN(values[index - origin]);
+    }
+
+    public double value(int index) {
+        return index >= validFrom ? values[index - origin] : Double.NaN;
+    }
+
+    // Rounded half-up to scale, "NA" when there is no value
+    public StringBuilder appendTo(StringBuilder builder, int index) {
+        if (!isValid(index)) {
+            return builder.append("NA");
+        }
+        return Util.appendFixed(builder, values[index - origin], scale);
+    }
 }
@@ -1,33 +1,45 @@
 package com.tsafran.vibetrader.indicators;
 
+import com.tsafran.vibetrader.exchange.CandleSeries;
 import com.tsafran.vibetrader.exchange.ExchangeInterval;
-import com.tsafran.vibetrader.exchange.Ohlcv;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.Bar;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBar;
 import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.StochasticIndicator;
 import org.ta4j.core.indicators.StochasticRSIIndicator;
 import org.ta4j.core.indicators.averages.EMAIndicator;
 import org.ta4j.core.indicators.averages.SMAIndicator;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.num.DoubleNumFactory;
+import org.ta4j.core.num.Num;
 import org.ta4j.core.num.NumFactory;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.math.RoundingMode;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
+@RequiredArgsConstructor
 public class IndicatorService {
     private static final NumFactory NUM_FACTORY = DoubleNumFactory.getInstance();
 
+    private final IncrementalIndicatorEngine engine;
+    private final IndicatorResultCache resultCache;
+    private final BatchIndicatorEngine batchEngine;
+
+    // Served from the per-symbol incremental state, only candles newer than the last call are computed
     public List<IndicatorSeries> computeIndicatorSeries(
-            List<Ohlcv> candles,
+            String symbol,
+            CandleSeries candles,
             ExchangeInterval interval,
             List<IndicatorConfig> indicators
     ) {
@@ -37,98 +49,100 @@ public class IndicatorService {
         if (candles == null || candles.isEmpty()) {
             throw new IllegalArgumentException("Candles are required for indicator calculation.");
         }
-
-        BarSeries series = toSeries(candles, interval);
-        int maxScale = resolveMaxCloseScale(candles);
-        List<IndicatorSeries> results = new ArrayList<>();
-
-        for (IndicatorConfig indicator : indicators) {
-            if (indicator == null || indicator.type() == null) {
-                throw new IllegalArgumentException("Indicator type is required.");
-            }
-            switch (indicator.type()) {
-                case EMA -> results.add(computeEmaSeries(series, indicator, maxScale));
-                case STOCH_RSI_K -> results.add(computeStochRsiKSeries(series, indicator, maxScale));
-                default -> throw new IllegalArgumentException("Unsupported indicator: " + indicator.type());
-            }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol is required for indicator calculation.");
         }
 
+        // The first miss syncs the state for every config at once, shared nodes are stepped once between them
+        Supplier<List<IndicatorSeries>> series = once(() -> engine.series(symbol, interval, indicators, candles));
+        List<IndicatorSeries> results = new ArrayList<>(indicators.size());
+        for (int output = 0; output < indicators.size(); output++) {
+            int index = output;
+            results.add(resultCache.get(symbol, interval, indicators.get(output), candles, () -> series.get().get(index)));
+        }
         return results;
     }
 
-    private IndicatorSeries computeEmaSeries(BarSeries series, IndicatorConfig indicator, int scale) {
-        Integer period = indicator.period();
-        if (period == null || period <= 0) {
-            throw new IllegalArgumentException("EMA requires a positive period.");
-        }
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
-        EMAIndicator ema = new EMAIndicator(closePrice, period);
-        List<String> values = new ArrayList<>(series.getBarCount());
-        for (int i = 0; i < series.getBarCount(); i++) {
-            if (i < period - 1) {
-                values.add("NA");
-                continue;
-            }
-            var num = ema.getValue(i);
-            if (num.isNaN()) {
-                values.add("NA");
-                continue;
+    // Stateless, one pass over all symbols with the batch kernels (vectorized when the vector module is available)
+    public Map<String, List<IndicatorSeries>> computeIndicatorSeries(
+            Map<String, CandleSeries> candlesBySymbol,
+            List<IndicatorConfig> indicators
+    ) {
+        if (indicators == null || indicators.isEmpty() || candlesBySymbol == null || candlesBySymbol.isEmpty()) {
+            return Map.of();
+        }
+        for (Map.Entry<String, CandleSeries> entry : candlesBySymbol.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("Candles are required for indicator calculation: " + entry.getKey());
             }
-            BigDecimal rounded = num.bigDecimalValue().setScale(scale, RoundingMode.HALF_UP);
-            values.add(rounded.toPlainString());
         }
-        return new IndicatorSeries("EMA(" + period + ")", values);
+        return batchEngine.compute(candlesBySymbol, indicators);
     }
 
-    private IndicatorSeries computeStochRsiKSeries(BarSeries series, IndicatorConfig indicator, int scale) {
-        int rsiPeriod = requirePositive(indicator.rsiPeriod(), "Stoch RSI K requires rsiPeriod.");
-        int stochPeriod = requirePositive(indicator.stochPeriod(), "Stoch RSI K requires stochPeriod.");
-        int kPeriod = requirePositive(indicator.kPeriod(), "Stoch RSI K requires kPeriod.");
-
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
-        RSIIndicator rsi = new RSIIndicator(closePrice, rsiPeriod);
-        StochasticRSIIndicator stochRsi = new StochasticRSIIndicator(rsi, stochPeriod);
-        SMAIndicator kLine = new SMAIndicator(stochRsi, kPeriod);
-
-        List<String> values = new ArrayList<>(series.getBarCount());
-        int warmup = (rsiPeriod - 1) + (stochPeriod - 1) + (kPeriod - 1);
-        for (int i = 0; i < series.getBarCount(); i++) {
-            if (i < warmup) {
-                values.add("NA");
-                continue;
-            }
-            var num = kLine.getValue(i);
-            if (num.isNaN()) {
-                values.add("NA");
-                continue;
+    // Stateless, recomputes the whole series with ta4j
+    public List<IndicatorSeries> computeIndicatorSeries(
+            CandleSeries candles,
+            ExchangeInterval interval,
+            List<IndicatorConfig> indicators
+    ) {
+        if (indicators == null || indicators.isEmpty()) {
+            return List.of();
+        }
+        if (candles == null || candles.isEmpty()) {
+            throw new IllegalArgumentException("Candles are required for indicator calculation.");
+        }
+
+        IndicatorGraph graph = IndicatorGraph.compile(indicators);
+        BarSeries series = toSeries(candles, interval);
+        List<Indicator<Num>> outputs = graph.evaluate(new Ta4jEvaluator(series));
+
+        List<IndicatorSeries> results = new ArrayList<>(outputs.size());
+        for (int output = 0; output < outputs.size(); output++) {
+            IndicatorConfig indicator = indicators.get(output);
+            Indicator<Num> values = outputs.get(output);
+            int validFrom = Math.min(IndicatorGraph.warmup(graph.outputs().get(output)), series.getBarCount());
+            double[] result = new double[series.getBarCount()];
+            Arrays.fill(result, 0, validFrom, Double.NaN);
+            // Walking forward from the warm-up keeps ta4j's SMA on its running-total path
+            for (int i = validFrom; i < result.length; i++) {
+                result[i] = values.getValue(i).doubleValue();
             }
-            BigDecimal rounded = num.bigDecimalValue().setScale(2, RoundingMode.HALF_UP);
-            values.add(rounded.toPlainString());
+            results.add(IndicatorKernels.series(indicator, result, candles.priceScale()));
         }
-        return new IndicatorSeries(
-                "STOCH_RSI_K(" + rsiPeriod + "," + stochPeriod + "," + kPeriod + ")",
-                values
-        );
+        return results;
+    }
+
+    private static <T> Supplier<T> once(Supplier<T> supplier) {
+        return new Supplier<>() {
+            private T value;
+
+            @Override
+            public T get() {
+                if (value == null) {
+                    value = supplier.get();
+                }
+                return value;
+            }
+        };
     }
 
-    private BarSeries toSeries(List<Ohlcv> candles, ExchangeInterval interval) {
-        Duration duration = toDuration(interval);
+    private BarSeries toSeries(CandleSeries candles, ExchangeInterval interval) {
+        Duration duration = interval.duration();
         List<Bar> bars = new ArrayList<>(candles.size());
 
-        for (Ohlcv candle : candles) {
-            Instant begin = Instant.ofEpochMilli(candle.startTime());
+        for (int i = 0; i < candles.size(); i++) {
+            Instant begin = Instant.ofEpochMilli(candles.startTime(i));
             Instant end = begin.plus(duration);
-            BigDecimal amount = candle.turnover() != null ? candle.turnover() : candle.volume();
             bars.add(new BaseBar(
                     duration,
                     begin,
                     end,
-                    NUM_FACTORY.numOf(candle.open()),
-                    NUM_FACTORY.numOf(candle.high()),
-                    NUM_FACTORY.numOf(candle.low()),
-                    NUM_FACTORY.numOf(candle.close()),
-                    NUM_FACTORY.numOf(candle.volume()),
-                    NUM_FACTORY.numOf(amount),
+                    NUM_FACTORY.numOf(candles.open(i)),
+                    NUM_FACTORY.numOf(candles.high(i)),
+                    NUM_FACTORY.numOf(candles.low(i)),
+                    NUM_FACTORY.numOf(candles.close(i)),
+                    NUM_FACTORY.numOf(candles.volume(i)),
+                    NUM_FACTORY.numOf(candles.turnover(i)),
                     0L
             ));
         }
@@ -139,38 +153,41 @@ public class IndicatorService {
                 .build();
     }
 
-    private Duration toDuration(ExchangeInterval interval) {
-        return switch (interval) {
-            case ONE_MINUTE -> Duration.ofMinutes(1);
-            case THREE_MINUTES -> Duration.ofMinutes(3);
-            case FIVE_MINUTES -> Duration.ofMinutes(5);
-            case FIFTEEN_MINUTES -> Duration.ofMinutes(15);
-            case THIRTY_MINUTES -> Duration.ofMinutes(30);
-            case ONE_HOUR -> Duration.ofHours(1);
-            case TWO_HOURS -> Duration.ofHours(2);
-            case FOUR_HOURS -> Duration.ofHours(4);
-            case SIX_HOURS -> Duration.ofHours(6);
-            case TWELVE_HOURS -> Duration.ofHours(12);
-            case ONE_DAY -> Duration.ofDays(1);
-            case ONE_WEEK -> Duration.ofDays(7);
-            case ONE_MONTH -> Duration.ofDays(30);
-        };
-    }
+    // ta4j indicators for the graph's nodes, one ClosePriceIndicator and one instance per shared node
+    private static final class Ta4jEvaluator implements IndicatorGraph.Evaluator<Indicator<Num>> {
+        private final BarSeries series;
 
-    private int requirePositive(Integer value, String message) {
-        if (value == null || value <= 0) {
-            throw new IllegalArgumentException(message);
+        private Ta4jEvaluator(BarSeries series) {
+            this.series = series;
+        }
+
+        @Override
+        public Indicator<Num> close() {
+            return new ClosePriceIndicator(series);
+        }
+
+        @Override
+        public Indicator<Num> ema(Indicator<Num> source, int period) {
+            return new EMAIndicator(source, period);
+        }
+
+        @Override
+        public Indicator<Num> rsi(Indicator<Num> source, int period) {
+            return new RSIIndicator(source, period);
         }
-        return value;
-    }
 
-    private int resolveMaxCloseScale(List<Ohlcv> candles) {
-        int maxScale = 0;
-        for (Ohlcv candle : candles) {
-            if (candle.close() != null) {
-                maxScale = Math.max(maxScale, candle.close().scale());
+        // StochasticRSIIndicator(Indicator, int) would wrap the source in another RSI, only hand it an RSI directly
+        @Override
+        public Indicator<Num> stochastic(Indicator<Num> source, int period) {
+            if (source instanceof RSIIndicator rsi) {
+                return new StochasticRSIIndicator(rsi, period);
             }
+            return new StochasticIndicator(source, period);
+        }
+
+        @Override
+        public Indicator<Num> sma(Indicator<Num> source, int period) {
+            return new SMAIndicator(source, period);
         }
-        return maxScale;
     }
 }
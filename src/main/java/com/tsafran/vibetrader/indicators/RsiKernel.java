@@ -0,0 +1,45 @@
+package com.tsafran.vibetrader.indicators;
+
+// Wilder-smoothed gains and losses, the first bar contributes zero to both as in ta4j's RSIIndicator
+final class RsiKernel implements IndicatorKernel {
+    private final EmaKernel averageGain;
+    private final EmaKernel averageLoss;
+    private double previousClose;
+    private double lastClose;
+    private long count;
+
+    RsiKernel(int period) {
+        this.averageGain = EmaKernel.wilder(period);
+        this.averageLoss = EmaKernel.wilder(period);
+    }
+
+    @Override
+    public double push(double input) {
+        previousClose = lastClose;
+        lastClose = input;
+        count++;
+        double change = change();
+        return rsi(averageGain.push(Math.max(change, 0)), averageLoss.push(Math.max(-change, 0)));
+    }
+
+    @Override
+    public double replaceLast(double input) {
+        lastClose = input;
+        double change = change();
+        return rsi(averageGain.replaceLast(Math.max(change, 0)), averageLoss.replaceLast(Math.max(-change, 0)));
+    }
+
+    private double change() {
+        return count == 1 ? 0 : lastClose - previousClose;
+    }
+
+    private static double rsi(double gain, double loss) {
+        if (Double.isNaN(gain) || Double.isNaN(loss)) {
+            return Double.NaN;
+        }
+        if (loss == 0) {
+            return gain == 0 ? 0 : 100;
+        }
+        return 100 - 100 / (1 + gain / loss);
+    }
+}
@@ -0,0 +1,58 @@
+package com.tsafran.vibetrader.indicators;
+
+import java.util.function.Supplier;
+
+// Runs the streaming kernels lane by lane, the reference the vector kernels are held to
+final class ScalarBatchKernels implements BatchKernels {
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public int laneMultiple() {
+        return 1;
+    }
+
+    @Override
+    public IndicatorGraph.Evaluator<double[]> evaluator(double[] closes, int bars, int lanes, int[] starts) {
+        return new IndicatorGraph.Evaluator<>() {
+            @Override
+            public double[] close() {
+                return closes;
+            }
+
+            @Override
+            public double[] ema(double[] source, int period) {
+                return apply(source, bars, lanes, starts, () -> new EmaKernel(period));
+            }
+
+            @Override
+            public double[] rsi(double[] source, int period) {
+                return apply(source, bars, lanes, starts, () -> new RsiKernel(period));
+            }
+
+            @Override
+            public double[] stochastic(double[] source, int period) {
+                return apply(source, bars, lanes, starts, () -> new StochasticKernel(period));
+            }
+
+            @Override
+            public double[] sma(double[] source, int period) {
+                return apply(source, bars, lanes, starts, () -> new SmaKernel(period));
+            }
+        };
+    }
+
+    private static double[] apply(double[] source, int bars, int lanes, int[] starts, Supplier<IndicatorKernel> kernels) {
+        double[] out = new double[bars * lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            IndicatorKernel kernel = kernels.get();
+            for (int bar = 0; bar < bars; bar++) {
+                int index = bar * lanes + lane;
+                out[index] = bar < starts[lane] ? Double.NaN : kernel.push(source[index]);
+            }
+        }
+        return out;
+    }
+}
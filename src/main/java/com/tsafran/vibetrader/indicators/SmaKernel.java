@@ -0,0 +1,17 @@
+package com.tsafran.vibetrader.indicators;
+
+// Averages over what is available until the window fills, as ta4j's SMAIndicator does, a NaN input stays in the average until it leaves the window
+final class SmaKernel extends WindowKernel {
+    SmaKernel(int period) {
+        super(period);
+    }
+
+    @Override
+    protected double compute(double last) {
+        double sum = 0;
+        for (int i = 0; i < filled; i++) {
+            sum += window[i];
+        }
+        return sum / filled;
+    }
+}
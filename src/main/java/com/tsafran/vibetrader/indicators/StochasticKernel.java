@@ -0,0 +1,49 @@
+package com.tsafran.vibetrader.indicators;
+
+/*
+ * Position of the latest input between the window's low and high on a 0-100 scale, as ta4j's StochasticRSIIndicator:
+ * NaN for the first period bars, NaN inputs are skipped when looking for the extremes, and a flat window repeats
+ * the previous bar's value.
+ */
+final class StochasticKernel extends WindowKernel {
+    private double previous = Double.NaN;
+    private double last = Double.NaN;
+
+    StochasticKernel(int period) {
+        super(period);
+    }
+
+    @Override
+    public double push(double input) {
+        previous = last;
+        last = super.push(input);
+        return last;
+    }
+
+    @Override
+    public double replaceLast(double input) {
+        last = super.replaceLast(input);
+        return last;
+    }
+
+    @Override
+    protected double compute(double last) {
+        if (count <= window.length || Double.isNaN(last)) {
+            return Double.NaN;
+        }
+        double min = last;
+        double max = last;
+        for (int i = 0; i < filled; i++) {
+            if (window[i] < min) {
+                min = window[i];
+            }
+            if (window[i] > max) {
+                max = window[i];
+            }
+        }
+        if (max == min) {
+            return previous;
+        }
+        return (last - min) / (max - min) * 100;
+    }
+}
@@ -0,0 +1,206 @@
+package com.tsafran.vibetrader.indicators;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/*
+ * The streaming kernels' rules applied to a whole lane block per instruction. Each kernel walks the bars once and
+ * keeps its per-lane state in plain arrays, NaN masks stand in for the scalar branches (warm-up, seeding, flat windows).
+ * Only loaded through BatchKernels.vectorOrScalar().
+ */
+final class VectorBatchKernels implements BatchKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    public int laneMultiple() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public IndicatorGraph.Evaluator<double[]> evaluator(double[] closes, int bars, int lanes, int[] starts) {
+        if (lanes % SPECIES.length() != 0) {
+            throw new IllegalArgumentException("lanes must be a multiple of " + SPECIES.length());
+        }
+        double[] startBars = new double[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            startBars[lane] = starts[lane];
+        }
+
+        return new IndicatorGraph.Evaluator<>() {
+            @Override
+            public double[] close() {
+                return closes;
+            }
+
+            @Override
+            public double[] ema(double[] source, int period) {
+                return VectorBatchKernels.ema(source, bars, lanes, startBars, period, 2.0 / (period + 1));
+            }
+
+            @Override
+            public double[] rsi(double[] source, int period) {
+                return VectorBatchKernels.rsi(source, bars, lanes, startBars, period);
+            }
+
+            @Override
+            public double[] stochastic(double[] source, int period) {
+                return VectorBatchKernels.stochastic(source, bars, lanes, startBars, period);
+            }
+
+            @Override
+            public double[] sma(double[] source, int period) {
+                return VectorBatchKernels.sma(source, bars, lanes, startBars, period);
+            }
+        };
+    }
+
+    // NaN for the first period bars of a lane, then seeded with the input, see EmaKernel
+    static double[] ema(double[] in, int bars, int lanes, double[] startBars, int period, double multiplier) {
+        double[] out = new double[bars * lanes];
+        double[] previous = new double[lanes];
+        Arrays.fill(previous, Double.NaN);
+        for (int bar = 0; bar < bars; bar++) {
+            int row = bar * lanes;
+            for (int lane = 0; lane < lanes; lane += SPECIES.length()) {
+                DoubleVector input = DoubleVector.fromArray(SPECIES, in, row + lane);
+                DoubleVector last = DoubleVector.fromArray(SPECIES, previous, lane);
+                VectorMask<Double> undefined = laneIndex(bar, startBars, lane).compare(VectorOperators.LT, period)
+                        .or(input.test(VectorOperators.IS_NAN));
+
+                DoubleVector value = last.add(input.sub(last).mul(multiplier))
+                        .blend(input, last.test(VectorOperators.IS_NAN))
+                        .blend(Double.NaN, undefined);
+                value.intoArray(out, row + lane);
+                value.intoArray(previous, lane);
+            }
+        }
+        return out;
+    }
+
+    // Wilder-smoothed gains and losses, the first bar of a lane contributes zero to both, see RsiKernel
+    static double[] rsi(double[] closes, int bars, int lanes, double[] startBars, int period) {
+        double[] gains = new double[bars * lanes];
+        double[] losses = new double[bars * lanes];
+        for (int bar = 0; bar < bars; bar++) {
+            int row = bar * lanes;
+            for (int lane = 0; lane < lanes; lane += SPECIES.length()) {
+                DoubleVector close = DoubleVector.fromArray(SPECIES, closes, row + lane);
+                DoubleVector change = bar == 0
+                        ? DoubleVector.zero(SPECIES)
+                        : close.sub(DoubleVector.fromArray(SPECIES, closes, row - lanes + lane));
+                change = change.blend(0, laneIndex(bar, startBars, lane).compare(VectorOperators.EQ, 0));
+                change.max(0).intoArray(gains, row + lane);
+                change.neg().max(0).intoArray(losses, row + lane);
+            }
+        }
+
+        double[] averageGain = ema(gains, bars, lanes, startBars, period, 1.0 / period);
+        double[] averageLoss = ema(losses, bars, lanes, startBars, period, 1.0 / period);
+        double[] out = new double[bars * lanes];
+        for (int index = 0; index < out.length; index += SPECIES.length()) {
+            DoubleVector gain = DoubleVector.fromArray(SPECIES, averageGain, index);
+            DoubleVector loss = DoubleVector.fromArray(SPECIES, averageLoss, index);
+            VectorMask<Double> noLoss = loss.compare(VectorOperators.EQ, 0);
+            DoubleVector flat = DoubleVector.broadcast(SPECIES, 100)
+                    .blend(0, gain.compare(VectorOperators.EQ, 0));
+
+            DoubleVector hundred = DoubleVector.broadcast(SPECIES, 100);
+            hundred.sub(hundred.div(gain.div(loss).add(1)))
+                    .blend(flat, noLoss)
+                    .blend(Double.NaN, gain.test(VectorOperators.IS_NAN).or(loss.test(VectorOperators.IS_NAN)))
+                    .intoArray(out, index);
+        }
+        return out;
+    }
+
+    // Lowest value over the last window bars, NaN inputs skipped, NaN when the window holds nothing else
+    static double[] rollingMin(double[] in, int bars, int lanes, int window) {
+        return rolling(in, bars, lanes, window, VectorOperators.LT);
+    }
+
+    static double[] rollingMax(double[] in, int bars, int lanes, int window) {
+        return rolling(in, bars, lanes, window, VectorOperators.GT);
+    }
+
+    // 0-100 position between the rolling extremes, a flat window repeats the previous bar, see StochasticKernel
+    static double[] stochastic(double[] in, int bars, int lanes, double[] startBars, int period) {
+        double[] lowest = rollingMin(in, bars, lanes, period);
+        double[] highest = rollingMax(in, bars, lanes, period);
+        double[] out = new double[bars * lanes];
+        double[] previous = new double[lanes];
+        Arrays.fill(previous, Double.NaN);
+        for (int bar = 0; bar < bars; bar++) {
+            int row = bar * lanes;
+            for (int lane = 0; lane < lanes; lane += SPECIES.length()) {
+                DoubleVector input = DoubleVector.fromArray(SPECIES, in, row + lane);
+                DoubleVector min = DoubleVector.fromArray(SPECIES, lowest, row + lane);
+                DoubleVector range = DoubleVector.fromArray(SPECIES, highest, row + lane).sub(min);
+                VectorMask<Double> undefined = laneIndex(bar, startBars, lane).compare(VectorOperators.LT, period)
+                        .or(input.test(VectorOperators.IS_NAN));
+
+                DoubleVector value = input.sub(min).div(range).mul(100)
+                        .blend(DoubleVector.fromArray(SPECIES, previous, lane), range.compare(VectorOperators.EQ, 0))
+                        .blend(Double.NaN, undefined);
+                value.intoArray(out, row + lane);
+                value.intoArray(previous, lane);
+            }
+        }
+        return out;
+    }
+
+    // Average over what a lane has inside the window, NaN inputs poison it until they leave, see SmaKernel
+    static double[] sma(double[] in, int bars, int lanes, double[] startBars, int period) {
+        double[] out = new double[bars * lanes];
+        for (int bar = 0; bar < bars; bar++) {
+            int row = bar * lanes;
+            int from = Math.max(0, bar - period + 1);
+            for (int lane = 0; lane < lanes; lane += SPECIES.length()) {
+                DoubleVector index = laneIndex(bar, startBars, lane);
+                DoubleVector sum = DoubleVector.zero(SPECIES);
+                for (int past = from; past <= bar; past++) {
+                    DoubleVector value = DoubleVector.fromArray(SPECIES, in, past * lanes + lane);
+                    sum = sum.add(value.blend(0, laneIndex(past, startBars, lane).compare(VectorOperators.LT, 0)));
+                }
+                DoubleVector count = index.add(1).min(period);
+                sum.div(count)
+                        .blend(Double.NaN, index.compare(VectorOperators.LT, 0))
+                        .intoArray(out, row + lane);
+            }
+        }
+        return out;
+    }
+
+    private static double[] rolling(double[] in, int bars, int lanes, int window, VectorOperators.Comparison better) {
+        double[] out = new double[bars * lanes];
+        for (int bar = 0; bar < bars; bar++) {
+            int row = bar * lanes;
+            int from = Math.max(0, bar - window + 1);
+            for (int lane = 0; lane < lanes; lane += SPECIES.length()) {
+                DoubleVector extreme = DoubleVector.broadcast(SPECIES, Double.NaN);
+                for (int past = from; past <= bar; past++) {
+                    DoubleVector value = DoubleVector.fromArray(SPECIES, in, past * lanes + lane);
+                    // A comparison with NaN is false, so NaN inputs never win and NaN extremes always lose
+                    VectorMask<Double> replace = value.compare(better, extreme)
+                            .or(extreme.test(VectorOperators.IS_NAN));
+                    extreme = extreme.blend(value, replace);
+                }
+                extreme.intoArray(out, row + lane);
+            }
+        }
+        return out;
+    }
+
+    // How many bars into its own data each lane is, negative before its first bar
+    private static DoubleVector laneIndex(int bar, double[] startBars, int lane) {
+        return DoubleVector.broadcast(SPECIES, bar).sub(DoubleVector.fromArray(SPECIES, startBars, lane));
+    }
+}
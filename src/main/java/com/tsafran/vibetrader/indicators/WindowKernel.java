@@ -0,0 +1,32 @@
+package com.tsafran.vibetrader.indicators;
+
+// Fixed window over the latest inputs, scanned per bar so the cost depends on the period, not the history
+abstract class WindowKernel implements IndicatorKernel {
+    protected final double[] window;
+    protected int filled;
+    protected long count;
+    private int next;
+
+    WindowKernel(int period) {
+        this.window = new double[period];
+    }
+
+    @Override
+    public double push(double input) {
+        window[next] = input;
+        next = (next + 1) % window.length;
+        if (filled < window.length) {
+            filled++;
+        }
+        count++;
+        return compute(input);
+    }
+
+    @Override
+    public double replaceLast(double input) {
+        window[(next + window.length - 1) % window.length] = input;
+        return compute(input);
+    }
+
+    protected abstract double compute(double last);
+}
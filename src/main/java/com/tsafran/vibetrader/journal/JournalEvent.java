@@ -0,0 +1,142 @@
+package com.tsafran.vibetrader.journal;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeAccountType;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Objects;
+
+// One exchange answer as the app received it, time is when it completed (epoch millis)
+public sealed interface JournalEvent {
+
+    enum Call {
+        CANDLES,
+        PLACEMENT,
+        WALLET_BALANCE,
+        PRECISION,
+        OPEN_ORDERS
+    }
+
+    long time();
+
+    Call call();
+
+    // Answers to the same key are replayed in the order they were recorded
+    String key();
+
+    record Candles(
+            long time,
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit,
+            CandleSeries candles
+    ) implements JournalEvent {
+        public Candles {
+            Objects.requireNonNull(symbol, "symbol");
+            Objects.requireNonNull(category, "category");
+            Objects.requireNonNull(interval, "interval");
+            if (candles == null) {
+                candles = CandleSeries.empty();
+            }
+        }
+
+        @Override
+        public Call call() {
+            return Call.CANDLES;
+        }
+
+        @Override
+        public String key() {
+            return candlesKey(symbol, category, interval);
+        }
+    }
+
+    record Placement(long time, FuturesMarketOrderRequest request, OrderPlacement placement) implements JournalEvent {
+        public Placement {
+            Objects.requireNonNull(request, "request");
+            Objects.requireNonNull(placement, "placement");
+        }
+
+        @Override
+        public Call call() {
+            return Call.PLACEMENT;
+        }
+
+        @Override
+        public String key() {
+            return symbolKey(request.symbol());
+        }
+    }
+
+    record WalletBalance(long time, ExchangeAccountType accountType, BigDecimal balance) implements JournalEvent {
+        public WalletBalance {
+            Objects.requireNonNull(accountType, "accountType");
+        }
+
+        @Override
+        public Call call() {
+            return Call.WALLET_BALANCE;
+        }
+
+        @Override
+        public String key() {
+            return accountType.name();
+        }
+    }
+
+    record Precision(long time, String symbol, InstrumentPrecision precision) implements JournalEvent {
+        public Precision {
+            Objects.requireNonNull(symbol, "symbol");
+            Objects.requireNonNull(precision, "precision");
+        }
+
+        @Override
+        public Call call() {
+            return Call.PRECISION;
+        }
+
+        @Override
+        public String key() {
+            return symbolKey(symbol);
+        }
+    }
+
+    record OpenOrders(long time, String symbol, boolean open) implements JournalEvent {
+        public OpenOrders {
+            Objects.requireNonNull(symbol, "symbol");
+        }
+
+        @Override
+        public Call call() {
+            return Call.OPEN_ORDERS;
+        }
+
+        @Override
+        public String key() {
+            return symbolKey(symbol);
+        }
+    }
+
+    // The call failed, replaying it throws again
+    record Failure(long time, Call call, String key, String message) implements JournalEvent {
+        public Failure {
+            Objects.requireNonNull(call, "call");
+            Objects.requireNonNull(key, "key");
+        }
+    }
+
+    static String candlesKey(String symbol, ExchangeCategory category, ExchangeInterval interval) {
+        return symbolKey(symbol) + '|' + category.name() + '|' + interval.name();
+    }
+
+    static String symbolKey(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
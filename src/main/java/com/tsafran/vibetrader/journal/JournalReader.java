@@ -0,0 +1,239 @@
+package com.tsafran.vibetrader.journal;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeAccountType;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+// Reads back what JournalWriter wrote, see there for the layout
+final class JournalReader implements Closeable {
+    private static final JournalEvent.Call[] CALLS = JournalEvent.Call.values();
+    private static final ExchangeCategory[] CATEGORIES = ExchangeCategory.values();
+    private static final ExchangeInterval[] INTERVALS = ExchangeInterval.values();
+    private static final ExchangeOrderSide[] SIDES = ExchangeOrderSide.values();
+    private static final ExchangeAccountType[] ACCOUNT_TYPES = ExchangeAccountType.values();
+
+    private final DataInputStream in;
+    private final long createdAt;
+    private final List<String> symbols = new ArrayList<>();
+    private final Map<String, CandleSeries> lastSeries = new HashMap<>();
+    private long lastTime;
+
+    JournalReader(InputStream source) throws IOException {
+        DataInputStream header = new DataInputStream(source);
+        if (header.readInt() != JournalWriter.MAGIC) {
+            throw new IllegalStateException("Not a market-data journal");
+        }
+        int version = header.readInt();
+        if (version != JournalWriter.VERSION) {
+            throw new IllegalStateException("Unsupported journal version " + version);
+        }
+        this.createdAt = header.readLong();
+        this.lastTime = createdAt;
+        this.in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(source), 1 << 16));
+    }
+
+    long createdAt() {
+        return createdAt;
+    }
+
+    // Null at the end, a journal cut short by a crash ends at its last complete record
+    JournalEvent next() throws IOException {
+        try {
+            int tag = in.read();
+            if (tag < 0) {
+                return null;
+            }
+            return read(tag);
+        } catch (EOFException ex) {
+            return null;
+        }
+    }
+
+    List<JournalEvent> readAll() throws IOException {
+        List<JournalEvent> events = new ArrayList<>();
+        for (JournalEvent event = next(); event != null; event = next()) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private JournalEvent read(int tag) throws IOException {
+        JournalEvent.Call call = CALLS[tag & ~JournalWriter.FAILURE_FLAG];
+        long time = lastTime + readSigned();
+        lastTime = time;
+        if ((tag & JournalWriter.FAILURE_FLAG) != 0) {
+            return new JournalEvent.Failure(time, call, readString(), readString());
+        }
+        return switch (call) {
+            case CANDLES -> readCandles(time);
+            case PLACEMENT -> {
+                FuturesMarketOrderRequest request = readRequest();
+                OrderLegResult entry = readLeg();
+                OrderLegResult takeProfit = readLeg();
+                yield new JournalEvent.Placement(time, request, new OrderPlacement(entry, takeProfit));
+            }
+            case WALLET_BALANCE -> new JournalEvent.WalletBalance(
+                    time,
+                    ACCOUNT_TYPES[(int) readUnsigned()],
+                    readDecimal()
+            );
+            case PRECISION -> {
+                String symbol = readSymbol();
+                yield new JournalEvent.Precision(time, symbol, new InstrumentPrecision(readDecimal(), readDecimal()));
+            }
+            case OPEN_ORDERS -> new JournalEvent.OpenOrders(time, readSymbol(), in.readBoolean());
+        };
+    }
+
+    private JournalEvent.Candles readCandles(long time) throws IOException {
+        String symbol = readSymbol();
+        ExchangeCategory category = CATEGORIES[(int) readUnsigned()];
+        ExchangeInterval interval = INTERVALS[(int) readUnsigned()];
+        int limit = (int) readUnsigned();
+        int size = (int) readUnsigned();
+        int priceScale = (int) readUnsigned();
+        String key = JournalEvent.candlesKey(symbol, category, interval);
+
+        CandleSeries.Builder builder = CandleSeries.builder(size);
+        CandleSeries previous = lastSeries.get(key);
+        int reused = (int) readUnsigned();
+        int from = reused > 0 ? (int) readUnsigned() : 0;
+        if (reused > 0) {
+            if (previous == null || from + reused > previous.size()) {
+                throw new IllegalStateException("Journal refers to candles it never recorded for " + key);
+            }
+            for (int i = from; i < from + reused; i++) {
+                builder.add(
+                        previous.startTime(i),
+                        previous.open(i),
+                        previous.high(i),
+                        previous.low(i),
+                        previous.close(i),
+                        previous.volume(i),
+                        previous.turnover(i)
+                );
+            }
+        }
+
+        boolean fixed = in.readBoolean();
+        double unit = fixed ? Math.pow(10, priceScale) : 1;
+        int lastReused = from + reused - 1;
+        long previousTime = reused > 0 ? previous.startTime(lastReused) : 0;
+        long previousClose = reused > 0 && fixed ? JournalWriter.units(previous.close(lastReused), unit) : 0;
+        for (int i = reused; i < size; i++) {
+            long startTime = previousTime + readSigned();
+            previousTime = startTime;
+            double open;
+            double high;
+            double low;
+            double close;
+            if (fixed) {
+                long openUnits = previousClose + readSigned();
+                long highUnits = openUnits + readSigned();
+                long lowUnits = openUnits + readSigned();
+                long closeUnits = openUnits + readSigned();
+                open = openUnits / unit;
+                high = highUnits / unit;
+                low = lowUnits / unit;
+                close = closeUnits / unit;
+                previousClose = closeUnits;
+            } else {
+                open = in.readDouble();
+                high = in.readDouble();
+                low = in.readDouble();
+                close = in.readDouble();
+            }
+            builder.add(startTime, open, high, low, close, in.readDouble(), in.readDouble());
+        }
+        CandleSeries candles = builder.priceScale(priceScale).build();
+        lastSeries.put(key, candles);
+        return new JournalEvent.Candles(time, symbol, category, interval, limit, candles);
+    }
+
+    private FuturesMarketOrderRequest readRequest() throws IOException {
+        String symbol = readSymbol();
+        int category = (int) readUnsigned();
+        ExchangeOrderSide side = SIDES[(int) readUnsigned()];
+        return new FuturesMarketOrderRequest(
+                symbol,
+                category == 0 ? null : CATEGORIES[category - 1],
+                side,
+                readDecimal(),
+                readDecimal(),
+                readDecimal()
+        );
+    }
+
+    private OrderLegResult readLeg() throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new OrderLegResult(readString(), readString(), (int) readSigned(), readString());
+    }
+
+    private String readSymbol() throws IOException {
+        int id = (int) readUnsigned();
+        if (id < symbols.size()) {
+            return symbols.get(id);
+        }
+        String symbol = readString();
+        symbols.add(symbol);
+        return symbol;
+    }
+
+    private BigDecimal readDecimal() throws IOException {
+        String value = readString();
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    private String readString() throws IOException {
+        int length = (int) readUnsigned();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readSigned() throws IOException {
+        long value = readUnsigned();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readUnsigned() throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
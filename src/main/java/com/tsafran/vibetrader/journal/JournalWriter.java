@@ -0,0 +1,284 @@
+package com.tsafran.vibetrader.journal;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/*
+ * Journal file layout:
+ *   header (plain): magic int, version int, creation time long
+ *   body (deflate, sync-flushed so a crash loses at most the unflushed tail): records of
+ *     tag byte (call ordinal, high bit set for a failure), time as a zigzag varint delta from the previous record,
+ *     then the call's fields
+ * Symbols are numbered on first use. A candle answer names how many leading bars repeat the previous answer for
+ * the same series and where they start in it, the rest are written as varint deltas: start time against the bar
+ * before, open against the previous close, high, low and close against the open, all in whole price-scale units.
+ * Series whose prices do not sit on their scale fall back to plain doubles. Volume and turnover are plain doubles.
+ */
+final class JournalWriter implements Closeable {
+    static final int MAGIC = 0x56544A31;
+    static final int VERSION = 1;
+    static final int FAILURE_FLAG = 0x80;
+    // Beyond this many decimals the fixed-point units no longer hold every price exactly
+    static final int MAX_FIXED_SCALE = 12;
+
+    private final CountingOutputStream file;
+    private final DataOutputStream out;
+    private final Map<String, Integer> symbols = new HashMap<>();
+    private final Map<String, CandleSeries> lastSeries = new HashMap<>();
+    private long lastTime;
+
+    JournalWriter(OutputStream target, long createdAt) throws IOException {
+        this.file = new CountingOutputStream(target);
+        DataOutputStream header = new DataOutputStream(file);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeLong(createdAt);
+        header.flush();
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(file, new Deflater(Deflater.DEFAULT_COMPRESSION), 1 << 16, true),
+                1 << 16
+        ));
+        this.lastTime = createdAt;
+    }
+
+    // Compressed bytes handed to the file so far
+    long bytesWritten() {
+        return file.count;
+    }
+
+    void write(JournalEvent event) throws IOException {
+        out.writeByte(event.call().ordinal() | (event instanceof JournalEvent.Failure ? FAILURE_FLAG : 0));
+        writeSigned(event.time() - lastTime);
+        lastTime = event.time();
+        switch (event) {
+            case JournalEvent.Failure failure -> {
+                writeString(failure.key());
+                writeString(failure.message());
+            }
+            case JournalEvent.Candles candles -> writeCandles(candles);
+            case JournalEvent.Placement placement -> {
+                writeRequest(placement.request());
+                writeLeg(placement.placement().entry());
+                writeLeg(placement.placement().takeProfit());
+            }
+            case JournalEvent.WalletBalance balance -> {
+                writeUnsigned(balance.accountType().ordinal());
+                writeDecimal(balance.balance());
+            }
+            case JournalEvent.Precision precision -> {
+                writeSymbol(precision.symbol());
+                writeDecimal(precision.precision().basePrecision());
+                writeDecimal(precision.precision().tickSize());
+            }
+            case JournalEvent.OpenOrders openOrders -> {
+                writeSymbol(openOrders.symbol());
+                out.writeBoolean(openOrders.open());
+            }
+        }
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeCandles(JournalEvent.Candles event) throws IOException {
+        CandleSeries candles = event.candles();
+        writeSymbol(event.symbol());
+        writeUnsigned(event.category().ordinal());
+        writeUnsigned(event.interval().ordinal());
+        writeUnsigned(event.limit());
+        writeUnsigned(candles.size());
+        writeUnsigned(candles.priceScale());
+
+        String key = event.key();
+        CandleSeries previous = lastSeries.get(key);
+        int from = previous == null || candles.isEmpty() ? -1 : indexOf(previous, candles.startTime(0));
+        int reused = 0;
+        if (from >= 0) {
+            while (from + reused < previous.size()
+                    && reused < candles.size()
+                    && sameBar(previous, from + reused, candles, reused)) {
+                reused++;
+            }
+        }
+        writeUnsigned(reused);
+        if (reused > 0) {
+            writeUnsigned(from);
+        }
+
+        boolean fixed = isOnScale(candles, reused);
+        out.writeBoolean(fixed);
+        double unit = fixed ? Math.pow(10, candles.priceScale()) : 1;
+        long previousTime = reused > 0 ? candles.startTime(reused - 1) : 0;
+        long previousClose = reused > 0 && fixed ? units(candles.close(reused - 1), unit) : 0;
+        for (int i = reused; i < candles.size(); i++) {
+            writeSigned(candles.startTime(i) - previousTime);
+            previousTime = candles.startTime(i);
+            if (fixed) {
+                long open = units(candles.open(i), unit);
+                long close = units(candles.close(i), unit);
+                writeSigned(open - previousClose);
+                writeSigned(units(candles.high(i), unit) - open);
+                writeSigned(units(candles.low(i), unit) - open);
+                writeSigned(close - open);
+                previousClose = close;
+            } else {
+                out.writeDouble(candles.open(i));
+                out.writeDouble(candles.high(i));
+                out.writeDouble(candles.low(i));
+                out.writeDouble(candles.close(i));
+            }
+            out.writeDouble(candles.volume(i));
+            out.writeDouble(candles.turnover(i));
+        }
+        lastSeries.put(key, candles);
+    }
+
+    private void writeRequest(FuturesMarketOrderRequest request) throws IOException {
+        writeSymbol(request.symbol());
+        writeUnsigned(request.category() == null ? 0 : request.category().ordinal() + 1);
+        writeUnsigned(request.side().ordinal());
+        writeDecimal(request.quantity());
+        writeDecimal(request.takeProfit());
+        writeDecimal(request.stopLoss());
+    }
+
+    private void writeLeg(OrderLegResult leg) throws IOException {
+        out.writeBoolean(leg != null);
+        if (leg != null) {
+            writeString(leg.orderId());
+            writeString(leg.orderLinkId());
+            writeSigned(leg.code());
+            writeString(leg.message());
+        }
+    }
+
+    private void writeSymbol(String symbol) throws IOException {
+        Integer id = symbols.get(symbol);
+        if (id != null) {
+            writeUnsigned(id);
+            return;
+        }
+        id = symbols.size();
+        symbols.put(symbol, id);
+        writeUnsigned(id);
+        writeString(symbol);
+    }
+
+    private void writeDecimal(BigDecimal value) throws IOException {
+        writeString(value == null ? null : value.toString());
+    }
+
+    // Length + 1 first, so 0 stands for null
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeUnsigned(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private void writeSigned(long value) throws IOException {
+        writeUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    private void writeUnsigned(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static boolean isOnScale(CandleSeries candles, int from) {
+        if (candles.priceScale() > MAX_FIXED_SCALE) {
+            return false;
+        }
+        double unit = Math.pow(10, candles.priceScale());
+        for (int i = from; i < candles.size(); i++) {
+            if (!onScale(candles.open(i), unit)
+                    || !onScale(candles.high(i), unit)
+                    || !onScale(candles.low(i), unit)
+                    || !onScale(candles.close(i), unit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean onScale(double price, double unit) {
+        return units(price, unit) / unit == price;
+    }
+
+    static long units(double price, double unit) {
+        return (long) Math.rint(price * unit);
+    }
+
+    static int indexOf(CandleSeries series, long startTime) {
+        int low = 0;
+        int high = series.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = series.startTime(mid);
+            if (value < startTime) {
+                low = mid + 1;
+            } else if (value > startTime) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean sameBar(CandleSeries a, int i, CandleSeries b, int j) {
+        return a.startTime(i) == b.startTime(j)
+                && a.open(i) == b.open(j)
+                && a.high(i) == b.high(j)
+                && a.low(i) == b.low(j)
+                && a.close(i) == b.close(j)
+                && a.volume(i) == b.volume(j)
+                && a.turnover(i) == b.turnover(j);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.tsafran.vibetrader.journal;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.Ohlcv;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/*
+ * Wraps an exchange so every answer it hands out, or the failure in its place, goes to the journal.
+ * The caller's cost is a whenComplete callback and a ring offer, the answer itself is passed through untouched.
+ */
+public final class JournalingExchange implements MethodInterceptor {
+    private static final Map<String, JournalEvent.Call> CALLS = Map.ofEntries(
+            Map.entry("getCandles", JournalEvent.Call.CANDLES),
+            Map.entry("getCandlesAsync", JournalEvent.Call.CANDLES),
+            Map.entry("getKlines", JournalEvent.Call.CANDLES),
+            Map.entry("placeFuturesMarketOrder", JournalEvent.Call.PLACEMENT),
+            Map.entry("placeFuturesMarketOrderAsync", JournalEvent.Call.PLACEMENT),
+            Map.entry("getWalletBalance", JournalEvent.Call.WALLET_BALANCE),
+            Map.entry("getWalletBalanceAsync", JournalEvent.Call.WALLET_BALANCE),
+            Map.entry("getInstrumentPrecision", JournalEvent.Call.PRECISION),
+            Map.entry("getInstrumentPrecisionAsync", JournalEvent.Call.PRECISION),
+            Map.entry("hasOpenOrders", JournalEvent.Call.OPEN_ORDERS),
+            Map.entry("hasOpenOrdersAsync", JournalEvent.Call.OPEN_ORDERS)
+    );
+
+    private final Supplier<MarketDataJournal> journal;
+
+    JournalingExchange(Supplier<MarketDataJournal> journal) {
+        this.journal = journal;
+    }
+
+    // Interface proxy, for exchanges built by hand rather than by Spring
+    public static AsyncExchange wrap(AsyncExchange exchange, MarketDataJournal journal) {
+        ProxyFactory factory = new ProxyFactory(exchange);
+        factory.addAdvice(new JournalingExchange(() -> journal));
+        return (AsyncExchange) factory.getProxy();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        JournalEvent.Call call = CALLS.get(invocation.getMethod().getName());
+        if (call == null) {
+            return invocation.proceed();
+        }
+        Object[] arguments = invocation.getArguments();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (RuntimeException ex) {
+            record(call, arguments, null, ex);
+            throw ex;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, error) -> record(call, arguments, value, error));
+        } else {
+            record(call, arguments, result, null);
+        }
+        return result;
+    }
+
+    // Arguments the exchange itself rejected may not make a valid event, those are counted as dropped
+    private void record(JournalEvent.Call call, Object[] arguments, Object value, Throwable error) {
+        MarketDataJournal target = journal.get();
+        try {
+            target.record(event(call, arguments, value, error));
+        } catch (RuntimeException ex) {
+            target.discard();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JournalEvent event(JournalEvent.Call call, Object[] arguments, Object value, Throwable error) {
+        long time = System.currentTimeMillis();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return new JournalEvent.Failure(time, call, key(call, arguments), String.valueOf(cause.getMessage()));
+        }
+        return switch (call) {
+            case CANDLES -> new JournalEvent.Candles(
+                    time,
+                    (String) arguments[0],
+                    (ExchangeCategory) arguments[1],
+                    (ExchangeInterval) arguments[2],
+                    (Integer) arguments[3],
+                    value instanceof List<?> klines ? CandleSeries.fromOhlcv((List<Ohlcv>) klines) : (CandleSeries) value
+            );
+            case PLACEMENT -> new JournalEvent.Placement(time, (FuturesMarketOrderRequest) arguments[0], (OrderPlacement) value);
+            case WALLET_BALANCE -> new JournalEvent.WalletBalance(
+                    time,
+                    ((WalletBalanceRequest) arguments[0]).accountType(),
+                    (BigDecimal) value
+            );
+            case PRECISION -> new JournalEvent.Precision(time, (String) arguments[0], (InstrumentPrecision) value);
+            case OPEN_ORDERS -> new JournalEvent.OpenOrders(time, (String) arguments[0], (Boolean) value);
+        };
+    }
+
+    private static String key(JournalEvent.Call call, Object[] arguments) {
+        return switch (call) {
+            case CANDLES -> JournalEvent.candlesKey(
+                    (String) arguments[0],
+                    (ExchangeCategory) arguments[1],
+                    (ExchangeInterval) arguments[2]
+            );
+            case PLACEMENT -> JournalEvent.symbolKey(((FuturesMarketOrderRequest) arguments[0]).symbol());
+            case WALLET_BALANCE -> ((WalletBalanceRequest) arguments[0]).accountType().name();
+            case PRECISION, OPEN_ORDERS -> JournalEvent.symbolKey((String) arguments[0]);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.tsafran.vibetrader.journal;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/*
+ * With journal.enabled=true, wraps the exchange the services are given: the only AsyncExchange bean, or the primary
+ * one when a profile adds its own (paper). Exchanges it builds on, like Bybit under paper, stay unwrapped so their
+ * answers are not journaled a second time. The proxy subclasses the bean, injection by concrete type still works.
+ */
+@Component
+public class JournalingExchangePostProcessor implements BeanPostProcessor, BeanFactoryAware {
+    private final boolean enabled;
+    private final ObjectProvider<MarketDataJournal> journal;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    public JournalingExchangePostProcessor(
+            @Value("${journal.enabled:false}") boolean enabled,
+            ObjectProvider<MarketDataJournal> journal
+    ) {
+        this.enabled = enabled;
+        this.journal = journal;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!enabled || !(bean instanceof AsyncExchange) || bean instanceof ReplayExchange || !isInjected(beanName)) {
+            return bean;
+        }
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new JournalingExchange(journal::getObject));
+        return factory.getProxy();
+    }
+
+    private boolean isInjected(String beanName) {
+        String[] exchanges = beanFactory.getBeanNamesForType(AsyncExchange.class, false, false);
+        if (exchanges.length == 1) {
+            return exchanges[0].equals(beanName);
+        }
+        return beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary();
+    }
+}
@@ -0,0 +1,145 @@
+package com.tsafran.vibetrader.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Journals every exchange answer the app consumes (see JournalingExchange) so a live run can be replayed
+ * (see ReplayExchange). Callers only put the event on a lock-free ring, encoding, compression and disk writes happen
+ * on the writer thread. A full ring drops the event and counts it rather than holding up a trade.
+ * Off unless journal.enabled=true, each run writes its own journal-<utc time>.vtj under journal.dir.
+ */
+@Component
+public class MarketDataJournal {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataJournal.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final long flushNanos;
+    private final JournalRing<JournalEvent> ring;
+    private final LongAdder dropped = new LongAdder();
+    private final Path path;
+    private final JournalWriter writer;
+    private final Thread writerThread;
+    private volatile long recorded;
+    private volatile long bytes;
+    private volatile boolean closed;
+
+    public MarketDataJournal(
+            @Value("${journal.enabled:false}") boolean enabled,
+            @Value("${journal.dir:data/journal}") String directory,
+            @Value("${journal.ring-capacity:65536}") int ringCapacity,
+            @Value("${journal.flush-ms:200}") long flushMillis
+    ) {
+        this.enabled = enabled;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.ring = enabled ? new JournalRing<>(ringCapacity) : null;
+        if (!enabled) {
+            this.path = null;
+            this.writer = null;
+            this.writerThread = null;
+            return;
+        }
+
+        long createdAt = System.currentTimeMillis();
+        this.path = Path.of(directory).resolve("journal-" + FILE_TIME.format(Instant.ofEpochMilli(createdAt)) + ".vtj");
+        try {
+            Files.createDirectories(path.getParent());
+            this.writer = new JournalWriter(new BufferedOutputStream(Files.newOutputStream(path)), createdAt);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create market-data journal " + path, ex);
+        }
+        this.writerThread = Thread.ofPlatform().name("journal-writer").daemon().start(this::drain);
+        logger.info("Journaling exchange answers to {}", path);
+    }
+
+    public record Status(boolean enabled, Path path, long recorded, long dropped, long bytes) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Status getStatus() {
+        return new Status(enabled, path, recorded, dropped.sum(), bytes);
+    }
+
+    void record(JournalEvent event) {
+        if (!enabled || closed) {
+            return;
+        }
+        if (!ring.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    void discard() {
+        if (enabled) {
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Journal {} closed with {} event(s), {} dropped", path, recorded, dropped.sum());
+    }
+
+    private void drain() {
+        long written = 0;
+        long lastFlush = System.nanoTime();
+        boolean dirty = false;
+        try (writer) {
+            while (true) {
+                boolean closing = closed;
+                JournalEvent event = ring.poll();
+                if (event != null) {
+                    writer.write(event);
+                    recorded = ++written;
+                    dirty = true;
+                    continue;
+                }
+                if (dirty && System.nanoTime() - lastFlush >= flushNanos) {
+                    writer.flush();
+                    bytes = writer.bytesWritten();
+                    lastFlush = System.nanoTime();
+                    dirty = false;
+                }
+                if (closing) {
+                    // The ring was empty after closed was set, only a call racing the shutdown can miss the file
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            writer.flush();
+            bytes = writer.bytesWritten();
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Market-data journal {} stopped", path, ex);
+        }
+    }
+}
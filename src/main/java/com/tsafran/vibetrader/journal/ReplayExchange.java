@@ -0,0 +1,183 @@
+package com.tsafran.vibetrader.journal;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Answers from a market-data journal, selected with the "replay" profile. Every call gets the next answer recorded
+ * for the same call and key (symbol, category and interval for candles), so a replayed run sees what the live one saw
+ * in the order it saw it. A recorded failure is thrown again.
+ *   - journal.replay.pace=recorded: an answer is held until as much time has passed since the first call as had
+ *     passed since the first recorded answer
+ *   - journal.replay.pace=fast: answers come back immediately
+ */
+@Service
+@Primary
+@Profile("replay")
+public class ReplayExchange implements AsyncExchange {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayExchange.class);
+
+    private final Path file;
+    private final boolean recordedPace;
+    private final Map<String, ArrayDeque<JournalEvent>> answers = new HashMap<>();
+    private final int total;
+    private final long firstTime;
+
+    // Guarded by this
+    private int served;
+    private long startedNanos = -1;
+
+    public ReplayExchange(
+            @Value("${journal.replay.file:}") String file,
+            @Value("${journal.replay.pace:recorded}") String pace
+    ) {
+        if (file == null || file.isBlank()) {
+            throw new IllegalStateException("journal.replay.file is required with the replay profile");
+        }
+        this.file = Path.of(file);
+        this.recordedPace = switch (pace.trim().toLowerCase(Locale.ROOT)) {
+            case "recorded" -> true;
+            case "fast" -> false;
+            default -> throw new IllegalArgumentException("journal.replay.pace must be recorded or fast, got: " + pace);
+        };
+
+        List<JournalEvent> events = read(this.file);
+        for (JournalEvent event : events) {
+            answers.computeIfAbsent(slot(event.call(), event.key()), ignored -> new ArrayDeque<>()).add(event);
+        }
+        this.total = events.size();
+        this.firstTime = events.isEmpty() ? 0 : events.getFirst().time();
+        logger.info("Replaying {} answer(s) from {} at {} pace", total, this.file, recordedPace ? "recorded" : "fast");
+    }
+
+    public record Status(Path file, int total, int served) {
+    }
+
+    public synchronized Status getStatus() {
+        return new Status(file, total, served);
+    }
+
+    @Override
+    public CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(category, "category");
+        Objects.requireNonNull(interval, "interval");
+        JournalEvent.Candles answer = (JournalEvent.Candles) next(
+                JournalEvent.Call.CANDLES,
+                JournalEvent.candlesKey(symbol, category, interval)
+        );
+        CandleSeries candles = answer.candles();
+        return candles.size() > limit ? candles.tail(limit) : candles;
+    }
+
+    @Override
+    public OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+        Objects.requireNonNull(request, "request");
+        JournalEvent.Placement answer = (JournalEvent.Placement) next(
+                JournalEvent.Call.PLACEMENT,
+                JournalEvent.symbolKey(request.symbol())
+        );
+        if (!answer.request().equals(request)) {
+            logger.warn("Replayed order differs from the recorded one: {} vs {}", request, answer.request());
+        }
+        return answer.placement();
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(WalletBalanceRequest request) {
+        Objects.requireNonNull(request, "request");
+        return ((JournalEvent.WalletBalance) next(JournalEvent.Call.WALLET_BALANCE, request.accountType().name())).balance();
+    }
+
+    @Override
+    public InstrumentPrecision getInstrumentPrecision(String symbol) {
+        Objects.requireNonNull(symbol, "symbol");
+        return ((JournalEvent.Precision) next(JournalEvent.Call.PRECISION, JournalEvent.symbolKey(symbol))).precision();
+    }
+
+    @Override
+    public boolean hasOpenOrders(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("symbol must be provided");
+        }
+        return ((JournalEvent.OpenOrders) next(JournalEvent.Call.OPEN_ORDERS, JournalEvent.symbolKey(symbol))).open();
+    }
+
+    private JournalEvent next(JournalEvent.Call call, String key) {
+        JournalEvent event;
+        long dueNanos;
+        synchronized (this) {
+            ArrayDeque<JournalEvent> queue = answers.get(slot(call, key));
+            event = queue == null ? null : queue.poll();
+            if (event == null) {
+                throw new IllegalStateException("Journal has no more " + call + " answers for " + key);
+            }
+            served++;
+            if (startedNanos < 0) {
+                startedNanos = System.nanoTime();
+            }
+            dueNanos = startedNanos + TimeUnit.MILLISECONDS.toNanos(event.time() - firstTime);
+        }
+
+        if (recordedPace) {
+            waitUntil(dueNanos);
+        }
+        if (event instanceof JournalEvent.Failure failure) {
+            throw new IllegalStateException(failure.message());
+        }
+        return event;
+    }
+
+    private static void waitUntil(long dueNanos) {
+        long remaining = dueNanos - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pacing the replay", ex);
+        }
+    }
+
+    private static String slot(JournalEvent.Call call, String key) {
+        return call.name() + ':' + key;
+    }
+
+    private static List<JournalEvent> read(Path file) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file));
+             JournalReader reader = new JournalReader(in)) {
+            return reader.readAll();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read market-data journal " + file, ex);
+        }
+    }
+}
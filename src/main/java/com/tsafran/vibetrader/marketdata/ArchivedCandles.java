@@ -0,0 +1,73 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+// Read-only view over a run of archive records, values are decoded from the mapped file on access
+public final class ArchivedCandles {
+    private final ByteBuffer buffer;
+    private final int from;
+    private final int size;
+    private final int priceScale;
+
+    ArchivedCandles(ByteBuffer buffer, int from, int size, int priceScale) {
+        this.buffer = buffer;
+        this.from = from;
+        this.size = size;
+        this.priceScale = priceScale;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int priceScale() {
+        return priceScale;
+    }
+
+    public long startTime(int index) {
+        return buffer.getLong(position(index));
+    }
+
+    public double open(int index) {
+        return buffer.getDouble(position(index) + 8);
+    }
+
+    public double high(int index) {
+        return buffer.getDouble(position(index) + 16);
+    }
+
+    public double low(int index) {
+        return buffer.getDouble(position(index) + 24);
+    }
+
+    public double close(int index) {
+        return buffer.getDouble(position(index) + 32);
+    }
+
+    public double volume(int index) {
+        return buffer.getDouble(position(index) + 40);
+    }
+
+    public double turnover(int index) {
+        return buffer.getDouble(position(index) + 48);
+    }
+
+    public CandleSeries toCandleSeries() {
+        CandleSeries.Builder builder = CandleSeries.builder(size).priceScale(priceScale);
+        for (int i = 0; i < size; i++) {
+            builder.add(startTime(i), open(i), high(i), low(i), close(i), volume(i), turnover(i));
+        }
+        return builder.build();
+    }
+
+    private int position(int index) {
+        return CandleArchive.HEADER_SIZE + (from + Objects.checkIndex(index, size)) * CandleArchive.RECORD_SIZE;
+    }
+}
@@ -0,0 +1,358 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Append-only candle files, one per (symbol, interval), laid out as
+ *   header: magic int, version int, record size int, price scale int, record count long, reserved long
+ *   record: startTime long, open, high, low, close, volume, turnover doubles
+ * Files grow in fixed steps and are read and written through a single shared mapping. Bars older than the last
+ * archived one (a backfill) are merged into a rewritten copy that replaces the file, views handed out before keep
+ * reading the old mapping.
+ */
+@Component
+public class CandleArchive {
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 56;
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleArchive.class);
+    private static final int MAGIC = 0x56544331;
+    private static final int VERSION = 1;
+    private static final int PRICE_SCALE_OFFSET = 12;
+    private static final int COUNT_OFFSET = 16;
+    private static final int GROWTH_RECORDS = 16_384;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Map<Key, ArchiveFile> files = new ConcurrentHashMap<>();
+
+    public CandleArchive(
+            @Value("${marketdata.archive.enabled:true}") boolean enabled,
+            @Value("${marketdata.archive.dir:data/candles}") String directory
+    ) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Only bars newer than the last archived one are written, returns how many were appended
+    public int append(String symbol, ExchangeInterval interval, CandleSeries candles) {
+        if (!enabled || candles == null || candles.isEmpty()) {
+            return 0;
+        }
+        // A merge may have replaced the file since it was looked up
+        int written;
+        do {
+            written = file(symbol, interval).append(candles);
+        } while (written < 0);
+        return written;
+    }
+
+    // Bars from any time, older than the archived ones included, returns how many were not archived yet
+    public int merge(String symbol, ExchangeInterval interval, CandleSeries candles) {
+        if (!enabled || candles == null || candles.isEmpty()) {
+            return 0;
+        }
+        Key key = key(symbol, interval);
+        while (true) {
+            ArchiveFile file = files.computeIfAbsent(key, this::open);
+            synchronized (file) {
+                if (file.retired) {
+                    continue;
+                }
+                if (file.count == 0 || candles.startTime(0) > file.lastStartTime()) {
+                    return file.append(candles);
+                }
+                Path merged = file.path.resolveSibling(file.path.getFileName() + ".merge");
+                try {
+                    int added = file.writeMerged(candles, merged);
+                    if (added == 0) {
+                        Files.delete(merged);
+                        return 0;
+                    }
+                    file.retired = true;
+                    file.close();
+                    Files.move(merged, file.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    files.put(key, open(key));
+                    return added;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Failed to merge into candle archive " + file.path, ex);
+                }
+            }
+        }
+    }
+
+    public int size(String symbol, ExchangeInterval interval) {
+        return enabled ? file(symbol, interval).count : 0;
+    }
+
+    public CandleSeries latest(String symbol, ExchangeInterval interval, int limit) {
+        if (!enabled) {
+            return CandleSeries.empty();
+        }
+        ArchiveFile file = file(symbol, interval);
+        int count = file.count;
+        int size = Math.min(limit, count);
+        return file.view(count - size, size).toCandleSeries();
+    }
+
+    public ArchivedCandles range(String symbol, ExchangeInterval interval, long fromInclusive, long toExclusive) {
+        if (!enabled) {
+            throw new IllegalStateException("Candle archive is disabled");
+        }
+        ArchiveFile file = file(symbol, interval);
+        int count = file.count;
+        int start = file.lowerBound(fromInclusive, count);
+        int end = file.lowerBound(toExclusive, count);
+        return file.view(start, Math.max(0, end - start));
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ArchiveFile file : files.values()) {
+            file.close();
+        }
+        files.clear();
+    }
+
+    private ArchiveFile file(String symbol, ExchangeInterval interval) {
+        return files.computeIfAbsent(key(symbol, interval), this::open);
+    }
+
+    private static Key key(String symbol, ExchangeInterval interval) {
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(interval, "interval");
+        return new Key(symbol.trim().toUpperCase(Locale.ROOT), interval);
+    }
+
+    private ArchiveFile open(Key key) {
+        Path path = directory.resolve(key.symbol()).resolve(key.interval().name() + ".candles");
+        try {
+            Files.createDirectories(path.getParent());
+            FileChannel channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE
+            );
+            return new ArchiveFile(path, channel);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open candle archive " + path, ex);
+        }
+    }
+
+    private record Key(String symbol, ExchangeInterval interval) {
+    }
+
+    private static final class ArchiveFile {
+        private final Path path;
+        private final FileChannel channel;
+        private volatile MappedByteBuffer buffer;
+        private volatile int count;
+        private int capacity;
+        private int priceScale;
+        // Replaced by a merged copy, appends go to the new file
+        private boolean retired;
+
+        private ArchiveFile(Path path, FileChannel channel) throws IOException {
+            this.path = path;
+            this.channel = channel;
+            boolean fresh = channel.size() < HEADER_SIZE;
+            map(fresh ? GROWTH_RECORDS : (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE));
+            if (fresh) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, RECORD_SIZE);
+                buffer.putInt(PRICE_SCALE_OFFSET, 0);
+                buffer.putLong(COUNT_OFFSET, 0);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != RECORD_SIZE) {
+                throw new IllegalStateException("Not a candle archive: " + path);
+            }
+            this.priceScale = buffer.getInt(PRICE_SCALE_OFFSET);
+            this.count = (int) Math.min(buffer.getLong(COUNT_OFFSET), capacity);
+        }
+
+        private synchronized int append(CandleSeries candles) {
+            if (retired) {
+                return -1;
+            }
+            long last = count == 0 ? Long.MIN_VALUE : lastStartTime();
+            int written = 0;
+            int next = count;
+            for (int i = 0; i < candles.size(); i++) {
+                long startTime = candles.startTime(i);
+                if (startTime <= last) {
+                    continue;
+                }
+                if (next == capacity) {
+                    grow();
+                }
+                int position = HEADER_SIZE + next * RECORD_SIZE;
+                buffer.putLong(position, startTime);
+                buffer.putDouble(position + 8, candles.open(i));
+                buffer.putDouble(position + 16, candles.high(i));
+                buffer.putDouble(position + 24, candles.low(i));
+                buffer.putDouble(position + 32, candles.close(i));
+                buffer.putDouble(position + 40, candles.volume(i));
+                buffer.putDouble(position + 48, candles.turnover(i));
+                last = startTime;
+                next++;
+                written++;
+            }
+            if (written == 0) {
+                return 0;
+            }
+            if (candles.priceScale() > priceScale) {
+                priceScale = candles.priceScale();
+                buffer.putInt(PRICE_SCALE_OFFSET, priceScale);
+            }
+            // Records are in place before the count that makes them visible is published
+            buffer.putLong(COUNT_OFFSET, next);
+            count = next;
+            return written;
+        }
+
+        private long lastStartTime() {
+            return buffer.getLong(HEADER_SIZE + (count - 1) * RECORD_SIZE);
+        }
+
+        // Archived and new bars in startTime order into target, an archived bar wins over a new one at the same time
+        private synchronized int writeMerged(CandleSeries candles, Path target) throws IOException {
+            int scale = Math.max(priceScale, candles.priceScale());
+            ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            int archived = 0;
+            int incoming = 0;
+            int added = 0;
+            long last = Long.MIN_VALUE;
+            try (FileChannel out = FileChannel.open(
+                    target,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE
+            )) {
+                out.position(HEADER_SIZE);
+                while (archived < count || incoming < candles.size()) {
+                    boolean takeArchived = incoming == candles.size() || archived < count
+                            && buffer.getLong(HEADER_SIZE + archived * RECORD_SIZE) <= candles.startTime(incoming);
+                    if (takeArchived) {
+                        int position = HEADER_SIZE + archived * RECORD_SIZE;
+                        last = buffer.getLong(position);
+                        chunk.put(buffer.slice(position, RECORD_SIZE));
+                        archived++;
+                    } else {
+                        long startTime = candles.startTime(incoming);
+                        if (startTime > last) {
+                            chunk.putLong(startTime)
+                                    .putDouble(candles.open(incoming))
+                                    .putDouble(candles.high(incoming))
+                                    .putDouble(candles.low(incoming))
+                                    .putDouble(candles.close(incoming))
+                                    .putDouble(candles.volume(incoming))
+                                    .putDouble(candles.turnover(incoming));
+                            last = startTime;
+                            added++;
+                        }
+                        incoming++;
+                    }
+                    if (chunk.remaining() < RECORD_SIZE) {
+                        drain(chunk, out);
+                    }
+                }
+                drain(chunk, out);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(RECORD_SIZE)
+                        .putInt(scale)
+                        .putLong((out.size() - HEADER_SIZE) / RECORD_SIZE)
+                        .putLong(0)
+                        .flip();
+                while (header.hasRemaining()) {
+                    out.write(header, header.position());
+                }
+                out.force(true);
+            }
+            return added;
+        }
+
+        private static void drain(ByteBuffer chunk, FileChannel out) throws IOException {
+            chunk.flip();
+            while (chunk.hasRemaining()) {
+                out.write(chunk);
+            }
+            chunk.clear();
+        }
+
+        private ArchivedCandles view(int from, int size) {
+            return new ArchivedCandles(buffer, from, size, priceScale);
+        }
+
+        private int lowerBound(long startTime, int count) {
+            MappedByteBuffer snapshot = buffer;
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (snapshot.getLong(HEADER_SIZE + mid * RECORD_SIZE) < startTime) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void grow() {
+            try {
+                map(capacity + GROWTH_RECORDS);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to grow candle archive " + path, ex);
+            }
+        }
+
+        private void map(int records) throws IOException {
+            long bytes = HEADER_SIZE + (long) records * RECORD_SIZE;
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Candle archive is full: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            buffer = mapped;
+            capacity = records;
+        }
+
+        private synchronized void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException ex) {
+                logger.warn("Failed to close candle archive {}", path, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+
+import java.util.Arrays;
+
+// Growable candle columns kept in ascending startTime order, callers synchronize access
+public final class CandleBuffer {
+    private long[] startTimes;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    private double[] turnover;
+    private int head;
+    private int size;
+    private int priceScale;
+
+    public CandleBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        startTimes = new long[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        volume = new double[capacity];
+        turnover = new double[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long lastStartTime() {
+        if (size == 0) {
+            throw new IllegalStateException("Candle buffer is empty");
+        }
+        return startTimes[head + size - 1];
+    }
+
+    // Appends a newer bar or replaces the last one when startTime matches, older bars are ignored
+    public boolean apply(CandleSeries candles, int index) {
+        return apply(
+                candles.startTime(index),
+                candles.open(index),
+                candles.high(index),
+                candles.low(index),
+                candles.close(index),
+                candles.volume(index),
+                candles.turnover(index),
+                candles.priceScale()
+        );
+    }
+
+    public boolean apply(
+            long startTime,
+            double open,
+            double high,
+            double low,
+            double close,
+            double volume,
+            double turnover,
+            int priceScale
+    ) {
+        int slot;
+        if (size > 0 && startTime < lastStartTime()) {
+            return false;
+        }
+        if (size > 0 && startTime == lastStartTime()) {
+            slot = head + size - 1;
+        } else {
+            ensureSlot();
+            slot = head + size;
+            size++;
+        }
+        startTimes[slot] = startTime;
+        this.open[slot] = open;
+        this.high[slot] = high;
+        this.low[slot] = low;
+        this.close[slot] = close;
+        this.volume[slot] = volume;
+        this.turnover[slot] = turnover;
+        this.priceScale = Math.max(this.priceScale, priceScale);
+        return true;
+    }
+
+    public void applyAll(CandleSeries candles) {
+        for (int i = 0; i < candles.size(); i++) {
+            apply(candles, i);
+        }
+    }
+
+    public void removeFrom(long startTime) {
+        while (size > 0 && startTimes[head + size - 1] >= startTime) {
+            size--;
+        }
+    }
+
+    public void retainLast(int count) {
+        if (size > count) {
+            head += size - count;
+            size = count;
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        priceScale = 0;
+    }
+
+    public CandleSeries snapshot(int limit) {
+        int count = Math.min(limit, size);
+        int from = head + size - count;
+        CandleSeries.Builder builder = CandleSeries.builder(count).priceScale(priceScale);
+        for (int i = from; i < from + count; i++) {
+            builder.add(startTimes[i], open[i], high[i], low[i], close[i], volume[i], turnover[i]);
+        }
+        return builder.build();
+    }
+
+    private void ensureSlot() {
+        if (head + size < startTimes.length) {
+            return;
+        }
+        if (head > 0) {
+            compact();
+            return;
+        }
+        int capacity = startTimes.length * 2;
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+        turnover = Arrays.copyOf(turnover, capacity);
+    }
+
+    private void compact() {
+        System.arraycopy(startTimes, head, startTimes, 0, size);
+        System.arraycopy(open, head, open, 0, size);
+        System.arraycopy(high, head, high, 0, size);
+        System.arraycopy(low, head, low, 0, size);
+        System.arraycopy(close, head, close, 0, size);
+        System.arraycopy(volume, head, volume, 0, size);
+        System.arraycopy(turnover, head, turnover, 0, size);
+        head = 0;
+    }
+}
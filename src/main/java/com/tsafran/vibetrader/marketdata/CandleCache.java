@@ -0,0 +1,147 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class CandleCache {
+    private static final Logger logger = LoggerFactory.getLogger(CandleCache.class);
+
+    private final CandleArchive candleArchive;
+    private final long idleNanos;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public CandleCache(
+            CandleArchive candleArchive,
+            @Value("${marketdata.cache.idle-minutes:30}") long idleMinutes
+    ) {
+        if (idleMinutes <= 0) {
+            throw new IllegalArgumentException("marketdata.cache.idle-minutes must be positive");
+        }
+        this.candleArchive = candleArchive;
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+    }
+
+    @FunctionalInterface
+    public interface KlineFetcher {
+        // start is inclusive, null means "the latest limit bars"
+        CandleSeries fetch(String symbol, ExchangeCategory category, ExchangeInterval interval, Long start, int limit);
+    }
+
+    public CandleSeries getCandles(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit,
+            KlineFetcher fetcher
+    ) {
+        Objects.requireNonNull(fetcher, "fetcher");
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        Key key = new Key(symbol.trim().toUpperCase(Locale.ROOT), category, interval);
+        Entry entry = entries.computeIfAbsent(key, ignored -> new Entry());
+        return entry.refresh(key, limit, fetcher, candleArchive);
+    }
+
+    public void invalidate(String symbol) {
+        String normalized = symbol.trim().toUpperCase(Locale.ROOT);
+        entries.keySet().removeIf(key -> key.symbol().equals(normalized));
+    }
+
+    @Scheduled(fixedDelayString = "${marketdata.cache.evict-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = entries.size();
+        entries.values().removeIf(entry -> now - entry.lastAccess > idleNanos);
+        int evicted = before - entries.size();
+        if (evicted > 0) {
+            logger.info("Evicted {} idle candle cache entries", evicted);
+        }
+    }
+
+    private record Key(String symbol, ExchangeCategory category, ExchangeInterval interval) {
+    }
+
+    private static final class Entry {
+        private final CandleBuffer candles = new CandleBuffer(200);
+        private int depth;
+        private volatile long lastAccess = System.nanoTime();
+
+        private synchronized CandleSeries refresh(Key key, int limit, KlineFetcher fetcher, CandleArchive archive) {
+            lastAccess = System.nanoTime();
+            depth = Math.max(depth, limit);
+
+            boolean archived = archive.isEnabled() && key.category() == ExchangeCategory.LINEAR;
+            if (archived && candles.size() < limit) {
+                CandleSeries stored = archive.latest(key.symbol(), key.interval(), limit);
+                if (isContiguous(stored)) {
+                    replace(stored);
+                }
+            }
+
+            CandleSeries fetched;
+            if (candles.size() < limit) {
+                fetched = fetcher.fetch(key.symbol(), key.category(), key.interval(), null, limit);
+                replace(fetched);
+            } else {
+                // Re-fetching from the last cached bar also replaces it if it was still forming
+                long from = candles.lastStartTime();
+                fetched = fetcher.fetch(key.symbol(), key.category(), key.interval(), from, limit);
+                if (fetched.size() >= limit) {
+                    fetched = fetcher.fetch(key.symbol(), key.category(), key.interval(), null, limit);
+                    replace(fetched);
+                } else {
+                    merge(fetched);
+                }
+            }
+
+            if (archived) {
+                // The newest fetched bar may still be forming, everything before it is final
+                archive.append(key.symbol(), key.interval(), fetched.head(fetched.size() - 1));
+            }
+            return candles.snapshot(limit);
+        }
+
+        // The archive keeps whatever was seen, a restart after a long outage leaves a hole in it
+        private static boolean isContiguous(CandleSeries series) {
+            long step = Long.MAX_VALUE;
+            for (int i = 1; i < series.size(); i++) {
+                step = Math.min(step, series.startTime(i) - series.startTime(i - 1));
+            }
+            for (int i = 1; i < series.size(); i++) {
+                if (series.startTime(i) - series.startTime(i - 1) != step) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void replace(CandleSeries fetched) {
+            candles.clear();
+            merge(fetched);
+        }
+
+        private void merge(CandleSeries fetched) {
+            if (fetched == null || fetched.isEmpty()) {
+                return;
+            }
+            candles.removeFrom(fetched.startTime(0));
+            candles.applyAll(fetched);
+            candles.retainLast(depth);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+
+@FunctionalInterface
+public interface CandleCloseListener {
+    // The stream confirmed the bar starting at startTime as final, called on the stream's thread
+    void onClose(String symbol, ExchangeInterval interval, long startTime);
+}
@@ -0,0 +1,198 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/*
+ * Builds a higher timeframe from lower timeframe bars the way Bybit aggregates them:
+ * buckets start on UTC boundaries (weeks on Monday, months on the 1st), open is the first bar's open, close the last
+ * bar's close, high/low the extremes and volume/turnover the sums.
+ * An instance folds base bars in one at a time, the last base bar may be revised while it is still forming.
+ */
+public final class CandleResampler {
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private final ExchangeInterval target;
+    private long bucket = Long.MIN_VALUE;
+    // Whether the first base bar of the bucket was seen, otherwise only part of it is known
+    private boolean complete;
+    // Joined mid-bucket: the REST-seeded bar's volume and what had been streamed when it was merged
+    private boolean joined;
+    private double seedVolume;
+    private double seedTurnover;
+    private double joinedVolume;
+    private double joinedTurnover;
+
+    // Base bars of the bucket before the last one
+    private int committed;
+    private double open;
+    private double high;
+    private double low;
+    private double volume;
+    private double turnover;
+
+    private long lastStart = Long.MIN_VALUE;
+    private double lastOpen;
+    private double lastHigh;
+    private double lastLow;
+    private double lastClose;
+    private double lastVolume;
+    private double lastTurnover;
+    private int priceScale;
+
+    public CandleResampler(ExchangeInterval target) {
+        this.target = Objects.requireNonNull(target, "target");
+    }
+
+    public ExchangeInterval target() {
+        return target;
+    }
+
+    // Whole-series variant, e.g. for history already in memory
+    public static CandleSeries resample(CandleSeries base, ExchangeInterval target) {
+        CandleResampler resampler = new CandleResampler(target);
+        CandleBuffer buffer = new CandleBuffer(Math.max(1, base.size() / 2));
+        for (int i = 0; i < base.size(); i++) {
+            if (resampler.add(base, i)) {
+                resampler.writeTo(buffer);
+            }
+        }
+        return buffer.snapshot(buffer.size());
+    }
+
+    public static long bucketStart(long startTime, ExchangeInterval interval) {
+        return switch (interval) {
+            case ONE_MONTH -> {
+                ZonedDateTime time = Instant.ofEpochMilli(startTime).atZone(ZoneOffset.UTC);
+                yield time.toLocalDate().withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            case ONE_WEEK -> {
+                // The epoch was a Thursday, Bybit weeks start on Monday
+                long day = Math.floorDiv(startTime, DAY_MILLIS);
+                yield (day - Math.floorMod(day + 3, 7)) * DAY_MILLIS;
+            }
+            default -> {
+                long millis = interval.duration().toMillis();
+                yield startTime - Math.floorMod(startTime, millis);
+            }
+        };
+    }
+
+    // Start of the bucket after the one holding time
+    public static long nextBucketStart(long time, ExchangeInterval interval) {
+        long start = bucketStart(time, interval);
+        if (interval == ExchangeInterval.ONE_MONTH) {
+            return Instant.ofEpochMilli(start).atZone(ZoneOffset.UTC).plusMonths(1).toInstant().toEpochMilli();
+        }
+        return start + interval.duration().toMillis();
+    }
+
+    // Returns false if the bar is older than the last one seen and was ignored
+    public boolean add(CandleSeries base, int index) {
+        long startTime = base.startTime(index);
+        if (startTime < lastStart) {
+            return false;
+        }
+
+        long barBucket = bucketStart(startTime, target);
+        if (barBucket != bucket) {
+            bucket = barBucket;
+            complete = startTime == barBucket;
+            joined = false;
+            committed = 0;
+            volume = 0;
+            turnover = 0;
+        } else if (startTime != lastStart) {
+            commitLast();
+        }
+
+        lastStart = startTime;
+        lastOpen = base.open(index);
+        lastHigh = base.high(index);
+        lastLow = base.low(index);
+        lastClose = base.close(index);
+        lastVolume = base.volume(index);
+        lastTurnover = base.turnover(index);
+        priceScale = Math.max(priceScale, base.priceScale());
+        return true;
+    }
+
+    public void reset() {
+        bucket = Long.MIN_VALUE;
+        lastStart = Long.MIN_VALUE;
+        committed = 0;
+        complete = false;
+        joined = false;
+    }
+
+    // The derived bars were just seeded from REST, a bucket joined mid-way takes its earlier volume from them again
+    public void seeded(CandleBuffer derived) {
+        joined = false;
+        writeTo(derived);
+    }
+
+    // Writes the bucket's bar, replacing it in place while it is forming
+    public void writeTo(CandleBuffer derived) {
+        if (bucket == Long.MIN_VALUE) {
+            return;
+        }
+        if (complete) {
+            derived.apply(
+                    bucket,
+                    committed == 0 ? lastOpen : open,
+                    committed == 0 ? lastHigh : Math.max(high, lastHigh),
+                    committed == 0 ? lastLow : Math.min(low, lastLow),
+                    lastClose,
+                    volume + lastVolume,
+                    turnover + lastTurnover,
+                    priceScale
+            );
+            return;
+        }
+
+        /*
+         * Joined mid-bucket, the bar seeded from REST carries the part before it. Volume streamed since the merge is
+         * added to the seeded volume, the base bar forming at the merge counts from what it had reached by then.
+         */
+        if (derived.isEmpty() || derived.lastStartTime() != bucket) {
+            return;
+        }
+        CandleSeries seeded = derived.snapshot(1);
+        if (!joined) {
+            joined = true;
+            seedVolume = seeded.volume(0);
+            seedTurnover = seeded.turnover(0);
+            joinedVolume = volume + lastVolume;
+            joinedTurnover = turnover + lastTurnover;
+        }
+        derived.apply(
+                bucket,
+                seeded.open(0),
+                Math.max(seeded.high(0), committed == 0 ? lastHigh : Math.max(high, lastHigh)),
+                Math.min(seeded.low(0), committed == 0 ? lastLow : Math.min(low, lastLow)),
+                lastClose,
+                seedVolume + volume + lastVolume - joinedVolume,
+                seedTurnover + turnover + lastTurnover - joinedTurnover,
+                priceScale
+        );
+    }
+
+    private void commitLast() {
+        if (committed == 0) {
+            open = lastOpen;
+            high = lastHigh;
+            low = lastLow;
+        } else {
+            high = Math.max(high, lastHigh);
+            low = Math.min(low, lastLow);
+        }
+        volume += lastVolume;
+        turnover += lastTurnover;
+        committed++;
+    }
+}
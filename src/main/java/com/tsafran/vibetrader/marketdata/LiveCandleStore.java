@@ -0,0 +1,182 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Candles kept current by the kline stream, seeded with REST history. A set is only served while the stream is up,
+ * the set is seeded, and a push for it arrived within about one interval of what it is updated from, so a topic the
+ * stream stopped feeding (a half-open socket, a lost subscription) falls back to REST instead of freezing.
+ */
+@Component
+public class LiveCandleStore {
+    public static final ExchangeInterval RESAMPLE_BASE = ExchangeInterval.ONE_MINUTE;
+
+    private final int capacity;
+    private final Map<Key, CandleSet> candleSets = new ConcurrentHashMap<>();
+    private volatile boolean live;
+
+    public LiveCandleStore(@Value("${marketdata.live.capacity:1000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("marketdata.live.capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public void track(String symbol, ExchangeInterval interval) {
+        candleSets.computeIfAbsent(key(symbol, interval), ignored -> new CandleSet(capacity, interval, null));
+    }
+
+    // Kept up to date from the symbol's 1m bars instead of a stream of its own, REST still seeds the history
+    public void trackResampled(String symbol, ExchangeInterval interval) {
+        if (interval == RESAMPLE_BASE) {
+            throw new IllegalArgumentException("The resample base cannot be resampled");
+        }
+        candleSets.computeIfAbsent(
+                key(symbol, interval),
+                ignored -> new CandleSet(capacity, RESAMPLE_BASE, new CandleResampler(interval))
+        );
+    }
+
+    public void untrack(String symbol, ExchangeInterval interval) {
+        candleSets.remove(key(symbol, interval));
+    }
+
+    public boolean isTracked(String symbol, ExchangeInterval interval) {
+        return candleSets.containsKey(key(symbol, interval));
+    }
+
+    // The stream missed something for this set, it is served again once REST has seeded it anew
+    public void invalidate(String symbol, ExchangeInterval interval) {
+        CandleSet candleSet = candleSets.get(key(symbol, interval));
+        if (candleSet != null) {
+            candleSet.reset();
+        }
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    // Going offline drops every candle set, the stream may have missed bars while disconnected
+    public void setLive(boolean live) {
+        this.live = live;
+        if (!live) {
+            candleSets.values().forEach(CandleSet::reset);
+        }
+    }
+
+    public void apply(String symbol, ExchangeInterval interval, CandleSeries candles) {
+        long now = System.currentTimeMillis();
+        CandleSet candleSet = candleSets.get(key(symbol, interval));
+        if (candleSet != null) {
+            candleSet.apply(candles, now);
+        }
+        if (interval == RESAMPLE_BASE) {
+            for (ExchangeInterval target : ExchangeInterval.values()) {
+                CandleSet resampled = target == RESAMPLE_BASE ? null : candleSets.get(key(symbol, target));
+                if (resampled != null && resampled.resampler != null) {
+                    resampled.applyBase(candles, now);
+                }
+            }
+        }
+    }
+
+    public void seed(String symbol, ExchangeInterval interval, CandleSeries candles) {
+        CandleSet candleSet = candleSets.get(key(symbol, interval));
+        if (candleSet != null && live) {
+            candleSet.seed(candles);
+        }
+    }
+
+    public CandleSeries latest(String symbol, ExchangeInterval interval, int limit) {
+        return latest(symbol, interval, limit, System.currentTimeMillis());
+    }
+
+    CandleSeries latest(String symbol, ExchangeInterval interval, int limit, long now) {
+        if (!live) {
+            return null;
+        }
+        CandleSet candleSet = candleSets.get(key(symbol, interval));
+        return candleSet == null ? null : candleSet.latest(limit, now);
+    }
+
+    private static Key key(String symbol, ExchangeInterval interval) {
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(interval, "interval");
+        return new Key(symbol.trim().toUpperCase(Locale.ROOT), interval);
+    }
+
+    private record Key(String symbol, ExchangeInterval interval) {
+    }
+
+    private static final class CandleSet {
+        private final int capacity;
+        private final CandleBuffer candles;
+        private final CandleResampler resampler;
+        // Longest gap between pushes before the set counts as stale: one interval of the topic it is fed from
+        private final long freshMillis;
+        private boolean seeded;
+        private long updatedAt;
+
+        private CandleSet(int capacity, ExchangeInterval streamed, CandleResampler resampler) {
+            this.capacity = capacity;
+            this.candles = new CandleBuffer(capacity);
+            this.resampler = resampler;
+            this.freshMillis = streamed.duration().toMillis();
+        }
+
+        private synchronized void apply(CandleSeries update, long now) {
+            candles.applyAll(update);
+            candles.retainLast(capacity);
+            updatedAt = now;
+        }
+
+        // Each base bar moves the forming bar forward in place, or starts the next one
+        private synchronized void applyBase(CandleSeries base, long now) {
+            for (int i = 0; i < base.size(); i++) {
+                if (resampler.add(base, i)) {
+                    resampler.writeTo(candles);
+                }
+            }
+            candles.retainLast(capacity);
+            updatedAt = now;
+        }
+
+        // REST history forms the base, bars already streamed in on top of it are fresher and win
+        private synchronized void seed(CandleSeries history) {
+            CandleSeries streamed = candles.snapshot(candles.size());
+            candles.clear();
+            candles.applyAll(history);
+            candles.applyAll(streamed);
+            candles.retainLast(capacity);
+            if (resampler != null) {
+                resampler.seeded(candles);
+            }
+            seeded = true;
+        }
+
+        private synchronized CandleSeries latest(int limit, long now) {
+            if (!seeded || now - updatedAt > freshMillis || limit <= 0 || candles.size() < limit) {
+                return null;
+            }
+            return candles.snapshot(limit);
+        }
+
+        private synchronized void reset() {
+            candles.clear();
+            seeded = false;
+            updatedAt = 0;
+            if (resampler != null) {
+                resampler.reset();
+            }
+        }
+    }
+}
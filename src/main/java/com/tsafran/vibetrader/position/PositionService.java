@@ -1,9 +1,10 @@
 package com.tsafran.vibetrader.position;
 
-import com.tsafran.vibetrader.exchange.Exchange;
+import com.tsafran.vibetrader.exchange.AsyncExchange;
 import com.tsafran.vibetrader.exchange.ExchangeCategory;
 import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
 import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.TickGrid;
 import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
 import com.tsafran.vibetrader.util.Util;
 import lombok.RequiredArgsConstructor;
@@ -12,62 +13,49 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class PositionService {
-    private static final BigDecimal MAX_RISK_FRACTION = new BigDecimal("0.01");
-    private static final int RISK_DIVIDE_SCALE = 16;
+    private static final double MAX_RISK_FRACTION = 0.01;
 
     // Bybit fees (as decimals)
-    private static final BigDecimal TAKER_FEE = new BigDecimal("0.00055"); // 0.0550%
-    private static final BigDecimal MAKER_FEE = new BigDecimal("0.00020"); // 0.0200%
+    public static final double TAKER_FEE = 0.00055; // 0.0550%
+    public static final double MAKER_FEE = 0.00020; // 0.0200%
 
-    private final Exchange exchange;
+    private final AsyncExchange exchange;
 
     public FuturesMarketOrderRequest buildMarketOrder(ProposedPosition proposedPosition) {
         Objects.requireNonNull(proposedPosition, "proposedPosition");
 
-        InstrumentPrecision precision = exchange.getInstrumentPrecision(proposedPosition.symbol());
+        // Independent lookups, fetched together
+        CompletableFuture<InstrumentPrecision> precisionFuture = exchange.getInstrumentPrecisionAsync(
+                proposedPosition.symbol()
+        );
+        CompletableFuture<BigDecimal> balanceFuture = exchange.getWalletBalanceAsync(new WalletBalanceRequest(null));
+
+        InstrumentPrecision precision = Util.join(precisionFuture);
         if (precision == null) {
             throw new IllegalStateException("No instrument precision returned for " + proposedPosition.symbol());
         }
 
-        BigDecimal tickSize = precision.tickSize();
-        BigDecimal qtyStep = precision.basePrecision();
-
-        BigDecimal entry = Util.roundToStep(proposedPosition.entryPrice(), tickSize);
-        BigDecimal stopLoss = Util.roundToStep(proposedPosition.stopLossPrice(), tickSize);
-        BigDecimal takeProfit = Util.roundToStep(proposedPosition.takeProfitPrice(), tickSize);
-
-        BigDecimal priceRiskPerUnit = entry.subtract(stopLoss).abs();
-        if (priceRiskPerUnit.signum() == 0) {
+        // Converted onto the instrument grid once, the sizing itself runs on ticks and qty steps
+        TickGrid grid = TickGrid.of(precision);
+        long entry = grid.ticks(proposedPosition.entryPrice(), RoundingMode.HALF_UP);
+        long stopLoss = grid.ticks(proposedPosition.stopLossPrice(), RoundingMode.HALF_UP);
+        long takeProfit = grid.ticks(proposedPosition.takeProfitPrice(), RoundingMode.HALF_UP);
+        if (entry == stopLoss) {
             throw new IllegalArgumentException("entryPrice and stopLossPrice must differ");
         }
 
-        BigDecimal balance = exchange.getWalletBalance(new WalletBalanceRequest(null));
+        BigDecimal balance = Util.join(balanceFuture);
         if (balance == null || balance.signum() <= 0) {
             throw new IllegalStateException("No available wallet balance returned");
         }
 
-        BigDecimal riskAmount = balance.multiply(MAX_RISK_FRACTION);
-
-        // Market entry => taker fee on entry
-        BigDecimal entryFeePerUnit = entry.multiply(TAKER_FEE);
-
-        BigDecimal riskPerUnit = priceRiskPerUnit.add(entryFeePerUnit);
-
-        BigDecimal rawQty = riskAmount.divide(riskPerUnit, RISK_DIVIDE_SCALE, RoundingMode.DOWN);
-        BigDecimal qty = Util.roundDownToStep(rawQty, qtyStep);
-
-        // Cap position size so total value doesn't exceed available balance
-        BigDecimal positionValue = qty.multiply(entry);
-        if (positionValue.compareTo(balance) > 0) {
-            BigDecimal maxQty = balance.divide(entry, RISK_DIVIDE_SCALE, RoundingMode.DOWN);
-            qty = Util.roundDownToStep(maxQty, qtyStep);
-        }
-
-        if (qty.signum() <= 0) {
+        long qty = quantitySteps(grid, entry, stopLoss, balance.doubleValue());
+        if (qty <= 0) {
             throw new IllegalStateException("Calculated quantity is too small for the instrument precision");
         }
 
@@ -75,9 +63,22 @@ public class PositionService {
                 proposedPosition.symbol(),
                 ExchangeCategory.LINEAR,
                 proposedPosition.side(),
-                qty,
-                takeProfit,
-                stopLoss
+                grid.toQty(qty),
+                grid.toPrice(takeProfit),
+                grid.toPrice(stopLoss)
         );
     }
+
+    // Qty steps risking MAX_RISK_FRACTION of the balance down to the stop, entry fee included,
+    // capped so the position value doesn't exceed the balance
+    private static long quantitySteps(TickGrid grid, long entry, long stopLoss, double balance) {
+        double entryPrice = grid.price(entry);
+        double priceRiskPerUnit = grid.price(Math.abs(entry - stopLoss));
+
+        // Market entry => taker fee on entry
+        double riskPerUnit = priceRiskPerUnit + entryPrice * TAKER_FEE;
+
+        long qty = grid.affordableSteps(balance * MAX_RISK_FRACTION, riskPerUnit);
+        return Math.min(qty, grid.affordableSteps(balance, entryPrice));
+    }
 }
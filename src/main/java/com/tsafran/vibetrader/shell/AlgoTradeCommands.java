@@ -1,5 +1,6 @@
 package com.tsafran.vibetrader.shell;
 
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import com.tsafran.vibetrader.trade.AlgoTradeExecutionService;
 import com.tsafran.vibetrader.trade.AlgoTradeSchedulerService;
 import lombok.RequiredArgsConstructor;
@@ -29,23 +30,31 @@ public class AlgoTradeCommands {
     @Command(command = "schedule", description = "Schedule recurring algo trades for one or more symbols")
     public String schedule(
             @Option(longNames = "symbol") String symbols,
-            @Option(longNames = "minutes") long intervalMinutes,
-            @Option(longNames = "strategy") String strategyBeanName
+            @Option(longNames = "minutes", defaultValue = "0") long intervalMinutes,
+            @Option(longNames = "strategy") String strategyBeanName,
+            @Option(longNames = "on-close", defaultValue = "false") boolean onClose,
+            @Option(longNames = "interval", defaultValue = "1m") String interval
     ) {
+        ExchangeInterval closeInterval = onClose ? BybitCommands.parseInterval(interval) : null;
         String[] symbolList = symbols.split("[\\s,]+", -1);
         int scheduledCount = 0;
         for (String symbol : symbolList) {
             if (symbol == null || symbol.isBlank()) {
                 continue;
             }
-            algoTradeSchedulerService.scheduleTrade(symbol, intervalMinutes, strategyBeanName);
+            if (onClose) {
+                algoTradeSchedulerService.scheduleTradeOnClose(symbol, closeInterval, strategyBeanName);
+            } else {
+                algoTradeSchedulerService.scheduleTrade(symbol, intervalMinutes, strategyBeanName);
+            }
             scheduledCount++;
         }
         if (scheduledCount == 0) {
             return "No symbols provided to schedule.";
         }
-        return "Scheduled algo trade for " + scheduledCount + " symbol(s) every " + intervalMinutes
-                + " minutes using strategy " + strategyBeanName + ".";
+        String cadence = onClose ? "on every " + closeInterval + " close" : "every " + intervalMinutes + " minutes";
+        return "Scheduled algo trade for " + scheduledCount + " symbol(s) " + cadence
+                + " using strategy " + strategyBeanName + ".";
     }
 
     @Command(command = "cancel", description = "Cancel a scheduled algo trade for a symbol")
@@ -0,0 +1,331 @@
+package com.tsafran.vibetrader.shell;
+
+import com.tsafran.vibetrader.algo.AlgoStrategy;
+import com.tsafran.vibetrader.algo.StrategyParameter;
+import com.tsafran.vibetrader.backtest.BacktestReport;
+import com.tsafran.vibetrader.backtest.BacktestResult;
+import com.tsafran.vibetrader.backtest.BacktestService;
+import com.tsafran.vibetrader.backtest.BacktestSettings;
+import com.tsafran.vibetrader.backtest.ParameterSpace;
+import com.tsafran.vibetrader.backtest.ParameterSweepService;
+import com.tsafran.vibetrader.backtest.SweepMetric;
+import com.tsafran.vibetrader.backtest.SweepResult;
+import com.tsafran.vibetrader.backtest.WalkForwardWindow;
+import com.tsafran.vibetrader.exchange.bybit.BybitKlineBackfill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.command.annotation.Command;
+import org.springframework.shell.command.annotation.Option;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+@Component
+@RequiredArgsConstructor
+@Command(command = "backtest", description = "Replay archived candles through algo strategies")
+public class BacktestCommands {
+    private final BacktestService backtestService;
+    private final ParameterSweepService parameterSweepService;
+    private final BybitKlineBackfill klineBackfill;
+    private final Map<String, AlgoStrategy> algoStrategies;
+
+    @Command(command = "params", description = "List a strategy's tunable parameters")
+    public String params(@Option(longNames = "strategy") String strategyBeanName) {
+        AlgoStrategy strategy = algoStrategies.get(strategyBeanName);
+        if (strategy == null) {
+            return "No strategy found with bean name: " + strategyBeanName + ". Available strategies: "
+                    + algoStrategies.keySet();
+        }
+        StringBuilder builder = new StringBuilder("name,default,min,max");
+        for (StrategyParameter parameter : strategy.parameters()) {
+            builder.append(System.lineSeparator())
+                    .append(parameter.name()).append(',')
+                    .append(parameter.defaultValue()).append(',')
+                    .append(parameter.min()).append(',')
+                    .append(parameter.max());
+        }
+        return builder.toString();
+    }
+
+    @Command(command = "run", description = "Backtest a strategy on one or more symbols")
+    public String run(
+            @Option(longNames = "strategy") String strategyBeanName,
+            @Option(longNames = "symbol") String symbols,
+            @Option(longNames = "interval", defaultValue = "1m") String interval,
+            @Option(longNames = "from") String from,
+            @Option(longNames = "to") String to,
+            @Option(longNames = "balance", defaultValue = "10000") double balance,
+            @Option(longNames = "equity-file", defaultValue = "") String equityFile
+    ) {
+        BacktestSettings settings = new BacktestSettings(
+                BybitCommands.parseInterval(interval),
+                parseTime(from),
+                parseTime(to),
+                balance
+        );
+        BacktestReport report = backtestService.run(
+                strategyBeanName,
+                Arrays.asList(symbols.split("[\\s,]+", -1)),
+                settings
+        );
+        if (!equityFile.isBlank()) {
+            writeEquity(Path.of(equityFile), report);
+        }
+        return format(report);
+    }
+
+    @Command(command = "backfill", description = "Page past Bybit klines into the candle archive")
+    public String backfill(
+            @Option(longNames = "symbol") String symbols,
+            @Option(longNames = "interval", defaultValue = "1m") String interval,
+            @Option(longNames = "from") String from,
+            @Option(longNames = "to") String to
+    ) {
+        long fromInclusive = parseTime(from);
+        long toExclusive = parseTime(to);
+        StringBuilder builder = new StringBuilder("symbol,requests,fetched,added,archived");
+        for (String symbol : symbols.split("[\\s,]+")) {
+            if (symbol.isBlank()) {
+                continue;
+            }
+            BybitKlineBackfill.Result result = klineBackfill.backfill(
+                    symbol,
+                    BybitCommands.parseInterval(interval),
+                    fromInclusive,
+                    toExclusive
+            );
+            builder.append(System.lineSeparator())
+                    .append(result.symbol()).append(',')
+                    .append(result.requests()).append(',')
+                    .append(result.fetched()).append(',')
+                    .append(result.added()).append(',')
+                    .append(result.archived());
+        }
+        return builder.toString();
+    }
+
+    @Command(command = "sweep", description = "Backtest a grid or random sample of strategy parameters")
+    public String sweep(
+            @Option(longNames = "strategy") String strategyBeanName,
+            @Option(longNames = "symbol") String symbols,
+            @Option(longNames = "params") String params,
+            @Option(longNames = "interval", defaultValue = "1m") String interval,
+            @Option(longNames = "from") String from,
+            @Option(longNames = "to") String to,
+            @Option(longNames = "balance", defaultValue = "10000") double balance,
+            @Option(longNames = "random", defaultValue = "0") int samples,
+            @Option(longNames = "seed", defaultValue = "1") long seed,
+            @Option(longNames = "rank", defaultValue = "netPnl") String rank,
+            @Option(longNames = "top", defaultValue = "10") int top
+    ) {
+        BacktestSettings settings = new BacktestSettings(
+                BybitCommands.parseInterval(interval),
+                parseTime(from),
+                parseTime(to),
+                balance
+        );
+        List<SweepResult> results = parameterSweepService.sweep(
+                strategyBeanName,
+                Arrays.asList(symbols.split("[\\s,]+", -1)),
+                settings,
+                combinations(strategyBeanName, params, samples, seed),
+                parseRanking(rank)
+        );
+
+        StringBuilder builder = new StringBuilder("rank,parameters,trades,winRate,profitFactor,netPnl,return,maxDrawdown");
+        for (int i = 0; i < Math.min(top, results.size()); i++) {
+            BacktestReport report = results.get(i).report();
+            builder.append(System.lineSeparator())
+                    .append(i + 1).append(',')
+                    .append(formatParameters(results.get(i).parameters())).append(',')
+                    .append(report.trades()).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f,%.3f,%.2f,%.4f,%.4f",
+                            report.winRate(),
+                            report.profitFactor(),
+                            report.netPnl(),
+                            report.returnFraction(),
+                            report.maxDrawdown()));
+        }
+        return builder.toString();
+    }
+
+    @Command(command = "walk-forward", description = "Tune on rolling training spans and report the spans after them")
+    public String walkForward(
+            @Option(longNames = "strategy") String strategyBeanName,
+            @Option(longNames = "symbol") String symbols,
+            @Option(longNames = "params") String params,
+            @Option(longNames = "train") String train,
+            @Option(longNames = "test") String test,
+            @Option(longNames = "interval", defaultValue = "1m") String interval,
+            @Option(longNames = "from") String from,
+            @Option(longNames = "to") String to,
+            @Option(longNames = "balance", defaultValue = "10000") double balance,
+            @Option(longNames = "random", defaultValue = "0") int samples,
+            @Option(longNames = "seed", defaultValue = "1") long seed,
+            @Option(longNames = "rank", defaultValue = "netPnl") String rank
+    ) {
+        BacktestSettings settings = new BacktestSettings(
+                BybitCommands.parseInterval(interval),
+                parseTime(from),
+                parseTime(to),
+                balance
+        );
+        List<WalkForwardWindow> windows = parameterSweepService.walkForward(
+                strategyBeanName,
+                Arrays.asList(symbols.split("[\\s,]+", -1)),
+                settings,
+                combinations(strategyBeanName, params, samples, seed),
+                parseRanking(rank),
+                parseSpan(train),
+                parseSpan(test)
+        );
+
+        StringBuilder builder = new StringBuilder("trainFrom,testFrom,parameters,trainNetPnl,testTrades,testNetPnl,testMaxDrawdown");
+        double outOfSample = 0;
+        int outOfSampleTrades = 0;
+        for (WalkForwardWindow window : windows) {
+            BacktestReport trained = window.train().report();
+            BacktestReport tested = window.test().report();
+            outOfSample += tested.netPnl();
+            outOfSampleTrades += tested.trades();
+            builder.append(System.lineSeparator())
+                    .append(Instant.ofEpochMilli(window.trainFrom())).append(',')
+                    .append(Instant.ofEpochMilli(window.testFrom())).append(',')
+                    .append(formatParameters(window.train().parameters())).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f,%d,%.2f,%.4f",
+                            trained.netPnl(),
+                            tested.trades(),
+                            tested.netPnl(),
+                            tested.maxDrawdown()));
+        }
+        builder.append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "out of sample: %d window(s), %d trades, netPnl %.2f",
+                        windows.size(), outOfSampleTrades, outOfSample));
+        return builder.toString();
+    }
+
+    static String format(BacktestReport report) {
+        StringBuilder builder = new StringBuilder("symbol,bars,gaps,trades,winRate,profitFactor,netPnl,return,maxDrawdown,fees");
+        for (BacktestResult result : report.results()) {
+            builder.append(System.lineSeparator())
+                    .append(result.symbol()).append(',')
+                    .append(result.bars()).append(',')
+                    .append(result.gaps()).append(',')
+                    .append(result.trades().size()).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f,%.3f,%.2f,%.4f,%.4f,%.2f",
+                            result.winRate(),
+                            result.profitFactor(),
+                            result.netPnl(),
+                            result.returnFraction(),
+                            result.maxDrawdown(),
+                            result.fees()));
+        }
+        builder.append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "total,%d,%d,%d,%.3f,,%.2f,,%.4f,",
+                        report.bars(),
+                        report.gaps(),
+                        report.trades(),
+                        report.winRate(),
+                        report.netPnl(),
+                        report.maxDrawdown()))
+                .append(System.lineSeparator())
+                .append(String.format(Locale.ROOT, "%d bars in %.1f ms (%.0f bars/s)",
+                        report.bars(),
+                        report.elapsedNanos() / 1e6,
+                        report.barsPerSecond()));
+        return builder.toString();
+    }
+
+    // ISO date (UTC midnight) or ISO instant
+    static long parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("from and to must be provided");
+        }
+        String trimmed = value.trim();
+        try {
+            return trimmed.length() == 10
+                    ? LocalDate.parse(trimmed).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli()
+                    : Instant.parse(trimmed).toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Unsupported time: " + value + " (use 2024-01-31 or 2024-01-31T00:00:00Z)");
+        }
+    }
+
+    // e.g. 90m, 12h, 30d, 2w
+    static Duration parseSpan(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("train and test spans must be provided");
+        }
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        long amount;
+        try {
+            amount = Long.parseLong(trimmed.substring(0, trimmed.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Unsupported span: " + value + " (use 90m, 12h, 30d or 2w)");
+        }
+        return switch (trimmed.charAt(trimmed.length() - 1)) {
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'd' -> Duration.ofDays(amount);
+            case 'w' -> Duration.ofDays(amount * 7);
+            default -> throw new IllegalArgumentException("Unsupported span: " + value + " (use 90m, 12h, 30d or 2w)");
+        };
+    }
+
+    private List<Map<String, Double>> combinations(String strategyBeanName, String params, int samples, long seed) {
+        AlgoStrategy strategy = algoStrategies.get(strategyBeanName);
+        if (strategy == null) {
+            throw new IllegalArgumentException("No strategy found with bean name: " + strategyBeanName
+                    + ". Available strategies: " + algoStrategies.keySet());
+        }
+        ParameterSpace space = ParameterSpace.parse(params, strategy.parameters());
+        return samples > 0 ? space.random(samples, seed) : space.grid();
+    }
+
+    private static List<SweepMetric> parseRanking(String value) {
+        List<SweepMetric> metrics = new ArrayList<>();
+        for (String metric : value.split("[\\s,]+")) {
+            if (!metric.isBlank()) {
+                metrics.add(SweepMetric.parse(metric));
+            }
+        }
+        return metrics;
+    }
+
+    // name=value pairs joined with ';' so they stay one CSV column
+    private static String formatParameters(Map<String, Double> parameters) {
+        StringJoiner joiner = new StringJoiner(";");
+        parameters.forEach((name, value) -> joiner.add(name + '=' + value));
+        return joiner.toString();
+    }
+
+    private static void writeEquity(Path file, BacktestReport report) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("symbol,time,equity");
+            writer.newLine();
+            for (BacktestResult result : report.results()) {
+                for (int i = 0; i < result.equity().length; i++) {
+                    writer.write(result.symbol() + ',' + result.equityTimes()[i] + ','
+                            + String.format(Locale.ROOT, "%.2f", result.equity()[i]));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write equity curve to " + file, ex);
+        }
+    }
+}
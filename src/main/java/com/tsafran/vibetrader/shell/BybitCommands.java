@@ -8,7 +8,14 @@ import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
 import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
 import com.tsafran.vibetrader.exchange.InstrumentPrecision;
 import com.tsafran.vibetrader.exchange.Ohlcv;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
 import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+import com.tsafran.vibetrader.exchange.bybit.BybitAccountMirror;
+import com.tsafran.vibetrader.exchange.bybit.BybitAccountReconciler;
+import com.tsafran.vibetrader.exchange.bybit.BybitDecodeMetrics;
+import com.tsafran.vibetrader.exchange.bybit.BybitKlineStream;
+import com.tsafran.vibetrader.exchange.bybit.BybitRequestScheduler;
 import com.tsafran.vibetrader.util.Util;
 import lombok.RequiredArgsConstructor;
 import org.springframework.shell.command.annotation.Command;
@@ -18,12 +25,18 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 @Command(command = "bybit", description = "Bybit exchange commands")
 public class BybitCommands {
     private final Exchange bybitExchange;
+    private final BybitKlineStream bybitKlineStream;
+    private final BybitDecodeMetrics bybitDecodeMetrics;
+    private final BybitRequestScheduler bybitRequestScheduler;
+    private final BybitAccountMirror bybitAccountMirror;
+    private final BybitAccountReconciler bybitAccountReconciler;
 
     @Command(command = "klines", description = "Fetch OHLCV klines from Bybit")
     public String klines(
@@ -76,8 +89,13 @@ public class BybitCommands {
                 stopLoss
         );
 
-        String orderId = bybitExchange.placeFuturesMarketOrder(request);
-        return orderId == null ? "Order placed, no order id returned." : "Order placed: " + orderId;
+        OrderPlacement placement = bybitExchange.placeFuturesMarketOrder(request);
+        StringBuilder builder = new StringBuilder();
+        appendLeg(builder, "Entry", placement.entry());
+        if (placement.takeProfit() != null) {
+            appendLeg(builder.append(System.lineSeparator()), "Take profit", placement.takeProfit());
+        }
+        return builder.toString();
     }
 
     @Command(command = "balance", description = "Fetch wallet balance from Bybit")
@@ -107,12 +125,119 @@ public class BybitCommands {
         return "Base precision: " + precision.basePrecision() + ", Tick size: " + precision.tickSize();
     }
 
+    @Command(command = "subscribe", description = "Stream live klines for one or more symbols over WebSocket")
+    public String subscribe(
+            @Option(longNames = "symbol") String symbols,
+            @Option(longNames = "interval") String interval
+    ) {
+        ExchangeInterval exchangeInterval = parseInterval(interval);
+        int subscribedCount = 0;
+        for (String symbol : symbols.split("[\\s,]+", -1)) {
+            if (symbol == null || symbol.isBlank()) {
+                continue;
+            }
+            bybitKlineStream.subscribe(symbol, exchangeInterval);
+            subscribedCount++;
+        }
+        if (subscribedCount == 0) {
+            return "No symbols provided to subscribe.";
+        }
+        return "Streaming " + exchangeInterval + " klines for " + subscribedCount + " symbol(s).";
+    }
+
+    @Command(command = "unsubscribe", description = "Stop streaming live klines for a symbol")
+    public String unsubscribe(
+            @Option(longNames = "symbol") String symbol,
+            @Option(longNames = "interval") String interval
+    ) {
+        bybitKlineStream.unsubscribe(symbol, parseInterval(interval));
+        return "Stopped streaming " + symbol + " klines.";
+    }
+
+    @Command(command = "streams", description = "List live kline stream subscriptions")
+    public String streams() {
+        if (bybitKlineStream.getTopics().isEmpty()) {
+            return "No active kline streams.";
+        }
+        return (bybitKlineStream.isConnected() ? "Connected: " : "Disconnected: ")
+                + String.join(", ", bybitKlineStream.getTopics().stream().sorted().toList());
+    }
+
+    @Command(command = "decode-stats", description = "Show per-endpoint response decode time and allocation")
+    public String decodeStats(
+            @Option(longNames = "reset", defaultValue = "false") boolean reset
+    ) {
+        Map<String, BybitDecodeMetrics.Snapshot> snapshot = bybitDecodeMetrics.snapshot();
+        if (reset) {
+            bybitDecodeMetrics.reset();
+        }
+        if (snapshot.isEmpty()) {
+            return "No responses decoded yet.";
+        }
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("endpoint,calls,avgMicros,avgAllocatedBytes,avgBodyBytes");
+        snapshot.forEach((endpoint, stats) -> builder.append(System.lineSeparator())
+                .append(endpoint).append(',')
+                .append(stats.calls()).append(',')
+                .append(stats.averageNanos() / 1_000).append(',')
+                .append(stats.averageAllocatedBytes()).append(',')
+                .append(stats.averageBodyBytes()));
+        return builder.toString();
+    }
+
+    @Command(command = "limits", description = "Show per-endpoint rate limit tokens and queued requests")
+    public String limits() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("endpoint,priority,limitPerSecond,available,pausedMillis,queued");
+        bybitRequestScheduler.status().forEach((endpoint, status) -> builder.append(System.lineSeparator())
+                .append(endpoint).append(',')
+                .append(endpoint.priority()).append(',')
+                .append((long) status.limitPerSecond()).append(',')
+                .append((long) status.availableTokens()).append(',')
+                .append(status.pausedMillis()).append(',')
+                .append(status.queued()));
+        return builder.toString();
+    }
+
+    @Command(command = "account", description = "Show the account state mirrored from the private stream")
+    public String account() {
+        String separator = System.lineSeparator();
+        StringBuilder builder = new StringBuilder();
+        builder.append("Mirror: ").append(bybitAccountMirror.isLive() ? "live" : "stale, using REST")
+                .append(", reconciliations: ").append(bybitAccountReconciler.getReconciliations())
+                .append(" (").append(bybitAccountReconciler.getDriftedReconciliations()).append(" drifted)");
+        builder.append(separator).append("Available balance: ")
+                .append(bybitAccountMirror.getWalletBalance(ExchangeAccountType.UNIFIED));
+        for (BybitAccountMirror.Position position : bybitAccountMirror.getPositions()) {
+            builder.append(separator).append("Position ").append(position.symbol()).append(' ')
+                    .append(position.side()).append(' ').append(position.size())
+                    .append(" @ ").append(position.entryPrice());
+        }
+        for (BybitAccountMirror.OpenOrder order : bybitAccountMirror.getOpenOrders()) {
+            builder.append(separator).append("Order ").append(order.orderId()).append(' ')
+                    .append(order.symbol()).append(' ').append(order.side()).append(' ')
+                    .append(order.orderType()).append(' ').append(order.quantity())
+                    .append(" @ ").append(order.price()).append(' ').append(order.status());
+        }
+        return builder.toString();
+    }
+
+    private static void appendLeg(StringBuilder builder, String leg, OrderLegResult result) {
+        builder.append(leg).append(": ");
+        if (result.isAccepted()) {
+            builder.append("placed ").append(result.orderId());
+        } else {
+            builder.append("rejected ").append(result.code()).append(' ').append(result.message());
+        }
+    }
+
     private static ExchangeCategory parseCategory(String value) {
         String normalized = value.trim().toUpperCase(Locale.ROOT);
         return ExchangeCategory.valueOf(normalized);
     }
 
-    private static ExchangeInterval parseInterval(String value) {
+    static ExchangeInterval parseInterval(String value) {
         String normalized = value.trim().toLowerCase(Locale.ROOT);
         return switch (normalized) {
             case "1", "1m", "1min", "1minute" -> ExchangeInterval.ONE_MINUTE;
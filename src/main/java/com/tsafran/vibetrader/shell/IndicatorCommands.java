@@ -0,0 +1,34 @@
+package com.tsafran.vibetrader.shell;
+
+import com.tsafran.vibetrader.indicators.IndicatorResultCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.shell.command.annotation.Command;
+import org.springframework.shell.command.annotation.Option;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+@Component
+@RequiredArgsConstructor
+@Command(command = "indicators", description = "Indicator commands")
+public class IndicatorCommands {
+    private final IndicatorResultCache indicatorResultCache;
+
+    @Command(command = "cache-stats", description = "Show indicator result cache hits, misses and evictions")
+    public String cacheStats(
+            @Option(longNames = "reset", defaultValue = "false") boolean reset
+    ) {
+        IndicatorResultCache.Stats stats = indicatorResultCache.stats();
+        if (reset) {
+            indicatorResultCache.clear();
+        }
+        return "entries,maxEntries,hits,misses,hitRatio,evictions,invalidations" + System.lineSeparator()
+                + stats.size() + ','
+                + stats.maxEntries() + ','
+                + stats.hits() + ','
+                + stats.misses() + ','
+                + String.format(Locale.ROOT, "%.3f", stats.hitRatio()) + ','
+                + stats.evictions() + ','
+                + stats.invalidations();
+    }
+}
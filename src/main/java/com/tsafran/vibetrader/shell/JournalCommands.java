@@ -0,0 +1,36 @@
+package com.tsafran.vibetrader.shell;
+
+import com.tsafran.vibetrader.journal.MarketDataJournal;
+import com.tsafran.vibetrader.journal.ReplayExchange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.shell.command.annotation.Command;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Command(command = "journal", description = "Inspect the market-data journal")
+public class JournalCommands {
+    private final MarketDataJournal journal;
+    private final ObjectProvider<ReplayExchange> replayExchange;
+
+    @Command(command = "status", description = "Show what the journal has recorded and, with the replay profile, replayed")
+    public String status() {
+        MarketDataJournal.Status status = journal.getStatus();
+        String recording = status.enabled()
+                ? "Recording to " + status.path()
+                        + ", Events: " + status.recorded()
+                        + ", Dropped: " + status.dropped()
+                        + ", Bytes: " + status.bytes()
+                : "Recording is off (journal.enabled=false)";
+
+        ReplayExchange replay = replayExchange.getIfAvailable();
+        if (replay == null) {
+            return recording;
+        }
+        ReplayExchange.Status replayed = replay.getStatus();
+        return recording + System.lineSeparator()
+                + "Replaying " + replayed.file()
+                + ", Served: " + replayed.served() + " of " + replayed.total();
+    }
+}
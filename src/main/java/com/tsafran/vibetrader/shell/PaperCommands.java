@@ -0,0 +1,53 @@
+package com.tsafran.vibetrader.shell;
+
+import com.tsafran.vibetrader.exchange.paper.PaperExchange;
+import com.tsafran.vibetrader.exchange.paper.PaperPosition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.shell.command.annotation.Command;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+@Profile("paper")
+@RequiredArgsConstructor
+@Command(command = "paper", description = "Inspect the in-memory paper trading account")
+public class PaperCommands {
+    private final PaperExchange paperExchange;
+
+    @Command(command = "status", description = "Show the paper account's balance and trade totals")
+    public String status() {
+        PaperExchange.Status status = paperExchange.getStatus();
+        double winRate = status.closedTrades() == 0 ? 0 : (double) status.winningTrades() / status.closedTrades();
+        return "Cash: " + String.format("%.4f", status.cash())
+                + ", Available: " + String.format("%.4f", status.available())
+                + ", Open positions: " + status.openPositions()
+                + ", Fills: " + status.fills()
+                + ", Closed trades: " + status.closedTrades()
+                + ", Win rate: " + String.format("%.1f%%", winRate * 100)
+                + ", Fees: " + String.format("%.4f", status.feesPaid())
+                + ", Realized PnL: " + String.format("%.4f", status.realizedPnl());
+    }
+
+    @Command(command = "positions", description = "List open paper positions")
+    public String positions() {
+        List<PaperPosition> positions = paperExchange.getPositions();
+        if (positions.isEmpty()) {
+            return "No open paper positions";
+        }
+        StringBuilder builder = new StringBuilder("symbol,side,qty,entry,sl,tp,opened");
+        for (PaperPosition position : positions) {
+            builder.append(System.lineSeparator())
+                    .append(position.symbol()).append(',')
+                    .append(position.side()).append(',')
+                    .append(position.quantity()).append(',')
+                    .append(position.entryPrice()).append(',')
+                    .append(position.hasStopLoss() ? position.stopLoss() : "").append(',')
+                    .append(position.hasTakeProfit() ? position.takeProfit() : "").append(',')
+                    .append(Instant.ofEpochMilli(position.openedAt()));
+        }
+        return builder.toString();
+    }
+}
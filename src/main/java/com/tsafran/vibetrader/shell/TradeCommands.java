@@ -1,5 +1,7 @@
 package com.tsafran.vibetrader.shell;
 
+import com.tsafran.vibetrader.ai.AiProposalStore;
+import com.tsafran.vibetrader.ai.CachingAiTradeService;
 import com.tsafran.vibetrader.trade.AiTradeExecutionService;
 import com.tsafran.vibetrader.trade.AiTradeSchedulerService;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +15,8 @@ import org.springframework.stereotype.Component;
 public class TradeCommands {
     private final AiTradeExecutionService aiTradeExecutionService;
     private final AiTradeSchedulerService aiTradeSchedulerService;
+    private final CachingAiTradeService cachingAiTradeService;
+    private final AiProposalStore aiProposalStore;
 
     @Command(command = "place", description = "Craft and place a single AI trade for a symbol")
     public String place(
@@ -29,9 +33,14 @@ public class TradeCommands {
     @Command(command = "schedule", description = "Schedule recurring AI trades for a symbol")
     public String schedule(
             @Option(longNames = "symbol") String symbol,
-            @Option(longNames = "minutes") long intervalMinutes,
-            @Option(longNames = "config", defaultValue = "default") String configName
+            @Option(longNames = "minutes", defaultValue = "0") long intervalMinutes,
+            @Option(longNames = "config", defaultValue = "default") String configName,
+            @Option(longNames = "on-close", defaultValue = "false") boolean onClose
     ) {
+        if (onClose) {
+            aiTradeSchedulerService.scheduleTradeOnClose(symbol, configName);
+            return "Scheduled " + symbol + " on every candle close using " + configName + ".";
+        }
         aiTradeSchedulerService.scheduleTrade(symbol, intervalMinutes, configName);
         return "Scheduled " + symbol + " every " + intervalMinutes + " minutes using " + configName + ".";
     }
@@ -41,4 +50,24 @@ public class TradeCommands {
         aiTradeSchedulerService.cancelTrade(symbol);
         return "Cancelled schedule for " + symbol + ".";
     }
+
+    @Command(command = "cache-stats", description = "Show AI proposal cache mode, entries, hits and misses")
+    public String cacheStats() {
+        CachingAiTradeService.Stats stats = cachingAiTradeService.stats();
+        return "mode,entries,hits,misses,dir" + System.lineSeparator()
+                + stats.mode() + ','
+                + stats.entries() + ','
+                + stats.hits() + ','
+                + stats.misses() + ','
+                + aiProposalStore.getDirectory();
+    }
+
+    @Command(command = "cache-compact", description = "Fold the AI proposal cache segments into one file")
+    public String cacheCompact() {
+        int folded = aiProposalStore.compact();
+        if (folded == 0) {
+            return "Nothing to compact.";
+        }
+        return "Compacted " + folded + " segments holding " + aiProposalStore.size() + " proposals.";
+    }
 }
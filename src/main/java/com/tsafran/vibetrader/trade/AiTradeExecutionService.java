@@ -4,45 +4,65 @@ import com.tsafran.vibetrader.ai.AiTradeProposal;
 import com.tsafran.vibetrader.ai.AiTradeService;
 import com.tsafran.vibetrader.ai.TradeAiConfigService;
 import com.tsafran.vibetrader.ai.TradeAiSettings;
-import com.tsafran.vibetrader.exchange.Exchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.AsyncExchange;
 import com.tsafran.vibetrader.exchange.ExchangeCategory;
 import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
-import com.tsafran.vibetrader.exchange.Ohlcv;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
 import com.tsafran.vibetrader.indicators.IndicatorSeries;
 import com.tsafran.vibetrader.indicators.IndicatorService;
 import com.tsafran.vibetrader.position.PositionService;
+import com.tsafran.vibetrader.util.Util;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class AiTradeExecutionService {
     private static final Logger logger = LoggerFactory.getLogger(AiTradeExecutionService.class);
 
-    private final Exchange exchange;
+    private final AsyncExchange exchange;
     private final AiTradeService aiTradeService;
     private final PositionService positionService;
     private final TradeAiConfigService tradeAiConfigService;
     private final IndicatorService indicatorService;
 
     public String craftAndPlaceTrade(String symbol, String configName) {
+        return craftAndPlaceTrade(symbol, configName, exchange);
+    }
+
+    // Run on a candle close, the prompt only holds bars that closed by then
+    public String craftAndPlaceTradeOnClose(String symbol, String configName, long closeTime) {
+        return craftAndPlaceTrade(symbol, configName, new ClosedCandlesExchange(exchange, closeTime));
+    }
+
+    private String craftAndPlaceTrade(String symbol, String configName, AsyncExchange view) {
         Objects.requireNonNull(symbol, "symbol");
 
         TradeAiSettings config = tradeAiConfigService.loadConfig(configName);
         logger.info("Placing trade for symbol: {}", symbol);
-        if (exchange.hasOpenOrders(symbol)) {
+        // Candles and the open-order check are independent, only the AI call has to wait for both
+        CompletableFuture<Boolean> openOrders = view.hasOpenOrdersAsync(symbol);
+        CompletableFuture<CandleSeries> candles = view.getCandlesAsync(
+                symbol,
+                ExchangeCategory.LINEAR,
+                config.candleLookbackInterval(),
+                resolveLookbackLimit(config)
+        );
+        if (Util.join(openOrders)) {
             logger.info("Skipping trade: open order already exists for {}", symbol);
             return null;
         }
         String systemMessage = buildSystemMessage(config);
-        String userMessage = buildUserMessage(symbol, config);
+        String userMessage = buildUserMessage(symbol, config, Util.join(candles));
 
         logger.info("Prompting AI...");
         AiTradeProposal proposal = aiTradeService.proposeTrade(symbol, systemMessage, userMessage);
@@ -63,38 +83,36 @@ public class AiTradeExecutionService {
         FuturesMarketOrderRequest order = positionService.buildMarketOrder(proposal.proposedPosition());
         logger.info("Final order request: {}", order);
 
-        String orderId = exchange.placeFuturesMarketOrder(order);
-        if (orderId == null || orderId.isBlank()) {
-            throw new IllegalStateException("Order placement returned no order id");
+        OrderPlacement placement = view.placeFuturesMarketOrder(order);
+        OrderLegResult entry = placement.entry();
+        if (!entry.isAccepted()) {
+            throw new IllegalStateException("Order placement failed: " + entry.code() + " " + entry.message());
+        }
+        if (placement.isPartial()) {
+            logger.warn(
+                    "Entry {} placed without take profit: {} {}",
+                    entry.orderId(),
+                    placement.takeProfit().code(),
+                    placement.takeProfit().message()
+            );
         }
-        return orderId;
+        return placement.orderId();
     }
 
     private String buildSystemMessage(TradeAiSettings config) {
         return "Strategy:\n" + config.strategy();
     }
 
-    private String buildUserMessage(String symbol, TradeAiSettings config) {
+    private String buildUserMessage(String symbol, TradeAiSettings config, CandleSeries candles) {
         ExchangeInterval interval = config.candleLookbackInterval();
-        List<Ohlcv> candles = exchange.getKlines(
-                symbol,
-                ExchangeCategory.LINEAR,
-                interval,
-                resolveLookbackLimit(config)
-        );
-
         if (candles == null || candles.isEmpty()) {
             throw new IllegalStateException("No candles returned for " + symbol);
         }
 
-        candles = candles.stream()
-                .sorted(Comparator.comparingLong(Ohlcv::startTime))
-                .toList();
-
         int lookbackLimit = config.candleLookbackLimit();
         int startIndex = Math.max(0, candles.size() - lookbackLimit);
-        List<Ohlcv> contextCandles = candles.subList(startIndex, candles.size());
         List<IndicatorSeries> indicatorSeries = indicatorService.computeIndicatorSeries(
+                symbol,
                 candles,
                 interval,
                 config.indicators()
@@ -108,18 +126,15 @@ public class AiTradeExecutionService {
             builder.append(',').append(series.name());
         }
         builder.append("):\n");
-        for (int i = 0; i < contextCandles.size(); i++) {
-            Ohlcv candle = contextCandles.get(i);
-            builder.append(candle.startTime()).append(',')
-                    .append(candle.open()).append(',')
-                    .append(candle.high()).append(',')
-                    .append(candle.low()).append(',')
-                    .append(candle.close()).append(',')
-                    .append(candle.volume());
+        for (int i = startIndex; i < candles.size(); i++) {
+            builder.append(candles.startTime(i)).append(',');
+            Util.appendPlain(builder, candles.open(i)).append(',');
+            Util.appendPlain(builder, candles.high(i)).append(',');
+            Util.appendPlain(builder, candles.low(i)).append(',');
+            Util.appendPlain(builder, candles.close(i)).append(',');
+            Util.appendPlain(builder, candles.volume(i));
             for (IndicatorSeries series : indicatorSeries) {
-                List<String> values = series.values();
-                int valueIndex = startIndex + i;
-                builder.append(',').append(values.get(valueIndex));
+                series.appendTo(builder.append(','), i);
             }
             builder.append('\n');
         }
@@ -1,6 +1,7 @@
 package com.tsafran.vibetrader.trade;
 
 import com.tsafran.vibetrader.ai.TradeAiConfigService;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +13,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -21,7 +23,8 @@ public class AiTradeSchedulerService {
     private final TaskScheduler tradeTaskScheduler;
     private final AiTradeExecutionService aiTradeExecutionService;
     private final TradeAiConfigService tradeAiConfigService;
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<>();
+    private final CandleCloseTrigger candleCloseTrigger;
+    private final Map<String, ScheduledJob> scheduledJobs = new ConcurrentHashMap<>();
 
     public void scheduleTrade(String symbol, long intervalMinutes, String configName) {
         Objects.requireNonNull(symbol, "symbol");
@@ -40,7 +43,7 @@ public class AiTradeSchedulerService {
                 interval
         );
 
-        scheduledJobs.put(normalizedSymbol, future);
+        scheduledJobs.put(normalizedSymbol, () -> future.cancel(false));
         logger.info(
                 "Scheduled trade job for {} every {} minutes using config {}",
                 normalizedSymbol,
@@ -49,6 +52,33 @@ public class AiTradeSchedulerService {
         );
     }
 
+    // Fires on every close of the config's candle interval
+    public void scheduleTradeOnClose(String symbol, String configName) {
+        Objects.requireNonNull(symbol, "symbol");
+
+        String normalizedSymbol = symbol.trim().toUpperCase();
+        String resolvedConfigName = tradeAiConfigService.resolveConfigName(configName);
+        ExchangeInterval interval = tradeAiConfigService.loadConfig(resolvedConfigName).candleLookbackInterval();
+        if (interval == null) {
+            throw new IllegalArgumentException("AI config " + resolvedConfigName + " has no candleLookbackInterval");
+        }
+        cancelExisting(normalizedSymbol);
+
+        ScheduledJob job = candleCloseTrigger.schedule(
+                normalizedSymbol,
+                interval,
+                closeTime -> runTrade(normalizedSymbol, resolvedConfigName, closeTime)
+        );
+
+        scheduledJobs.put(normalizedSymbol, job);
+        logger.info(
+                "Scheduled trade job for {} on every {} close using config {}",
+                normalizedSymbol,
+                interval,
+                resolvedConfigName
+        );
+    }
+
     public void cancelTrade(String symbol) {
         Objects.requireNonNull(symbol, "symbol");
         String normalizedSymbol = symbol.trim().toUpperCase();
@@ -60,8 +90,16 @@ public class AiTradeSchedulerService {
     }
 
     private void runTrade(String symbol, String configName) {
+        runTrade(symbol, () -> aiTradeExecutionService.craftAndPlaceTrade(symbol, configName));
+    }
+
+    private void runTrade(String symbol, String configName, long closeTime) {
+        runTrade(symbol, () -> aiTradeExecutionService.craftAndPlaceTradeOnClose(symbol, configName, closeTime));
+    }
+
+    private void runTrade(String symbol, Supplier<String> trade) {
         try {
-            String orderId = aiTradeExecutionService.craftAndPlaceTrade(symbol, configName);
+            String orderId = trade.get();
             if (orderId == null || orderId.isBlank()) {
                 logger.info("No trade placed for {}", symbol);
             } else {
@@ -73,10 +111,10 @@ public class AiTradeSchedulerService {
     }
 
     private boolean cancelExisting(String symbol) {
-        ScheduledFuture<?> existing = scheduledJobs.remove(symbol);
+        ScheduledJob existing = scheduledJobs.remove(symbol);
         if (existing == null) {
             return false;
         }
-        return existing.cancel(false);
+        return existing.cancel();
     }
 }
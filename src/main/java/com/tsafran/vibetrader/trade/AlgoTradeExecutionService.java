@@ -1,10 +1,13 @@
 package com.tsafran.vibetrader.trade;
 
 import com.tsafran.vibetrader.algo.AlgoStrategy;
-import com.tsafran.vibetrader.exchange.Exchange;
+import com.tsafran.vibetrader.exchange.AsyncExchange;
 import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.OrderLegResult;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
 import com.tsafran.vibetrader.position.PositionService;
 import com.tsafran.vibetrader.position.ProposedPosition;
+import com.tsafran.vibetrader.util.Util;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,17 +15,27 @@ import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class AlgoTradeExecutionService {
     private static final Logger logger = LoggerFactory.getLogger(AlgoTradeExecutionService.class);
 
-    private final Exchange exchange;
+    private final AsyncExchange exchange;
     private final PositionService positionService;
     private final Map<String, AlgoStrategy> algoStrategies;
 
     public String placeAlgoTrade(String symbol, String strategyBeanName) {
+        return placeAlgoTrade(symbol, strategyBeanName, exchange);
+    }
+
+    // Run on a candle close, the strategy only sees bars that closed by then
+    public String placeAlgoTradeOnClose(String symbol, String strategyBeanName, long closeTime) {
+        return placeAlgoTrade(symbol, strategyBeanName, new ClosedCandlesExchange(exchange, closeTime));
+    }
+
+    private String placeAlgoTrade(String symbol, String strategyBeanName, AsyncExchange view) {
         Objects.requireNonNull(symbol, "symbol");
         Objects.requireNonNull(strategyBeanName, "strategyBeanName");
 
@@ -35,12 +48,14 @@ public class AlgoTradeExecutionService {
         }
 
         logger.info("Placing algo trade for symbol: {} using strategy: {}", symbol, strategyBeanName);
-        if (exchange.hasOpenOrders(symbol)) {
+        // The strategy's candle fetch overlaps the open-order check instead of waiting on it
+        CompletableFuture<Boolean> openOrders = view.hasOpenOrdersAsync(symbol);
+        ProposedPosition proposal = strategy.run(symbol, view);
+        if (Util.join(openOrders)) {
             logger.info("Skipping trade: open order already exists for {}", symbol);
             return null;
         }
 
-        ProposedPosition proposal = strategy.run(symbol);
         if (proposal == null) {
             logger.info("No trade opportunity returned by strategy.");
             return null;
@@ -49,10 +64,19 @@ public class AlgoTradeExecutionService {
         FuturesMarketOrderRequest order = positionService.buildMarketOrder(proposal);
         logger.info("Final order request: {}", order);
 
-        String orderId = exchange.placeFuturesMarketOrder(order);
-        if (orderId == null || orderId.isBlank()) {
-            throw new IllegalStateException("Order placement returned no order id");
+        OrderPlacement placement = view.placeFuturesMarketOrder(order);
+        OrderLegResult entry = placement.entry();
+        if (!entry.isAccepted()) {
+            throw new IllegalStateException("Order placement failed: " + entry.code() + " " + entry.message());
+        }
+        if (placement.isPartial()) {
+            logger.warn(
+                    "Entry {} placed without take profit: {} {}",
+                    entry.orderId(),
+                    placement.takeProfit().code(),
+                    placement.takeProfit().message()
+            );
         }
-        return orderId;
+        return placement.orderId();
     }
 }
@@ -1,5 +1,6 @@
 package com.tsafran.vibetrader.trade;
 
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +12,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -19,7 +21,8 @@ public class AlgoTradeSchedulerService {
 
     private final TaskScheduler tradeTaskScheduler;
     private final AlgoTradeExecutionService algoTradeExecutionService;
-    private final Map<String, ScheduledFuture<?>> scheduledJobs = new ConcurrentHashMap<>();
+    private final CandleCloseTrigger candleCloseTrigger;
+    private final Map<String, ScheduledJob> scheduledJobs = new ConcurrentHashMap<>();
 
     public void scheduleTrade(String symbol, long intervalMinutes, String strategyBeanName) {
         Objects.requireNonNull(symbol, "symbol");
@@ -37,7 +40,7 @@ public class AlgoTradeSchedulerService {
                 interval
         );
 
-        scheduledJobs.put(normalizedSymbol, future);
+        scheduledJobs.put(normalizedSymbol, () -> future.cancel(false));
         logger.info(
                 "Scheduled algo trade job for {} every {} minutes using strategy {}",
                 normalizedSymbol,
@@ -46,6 +49,29 @@ public class AlgoTradeSchedulerService {
         );
     }
 
+    public void scheduleTradeOnClose(String symbol, ExchangeInterval interval, String strategyBeanName) {
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(interval, "interval");
+        Objects.requireNonNull(strategyBeanName, "strategyBeanName");
+
+        String normalizedSymbol = symbol.trim().toUpperCase();
+        cancelExisting(normalizedSymbol);
+
+        ScheduledJob job = candleCloseTrigger.schedule(
+                normalizedSymbol,
+                interval,
+                closeTime -> runTrade(normalizedSymbol, strategyBeanName, closeTime)
+        );
+
+        scheduledJobs.put(normalizedSymbol, job);
+        logger.info(
+                "Scheduled algo trade job for {} on every {} close using strategy {}",
+                normalizedSymbol,
+                interval,
+                strategyBeanName
+        );
+    }
+
     public void cancelTrade(String symbol) {
         Objects.requireNonNull(symbol, "symbol");
         String normalizedSymbol = symbol.trim().toUpperCase();
@@ -57,8 +83,16 @@ public class AlgoTradeSchedulerService {
     }
 
     private void runTrade(String symbol, String strategyBeanName) {
+        runTrade(symbol, () -> algoTradeExecutionService.placeAlgoTrade(symbol, strategyBeanName));
+    }
+
+    private void runTrade(String symbol, String strategyBeanName, long closeTime) {
+        runTrade(symbol, () -> algoTradeExecutionService.placeAlgoTradeOnClose(symbol, strategyBeanName, closeTime));
+    }
+
+    private void runTrade(String symbol, Supplier<String> trade) {
         try {
-            String orderId = algoTradeExecutionService.placeAlgoTrade(symbol, strategyBeanName);
+            String orderId = trade.get();
             if (orderId == null || orderId.isBlank()) {
                 logger.info("No algo trade placed for {}", symbol);
             } else {
@@ -70,10 +104,10 @@ public class AlgoTradeSchedulerService {
     }
 
     private boolean cancelExisting(String symbol) {
-        ScheduledFuture<?> existing = scheduledJobs.remove(symbol);
+        ScheduledJob existing = scheduledJobs.remove(symbol);
         if (existing == null) {
             return false;
         }
-        return existing.cancel(false);
+        return existing.cancel();
     }
 }
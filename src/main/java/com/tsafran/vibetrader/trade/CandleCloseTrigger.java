@@ -0,0 +1,258 @@
+package com.tsafran.vibetrader.trade;
+
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.bybit.BybitKlineStream;
+import com.tsafran.vibetrader.exchange.bybit.BybitServerClock;
+import com.tsafran.vibetrader.marketdata.CandleCloseListener;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+import com.tsafran.vibetrader.marketdata.LiveCandleStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/*
+ * Runs jobs when a bar of their interval closes, rather than at a fixed rate from whenever they were scheduled.
+ *   - trade.trigger.source=stream: on the kline stream's confirmation of the bar, the series is subscribed while a job
+ *     needs it. A close the stream misses (say while reconnecting) is fired by the clock trade.trigger.fallback-ms late.
+ *   - trade.trigger.source=clock: on the bar boundary by the local clock corrected to Bybit's server time
+ * A job runs trade.trigger.offset-ms after the close and at most once per close. Higher timeframes resampled from the
+ * 1m stream close with the 1m bar that ends on their boundary.
+ * The trade scheduler only keeps time, jobs run on a virtual thread each: every job on a timeframe fires on the same
+ * close and spends it waiting on Bybit, a small pool would run them one batch after another.
+ */
+@Component
+public class CandleCloseTrigger implements CandleCloseListener {
+    private static final Logger logger = LoggerFactory.getLogger(CandleCloseTrigger.class);
+
+    enum Source {
+        STREAM,
+        CLOCK
+    }
+
+    private final TaskScheduler tradeTaskScheduler;
+    private final BybitKlineStream klineStream;
+    private final LiveCandleStore liveCandleStore;
+    private final BybitServerClock serverClock;
+    private final Source source;
+    private final long offsetMillis;
+    private final long fallbackMillis;
+    private final Map<String, Set<Registration>> registrations = new ConcurrentHashMap<>();
+    private final ExecutorService jobExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("trade-job-", 1).factory());
+
+    // Guarded by this: jobs per streamed series, and the series subscribed here rather than by someone else
+    private final Map<StreamKey, Integer> streamUsers = new HashMap<>();
+    private final Set<StreamKey> subscribed = new HashSet<>();
+
+    public CandleCloseTrigger(
+            TaskScheduler tradeTaskScheduler,
+            BybitKlineStream klineStream,
+            LiveCandleStore liveCandleStore,
+            BybitServerClock serverClock,
+            @Value("${trade.trigger.source:stream}") String source,
+            @Value("${trade.trigger.offset-ms:0}") long offsetMillis,
+            @Value("${trade.trigger.fallback-ms:2000}") long fallbackMillis
+    ) {
+        if (offsetMillis < 0) {
+            throw new IllegalArgumentException("trade.trigger.offset-ms must not be negative");
+        }
+        if (fallbackMillis < 0) {
+            throw new IllegalArgumentException("trade.trigger.fallback-ms must not be negative");
+        }
+        this.tradeTaskScheduler = tradeTaskScheduler;
+        this.klineStream = klineStream;
+        this.liveCandleStore = liveCandleStore;
+        this.serverClock = serverClock;
+        this.source = switch (source.trim().toLowerCase(Locale.ROOT)) {
+            case "stream" -> Source.STREAM;
+            case "clock" -> Source.CLOCK;
+            default -> throw new IllegalArgumentException("trade.trigger.source must be stream or clock, got: " + source);
+        };
+        this.offsetMillis = offsetMillis;
+        this.fallbackMillis = fallbackMillis;
+        if (this.source == Source.STREAM) {
+            klineStream.addCloseListener(this);
+        }
+    }
+
+    // The job is handed the close time, which is also the start of the bar that opened with it
+    ScheduledJob schedule(String symbol, ExchangeInterval interval, LongConsumer job) {
+        Objects.requireNonNull(symbol, "symbol");
+        Objects.requireNonNull(interval, "interval");
+        Objects.requireNonNull(job, "job");
+
+        Registration registration = new Registration(symbol.trim().toUpperCase(Locale.ROOT), interval, job);
+        if (source == Source.STREAM) {
+            acquireStream(new StreamKey(registration.symbol, interval));
+            registrations.computeIfAbsent(registration.symbol, ignored -> ConcurrentHashMap.newKeySet()).add(registration);
+        }
+        serverClock.syncIfStale();
+        armClock(registration, nextClose(serverClock.now(), interval));
+        return registration::cancel;
+    }
+
+    @Override
+    public void onClose(String symbol, ExchangeInterval interval, long startTime) {
+        Set<Registration> watching = registrations.get(symbol);
+        if (watching == null || watching.isEmpty()) {
+            return;
+        }
+        long closeTime = nextClose(startTime, interval);
+        for (Registration registration : watching) {
+            boolean closes = registration.interval == interval
+                    || interval == LiveCandleStore.RESAMPLE_BASE
+                    && CandleResampler.bucketStart(closeTime, registration.interval) == closeTime;
+            if (closes && registration.claim(closeTime)) {
+                Runnable job = () -> run(registration, closeTime, "stream");
+                if (offsetMillis == 0) {
+                    execute(job);
+                } else {
+                    tradeTaskScheduler.schedule(() -> execute(job), Instant.now().plusMillis(offsetMillis));
+                }
+            }
+        }
+    }
+
+    static long nextClose(long time, ExchangeInterval interval) {
+        return CandleResampler.nextBucketStart(time, interval);
+    }
+
+    private void armClock(Registration registration, long closeTime) {
+        if (registration.cancelled) {
+            return;
+        }
+        long fireAt = closeTime + offsetMillis + (source == Source.STREAM ? fallbackMillis : 0);
+        registration.timer = tradeTaskScheduler.schedule(
+                () -> {
+                    armClock(registration, nextClose(closeTime, registration.interval));
+                    if (registration.claim(closeTime)) {
+                        if (source == Source.STREAM) {
+                            logger.warn(
+                                    "No stream close for {} {} at {}, firing from the clock",
+                                    registration.symbol,
+                                    registration.interval,
+                                    Instant.ofEpochMilli(closeTime)
+                            );
+                            // Whatever the stream left in the store is the bar before the close, the job reads REST
+                            liveCandleStore.invalidate(registration.symbol, registration.interval);
+                        }
+                        execute(() -> run(registration, closeTime, "clock"));
+                    }
+                    // A resync is a REST call, it must not hold up the scheduler's other timers either
+                    execute(serverClock::syncIfStale);
+                },
+                Instant.ofEpochMilli(fireAt - serverClock.offsetMillis())
+        );
+    }
+
+    @PreDestroy
+    public void close() {
+        // Jobs already running get to finish, an order half placed is worse than a late shutdown
+        jobExecutor.shutdown();
+    }
+
+    private void execute(Runnable job) {
+        try {
+            jobExecutor.execute(job);
+        } catch (RejectedExecutionException ex) {
+            logger.debug("Shutting down, not starting a trade job");
+        }
+    }
+
+    private void run(Registration registration, long closeTime, String via) {
+        if (registration.cancelled) {
+            return;
+        }
+        logger.info(
+                "{} {} bar closed at {}, running {} ms after the close ({})",
+                registration.symbol,
+                registration.interval,
+                Instant.ofEpochMilli(closeTime),
+                serverClock.now() - closeTime,
+                via
+        );
+        registration.job.accept(closeTime);
+    }
+
+    private synchronized void acquireStream(StreamKey key) {
+        int users = streamUsers.merge(key, 1, Integer::sum);
+        if (users == 1 && !liveCandleStore.isTracked(key.symbol(), key.interval())) {
+            klineStream.subscribe(key.symbol(), key.interval());
+            subscribed.add(key);
+        }
+    }
+
+    private synchronized void releaseStream(StreamKey key) {
+        Integer users = streamUsers.computeIfPresent(key, (ignored, count) -> count == 1 ? null : count - 1);
+        if (users == null && subscribed.remove(key)) {
+            klineStream.unsubscribe(key.symbol(), key.interval());
+        }
+    }
+
+    private record StreamKey(String symbol, ExchangeInterval interval) {
+    }
+
+    private final class Registration {
+        private final String symbol;
+        private final ExchangeInterval interval;
+        private final LongConsumer job;
+        private final AtomicLong lastClose = new AtomicLong(Long.MIN_VALUE);
+        private volatile ScheduledFuture<?> timer;
+        private volatile boolean cancelled;
+
+        private Registration(String symbol, ExchangeInterval interval, LongConsumer job) {
+            this.symbol = symbol;
+            this.interval = interval;
+            this.job = job;
+        }
+
+        // Only the first of the stream and the clock to report a close gets to run it
+        private boolean claim(long closeTime) {
+            long last;
+            do {
+                last = lastClose.get();
+                if (closeTime <= last) {
+                    return false;
+                }
+            } while (!lastClose.compareAndSet(last, closeTime));
+            return true;
+        }
+
+        private boolean cancel() {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            ScheduledFuture<?> pending = timer;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            if (source == Source.STREAM) {
+                Set<Registration> watching = registrations.get(symbol);
+                if (watching != null) {
+                    watching.remove(this);
+                }
+                releaseStream(new StreamKey(symbol, interval));
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tsafran.vibetrader.trade;
+
+import com.tsafran.vibetrader.exchange.AsyncExchange;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.WalletBalanceRequest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+// What a job fired on a candle close sees: bars up to the close, like a backtest, without the one that just opened
+final class ClosedCandlesExchange implements AsyncExchange {
+    private final AsyncExchange exchange;
+    private final long closeTime;
+
+    ClosedCandlesExchange(AsyncExchange exchange, long closeTime) {
+        this.exchange = exchange;
+        this.closeTime = closeTime;
+    }
+
+    @Override
+    public CandleSeries getCandles(String symbol, ExchangeCategory category, ExchangeInterval interval, int limit) {
+        // One more than asked for, the newest may be the bar that opened at the close
+        return closedOnly(exchange.getCandles(symbol, category, interval, limit + 1), limit);
+    }
+
+    @Override
+    public CompletableFuture<CandleSeries> getCandlesAsync(
+            String symbol,
+            ExchangeCategory category,
+            ExchangeInterval interval,
+            int limit
+    ) {
+        return exchange.getCandlesAsync(symbol, category, interval, limit + 1)
+                .thenApply(candles -> closedOnly(candles, limit));
+    }
+
+    @Override
+    public OrderPlacement placeFuturesMarketOrder(FuturesMarketOrderRequest request) {
+        return exchange.placeFuturesMarketOrder(request);
+    }
+
+    @Override
+    public CompletableFuture<OrderPlacement> placeFuturesMarketOrderAsync(FuturesMarketOrderRequest request) {
+        return exchange.placeFuturesMarketOrderAsync(request);
+    }
+
+    @Override
+    public BigDecimal getWalletBalance(WalletBalanceRequest request) {
+        return exchange.getWalletBalance(request);
+    }
+
+    @Override
+    public CompletableFuture<BigDecimal> getWalletBalanceAsync(WalletBalanceRequest request) {
+        return exchange.getWalletBalanceAsync(request);
+    }
+
+    @Override
+    public InstrumentPrecision getInstrumentPrecision(String symbol) {
+        return exchange.getInstrumentPrecision(symbol);
+    }
+
+    @Override
+    public CompletableFuture<InstrumentPrecision> getInstrumentPrecisionAsync(String symbol) {
+        return exchange.getInstrumentPrecisionAsync(symbol);
+    }
+
+    @Override
+    public boolean hasOpenOrders(String symbol) {
+        return exchange.hasOpenOrders(symbol);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenOrdersAsync(String symbol) {
+        return exchange.hasOpenOrdersAsync(symbol);
+    }
+
+    private CandleSeries closedOnly(CandleSeries candles, int limit) {
+        int closed = candles.size();
+        while (closed > 0 && candles.startTime(closed - 1) >= closeTime) {
+            closed--;
+        }
+        return candles.head(closed).tail(limit);
+    }
+}
@@ -0,0 +1,7 @@
+package com.tsafran.vibetrader.trade;
+
+// A running trade schedule, at a fixed rate or on candle closes
+@FunctionalInterface
+interface ScheduledJob {
+    boolean cancel();
+}
@@ -3,10 +3,16 @@ package com.tsafran.vibetrader.util;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
 
 public final class Util {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
     private Util() {
     }
 
@@ -23,6 +29,65 @@ public final class Util {
         };
     }
 
+    // Blocks for the result, rethrowing the original failure rather than a CompletionException
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public static int decimalScale(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int dot = value.indexOf('.');
+        return dot < 0 ? 0 : value.length() - dot - 1;
+    }
+
+    public static StringBuilder appendPlain(StringBuilder builder, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return builder.append((long) value);
+        }
+        return builder.append(BigDecimal.valueOf(value).toPlainString());
+    }
+
+    // Same digits as BigDecimal.valueOf(value).setScale(scale, HALF_UP).toPlainString(), without allocating
+    // unless the value sits right on a rounding tie
+    public static StringBuilder appendFixed(StringBuilder builder, double value, int scale) {
+        if (scale > 9 || !Double.isFinite(value)) {
+            return builder.append(BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).toPlainString());
+        }
+        long factor = POWERS_OF_TEN[scale];
+        double scaled = Math.abs(value) * factor;
+        double fraction = scaled - Math.floor(scaled);
+        if (scaled >= 1e13 || Math.abs(fraction - 0.5) < Math.max(1e-6, 64 * Math.ulp(scaled))) {
+            return builder.append(BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).toPlainString());
+        }
+
+        long rounded = (long) Math.floor(scaled + 0.5);
+        if (rounded != 0 && value < 0) {
+            builder.append('-');
+        }
+        builder.append(rounded / factor);
+        if (scale > 0) {
+            builder.append('.');
+            long digits = rounded % factor;
+            for (long limit = factor / 10; limit > 1 && digits < limit; limit /= 10) {
+                builder.append('0');
+            }
+            builder.append(digits);
+        }
+        return builder;
+    }
+
     public static ExchangeOrderSide parseOrderSide(String value) {
         if (value == null || value.isBlank()) {
             throw new IllegalArgumentException("side must be provided");
@@ -34,23 +99,4 @@ public final class Util {
             default -> throw new IllegalArgumentException("Unsupported side: " + value);
         };
     }
-
-    public static BigDecimal roundToStep(BigDecimal value, BigDecimal step) {
-        return roundToStep(value, step, RoundingMode.HALF_UP);
-    }
-
-    public static BigDecimal roundDownToStep(BigDecimal value, BigDecimal step) {
-        return roundToStep(value, step, RoundingMode.DOWN);
-    }
-
-    private static BigDecimal roundToStep(BigDecimal value, BigDecimal step, RoundingMode roundingMode) {
-        if (value == null) {
-            return null;
-        }
-        if (step == null || step.signum() <= 0) {
-            throw new IllegalArgumentException("step must be positive");
-        }
-        BigDecimal multiplier = value.divide(step, 0, roundingMode);
-        return multiplier.multiply(step);
-    }
 }
@@ -0,0 +1,84 @@
+package com.tsafran.vibetrader.standin;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Decides what happens to a REST request before it is served: an added delay (latency plus uniform jitter), and
+ * either a normal answer, an injected server error or an injected rate-limit breach. Independently of the injected
+ * breaches each endpoint has Bybit's per-second limit, requests over it are refused the way Bybit refuses them.
+ */
+final class FaultInjector {
+    private static final long WINDOW_MILLIS = 1_000;
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final SplittableRandom random;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    FaultInjector(StandInOptions options) {
+        this.latencyMillis = options.latencyMillis();
+        this.jitterMillis = options.jitterMillis();
+        this.errorRate = options.errorRate();
+        this.rateLimitRate = options.rateLimitRate();
+        this.random = new SplittableRandom(options.seed());
+    }
+
+    enum Fault {
+        NONE,
+        SERVER_ERROR,
+        RATE_LIMIT
+    }
+
+    // What the X-Bapi-Limit headers report for the request that took a slot
+    record Limit(int limit, int remaining, long resetAtMillis, boolean exceeded) {
+    }
+
+    Fault next() {
+        double roll;
+        synchronized (random) {
+            roll = random.nextDouble();
+        }
+        if (roll < errorRate) {
+            return Fault.SERVER_ERROR;
+        }
+        return roll < errorRate + rateLimitRate ? Fault.RATE_LIMIT : Fault.NONE;
+    }
+
+    void delay() throws InterruptedException {
+        long jitter;
+        synchronized (random) {
+            jitter = jitterMillis == 0 ? 0 : random.nextLong(jitterMillis + 1);
+        }
+        long millis = latencyMillis + jitter;
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    Limit take(String path, int perSecond) {
+        return windows.computeIfAbsent(path, ignored -> new Window(perSecond)).take(System.currentTimeMillis());
+    }
+
+    private static final class Window {
+        private final int limit;
+        private long start;
+        private int used;
+
+        private Window(int limit) {
+            this.limit = limit;
+        }
+
+        private synchronized Limit take(long now) {
+            if (now - start >= WINDOW_MILLIS) {
+                start = now - now % WINDOW_MILLIS;
+                used = 0;
+            }
+            used++;
+            return new Limit(limit, Math.max(0, limit - used), start + WINDOW_MILLIS, used > limit);
+        }
+    }
+}
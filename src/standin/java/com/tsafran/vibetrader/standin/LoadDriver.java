@@ -0,0 +1,164 @@
+package com.tsafran.vibetrader.standin;
+
+import com.tsafran.vibetrader.VibeTraderApplication;
+import com.tsafran.vibetrader.algo.AlgoStrategy;
+import com.tsafran.vibetrader.trade.AlgoTradeExecutionService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Boots the app against the stand-in and runs many algo trades at once, then reports what they cost end to end:
+ * latency percentiles of placeAlgoTrade and how the runs ended (placed, skipped, failed).
+ * Own options, everything else goes to the stand-in (see StandInOptions):
+ *   jobs           placeAlgoTrade calls in total, default 2000
+ *   concurrency    calls in flight at once, default 200
+ *   load-symbols   distinct made-up symbols the calls are spread over, default 100
+ *   external       true to use a stand-in already listening on rest-port and ws-port instead of starting one
+ * Run with: mvn -Pstandin test-compile exec:exec@load -Dstandin.args="--jobs=5000 --latency-ms=15 --error-rate=0.01"
+ */
+public final class LoadDriver {
+    private static final List<String> DRIVER_OPTIONS = List.of("jobs", "concurrency", "load-symbols", "external");
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> driver = new HashMap<>();
+        List<String> standIn = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 0 ? arg.substring(2, equals) : "";
+            if (DRIVER_OPTIONS.contains(name)) {
+                driver.put(name, arg.substring(equals + 1));
+            } else {
+                standIn.add(arg);
+            }
+        }
+        int jobs = Integer.parseInt(driver.getOrDefault("jobs", "2000"));
+        int concurrency = Integer.parseInt(driver.getOrDefault("concurrency", "200"));
+        int symbolCount = Integer.parseInt(driver.getOrDefault("load-symbols", "100"));
+        boolean external = Boolean.parseBoolean(driver.getOrDefault("external", "false"));
+        if (jobs <= 0 || concurrency <= 0 || symbolCount <= 0) {
+            throw new IllegalArgumentException("jobs, concurrency and load-symbols must be positive");
+        }
+        StandInOptions options = StandInOptions.parse(standIn.toArray(String[]::new));
+
+        StandInServer server = external ? null : new StandInServer(options).start();
+        int restPort = server == null ? options.restPort() : server.restPort();
+        int wsPort = server == null ? options.wsPort() : server.wsPort();
+        try (ConfigurableApplicationContext context = boot(restPort, wsPort)) {
+            AlgoTradeExecutionService executionService = context.getBean(AlgoTradeExecutionService.class);
+            Result result = run(executionService, symbols(options, symbolCount), jobs, concurrency);
+            result.print();
+        } finally {
+            if (server != null) {
+                System.out.println("Stand-in served " + server.stats());
+                server.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(int restPort, int wsPort) {
+        return new SpringApplicationBuilder(VibeTraderApplication.class)
+                .properties(
+                        "bybit.api-key=standin",
+                        "bybit.api-secret=standin",
+                        "bybit.rest.public-url=http://localhost:" + restPort,
+                        "bybit.rest.private-url=http://localhost:" + restPort,
+                        "bybit.stream.public-url=ws://localhost:" + wsPort + "/v5/public/linear",
+                        "bybit.stream.private-url=ws://localhost:" + wsPort + "/v5/private",
+                        "bybit.instruments.preload=false",
+                        "spring.shell.interactive.enabled=false",
+                        "marketdata.archive.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.tsafran.vibetrader=WARN"
+                )
+                .run();
+    }
+
+    // Made-up names in synthetic mode, the archive's symbols when replaying
+    private static List<String> symbols(StandInOptions options, int count) {
+        if (options.archive() != null) {
+            List<String> archived = new StandInMarket(options).symbols();
+            return archived.subList(0, Math.min(count, archived.size()));
+        }
+        List<String> symbols = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            symbols.add(String.format(Locale.ROOT, "LOAD%03dUSDT", i));
+        }
+        return symbols;
+    }
+
+    private static Result run(AlgoTradeExecutionService executionService, List<String> symbols, int jobs, int concurrency)
+            throws InterruptedException {
+        long[] latencies = new long[jobs];
+        LongAdder placed = new LongAdder();
+        LongAdder skipped = new LongAdder();
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < jobs; i++) {
+                int job = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        String orderId = executionService.placeAlgoTrade(
+                                symbols.get(job % symbols.size()),
+                                AlgoStrategy.ENGULFING_CANDLE
+                        );
+                        (orderId == null ? skipped : placed).increment();
+                    } catch (RuntimeException ex) {
+                        failures.computeIfAbsent(ex.getClass().getSimpleName(), ignored -> new LongAdder()).increment();
+                    } finally {
+                        latencies[job] = System.nanoTime() - start;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        Arrays.sort(latencies);
+
+        Map<String, Long> failed = new HashMap<>();
+        failures.forEach((type, count) -> failed.put(type, count.sum()));
+        return new Result(jobs, elapsed, latencies, placed.sum(), skipped.sum(), failed);
+    }
+
+    private record Result(int jobs, long elapsedNanos, long[] sortedLatencies, long placed, long skipped,
+                          Map<String, Long> failed) {
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf(Locale.ROOT, "%d algo trades in %.2fs, %.1f/s%n", jobs, seconds, jobs / seconds);
+            System.out.printf(
+                    Locale.ROOT,
+                    "latency ms  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(0.50),
+                    percentile(0.90),
+                    percentile(0.99),
+                    percentile(0.999),
+                    sortedLatencies[sortedLatencies.length - 1] / 1e6
+            );
+            System.out.printf(Locale.ROOT, "placed %d  skipped %d  failed %s%n", placed, skipped, failed);
+        }
+
+        private double percentile(double quantile) {
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.tsafran.vibetrader.standin;
+
+import com.tsafran.vibetrader.exchange.TickGrid;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * The one USDT account behind the stand-in, linear contracts at 1x like the app trades them.
+ * Market orders fill at the market's last price with the taker fee, a stop loss set on the entry rests as an
+ * Untriggered conditional order, reduce-only limits rest until the price reaches them and fill with the maker fee.
+ * A post-only limit that would take liquidity is accepted and then cancelled, as on Bybit.
+ * Every change is handed to the listener as the private stream's topic and data entries.
+ */
+final class StandInAccount {
+    static final double TAKER_FEE = 0.00055;
+    static final double MAKER_FEE = 0.00020;
+
+    // Bybit's codes for the rejections the stand-in can produce
+    static final int INVALID_REQUEST = 10001;
+    static final int INSUFFICIENT_BALANCE = 110007;
+    static final int REDUCE_ONLY_WITHOUT_POSITION = 110017;
+
+    private final StandInMarket market;
+    private final Listener listener;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<String, Order> orders = new LinkedHashMap<>();
+    private final Map<String, Position> positions = new HashMap<>();
+    private double cash;
+
+    StandInAccount(StandInMarket market, double balance, Listener listener) {
+        this.market = market;
+        this.listener = listener;
+        this.cash = balance;
+    }
+
+    @FunctionalInterface
+    interface Listener {
+        void publish(String topic, List<Map<String, Object>> data);
+    }
+
+    record Result(int code, String message, String orderId, String orderLinkId) {
+        boolean accepted() {
+            return code == 0;
+        }
+    }
+
+    synchronized Result create(Map<String, Object> request) {
+        String symbol = text(request.get("symbol")).toUpperCase(Locale.ROOT);
+        String side = normalize(text(request.get("side")));
+        String type = normalize(text(request.get("orderType")));
+        String linkId = text(request.get("orderLinkId"));
+        if (symbol.isEmpty() || !market.isListed(symbol)) {
+            return rejected(INVALID_REQUEST, "params error: symbol invalid");
+        }
+        if (!side.equals("buy") && !side.equals("sell")) {
+            return rejected(INVALID_REQUEST, "params error: side invalid");
+        }
+
+        TickGrid grid = TickGrid.of(market.precision(symbol));
+        long steps;
+        try {
+            steps = grid.steps(new BigDecimal(text(request.get("qty"))), RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException | NumberFormatException ex) {
+            return rejected(INVALID_REQUEST, "Qty invalid");
+        }
+        if (steps <= 0) {
+            return rejected(INVALID_REQUEST, "Qty invalid");
+        }
+        double qty = grid.qty(steps);
+        boolean buy = side.equals("buy");
+
+        return switch (type) {
+            case "market" -> market(symbol, buy, qty, request, linkId);
+            case "limit" -> limit(symbol, buy, qty, grid, request, linkId);
+            default -> rejected(INVALID_REQUEST, "params error: orderType invalid");
+        };
+    }
+
+    synchronized List<Map<String, Object>> openOrders(String symbol) {
+        List<Map<String, Object>> open = new ArrayList<>();
+        for (Order order : orders.values()) {
+            if (symbol == null || symbol.isBlank() || order.symbol.equalsIgnoreCase(symbol)) {
+                open.add(order.toJson());
+            }
+        }
+        return open;
+    }
+
+    synchronized Map<String, Object> wallet() {
+        Map<String, Object> wallet = new LinkedHashMap<>();
+        wallet.put("accountType", "UNIFIED");
+        wallet.put("totalEquity", decimal(equity()));
+        wallet.put("totalWalletBalance", decimal(cash));
+        wallet.put("totalAvailableBalance", decimal(cash - margin()));
+        return wallet;
+    }
+
+    // Triggers stops and fills resting limits the last price has reached
+    synchronized void onPrice() {
+        for (Position position : List.copyOf(positions.values())) {
+            double price = market.lastPrice(position.symbol);
+            boolean stopped = position.stopLoss > 0 && (position.buy ? price <= position.stopLoss : price >= position.stopLoss);
+            if (stopped) {
+                Order stop = stopOrder(position.symbol);
+                fill(position.symbol, !position.buy, position.size, price, TAKER_FEE, stop);
+                continue;
+            }
+            for (Order order : List.copyOf(orders.values())) {
+                if (!order.symbol.equals(position.symbol) || !order.type.equals("Limit")) {
+                    continue;
+                }
+                boolean reached = order.buy ? price <= order.price : price >= order.price;
+                if (reached && positions.containsKey(order.symbol)) {
+                    double qty = Math.min(order.qty, positions.get(order.symbol).size);
+                    fill(order.symbol, order.buy, qty, order.price, MAKER_FEE, order);
+                }
+            }
+        }
+    }
+
+    private Result market(String symbol, boolean buy, double qty, Map<String, Object> request, String linkId) {
+        double price = market.lastPrice(symbol);
+        Position position = positions.get(symbol);
+        boolean opening = position == null || position.buy == buy;
+
+        double stopLoss = parse(request.get("stopLoss"));
+        if (stopLoss > 0 && (buy ? stopLoss >= price : stopLoss <= price)) {
+            return rejected(INVALID_REQUEST, "StopLoss:" + decimal(stopLoss) + " set for "
+                    + (buy ? "Buy position should lower than base_price:" : "Sell position should higher than base_price:")
+                    + decimal(price));
+        }
+        if (opening && qty * price * (1 + TAKER_FEE) > cash - margin()) {
+            return rejected(INSUFFICIENT_BALANCE, "ab not enough for new order");
+        }
+
+        Order order = new Order(newId(), linkId, symbol, buy, "Market", price, qty, false);
+        fill(symbol, buy, qty, price, TAKER_FEE, order);
+        if (stopLoss > 0 && positions.containsKey(symbol)) {
+            positions.get(symbol).stopLoss = stopLoss;
+            Order stop = stopOrder(symbol);
+            if (stop == null) {
+                stop = new Order(newId(), "", symbol, !buy, "Market", stopLoss, 0, true);
+                stop.status = "Untriggered";
+                stop.stopOrderType = "StopLoss";
+                orders.put(stop.id, stop);
+            }
+            stop.price = stopLoss;
+            publish("order", List.of(stop.toJson()));
+        }
+        return new Result(0, "OK", order.id, linkId);
+    }
+
+    private Result limit(String symbol, boolean buy, double qty, TickGrid grid, Map<String, Object> request, String linkId) {
+        double price = parse(request.get("price"));
+        if (!(price > 0)) {
+            return rejected(INVALID_REQUEST, "params error: price invalid");
+        }
+        try {
+            price = grid.price(grid.ticks(new BigDecimal(text(request.get("price"))), RoundingMode.UNNECESSARY));
+        } catch (ArithmeticException ex) {
+            return rejected(INVALID_REQUEST, "Price invalid");
+        }
+        boolean reduceOnly = truthy(request.get("reduceOnly"));
+        Position position = positions.get(symbol);
+        if (reduceOnly && (position == null || position.buy == buy)) {
+            return rejected(REDUCE_ONLY_WITHOUT_POSITION, "current position is zero, cannot fix reduce-only order qty");
+        }
+        if (!reduceOnly) {
+            return rejected(INVALID_REQUEST, "stand-in only supports reduce-only limit orders");
+        }
+
+        Order order = new Order(newId(), linkId, symbol, buy, "Limit", price, qty, true);
+        double last = market.lastPrice(symbol);
+        boolean takesLiquidity = buy ? price >= last : price <= last;
+        if (takesLiquidity && normalize(text(request.get("timeInForce"))).equals("postonly")) {
+            order.status = "Cancelled";
+            publish("order", List.of(order.toJson()));
+            return new Result(0, "OK", order.id, linkId);
+        }
+        orders.put(order.id, order);
+        publish("order", List.of(order.toJson()));
+        return new Result(0, "OK", order.id, linkId);
+    }
+
+    private void fill(String symbol, boolean buy, double qty, double price, double feeRate, Order order) {
+        long now = market.now();
+        double fee = qty * price * feeRate;
+        cash -= fee;
+
+        Position position = positions.get(symbol);
+        if (position == null) {
+            positions.put(symbol, position = new Position(symbol, buy, qty, price));
+        } else if (position.buy == buy) {
+            position.entryPrice = (position.entryPrice * position.size + price * qty) / (position.size + qty);
+            position.size += qty;
+        } else {
+            double closed = Math.min(qty, position.size);
+            cash += position.buy ? closed * (price - position.entryPrice) : closed * (position.entryPrice - price);
+            position.size -= closed;
+        }
+
+        if (order != null) {
+            order.status = "Filled";
+            order.price = price;
+            order.updatedTime = now;
+            orders.remove(order.id);
+        }
+        List<Map<String, Object>> updates = new ArrayList<>();
+        if (order != null) {
+            updates.add(order.toJson());
+        }
+        if (position.size <= 0) {
+            positions.remove(symbol);
+            // A flat position takes its stop and any reduce-only order with it
+            for (Order resting : List.copyOf(orders.values())) {
+                if (resting.symbol.equals(symbol) && resting.reduceOnly) {
+                    resting.status = "Untriggered".equals(resting.status) ? "Deactivated" : "Cancelled";
+                    resting.updatedTime = now;
+                    orders.remove(resting.id);
+                    updates.add(resting.toJson());
+                }
+            }
+        }
+
+        publish("order", updates);
+        publish("execution", List.of(Map.of(
+                "execId", newId(),
+                "orderId", order == null ? "" : order.id,
+                "symbol", symbol,
+                "side", buy ? "Buy" : "Sell",
+                "execPrice", decimal(price),
+                "execQty", decimal(qty),
+                "execFee", decimal(fee),
+                "execTime", String.valueOf(now)
+        )));
+        publish("position", List.of(Map.of(
+                "symbol", symbol,
+                "category", "linear",
+                "side", position.size > 0 ? (position.buy ? "Buy" : "Sell") : "",
+                "size", decimal(Math.max(0, position.size)),
+                "entryPrice", decimal(position.entryPrice),
+                "unrealisedPnl", "0",
+                "updatedTime", String.valueOf(now)
+        )));
+        publish("wallet", List.of(wallet()));
+    }
+
+    private Order stopOrder(String symbol) {
+        for (Order order : orders.values()) {
+            if (order.symbol.equals(symbol) && "StopLoss".equals(order.stopOrderType)) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    private double margin() {
+        double margin = 0;
+        for (Position position : positions.values()) {
+            margin += position.size * position.entryPrice;
+        }
+        return margin;
+    }
+
+    private double equity() {
+        double equity = cash;
+        for (Position position : positions.values()) {
+            double price = market.lastPrice(position.symbol);
+            equity += position.buy ? position.size * (price - position.entryPrice) : position.size * (position.entryPrice - price);
+        }
+        return equity;
+    }
+
+    private void publish(String topic, List<Map<String, Object>> data) {
+        if (!data.isEmpty()) {
+            listener.publish(topic, data);
+        }
+    }
+
+    private String newId() {
+        return "standin-" + ids.incrementAndGet();
+    }
+
+    private static Result rejected(int code, String message) {
+        return new Result(code, message, "", "");
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString().trim();
+    }
+
+    // Enum names and Bybit's spelling alike, POST_ONLY and PostOnly both become postonly
+    private static String normalize(String value) {
+        return value.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean truthy(Object value) {
+        return value instanceof Boolean bool ? bool : "true".equalsIgnoreCase(text(value)) || "1".equals(text(value));
+    }
+
+    private static double parse(Object value) {
+        String text = text(value);
+        return text.isEmpty() ? 0 : Double.parseDouble(text);
+    }
+
+    static String decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_EVEN).stripTrailingZeros().toPlainString();
+    }
+
+    private final class Order {
+        private final String id;
+        private final String linkId;
+        private final String symbol;
+        private final boolean buy;
+        private final String type;
+        private final double qty;
+        private final boolean reduceOnly;
+        private final long createdTime = market.now();
+        private double price;
+        private String status = "New";
+        private String stopOrderType = "";
+        private long updatedTime = createdTime;
+
+        private Order(String id, String linkId, String symbol, boolean buy, String type, double price, double qty, boolean reduceOnly) {
+            this.id = id;
+            this.linkId = linkId == null ? "" : linkId;
+            this.symbol = symbol;
+            this.buy = buy;
+            this.type = type;
+            this.price = price;
+            this.qty = qty;
+            this.reduceOnly = reduceOnly;
+        }
+
+        private Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("orderId", id);
+            json.put("orderLinkId", linkId);
+            json.put("symbol", symbol);
+            json.put("category", "linear");
+            json.put("side", buy ? "Buy" : "Sell");
+            json.put("orderType", type);
+            json.put("orderStatus", status);
+            json.put("price", "Untriggered".equals(status) ? "0" : decimal(price));
+            json.put("triggerPrice", "StopLoss".equals(stopOrderType) ? decimal(price) : "");
+            json.put("qty", decimal(qty));
+            json.put("reduceOnly", reduceOnly);
+            json.put("stopOrderType", stopOrderType);
+            json.put("createdTime", String.valueOf(createdTime));
+            json.put("updatedTime", String.valueOf(updatedTime));
+            return json;
+        }
+    }
+
+    private static final class Position {
+        private final String symbol;
+        private final boolean buy;
+        private double size;
+        private double entryPrice;
+        private double stopLoss;
+
+        private Position(String symbol, boolean buy, double size, double entryPrice) {
+            this.symbol = symbol;
+            this.buy = buy;
+            this.size = size;
+            this.entryPrice = entryPrice;
+        }
+    }
+}
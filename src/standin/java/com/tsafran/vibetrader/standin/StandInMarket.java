@@ -0,0 +1,264 @@
+package com.tsafran.vibetrader.standin;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/*
+ * Candles as the stand-in's clock sees them, oldest first with the forming bar last like Bybit serves them.
+ *   - recorded: 1m bars of a candle archive replayed from a start instant at a speed multiple of the wall clock,
+ *     higher timeframes come from the archive when it has them and are resampled from 1m otherwise
+ *   - synthetic: a deterministic market per symbol name, smooth cycles plus per-minute noise, so any symbol a
+ *     load test makes up is tradable and two runs with the same seed see the same prices
+ * Inside the current minute prices move linearly from the 1m bar's open to its close.
+ */
+final class StandInMarket {
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final int SIGNIFICANT_DIGITS = 5;
+
+    private final Path archiveDirectory;
+    private final CandleArchive archive;
+    private final long from;
+    private final double speed;
+    private final long startedAt = System.nanoTime();
+    private final List<String> symbols;
+    private final long seed;
+
+    StandInMarket(StandInOptions options) {
+        this.archiveDirectory = options.archive() == null ? null : Path.of(options.archive());
+        this.archive = archiveDirectory == null ? null : new CandleArchive(true, options.archive());
+        this.from = options.from() == null ? System.currentTimeMillis() : options.from().toEpochMilli();
+        this.speed = options.speed();
+        this.seed = options.seed();
+        this.symbols = archiveDirectory == null ? options.symbols() : archivedSymbols(archiveDirectory);
+    }
+
+    boolean isRecorded() {
+        return archive != null;
+    }
+
+    long now() {
+        return from + (long) ((System.nanoTime() - startedAt) / 1_000_000.0 * speed);
+    }
+
+    List<String> symbols() {
+        return symbols;
+    }
+
+    boolean isListed(String symbol) {
+        return !isRecorded() || symbols.contains(symbol);
+    }
+
+    // Ticks at the price scale the candles are quoted in, a qty step worth well under one USDT
+    InstrumentPrecision precision(String symbol) {
+        CandleSeries latest = latest(symbol);
+        int magnitude = (int) Math.floor(Math.log10(latest.close(latest.size() - 1)));
+        BigDecimal tickSize = BigDecimal.ONE.scaleByPowerOfTen(-latest.priceScale());
+        BigDecimal qtyStep = BigDecimal.ONE.scaleByPowerOfTen(-Math.max(0, magnitude + 1));
+        return new InstrumentPrecision(qtyStep, tickSize);
+    }
+
+    double lastPrice(String symbol) {
+        CandleSeries latest = latest(symbol);
+        return latest.close(latest.size() - 1);
+    }
+
+    private CandleSeries latest(String symbol) {
+        CandleSeries latest = candles(symbol, ExchangeInterval.ONE_MINUTE, null, 1);
+        if (latest.isEmpty()) {
+            throw new IllegalArgumentException("No market data for " + symbol);
+        }
+        return latest;
+    }
+
+    // The newest limit bars starting at or after start, null start meaning no lower bound
+    CandleSeries candles(String symbol, ExchangeInterval interval, Long start, int limit) {
+        return candles(symbol, interval, start, null, limit);
+    }
+
+    // Bounded by end too, inclusive, a bar before the current one is served closed
+    CandleSeries candles(String symbol, ExchangeInterval interval, Long start, Long end, int limit) {
+        long clock = now();
+        long forming = CandleResampler.bucketStart(end == null ? clock : Math.min(clock, end), interval);
+        long now = forming == CandleResampler.bucketStart(clock, interval)
+                ? clock
+                : CandleResampler.nextBucketStart(forming, interval);
+        List<Long> starts = new ArrayList<>(limit);
+        long lowest = start == null ? Long.MIN_VALUE : start;
+        for (long bucket = forming; starts.size() < limit && bucket >= lowest; ) {
+            starts.addFirst(bucket);
+            bucket = CandleResampler.bucketStart(bucket - 1, interval);
+        }
+        if (starts.isEmpty()) {
+            return CandleSeries.empty();
+        }
+        return isRecorded() ? recorded(symbol, interval, starts, now) : synthetic(symbol, starts, now);
+    }
+
+    private CandleSeries synthetic(String symbol, List<Long> starts, long now) {
+        long symbolSeed = mix(seed ^ symbol.hashCode());
+        double base = Math.pow(10, -1 + unit(symbolSeed) * 5.5);
+        int magnitude = (int) Math.floor(Math.log10(base));
+        int scale = Math.max(0, SIGNIFICANT_DIGITS - 1 - magnitude);
+        double tick = Math.pow(10, -scale);
+
+        CandleSeries.Builder builder = CandleSeries.builder(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            // The last bar is the forming one, it ends at the clock
+            long end = i + 1 < starts.size() ? starts.get(i + 1) : now;
+            double open = syntheticPrice(symbolSeed, base, start);
+            double close = syntheticPrice(symbolSeed, base, end);
+            double minutes = Math.max(1, (end - start) / (double) MINUTE_MILLIS);
+            double wick = base * 0.0008 * Math.sqrt(minutes);
+            double high = Math.max(open, close) + wick * unit(mix(symbolSeed + start));
+            double low = Math.min(open, close) - wick * unit(mix(symbolSeed - start));
+            double volume = Math.rint(minutes * 1_000 * (0.5 + unit(mix(symbolSeed ^ start)))) / 1_000;
+            builder.add(
+                    start,
+                    onTick(open, tick),
+                    onTick(high, tick),
+                    onTick(low, tick),
+                    onTick(close, tick),
+                    volume,
+                    Math.rint(volume * close)
+            ).priceScale(scale);
+        }
+        return builder.build();
+    }
+
+    // Smooth cycles of a few hours, an hour and minutes, plus noise interpolated between whole minutes
+    private static double syntheticPrice(long symbolSeed, double base, long time) {
+        double minutes = time / (double) MINUTE_MILLIS;
+        double phase = unit(symbolSeed) * 2 * Math.PI;
+        double smooth = 1
+                + 0.03 * Math.sin(minutes / 240 + phase)
+                + 0.01 * Math.sin(minutes / 37 + phase * 2)
+                + 0.004 * Math.sin(minutes / 5.3 + phase * 3);
+        long minute = Math.floorDiv(time, MINUTE_MILLIS);
+        double fraction = minutes - minute;
+        double noise = (1 - fraction) * signed(mix(symbolSeed + minute * 0x9E3779B97F4A7C15L))
+                + fraction * signed(mix(symbolSeed + (minute + 1) * 0x9E3779B97F4A7C15L));
+        return base * (smooth + 0.0015 * noise);
+    }
+
+    private CandleSeries recorded(String symbol, ExchangeInterval interval, List<Long> starts, long now) {
+        long formingStart = starts.getLast();
+        CandleSeries closed = starts.size() == 1
+                ? CandleSeries.empty()
+                : closedBars(symbol, interval, starts.getFirst(), formingStart);
+        CandleSeries minutes = formingMinutes(symbol, formingStart, now);
+        CandleSeries forming = interval == ExchangeInterval.ONE_MINUTE
+                ? minutes
+                : CandleResampler.resample(minutes, interval);
+
+        CandleSeries.Builder builder = CandleSeries.builder(closed.size() + 1);
+        append(builder, closed);
+        append(builder, forming);
+        return builder.build();
+    }
+
+    private CandleSeries closedBars(String symbol, ExchangeInterval interval, long fromInclusive, long toExclusive) {
+        if (interval != ExchangeInterval.ONE_MINUTE && hasArchive(symbol, interval)) {
+            return archive.range(symbol, interval, fromInclusive, toExclusive).toCandleSeries();
+        }
+        CandleSeries minutes = archive.range(symbol, ExchangeInterval.ONE_MINUTE, fromInclusive, toExclusive)
+                .toCandleSeries();
+        return interval == ExchangeInterval.ONE_MINUTE ? minutes : CandleResampler.resample(minutes, interval);
+    }
+
+    // The bucket's finished minutes plus the current one cut off at the clock
+    private CandleSeries formingMinutes(String symbol, long bucketStart, long now) {
+        long minute = Math.floorDiv(now, MINUTE_MILLIS) * MINUTE_MILLIS;
+        CandleSeries bars = archive.range(symbol, ExchangeInterval.ONE_MINUTE, bucketStart, minute + MINUTE_MILLIS)
+                .toCandleSeries();
+        if (bars.isEmpty() || bars.lastStartTime() != minute) {
+            return bars;
+        }
+        int last = bars.size() - 1;
+        double fraction = (now - minute) / (double) MINUTE_MILLIS;
+        double open = bars.open(last);
+        double close = open + (bars.close(last) - open) * fraction;
+        double unit = Math.pow(10, -bars.priceScale());
+        close = onTick(close, unit);
+
+        CandleSeries.Builder builder = CandleSeries.builder(bars.size());
+        append(builder, bars.head(last));
+        builder.add(
+                minute,
+                open,
+                Math.max(open, close),
+                Math.min(open, close),
+                close,
+                bars.volume(last) * fraction,
+                bars.turnover(last) * fraction
+        ).priceScale(bars.priceScale());
+        return builder.build();
+    }
+
+    private boolean hasArchive(String symbol, ExchangeInterval interval) {
+        // Probing through CandleArchive would create an empty file for every interval asked for
+        return Files.exists(archiveDirectory.resolve(symbol).resolve(interval.name() + ".candles"));
+    }
+
+    private static void append(CandleSeries.Builder builder, CandleSeries series) {
+        for (int i = 0; i < series.size(); i++) {
+            builder.add(
+                    series.startTime(i),
+                    series.open(i),
+                    series.high(i),
+                    series.low(i),
+                    series.close(i),
+                    series.volume(i),
+                    series.turnover(i)
+            );
+        }
+        builder.priceScale(series.priceScale());
+    }
+
+    private static List<String> archivedSymbols(Path directory) {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries
+                    .filter(entry -> Files.exists(entry.resolve(ExchangeInterval.ONE_MINUTE.name() + ".candles")))
+                    .map(entry -> entry.getFileName().toString().toUpperCase(Locale.ROOT))
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to list candle archive " + directory, ex);
+        }
+    }
+
+    private static double onTick(double price, double tick) {
+        return Math.rint(price / tick) * tick;
+    }
+
+    // 0..1
+    private static double unit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    // -1..1
+    private static double signed(long bits) {
+        return unit(bits) * 2 - 1;
+    }
+
+    // SplitMix64's finalizer
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,95 @@
+package com.tsafran.vibetrader.standin;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Command line settings, all given as --name=value:
+ *   rest-port, ws-port           where the REST and WebSocket endpoints listen
+ *   archive, from, speed         replay a candle archive from an instant, speed times faster than the wall clock,
+ *                                without an archive every symbol gets a deterministic synthetic market
+ *   symbols                      listed by instruments-info in synthetic mode, any other symbol is served on request
+ *   balance                      starting USDT of the account
+ *   latency-ms, jitter-ms        added to every REST response
+ *   error-rate, rate-limit-rate  fraction of REST requests answered with a server error or a rate-limit breach
+ *   seed                         for the fault injection and the synthetic market
+ */
+public record StandInOptions(
+        int restPort,
+        int wsPort,
+        String archive,
+        Instant from,
+        double speed,
+        List<String> symbols,
+        double balance,
+        long latencyMillis,
+        long jitterMillis,
+        double errorRate,
+        double rateLimitRate,
+        long seed
+) {
+    public StandInOptions {
+        if (restPort < 0 || wsPort < 0) {
+            throw new IllegalArgumentException("ports must not be negative");
+        }
+        if (archive != null && from == null) {
+            throw new IllegalArgumentException("--from is required with --archive");
+        }
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive");
+        }
+        if (!(balance > 0)) {
+            throw new IllegalArgumentException("balance must be positive");
+        }
+        if (latencyMillis < 0 || jitterMillis < 0) {
+            throw new IllegalArgumentException("latency must not be negative");
+        }
+        if (errorRate < 0 || rateLimitRate < 0 || errorRate + rateLimitRate > 1) {
+            throw new IllegalArgumentException("error-rate and rate-limit-rate must be fractions adding up to at most 1");
+        }
+        symbols = List.copyOf(symbols);
+    }
+
+    public static StandInOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        String from = values.remove("from");
+        String archive = values.remove("archive");
+        StandInOptions options = new StandInOptions(
+                Integer.parseInt(values.getOrDefault("rest-port", "18080")),
+                Integer.parseInt(values.getOrDefault("ws-port", "18081")),
+                archive == null || archive.isBlank() ? null : archive,
+                from == null || from.isBlank() ? null : Instant.parse(from),
+                Double.parseDouble(values.getOrDefault("speed", "1")),
+                Arrays.stream(values.getOrDefault("symbols", "BTCUSDT,ETHUSDT,SOLUSDT").split(","))
+                        .map(symbol -> symbol.trim().toUpperCase(Locale.ROOT))
+                        .filter(symbol -> !symbol.isEmpty())
+                        .toList(),
+                Double.parseDouble(values.getOrDefault("balance", "100000")),
+                Long.parseLong(values.getOrDefault("latency-ms", "0")),
+                Long.parseLong(values.getOrDefault("jitter-ms", "0")),
+                Double.parseDouble(values.getOrDefault("error-rate", "0")),
+                Double.parseDouble(values.getOrDefault("rate-limit-rate", "0")),
+                Long.parseLong(values.getOrDefault("seed", "42"))
+        );
+        values.keySet().removeAll(List.of(
+                "rest-port", "ws-port", "speed", "symbols", "balance", "latency-ms", "jitter-ms",
+                "error-rate", "rate-limit-rate", "seed"
+        ));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + values.keySet());
+        }
+        return options;
+    }
+}
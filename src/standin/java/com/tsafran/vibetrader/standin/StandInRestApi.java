@@ -0,0 +1,324 @@
+package com.tsafran.vibetrader.standin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.exchange.bybit.BybitUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * The v5 REST endpoints the app calls. Public endpoints answer a breached limit with a bare HTTP 403 like Bybit's
+ * IP limit, signed ones with retCode 10006, injected server errors are retCode 10016 on both.
+ * Signatures are not checked, only that the request carries an API key.
+ */
+final class StandInRestApi {
+    private static final int RATE_LIMIT_CODE = 10006;
+    private static final int SERVER_ERROR_CODE = 10016;
+    private static final int INVALID_KEY_CODE = 10003;
+    private static final int MAX_KLINE_LIMIT = 1000;
+    private static final int MAX_INSTRUMENT_LIMIT = 1000;
+
+    private final StandInMarket market;
+    private final StandInAccount account;
+    private final FaultInjector faults;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final LongAdder injected = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+
+    StandInRestApi(StandInMarket market, StandInAccount account, FaultInjector faults, int port) throws IOException {
+        this.market = market;
+        this.account = account;
+        this.faults = faults;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.setExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("standin-rest-", 1).factory()));
+
+        route("/v5/market/time", false, 0, this::time);
+        route("/v5/market/kline", false, 50, this::kline);
+        route("/v5/market/instruments-info", false, 10, this::instruments);
+        route("/v5/account/wallet-balance", true, 50, this::walletBalance);
+        route("/v5/order/realtime", true, 50, this::openOrders);
+        route("/v5/order/create", true, 10, this::createOrder);
+        route("/v5/order/create-batch", true, 10, this::createBatch);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    // Requests per path, plus the injected faults and limit breaches under "faults" and "rate-limited"
+    Map<String, Long> stats() {
+        Map<String, Long> stats = new TreeMap<>();
+        requests.forEach((path, count) -> stats.put(path, count.sum()));
+        stats.put("faults", injected.sum());
+        stats.put("rate-limited", limited.sum());
+        return stats;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Map<String, String> query, byte[] body) throws IOException;
+    }
+
+    private record Reply(int code, String message, Object result) {
+    }
+
+    private void route(String path, boolean signed, int perSecond, Handler handler) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                requests.computeIfAbsent(path, ignored -> new LongAdder()).increment();
+                serve(exchange, path, signed, perSecond, handler);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                write(exchange, 200, envelope(SERVER_ERROR_CODE, "Internal error: " + ex.getMessage(), Map.of()));
+            }
+        });
+    }
+
+    private void serve(HttpExchange exchange, String path, boolean signed, int perSecond, Handler handler)
+            throws IOException, InterruptedException {
+        faults.delay();
+        byte[] body = readBody(exchange.getRequestBody());
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        if (perSecond > 0) {
+            FaultInjector.Limit limit = faults.take(path, perSecond);
+            exchange.getResponseHeaders().add("X-Bapi-Limit", String.valueOf(limit.limit()));
+            exchange.getResponseHeaders().add("X-Bapi-Limit-Status", String.valueOf(limit.remaining()));
+            exchange.getResponseHeaders().add("X-Bapi-Limit-Reset-Timestamp", String.valueOf(limit.resetAtMillis()));
+            if (limit.exceeded()) {
+                limited.increment();
+                rateLimited(exchange, signed);
+                return;
+            }
+        }
+        switch (faults.next()) {
+            case SERVER_ERROR -> {
+                injected.increment();
+                write(exchange, 200, envelope(SERVER_ERROR_CODE, "Internal error.", Map.of()));
+                return;
+            }
+            case RATE_LIMIT -> {
+                injected.increment();
+                rateLimited(exchange, signed);
+                return;
+            }
+            case NONE -> {
+            }
+        }
+        if (signed && exchange.getRequestHeaders().getFirst("X-BAPI-API-KEY") == null) {
+            write(exchange, 200, envelope(INVALID_KEY_CODE, "API key is invalid.", Map.of()));
+            return;
+        }
+
+        Object result = handler.handle(query, body);
+        if (result instanceof Reply reply) {
+            write(exchange, 200, envelope(reply.code(), reply.message(), reply.result()));
+        } else {
+            write(exchange, 200, envelope(0, "OK", result));
+        }
+    }
+
+    private void rateLimited(HttpExchange exchange, boolean signed) throws IOException {
+        if (signed) {
+            write(exchange, 200, envelope(RATE_LIMIT_CODE, "Too many visits!", Map.of()));
+        } else {
+            write(exchange, 403, null);
+        }
+    }
+
+    private Object time(Map<String, String> query, byte[] body) {
+        long now = market.now();
+        return Map.of("timeSecond", String.valueOf(now / 1_000), "timeNano", String.valueOf(now * 1_000_000));
+    }
+
+    private Object kline(Map<String, String> query, byte[] body) {
+        String symbol = query.getOrDefault("symbol", "").toUpperCase(Locale.ROOT);
+        if (symbol.isEmpty() || !market.isListed(symbol)) {
+            return new Reply(10001, "params error: symbol invalid", Map.of());
+        }
+        ExchangeInterval interval = BybitUtil.parseIntervalCode(query.getOrDefault("interval", ""));
+        int limit = Math.min(MAX_KLINE_LIMIT, Integer.parseInt(query.getOrDefault("limit", "200")));
+        Long start = query.containsKey("start") ? Long.valueOf(query.get("start")) : null;
+        Long end = query.containsKey("end") ? Long.valueOf(query.get("end")) : null;
+        CandleSeries candles = market.candles(symbol, interval, start, end, limit);
+
+        // Newest first, every value a string
+        List<List<String>> list = new ArrayList<>(candles.size());
+        int scale = candles.priceScale();
+        for (int i = candles.size() - 1; i >= 0; i--) {
+            list.add(List.of(
+                    String.valueOf(candles.startTime(i)),
+                    price(candles.open(i), scale),
+                    price(candles.high(i), scale),
+                    price(candles.low(i), scale),
+                    price(candles.close(i), scale),
+                    StandInAccount.decimal(candles.volume(i)),
+                    StandInAccount.decimal(candles.turnover(i))
+            ));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("symbol", symbol);
+        result.put("category", query.getOrDefault("category", "linear"));
+        result.put("list", list);
+        return result;
+    }
+
+    private Object instruments(Map<String, String> query, byte[] body) {
+        List<String> symbols = query.containsKey("symbol")
+                ? List.of(query.get("symbol").toUpperCase(Locale.ROOT))
+                : market.symbols();
+        int from = query.containsKey("cursor") ? Integer.parseInt(query.get("cursor")) : 0;
+        int limit = Math.min(MAX_INSTRUMENT_LIMIT, Integer.parseInt(query.getOrDefault("limit", "500")));
+        int to = Math.min(symbols.size(), from + limit);
+
+        List<Map<String, Object>> list = new ArrayList<>(Math.max(0, to - from));
+        for (String symbol : symbols.subList(Math.min(from, to), to)) {
+            if (!market.isListed(symbol)) {
+                continue;
+            }
+            InstrumentPrecision precision = market.precision(symbol);
+            list.add(Map.of(
+                    "symbol", symbol,
+                    "status", "Trading",
+                    "priceFilter", Map.of("tickSize", precision.tickSize().toPlainString()),
+                    "lotSizeFilter", Map.of(
+                            "qtyStep", precision.basePrecision().toPlainString(),
+                            "minOrderQty", precision.basePrecision().toPlainString()
+                    )
+            ));
+        }
+        return Map.of(
+                "category", "linear",
+                "list", list,
+                "nextPageCursor", to < symbols.size() ? String.valueOf(to) : ""
+        );
+    }
+
+    private Object walletBalance(Map<String, String> query, byte[] body) {
+        return Map.of("list", List.of(account.wallet()));
+    }
+
+    private Object openOrders(Map<String, String> query, byte[] body) {
+        return Map.of(
+                "category", "linear",
+                "list", account.openOrders(query.get("symbol")),
+                "nextPageCursor", ""
+        );
+    }
+
+    private Object createOrder(Map<String, String> query, byte[] body) throws IOException {
+        StandInAccount.Result result = account.create(readMap(body));
+        if (!result.accepted()) {
+            return new Reply(result.code(), result.message(), Map.of());
+        }
+        return Map.of("orderId", result.orderId(), "orderLinkId", result.orderLinkId());
+    }
+
+    // Legs are placed in order, each succeeds or fails on its own like Bybit's batch endpoint
+    private Object createBatch(Map<String, String> query, byte[] body) throws IOException {
+        Map<String, Object> request = readMap(body);
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Map<String, Object>> statuses = new ArrayList<>();
+        if (request.get("request") instanceof List<?> legs) {
+            for (Object leg : legs) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> order = leg instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+                StandInAccount.Result result = account.create(order);
+                results.add(Map.of("orderId", result.orderId(), "orderLinkId", result.orderLinkId()));
+                statuses.add(Map.of("code", result.code(), "msg", result.message()));
+            }
+        }
+        return new BatchReply(results, statuses);
+    }
+
+    private record BatchReply(List<Map<String, Object>> results, List<Map<String, Object>> statuses) {
+    }
+
+    private Map<String, Object> envelope(int code, String message, Object result) {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("retCode", code);
+        envelope.put("retMsg", message);
+        if (result instanceof BatchReply batch) {
+            envelope.put("result", Map.of("list", batch.results()));
+            envelope.put("retExtInfo", Map.of("list", batch.statuses()));
+        } else {
+            envelope.put("result", result);
+            envelope.put("retExtInfo", Map.of());
+        }
+        envelope.put("time", market.now());
+        return envelope;
+    }
+
+    private void write(HttpExchange exchange, int status, Object json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(json);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readMap(byte[] body) throws IOException {
+        return body.length == 0 ? Map.of() : objectMapper.readValue(body, Map.class);
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(
+                        URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+        return query;
+    }
+
+    private static String price(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+    }
+}
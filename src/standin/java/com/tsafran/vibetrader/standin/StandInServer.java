@@ -0,0 +1,95 @@
+package com.tsafran.vibetrader.standin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A local stand-in for the parts of Bybit's v5 API the app uses, for load and latency tests without touching the
+ * real exchange. Point bybit.rest.public-url, bybit.rest.private-url and bybit.stream.* at it, see LoadDriver.
+ * Run with: mvn -Pstandin test-compile exec:exec@standin -Dstandin.args="--latency-ms=20 --error-rate=0.01"
+ */
+public final class StandInServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StandInServer.class);
+    private static final long TICK_MILLIS = 250;
+
+    private final StandInMarket market;
+    private final StandInStreams streams;
+    private final StandInRestApi restApi;
+    private final StandInAccount account;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("standin-ticker").daemon().factory());
+
+    public StandInServer(StandInOptions options) throws IOException {
+        this.market = new StandInMarket(options);
+        this.streams = new StandInStreams(market, options.wsPort());
+        this.account = new StandInAccount(market, options.balance(), streams);
+        this.restApi = new StandInRestApi(market, account, new FaultInjector(options), options.restPort());
+    }
+
+    public StandInServer start() {
+        restApi.start();
+        streams.start();
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info(
+                "Stand-in listening on http://localhost:{} and ws://localhost:{} with {} market data",
+                restApi.port(),
+                streams.port(),
+                market.isRecorded() ? "recorded" : "synthetic"
+        );
+        return this;
+    }
+
+    public int restPort() {
+        return restApi.port();
+    }
+
+    public int wsPort() {
+        return streams.port();
+    }
+
+    // Requests per REST path, injected faults, limit breaches and stream messages pushed
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = restApi.stats();
+        stats.put("stream-messages", streams.pushed());
+        return stats;
+    }
+
+    // Cuts every stream connection, clients have to reconnect and subscribe again
+    public void dropStreams() {
+        streams.dropConnections();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        restApi.stop();
+        streams.stop();
+    }
+
+    private void tick() {
+        try {
+            account.onPrice();
+            streams.pushKlines();
+        } catch (RuntimeException ex) {
+            logger.warn("Stand-in tick failed", ex);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        StandInServer server = new StandInServer(StandInOptions.parse(args)).start();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("Stand-in served {}", server.stats());
+            server.close();
+            stopped.countDown();
+        }));
+        stopped.await();
+    }
+}
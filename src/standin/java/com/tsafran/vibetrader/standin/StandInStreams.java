@@ -0,0 +1,409 @@
+package com.tsafran.vibetrader.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.bybit.BybitUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * The two v5 streams on one port, told apart by the upgrade request's path:
+ *   /v5/public/linear  kline.{interval}.{symbol} topics, the forming bar on every push and the finished one once
+ *                      more with confirm=true when its bucket closes
+ *   /v5/private        auth is accepted for any key, then the account's order, execution, position and wallet updates
+ * Just enough of RFC 6455 for Java's WebSocket client: masked client frames in, unmasked text frames out.
+ */
+final class StandInStreams implements StandInAccount.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(StandInStreams.class);
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final String PUBLIC_PATH = "/v5/public/linear";
+    private static final String PRIVATE_PATH = "/v5/private";
+    private static final String KLINE_TOPIC_PREFIX = "kline.";
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    private final StandInMarket market;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServerSocket serverSocket;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder pushed = new LongAdder();
+    private volatile boolean closed;
+
+    StandInStreams(StandInMarket market, int port) throws IOException {
+        this.market = market;
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+    }
+
+    void start() {
+        Thread.ofPlatform().name("standin-ws-accept").daemon().start(this::accept);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    long pushed() {
+        return pushed.sum();
+    }
+
+    void stop() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        connections.forEach(Connection::close);
+    }
+
+    // Like a network drop: the connections go without a close frame, the port stays open for reconnects
+    void dropConnections() {
+        connections.forEach(Connection::close);
+    }
+
+    @Override
+    public void publish(String topic, List<Map<String, Object>> data) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", topic + "-" + System.nanoTime());
+        message.put("topic", topic);
+        message.put("creationTime", market.now());
+        message.put("data", data);
+        String text = json(message);
+        for (Connection connection : connections) {
+            if (connection.isPrivate && connection.topics.contains(topic)) {
+                connection.send(text);
+                pushed.increment();
+            }
+        }
+    }
+
+    // Called on the server's ticker, pushes every subscribed kline topic
+    void pushKlines() {
+        for (Connection connection : connections) {
+            if (connection.isPrivate) {
+                continue;
+            }
+            for (String topic : connection.topics) {
+                pushKline(connection, topic);
+            }
+        }
+    }
+
+    private void pushKline(Connection connection, String topic) {
+        String[] parts = topic.split("\\.", 3);
+        ExchangeInterval interval = BybitUtil.parseIntervalCode(parts[1]);
+        CandleSeries candles = market.candles(parts[2], interval, null, 2);
+        if (candles.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> data = new ArrayList<>(2);
+        int last = candles.size() - 1;
+        Long previous = connection.forming.put(topic, candles.startTime(last));
+        if (previous != null && previous != candles.startTime(last) && last > 0) {
+            data.add(kline(candles, last - 1, interval, true));
+        }
+        data.add(kline(candles, last, interval, false));
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("topic", topic);
+        message.put("type", "snapshot");
+        message.put("ts", market.now());
+        message.put("data", data);
+        connection.send(json(message));
+        pushed.increment();
+    }
+
+    private Map<String, Object> kline(CandleSeries candles, int index, ExchangeInterval interval, boolean confirm) {
+        Map<String, Object> kline = new LinkedHashMap<>();
+        long start = candles.startTime(index);
+        kline.put("start", start);
+        kline.put("end", start + interval.duration().toMillis() - 1);
+        kline.put("interval", BybitUtil.intervalCode(interval));
+        kline.put("open", price(candles.open(index), candles.priceScale()));
+        kline.put("high", price(candles.high(index), candles.priceScale()));
+        kline.put("low", price(candles.low(index), candles.priceScale()));
+        kline.put("close", price(candles.close(index), candles.priceScale()));
+        kline.put("volume", StandInAccount.decimal(candles.volume(index)));
+        kline.put("turnover", StandInAccount.decimal(candles.turnover(index)));
+        kline.put("confirm", confirm);
+        kline.put("timestamp", market.now());
+        return kline;
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("standin-ws").start(() -> serve(socket));
+            } catch (IOException ex) {
+                if (!closed) {
+                    logger.warn("Stream accept failed: {}", ex.toString());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Connection connection = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            String path = handshake(in, socket.getOutputStream());
+            if (path == null) {
+                return;
+            }
+            connection = new Connection(socket, path.startsWith(PRIVATE_PATH));
+            connections.add(connection);
+            String message;
+            while ((message = connection.read(in)) != null) {
+                handle(connection, message);
+            }
+        } catch (EOFException ignored) {
+        } catch (IOException ex) {
+            if (!closed) {
+                logger.debug("Stream connection dropped: {}", ex.toString());
+            }
+        } finally {
+            if (connection != null) {
+                connections.remove(connection);
+            }
+        }
+    }
+
+    private void handle(Connection connection, String message) throws IOException {
+        JsonNode root = objectMapper.readTree(message);
+        String op = root.path("op").asText("");
+        List<String> args = new ArrayList<>();
+        root.path("args").forEach(arg -> args.add(arg.asText()));
+
+        Map<String, Object> reply = new LinkedHashMap<>();
+        reply.put("success", true);
+        reply.put("ret_msg", "");
+        reply.put("op", op);
+        reply.put("conn_id", Integer.toHexString(System.identityHashCode(connection)));
+        if (root.has("req_id")) {
+            reply.put("req_id", root.path("req_id").asText());
+        }
+        switch (op) {
+            case "ping" -> reply.put("ret_msg", "pong");
+            case "auth" -> connection.authenticated = connection.isPrivate && !args.isEmpty();
+            case "subscribe" -> {
+                if (connection.isPrivate && !connection.authenticated) {
+                    reply.put("success", false);
+                    reply.put("ret_msg", "Request not authorized");
+                    break;
+                }
+                for (String topic : args) {
+                    if (!connection.isPrivate && !isKlineTopic(topic)) {
+                        reply.put("success", false);
+                        reply.put("ret_msg", "Invalid topic: " + topic);
+                        continue;
+                    }
+                    connection.topics.add(topic);
+                }
+            }
+            case "unsubscribe" -> args.forEach(topic -> {
+                connection.topics.remove(topic);
+                connection.forming.remove(topic);
+            });
+            default -> {
+                reply.put("success", false);
+                reply.put("ret_msg", "Unknown op: " + op);
+            }
+        }
+        connection.send(json(reply));
+    }
+
+    private boolean isKlineTopic(String topic) {
+        String[] parts = topic.split("\\.", 3);
+        if (parts.length != 3 || !topic.startsWith(KLINE_TOPIC_PREFIX)) {
+            return false;
+        }
+        try {
+            BybitUtil.parseIntervalCode(parts[1]);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        return market.isListed(parts[2].toUpperCase(Locale.ROOT));
+    }
+
+    // Answers the upgrade and returns the requested path, or null after refusing a request that is not one
+    private static String handshake(DataInputStream in, OutputStream out) throws IOException {
+        String requestLine = readLine(in);
+        String key = null;
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+                key = line.substring(colon + 1).trim();
+            }
+        }
+        String[] request = requestLine.split(" ");
+        String path = request.length > 1 ? request[1] : "";
+        if (key == null || !(path.startsWith(PUBLIC_PATH) || path.startsWith(PRIVATE_PATH))) {
+            out.write("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            return null;
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+        return path;
+    }
+
+    // Byte by byte, a buffered reader could swallow the first frame
+    private static String readLine(DataInputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int b = in.readUnsignedByte(); b != '\n'; b = in.readUnsignedByte()) {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(
+                    sha1.digest((key + HANDSHAKE_GUID).getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 unavailable", ex);
+        }
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to encode stream message", ex);
+        }
+    }
+
+    private static String price(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final OutputStream out;
+        private final boolean isPrivate;
+        private final Set<String> topics = ConcurrentHashMap.newKeySet();
+        // Topic -> start of the forming bar last pushed, to notice when a bucket closes
+        private final Map<String, Long> forming = new ConcurrentHashMap<>();
+        private volatile boolean authenticated;
+
+        private Connection(Socket socket, boolean isPrivate) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+            this.isPrivate = isPrivate;
+        }
+
+        // The next complete text message, null once the client closed
+        private String read(DataInputStream in) throws IOException {
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            while (true) {
+                int first = in.readUnsignedByte();
+                int second = in.readUnsignedByte();
+                boolean fin = (first & 0x80) != 0;
+                int opcode = first & 0x0F;
+                long length = second & 0x7F;
+                if (length == 126) {
+                    length = in.readUnsignedShort();
+                } else if (length == 127) {
+                    length = in.readLong();
+                }
+                byte[] mask = new byte[4];
+                if ((second & 0x80) != 0) {
+                    in.readFully(mask);
+                }
+                byte[] payload = new byte[Math.toIntExact(length)];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i & 3];
+                }
+
+                switch (opcode) {
+                    case OP_PING -> write(OP_PONG, payload);
+                    case OP_PONG -> {
+                    }
+                    case OP_CLOSE -> {
+                        write(OP_CLOSE, payload.length >= 2 ? new byte[]{payload[0], payload[1]} : new byte[0]);
+                        return null;
+                    }
+                    case OP_TEXT, OP_CONTINUATION -> {
+                        message.write(payload);
+                        if (fin) {
+                            return message.toString(StandardCharsets.UTF_8);
+                        }
+                    }
+                    default -> throw new IOException("Unsupported opcode " + opcode);
+                }
+            }
+        }
+
+        private void send(String text) {
+            try {
+                write(OP_TEXT, text.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                close();
+            }
+        }
+
+        private synchronized void write(int opcode, byte[] payload) throws IOException {
+            byte[] header;
+            if (payload.length < 126) {
+                header = new byte[]{(byte) (0x80 | opcode), (byte) payload.length};
+            } else if (payload.length <= 0xFFFF) {
+                header = new byte[]{(byte) (0x80 | opcode), 126, (byte) (payload.length >>> 8), (byte) payload.length};
+            } else {
+                header = new byte[10];
+                header[0] = (byte) (0x80 | opcode);
+                header[1] = 127;
+                for (int i = 0; i < 8; i++) {
+                    header[9 - i] = (byte) ((long) payload.length >>> (8 * i));
+                }
+            }
+            out.write(header);
+            out.write(payload);
+            out.flush();
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tsafran.vibetrader.backtest;
+
+import com.tsafran.vibetrader.algo.AlgoStrategy;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.InstrumentPrecision;
+import com.tsafran.vibetrader.position.ProposedPosition;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BacktestEngineTest {
+    private static final String SYMBOL = "BTCUSDT";
+    private static final long MINUTE = 60_000L;
+    private static final long START = 1_700_000_040_000L;
+    private static final InstrumentPrecision PRECISION = new InstrumentPrecision(new BigDecimal("0.001"), new BigDecimal("0.01"));
+
+    // Long at the first bar's close of 100, take profit 110, stop loss 90
+    private static final AlgoStrategy LONG_ONCE = (symbol, exchange) -> {
+        CandleSeries seen = exchange.getCandles(symbol, ExchangeCategory.LINEAR, ExchangeInterval.ONE_MINUTE, 1);
+        if (seen.lastStartTime() != START) {
+            return null;
+        }
+        return new ProposedPosition(symbol, ExchangeOrderSide.LONG, new BigDecimal("100"), new BigDecimal("110"),
+                new BigDecimal("90"));
+    };
+
+    @Test
+    void holeInTheCandlesClosesThePositionAndRestartsTheHistory() {
+        // Bars 0-4, a missing hour, then bars 5-9. The strategy goes long once it sees three bars in a row.
+        List<Integer> seen = new ArrayList<>();
+        AlgoStrategy afterThreeBars = (symbol, exchange) -> {
+            CandleSeries history = exchange.getCandles(symbol, ExchangeCategory.LINEAR, ExchangeInterval.ONE_MINUTE, 50);
+            seen.add(history.size());
+            double close = history.close(history.size() - 1);
+            return history.size() < 3 ? null : new ProposedPosition(symbol, ExchangeOrderSide.LONG,
+                    BigDecimal.valueOf(close), BigDecimal.valueOf(close * 2), BigDecimal.valueOf(close / 2));
+        };
+        CandleSeries.Builder builder = CandleSeries.builder(10).priceScale(2);
+        for (int i = 0; i < 10; i++) {
+            long startTime = START + i * MINUTE + (i >= 5 ? 60 * MINUTE : 0);
+            builder.add(startTime, 100 + i, 100 + i, 100 + i, 100 + i, 1, 100 + i);
+        }
+
+        BacktestResult result = BacktestEngine.run(
+                afterThreeBars, SYMBOL, ExchangeInterval.ONE_MINUTE, builder.build(), PRECISION, 10_000);
+
+        assertEquals(1, result.gaps());
+        assertEquals(List.of(1, 2, 3, 1, 2, 3), seen);
+        assertEquals(2, result.trades().size());
+        BacktestTrade beforeHole = result.trades().getFirst();
+        assertEquals(BacktestTrade.ExitReason.DATA_GAP, beforeHole.exitReason());
+        assertEquals(START + 4 * MINUTE, beforeHole.exitTime());
+        assertEquals(104, beforeHole.exitPrice(), 0);
+        assertEquals(BacktestTrade.ExitReason.END_OF_DATA, result.trades().getLast().exitReason());
+    }
+
+    @Test
+    void takeProfitGappedThroughFillsAtItsPrice() {
+        CandleSeries candles = CandleSeries.builder(2)
+                .add(START, 100, 100, 100, 100, 1, 100)
+                .add(START + MINUTE, 120, 125, 119, 122, 1, 122)
+                .priceScale(2)
+                .build();
+
+        BacktestResult result = BacktestEngine.run(LONG_ONCE, SYMBOL, ExchangeInterval.ONE_MINUTE, candles, PRECISION, 10_000);
+
+        assertEquals(1, result.trades().size());
+        BacktestTrade trade = result.trades().getFirst();
+        assertEquals(BacktestTrade.ExitReason.TAKE_PROFIT, trade.exitReason());
+        assertEquals(110, trade.exitPrice(), 0);
+    }
+
+    @Test
+    void stopLossGappedThroughFillsAtTheOpen() {
+        CandleSeries candles = CandleSeries.builder(2)
+                .add(START, 100, 100, 100, 100, 1, 100)
+                .add(START + MINUTE, 80, 82, 78, 81, 1, 81)
+                .priceScale(2)
+                .build();
+
+        BacktestResult result = BacktestEngine.run(LONG_ONCE, SYMBOL, ExchangeInterval.ONE_MINUTE, candles, PRECISION, 10_000);
+
+        assertEquals(1, result.trades().size());
+        BacktestTrade trade = result.trades().getFirst();
+        assertEquals(BacktestTrade.ExitReason.STOP_LOSS, trade.exitReason());
+        assertEquals(80, trade.exitPrice(), 0);
+    }
+}
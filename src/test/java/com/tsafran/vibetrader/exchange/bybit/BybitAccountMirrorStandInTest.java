@@ -0,0 +1,145 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.ExchangeAccountType;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.TickGrid;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The private stream, mirror and reconciler together, against a stand-in whose REST answers take a while
+class BybitAccountMirrorStandInTest {
+    private static final String SYMBOL = "BTCUSDT";
+    private static final String LINEAR = "linear";
+
+    private StandInBybit bybit;
+    private BybitAccountMirror mirror;
+    private BybitPrivateStream stream;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Slow enough REST that a reconciliation is still running when the stream is back
+        bybit = new StandInBybit("--symbols=" + SYMBOL, "--latency-ms=300");
+        mirror = bybit.accountMirror;
+        stream = new BybitPrivateStream(
+                mirror,
+                bybit.accountReconciler,
+                new ObjectMapper(),
+                bybit.privateStreamUrl(),
+                true,
+                StandInBybit.API_KEY,
+                StandInBybit.API_KEY
+        );
+        stream.start();
+        StandInBybit.await(mirror::isLive, "the mirror is live");
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+        bybit.close();
+    }
+
+    @Test
+    void streamedOrdersOpenAndCloseTheMirror() throws Exception {
+        BigDecimal qty = placeWithTakeProfit();
+        StandInBybit.await(() -> mirror.hasOpenOrders(SYMBOL, LINEAR), "the take profit is mirrored");
+        assertTrue(bybit.exchange.hasOpenOrders(SYMBOL));
+
+        // The closing fill flattens the position, the take profit is cancelled with it
+        bybit.exchange.placeFuturesMarketOrder(
+                new FuturesMarketOrderRequest(SYMBOL, ExchangeCategory.LINEAR, ExchangeOrderSide.SHORT, qty, null, null)
+        );
+        StandInBybit.await(() -> !mirror.hasOpenOrders(SYMBOL, LINEAR), "the take profit is gone");
+        assertFalse(bybit.exchange.hasOpenOrders(SYMBOL));
+        // The order update comes first, the fill's execution and position follow it
+        StandInBybit.await(() -> mirror.getPositions().isEmpty(), "the position is flat");
+        StandInBybit.await(() -> mirror.getRecentExecutions().size() == 2, "both fills are mirrored");
+    }
+
+    @Test
+    void reconcileCorrectsInjectedDrift() throws Exception {
+        placeWithTakeProfit();
+        StandInBybit.await(() -> mirror.hasOpenOrders(SYMBOL, LINEAR), "the take profit is mirrored");
+        BybitAccountMirror.OpenOrder takeProfit = mirror.getOpenOrders().getFirst();
+        BigDecimal balance = mirror.getWalletBalance(ExchangeAccountType.UNIFIED);
+        long missed = System.currentTimeMillis() - 60_000;
+
+        // Updates the stream never delivered, or got wrong: the take profit seen cancelled, an order that does not
+        // exist, a wallet balance that is off
+        mirror.applyOrders(List.of(copy(takeProfit, takeProfit.orderId(), "Cancelled", missed)));
+        mirror.applyOrders(List.of(copy(takeProfit, "phantom", "New", missed)));
+        mirror.applyWallet(ExchangeAccountType.UNIFIED, balance.add(BigDecimal.TEN), missed);
+        long drifted = bybit.accountReconciler.getDriftedReconciliations();
+
+        bybit.accountReconciler.reconcile();
+
+        assertEquals(drifted + 1, bybit.accountReconciler.getDriftedReconciliations());
+        assertEquals(List.of(takeProfit.orderId()), mirror.getOpenOrders().stream().map(BybitAccountMirror.OpenOrder::orderId).toList());
+        assertEquals(0, balance.compareTo(mirror.getWalletBalance(ExchangeAccountType.UNIFIED)));
+        assertTrue(mirror.isLive());
+    }
+
+    @Test
+    void reconnectIsNotLiveUntilReconciled() throws Exception {
+        long reconciliations = bybit.accountReconciler.getReconciliations();
+
+        bybit.server.dropStreams();
+        StandInBybit.await(() -> !mirror.isStreaming(), "the drop is noticed");
+        assertFalse(mirror.isLive());
+
+        StandInBybit.await(mirror::isStreaming, "the stream is back");
+        // Subscribed again, but the reconciliation it started is still waiting on REST
+        assertFalse(mirror.isLive());
+        assertEquals(reconciliations, bybit.accountReconciler.getReconciliations());
+
+        StandInBybit.await(mirror::isLive, "the mirror is live again");
+        assertEquals(reconciliations + 1, bybit.accountReconciler.getReconciliations());
+    }
+
+    private BigDecimal placeWithTakeProfit() {
+        TickGrid grid = TickGrid.of(bybit.exchange.getInstrumentPrecision(SYMBOL));
+        double price = bybit.exchange.getCandles(SYMBOL, ExchangeCategory.LINEAR, ExchangeInterval.ONE_MINUTE, 1).close(0);
+        BigDecimal qty = grid.toQty(10);
+        BigDecimal takeProfit = grid.toPrice(grid.ticks(price * 1.05, RoundingMode.CEILING));
+        OrderPlacement placement = bybit.exchange.placeFuturesMarketOrder(
+                new FuturesMarketOrderRequest(SYMBOL, ExchangeCategory.LINEAR, ExchangeOrderSide.LONG, qty, takeProfit, null)
+        );
+        assertTrue(placement.takeProfit().isAccepted());
+        return qty;
+    }
+
+    private static BybitAccountMirror.OpenOrder copy(
+            BybitAccountMirror.OpenOrder order,
+            String orderId,
+            String status,
+            long updatedTime
+    ) {
+        return new BybitAccountMirror.OpenOrder(
+                orderId,
+                order.orderLinkId(),
+                order.symbol(),
+                order.category(),
+                order.side(),
+                order.orderType(),
+                status,
+                order.price(),
+                order.quantity(),
+                updatedTime
+        );
+    }
+}
@@ -0,0 +1,105 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.ExchangeOrderSide;
+import com.tsafran.vibetrader.exchange.FuturesMarketOrderRequest;
+import com.tsafran.vibetrader.exchange.OrderPlacement;
+import com.tsafran.vibetrader.exchange.TickGrid;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BybitExchangeStandInTest {
+    private static final String SYMBOL = "BTCUSDT";
+
+    private StandInBybit bybit;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bybit = new StandInBybit("--symbols=" + SYMBOL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bybit.close();
+    }
+
+    @Test
+    void candlesEndWithTheFormingBar() {
+        for (ExchangeInterval interval : new ExchangeInterval[]{ExchangeInterval.ONE_MINUTE, ExchangeInterval.ONE_HOUR}) {
+            long before = System.currentTimeMillis();
+            CandleSeries candles = bybit.exchange.getCandles(SYMBOL, ExchangeCategory.LINEAR, interval, 50);
+
+            assertEquals(50, candles.size());
+            for (int i = 1; i < candles.size(); i++) {
+                assertEquals(CandleResampler.nextBucketStart(candles.startTime(i - 1), interval), candles.startTime(i));
+            }
+            long last = candles.startTime(candles.size() - 1);
+            assertTrue(last >= CandleResampler.bucketStart(before, interval));
+            assertTrue(last <= System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    void takeProfitRestsUntilThePositionIsClosed() {
+        double price = lastPrice();
+        TickGrid grid = TickGrid.of(bybit.exchange.getInstrumentPrecision(SYMBOL));
+        BigDecimal qty = grid.toQty(10);
+        BigDecimal takeProfit = grid.toPrice(grid.ticks(price * 1.05, RoundingMode.CEILING));
+
+        OrderPlacement entry = bybit.exchange.placeFuturesMarketOrder(
+                new FuturesMarketOrderRequest(SYMBOL, ExchangeCategory.LINEAR, ExchangeOrderSide.LONG, qty, takeProfit, null)
+        );
+        assertTrue(entry.entry().isAccepted());
+        assertTrue(entry.takeProfit().isAccepted());
+        assertTrue(bybit.exchange.hasOpenOrders(SYMBOL));
+
+        // The closing fill flattens the position, which takes the reduce-only take profit with it
+        OrderPlacement exit = bybit.exchange.placeFuturesMarketOrder(
+                new FuturesMarketOrderRequest(SYMBOL, ExchangeCategory.LINEAR, ExchangeOrderSide.SHORT, qty, null, null)
+        );
+        assertTrue(exit.entry().isAccepted());
+        assertNull(exit.takeProfit());
+        assertFalse(bybit.exchange.hasOpenOrders(SYMBOL));
+    }
+
+    @Test
+    void rejectedEntryFailsWithBybitsCode() {
+        double price = lastPrice();
+        TickGrid grid = TickGrid.of(bybit.exchange.getInstrumentPrecision(SYMBOL));
+        BigDecimal stopAbovePrice = grid.toPrice(grid.ticks(price * 1.05, RoundingMode.CEILING));
+        FuturesMarketOrderRequest request = new FuturesMarketOrderRequest(
+                SYMBOL,
+                ExchangeCategory.LINEAR,
+                ExchangeOrderSide.LONG,
+                grid.toQty(10),
+                null,
+                stopAbovePrice
+        );
+
+        IllegalStateException rejected = assertThrows(
+                IllegalStateException.class,
+                () -> bybit.exchange.placeFuturesMarketOrder(request)
+        );
+        assertTrue(rejected.getMessage().contains("10001"));
+        assertFalse(bybit.exchange.hasOpenOrders(SYMBOL));
+    }
+
+    private double lastPrice() {
+        CandleSeries latest = bybit.exchange.getCandles(SYMBOL, ExchangeCategory.LINEAR, ExchangeInterval.ONE_MINUTE, 1);
+        return latest.close(latest.size() - 1);
+    }
+}
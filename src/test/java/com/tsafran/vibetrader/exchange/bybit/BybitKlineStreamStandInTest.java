@@ -0,0 +1,125 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeCategory;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The public kline stream against a stand-in replaying an archive a minute per second, so bars close quickly
+class BybitKlineStreamStandInTest {
+    private static final String SYMBOL = "BTCUSDT";
+    private static final ExchangeInterval ONE_MINUTE = ExchangeInterval.ONE_MINUTE;
+    private static final long MINUTE = 60_000L;
+    private static final long START = 1_700_000_040_000L;
+
+    private Path directory;
+    private CandleArchive recorded;
+    private StandInBybit bybit;
+    private BybitKlineStream stream;
+    private final List<Long> closes = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("kline-stream");
+        recorded = new CandleArchive(true, directory.toString());
+        CandleSeries.Builder bars = CandleSeries.builder(240).priceScale(2);
+        for (int i = 0; i < 240; i++) {
+            bars.add(START + i * MINUTE, 100 + i, 101 + i, 99 + i, 100.5 + i, 1, 100 + i);
+        }
+        recorded.append(SYMBOL, ONE_MINUTE, bars.build());
+
+        bybit = new StandInBybit(
+                "--archive=" + directory,
+                "--from=" + Instant.ofEpochMilli(START + 60 * MINUTE),
+                "--speed=60"
+        );
+        stream = new BybitKlineStream(
+                bybit.liveCandleStore,
+                new CandleArchive(false, "unused"),
+                new ObjectMapper(),
+                bybit.publicStreamUrl(),
+                false
+        );
+        stream.addCloseListener((symbol, interval, startTime) -> closes.add(startTime));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        stream.close();
+        bybit.close();
+        recorded.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void formingAndConfirmedBarsReachTheStore() throws Exception {
+        stream.subscribe(SYMBOL, ONE_MINUTE);
+        StandInBybit.await(() -> !closes.isEmpty(), "a bar is confirmed");
+
+        // Not served until REST has seeded the history, which the exchange does on the first read
+        assertNull(bybit.liveCandleStore.latest(SYMBOL, ONE_MINUTE, 5));
+        bybit.exchange.getCandles(SYMBOL, ExchangeCategory.LINEAR, ONE_MINUTE, 5);
+        int seen = closes.size();
+        StandInBybit.await(() -> closes.size() > seen, "another bar is confirmed");
+
+        long confirmed = closes.getLast();
+        CandleSeries live = bybit.liveCandleStore.latest(SYMBOL, ONE_MINUTE, 5);
+        assertNotNull(live);
+        int index = live.size() - 1;
+        while (live.startTime(index) != confirmed) {
+            index--;
+        }
+        // The confirmed bar as recorded, followed by the bar now forming
+        int minute = (int) ((confirmed - START) / MINUTE);
+        assertEquals(100.5 + minute, live.close(index), 1e-9);
+        assertEquals(101 + minute, live.high(index), 1e-9);
+        assertTrue(index < live.size() - 1);
+        assertEquals(confirmed + MINUTE, live.startTime(index + 1));
+    }
+
+    @Test
+    void refusedTopicIsDroppedAndReadOverRest() throws Exception {
+        stream.subscribe(SYMBOL, ONE_MINUTE);
+        StandInBybit.await(() -> !closes.isEmpty(), "the stream is up");
+
+        stream.subscribe("NOPEUSDT", ONE_MINUTE);
+        StandInBybit.await(() -> !bybit.liveCandleStore.isTracked("NOPEUSDT", ONE_MINUTE), "the topic is dropped");
+        assertEquals(List.of("kline.1." + SYMBOL), List.copyOf(stream.getTopics()));
+        assertTrue(bybit.liveCandleStore.isTracked(SYMBOL, ONE_MINUTE));
+    }
+
+    @Test
+    void resubscribesAfterTheServerDropsTheSocket() throws Exception {
+        stream.subscribe(SYMBOL, ONE_MINUTE);
+        StandInBybit.await(() -> !closes.isEmpty(), "the stream is up");
+
+        bybit.server.dropStreams();
+        StandInBybit.await(() -> !bybit.liveCandleStore.isLive(), "the drop is noticed");
+        int before = closes.size();
+
+        StandInBybit.await(() -> bybit.liveCandleStore.isLive(), "the stream is back");
+        StandInBybit.await(() -> closes.size() > before, "bars are confirmed again");
+        assertFalse(stream.getTopics().isEmpty());
+    }
+}
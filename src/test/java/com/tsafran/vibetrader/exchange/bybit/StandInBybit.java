@@ -0,0 +1,82 @@
+package com.tsafran.vibetrader.exchange.bybit;
+
+import com.bybit.api.client.service.BybitApiClientFactory;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.marketdata.CandleCache;
+import com.tsafran.vibetrader.marketdata.LiveCandleStore;
+import com.tsafran.vibetrader.standin.StandInOptions;
+import com.tsafran.vibetrader.standin.StandInServer;
+
+import java.io.IOException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// The Bybit clients wired by hand against a stand-in on free ports, the way BybitConfig and Spring would wire them
+final class StandInBybit implements AutoCloseable {
+    static final String API_KEY = "standin";
+    private static final long AWAIT_MILLIS = 10_000;
+
+    final StandInServer server;
+    final BybitDecodeMetrics decodeMetrics = new BybitDecodeMetrics();
+    final BybitRequestScheduler requestScheduler = new BybitRequestScheduler();
+    final BybitMarketDataClient marketDataClient;
+    final BybitAccountMirror accountMirror = new BybitAccountMirror();
+    final LiveCandleStore liveCandleStore = new LiveCandleStore(1000);
+    final BybitAccountReconciler accountReconciler;
+    final BybitExchange exchange;
+
+    StandInBybit(String... options) throws IOException {
+        String[] args = new String[options.length + 2];
+        args[0] = "--rest-port=0";
+        args[1] = "--ws-port=0";
+        System.arraycopy(options, 0, args, 2, options.length);
+        this.server = new StandInServer(StandInOptions.parse(args)).start();
+
+        String restUrl = "http://localhost:" + server.restPort();
+        BybitApiClientFactory clients = BybitApiClientFactory.newInstance(API_KEY, API_KEY, restUrl);
+        this.marketDataClient = new BybitMarketDataClient(decodeMetrics, requestScheduler, restUrl);
+        this.accountReconciler = new BybitAccountReconciler(
+                clients.newTradeRestClient(),
+                clients.newAccountRestClient(),
+                requestScheduler,
+                decodeMetrics,
+                accountMirror
+        );
+        this.exchange = new BybitExchange(
+                clients.newTradeRestClient(),
+                marketDataClient,
+                decodeMetrics,
+                requestScheduler,
+                liveCandleStore,
+                new CandleCache(new CandleArchive(false, "unused"), 30),
+                new BybitInstrumentRegistry(marketDataClient, requestScheduler, false),
+                accountMirror,
+                accountReconciler
+        );
+    }
+
+    String publicStreamUrl() {
+        return "ws://localhost:" + server.wsPort() + "/v5/public/linear";
+    }
+
+    String privateStreamUrl() {
+        return "ws://localhost:" + server.wsPort() + "/v5/private";
+    }
+
+    static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + AWAIT_MILLIS * 1_000_000;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting until " + what);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Override
+    public void close() {
+        requestScheduler.close();
+        server.close();
+    }
+}
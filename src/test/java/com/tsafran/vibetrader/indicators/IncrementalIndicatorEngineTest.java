@@ -0,0 +1,127 @@
+package com.tsafran.vibetrader.indicators;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalIndicatorEngineTest {
+    private static final long MINUTE = 60_000L;
+    private static final int ANCHOR_BARS = 64;
+    private static final List<IndicatorConfig> INDICATORS = List.of(
+            new IndicatorConfig(IndicatorType.EMA, 20, null, null, null, null, null, null),
+            new IndicatorConfig(IndicatorType.STOCH_RSI_K, null, null, null, null, 14, 14, 3),
+            new IndicatorConfig(IndicatorType.STOCH_RSI_K, null, null, null, null, 14, 10, 5)
+    );
+
+    @Test
+    void sameWindowGivesSameSeriesWhateverWasSeenBefore() {
+        CandleSeries history = candles(0, 400);
+        CandleSeries window = history.tail(200);
+
+        // Warmed on older and longer windows, then stepped bar by bar with a forming last bar
+        IncrementalIndicatorEngine warmed = new IncrementalIndicatorEngine(30, ANCHOR_BARS);
+        for (IndicatorConfig indicator : INDICATORS) {
+            warmed.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, history.head(150));
+            warmed.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, history.head(380));
+            for (int end = 381; end <= 400; end++) {
+                warmed.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, history.head(end).tail(200));
+            }
+        }
+        IncrementalIndicatorEngine fresh = new IncrementalIndicatorEngine(30, ANCHOR_BARS);
+
+        for (IndicatorConfig indicator : INDICATORS) {
+            IndicatorSeries expected = fresh.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, window);
+            IndicatorSeries actual = warmed.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, window);
+            assertArrayEquals(values(expected), values(actual), indicator.type().name());
+            assertEquals(expected.validFrom(), actual.validFrom(), indicator.type().name());
+        }
+    }
+
+    @Test
+    void revisedFormingBarMatchesFreshComputation() {
+        CandleSeries history = candles(0, 100);
+        IncrementalIndicatorEngine engine = new IncrementalIndicatorEngine(30, ANCHOR_BARS);
+        IndicatorConfig indicator = INDICATORS.getFirst();
+        IndicatorSeries before = engine.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, history);
+        double[] seen = values(before);
+
+        CandleSeries.Builder builder = CandleSeries.builder(100).priceScale(2);
+        for (int i = 0; i < history.size(); i++) {
+            double close = i == history.size() - 1 ? history.close(i) + 5 : history.close(i);
+            builder.add(history.startTime(i), history.open(i), history.high(i), history.low(i), close, 1, close);
+        }
+        CandleSeries window = builder.build();
+
+        assertArrayEquals(
+                values(new IncrementalIndicatorEngine(30, ANCHOR_BARS)
+                        .series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, window)),
+                values(engine.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, window))
+        );
+        // The series handed out before the revision still shows the bar as it was
+        assertArrayEquals(seen, values(before));
+    }
+
+    @Test
+    void configsSharingNodesMatchEachComputedAlone() {
+        CandleSeries history = candles(0, 300);
+        IncrementalIndicatorEngine shared = new IncrementalIndicatorEngine(30, ANCHOR_BARS);
+        // A config joins a state that is already running, then all of them follow new bars together
+        shared.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, INDICATORS.subList(0, 2), history.head(250));
+        shared.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, INDICATORS, history.head(280));
+        List<IndicatorSeries> together = shared.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, INDICATORS, history);
+
+        assertEquals(1, shared.size());
+        for (int i = 0; i < INDICATORS.size(); i++) {
+            IndicatorSeries alone = new IncrementalIndicatorEngine(30, ANCHOR_BARS)
+                    .series("BTCUSDT", ExchangeInterval.ONE_MINUTE, INDICATORS.get(i), history);
+            assertArrayEquals(values(alone), values(together.get(i)), INDICATORS.get(i).toString());
+        }
+    }
+
+    @Test
+    void slidingWindowPushesOnlyTheNewBar() {
+        CandleSeries history = candles(0, 400);
+        IncrementalIndicatorEngine engine = new IncrementalIndicatorEngine(30, ANCHOR_BARS);
+        IndicatorConfig indicator = INDICATORS.getFirst();
+        // Starts at bar 100, anchored at bar 128 until the window's first bar reaches it
+        engine.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, history.head(300).tail(200));
+
+        for (int end = 301; end < 328; end++) {
+            long pushes = engine.pushes();
+            CandleSeries window = history.head(end).tail(200);
+            IndicatorSeries slid = engine.series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, window);
+
+            assertEquals(pushes + 1, engine.pushes(), "close " + end);
+            assertArrayEquals(
+                    values(new IncrementalIndicatorEngine(30, ANCHOR_BARS)
+                            .series("BTCUSDT", ExchangeInterval.ONE_MINUTE, indicator, window)),
+                    values(slid),
+                    "close " + end
+            );
+        }
+    }
+
+    private static double[] values(IndicatorSeries series) {
+        double[] values = new double[series.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = series.value(i);
+        }
+        return values;
+    }
+
+    private static CandleSeries candles(long first, int count) {
+        CandleSeries.Builder builder = CandleSeries.builder(count).priceScale(2);
+        double price = 100;
+        for (int i = 0; i < count; i++) {
+            double next = price + Math.sin(i * 0.37) * 2 + Math.cos(i * 0.11);
+            builder.add(first + i * MINUTE, price, Math.max(price, next) + 1, Math.min(price, next) - 1, next, 1, next);
+            price = next;
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CandleArchiveTest {
+    private static final String SYMBOL = "BTCUSDT";
+    private static final ExchangeInterval INTERVAL = ExchangeInterval.ONE_MINUTE;
+    private static final long MINUTE = 60_000L;
+    private static final long START = 1_700_000_040_000L;
+
+    private Path directory;
+    private CandleArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("candle-archive");
+        archive = new CandleArchive(true, directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        archive.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void appendSkipsBarsOlderThanTheLastOne() {
+        assertEquals(5, archive.append(SYMBOL, INTERVAL, bars(10, 15)));
+        assertEquals(0, archive.append(SYMBOL, INTERVAL, bars(0, 10)));
+        assertEquals(5, archive.size(SYMBOL, INTERVAL));
+    }
+
+    @Test
+    void mergeFillsOlderRangesAndHoles() {
+        archive.append(SYMBOL, INTERVAL, bars(10, 15));
+        archive.append(SYMBOL, INTERVAL, bars(20, 25));
+        ArchivedCandles before = archive.range(SYMBOL, INTERVAL, START, START + 100 * MINUTE);
+
+        // Overlaps both ends of the first run, the archived bars are kept
+        assertEquals(15, archive.merge(SYMBOL, INTERVAL, bars(0, 22)));
+        assertEquals(25, archive.size(SYMBOL, INTERVAL));
+
+        CandleSeries merged = archive.range(SYMBOL, INTERVAL, START, START + 100 * MINUTE).toCandleSeries();
+        for (int i = 0; i < merged.size(); i++) {
+            assertEquals(START + i * MINUTE, merged.startTime(i));
+            assertEquals(100 + i, merged.close(i), 0);
+        }
+        // A view taken before the merge still reads what it was given
+        assertEquals(10, before.size());
+        assertEquals(START + 10 * MINUTE, before.startTime(0));
+
+        // Appends go to the merged file, and it survives a reopen
+        assertEquals(1, archive.append(SYMBOL, INTERVAL, bars(25, 26)));
+        archive.close();
+        archive = new CandleArchive(true, directory.toString());
+        assertEquals(26, archive.size(SYMBOL, INTERVAL));
+        assertEquals(START + 25 * MINUTE, archive.latest(SYMBOL, INTERVAL, 1).startTime(0));
+    }
+
+    private static CandleSeries bars(int from, int to) {
+        CandleSeries.Builder builder = CandleSeries.builder(to - from).priceScale(2);
+        for (int i = from; i < to; i++) {
+            builder.add(START + i * MINUTE, 100 + i, 100 + i, 100 + i, 100 + i, 1, 100 + i);
+        }
+        return builder.build();
+    }
+}
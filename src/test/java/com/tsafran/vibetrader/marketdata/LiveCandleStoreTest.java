@@ -0,0 +1,92 @@
+package com.tsafran.vibetrader.marketdata;
+
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LiveCandleStoreTest {
+    private static final String SYMBOL = "BTCUSDT";
+    private static final long MINUTE = 60_000L;
+    // Starts on a 5m boundary
+    private static final long BUCKET = 1_700_000_100_000L;
+
+    @Test
+    void bucketJoinedMidWayAddsVolumeStreamedAfterTheSeed() {
+        LiveCandleStore store = new LiveCandleStore(100);
+        store.trackResampled(SYMBOL, ExchangeInterval.FIVE_MINUTES);
+
+        // Two reconnects in one bucket, each joins it mid-way again
+        for (int session = 0; session < 2; session++) {
+            long forming = BUCKET + (2 + session) * MINUTE;
+            store.setLive(true);
+            store.apply(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(forming, 101, 3, 30));
+            // REST has the bucket up to now, including the forming 1m bar's first 3
+            store.seed(SYMBOL, ExchangeInterval.FIVE_MINUTES, bar(BUCKET, 100, 10, 100));
+
+            store.apply(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(forming, 102, 5, 50));
+            store.apply(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(forming + MINUTE, 103, 4, 40));
+
+            CandleSeries latest = store.latest(SYMBOL, ExchangeInterval.FIVE_MINUTES, 1);
+            assertEquals(BUCKET, latest.startTime(0));
+            assertEquals(103, latest.close(0), 0);
+            assertEquals(10 + 2 + 4, latest.volume(0), 1e-9);
+            assertEquals(100 + 20 + 40, latest.turnover(0), 1e-9);
+
+            store.setLive(false);
+            assertNull(store.latest(SYMBOL, ExchangeInterval.FIVE_MINUTES, 1));
+        }
+    }
+
+    @Test
+    void bucketStreamedFromItsStartSumsTheBaseBars() {
+        LiveCandleStore store = new LiveCandleStore(100);
+        store.trackResampled(SYMBOL, ExchangeInterval.FIVE_MINUTES);
+        store.setLive(true);
+        store.seed(SYMBOL, ExchangeInterval.FIVE_MINUTES, bar(BUCKET - 5 * MINUTE, 99, 50, 500));
+
+        for (int minute = 0; minute < 3; minute++) {
+            store.apply(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(BUCKET + minute * MINUTE, 100 + minute, 2, 20));
+        }
+
+        CandleSeries latest = store.latest(SYMBOL, ExchangeInterval.FIVE_MINUTES, 2);
+        assertEquals(BUCKET, latest.startTime(1));
+        assertEquals(6, latest.volume(1), 1e-9);
+        assertEquals(60, latest.turnover(1), 1e-9);
+    }
+
+    @Test
+    void setsTheStreamStoppedFeedingFallBackToRest() {
+        LiveCandleStore store = new LiveCandleStore(100);
+        store.track(SYMBOL, ExchangeInterval.ONE_MINUTE);
+        store.trackResampled(SYMBOL, ExchangeInterval.FIVE_MINUTES);
+        store.setLive(true);
+        store.seed(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(BUCKET, 100, 1, 10));
+        store.seed(SYMBOL, ExchangeInterval.FIVE_MINUTES, bar(BUCKET, 100, 1, 10));
+
+        // Seeded from REST but never pushed to
+        assertNull(store.latest(SYMBOL, ExchangeInterval.ONE_MINUTE, 1));
+
+        long pushedAt = System.currentTimeMillis();
+        store.apply(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(BUCKET + MINUTE, 101, 1, 10));
+        assertEquals(101, store.latest(SYMBOL, ExchangeInterval.ONE_MINUTE, 1).close(0), 0);
+        assertEquals(101, store.latest(SYMBOL, ExchangeInterval.FIVE_MINUTES, 1).close(0), 0);
+
+        // Both are fed by the 1m topic, so both go stale a minute after its last push
+        long quiet = pushedAt + 2 * MINUTE;
+        assertNull(store.latest(SYMBOL, ExchangeInterval.ONE_MINUTE, 1, quiet));
+        assertNull(store.latest(SYMBOL, ExchangeInterval.FIVE_MINUTES, 1, quiet));
+
+        store.invalidate(SYMBOL, ExchangeInterval.ONE_MINUTE);
+        assertNull(store.latest(SYMBOL, ExchangeInterval.ONE_MINUTE, 1));
+    }
+
+    private static CandleSeries bar(long startTime, double close, double volume, double turnover) {
+        return CandleSeries.builder(1)
+                .add(startTime, close, close, close, close, volume, turnover)
+                .priceScale(2)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package com.tsafran.vibetrader.trade;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tsafran.vibetrader.exchange.CandleSeries;
+import com.tsafran.vibetrader.exchange.ExchangeInterval;
+import com.tsafran.vibetrader.exchange.bybit.BybitDecodeMetrics;
+import com.tsafran.vibetrader.exchange.bybit.BybitKlineStream;
+import com.tsafran.vibetrader.exchange.bybit.BybitMarketDataClient;
+import com.tsafran.vibetrader.exchange.bybit.BybitRequestScheduler;
+import com.tsafran.vibetrader.exchange.bybit.BybitServerClock;
+import com.tsafran.vibetrader.marketdata.CandleArchive;
+import com.tsafran.vibetrader.marketdata.CandleResampler;
+import com.tsafran.vibetrader.marketdata.LiveCandleStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CandleCloseTriggerTest {
+    private static final String SYMBOL = "BTCUSDT";
+    private static final int JOBS = 8;
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final BybitRequestScheduler requestScheduler = new BybitRequestScheduler();
+    private final LiveCandleStore store = new LiveCandleStore(100);
+    private CandleCloseTrigger trigger;
+
+    @BeforeEach
+    void setUp() {
+        // Fewer scheduler threads than jobs on a close
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        // Already streamed, so the trigger does not subscribe anything
+        store.track(SYMBOL, ExchangeInterval.ONE_MINUTE);
+        // Nothing listens there, the clock keeps a zero offset
+        BybitMarketDataClient marketDataClient = new BybitMarketDataClient(
+                new BybitDecodeMetrics(),
+                requestScheduler,
+                "http://localhost:1"
+        );
+        trigger = new CandleCloseTrigger(
+                scheduler,
+                new BybitKlineStream(store, new CandleArchive(false, "unused"), new ObjectMapper(), "ws://localhost:1", false),
+                store,
+                new BybitServerClock(marketDataClient, 10),
+                "stream",
+                0,
+                60_000
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        trigger.close();
+        scheduler.shutdown();
+        requestScheduler.close();
+    }
+
+    @Test
+    void jobsOnOneCloseRunAtTheSameTime() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(JOBS);
+        CountDownLatch finished = new CountDownLatch(JOBS);
+        AtomicInteger overlapped = new AtomicInteger();
+        for (int i = 0; i < JOBS; i++) {
+            trigger.schedule(SYMBOL, ExchangeInterval.ONE_MINUTE, closeTime -> {
+                // Stands in for a job waiting on Bybit, it only returns early if every other job is waiting too
+                started.countDown();
+                try {
+                    if (started.await(5, TimeUnit.SECONDS)) {
+                        overlapped.incrementAndGet();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.countDown();
+            });
+        }
+
+        long closed = CandleResampler.bucketStart(System.currentTimeMillis(), ExchangeInterval.ONE_MINUTE) - 60_000;
+        trigger.onClose(SYMBOL, ExchangeInterval.ONE_MINUTE, closed);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(JOBS, overlapped.get());
+    }
+
+    @Test
+    void clockFallbackDoesNotServeTheStreamedBar() throws Exception {
+        long forming = CandleResampler.bucketStart(System.currentTimeMillis(), ExchangeInterval.ONE_MINUTE);
+        store.setLive(true);
+        store.seed(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(forming - 60_000));
+        store.apply(SYMBOL, ExchangeInterval.ONE_MINUTE, bar(forming));
+        assertNotNull(store.latest(SYMBOL, ExchangeInterval.ONE_MINUTE, 1));
+
+        // The next close plus the fallback is already past, so its timer fires without a stream close
+        scheduler.setClock(Clock.offset(Clock.systemUTC(), Duration.ofMinutes(2).plusSeconds(1)));
+        CompletableFuture<CandleSeries> read = new CompletableFuture<>();
+        ScheduledJob job = trigger.schedule(
+                SYMBOL,
+                ExchangeInterval.ONE_MINUTE,
+                closeTime -> read.complete(store.latest(SYMBOL, ExchangeInterval.ONE_MINUTE, 1))
+        );
+        try {
+            assertNull(read.get(10, TimeUnit.SECONDS));
+        } finally {
+            job.cancel();
+        }
+    }
+
+    private static CandleSeries bar(long startTime) {
+        return CandleSeries.builder(1)
+                .add(startTime, 100, 100, 100, 100, 1, 100)
+                .priceScale(2)
+                .build();
+    }
+}